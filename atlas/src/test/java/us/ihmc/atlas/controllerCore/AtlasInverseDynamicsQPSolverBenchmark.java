@@ -0,0 +1,67 @@
+package us.ihmc.atlas.controllerCore;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import us.ihmc.atlas.AtlasRobotModel;
+import us.ihmc.atlas.AtlasRobotVersion;
+import us.ihmc.avatar.controllerCore.AvatarInverseDynamicsQPSolverBenchmark;
+import us.ihmc.avatar.drcRobot.DRCRobotModel;
+import us.ihmc.avatar.drcRobot.RobotTarget;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class AtlasInverseDynamicsQPSolverBenchmark extends AvatarInverseDynamicsQPSolverBenchmark
+{
+   private final DRCRobotModel robotModel = new AtlasRobotModel(AtlasRobotVersion.ATLAS_UNPLUGGED_V5_NO_HANDS, RobotTarget.SCS, false);
+
+   /** Whether the motion tasks are assembled over the non-zero Jacobian blocks or densely. */
+   @Param({"true", "false"})
+   public boolean useBlockSparseMotionTasks;
+
+   @Setup(Level.Trial)
+   public void setup()
+   {
+      super.setup(useBlockSparseMotionTasks);
+   }
+
+   @Override
+   @Benchmark
+   public void assembleMotionTasks()
+   {
+      super.assembleMotionTasks();
+   }
+
+   @Override
+   public DRCRobotModel getRobotModel()
+   {
+      return robotModel;
+   }
+
+   public static void main(String[] args) throws RunnerException
+   {
+      Options options = new OptionsBuilder().include(AtlasInverseDynamicsQPSolverBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build();
+      new Runner(options).run();
+   }
+}
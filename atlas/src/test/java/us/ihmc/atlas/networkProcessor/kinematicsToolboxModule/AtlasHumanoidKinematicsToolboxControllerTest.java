@@ -35,6 +35,12 @@ public class AtlasHumanoidKinematicsToolboxControllerTest extends AvatarHumanoid
       super.testSingleSupport();
    }
 
+   @Override
+   public void testBatchSolver() throws Exception
+   {
+      super.testBatchSolver();
+   }
+
    @Override
    public DRCRobotModel getRobotModel()
    {
@@ -164,6 +164,14 @@ public class AtlasWholeBodyTrajectoryToolboxControllerTest extends AvatarWholeBo
       super.testOneBigCircle();
    }
 
+   @Override
+   @ContinuousIntegrationAnnotations.ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 120000)
+   public void testPlanningIsReproducible() throws Exception
+   {
+      super.testPlanningIsReproducible();
+   }
+
    @Override
    @ContinuousIntegrationAnnotations.ContinuousIntegrationTest(estimatedDuration = 0.0)
    @Test(timeout = 120000)
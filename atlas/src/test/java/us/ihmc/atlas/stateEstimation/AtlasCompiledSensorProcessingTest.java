@@ -0,0 +1,160 @@
+package us.ihmc.atlas.stateEstimation;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+
+import org.ejml.data.DenseMatrix64F;
+import org.junit.Test;
+
+import us.ihmc.atlas.AtlasRobotModel;
+import us.ihmc.atlas.AtlasRobotVersion;
+import us.ihmc.atlas.parameters.AtlasSensorInformation;
+import us.ihmc.atlas.parameters.AtlasStateEstimatorParameters;
+import us.ihmc.avatar.drcRobot.RobotTarget;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.euclid.tuple4D.Quaternion;
+import us.ihmc.robotModels.FullHumanoidRobotModel;
+import us.ihmc.robotics.screwTheory.OneDoFJoint;
+import us.ihmc.robotics.screwTheory.Wrench;
+import us.ihmc.robotics.sensors.ForceSensorDefinition;
+import us.ihmc.robotics.sensors.IMUDefinition;
+import us.ihmc.sensorProcessing.sensorProcessors.SensorProcessing;
+import us.ihmc.sensorProcessing.simulatedSensors.StateEstimatorSensorDefinitions;
+import us.ihmc.sensorProcessing.stateEstimation.IMUSensorReadOnly;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+
+/**
+ * Compares the compiled processing of {@link SensorProcessing} against the map based one on the
+ * Atlas sensor configuration, with all the processing stages used on the real robot. The timing of
+ * both is measured by {@link AtlasSensorProcessingBenchmark}.
+ */
+public class AtlasCompiledSensorProcessingTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 2.0)
+   @Test(timeout = 30000)
+   public void testCompiledAgainstMapBasedProcessing()
+   {
+      AtlasRobotModel robotModel = createRobotModel();
+      StateEstimatorSensorDefinitions sensorDefinitions = createSensorDefinitions(robotModel);
+
+      SensorProcessing compiledProcessing = createSensorProcessing(robotModel, sensorDefinitions);
+      SensorProcessing legacyProcessing = createSensorProcessing(robotModel, sensorDefinitions);
+      legacyProcessing.setUseCompiledProcessing(false);
+
+      Random random = new Random(3466L);
+
+      for (int tick = 0; tick < 1000; tick++)
+      {
+         setRandomSensorValues(random, sensorDefinitions, compiledProcessing, legacyProcessing);
+         compiledProcessing.startComputation(tick, tick, -1);
+         legacyProcessing.startComputation(tick, tick, -1);
+         assertOutputsEqual(sensorDefinitions, compiledProcessing, legacyProcessing);
+      }
+   }
+
+   static AtlasRobotModel createRobotModel()
+   {
+      return new AtlasRobotModel(AtlasRobotVersion.ATLAS_UNPLUGGED_V5_NO_HANDS, RobotTarget.SCS, false);
+   }
+
+   static StateEstimatorSensorDefinitions createSensorDefinitions(AtlasRobotModel robotModel)
+   {
+      FullHumanoidRobotModel fullRobotModel = robotModel.createFullRobotModel();
+
+      StateEstimatorSensorDefinitions sensorDefinitions = new StateEstimatorSensorDefinitions();
+      sensorDefinitions.addJointSensorDefinitions(fullRobotModel.getOneDoFJoints());
+      sensorDefinitions.addIMUSensorDefinition(fullRobotModel.getIMUDefinitions());
+      for (ForceSensorDefinition forceSensorDefinition : fullRobotModel.getForceSensorDefinitions())
+         sensorDefinitions.addForceSensorDefinition(forceSensorDefinition);
+      return sensorDefinitions;
+   }
+
+   static SensorProcessing createSensorProcessing(AtlasRobotModel robotModel, StateEstimatorSensorDefinitions sensorDefinitions)
+   {
+      AtlasSensorInformation sensorInformation = (AtlasSensorInformation) robotModel.getSensorInformation();
+      AtlasStateEstimatorParameters realRobotParameters = new AtlasStateEstimatorParameters(robotModel.getJointMap(), sensorInformation, true,
+                                                                                            robotModel.getEstimatorDT());
+      return new SensorProcessing(sensorDefinitions, realRobotParameters, new YoVariableRegistry("root"));
+   }
+
+   static void setRandomSensorValues(Random random, StateEstimatorSensorDefinitions sensorDefinitions, SensorProcessing... sensorProcessings)
+   {
+      DenseMatrix64F wrench = new DenseMatrix64F(Wrench.SIZE, 1);
+
+      for (OneDoFJoint joint : sensorDefinitions.getJointSensorDefinitions())
+      {
+         double q = random.nextDouble();
+         double qd = random.nextDouble();
+         double qdd = random.nextDouble();
+         double tau = 100.0 * random.nextDouble();
+
+         for (SensorProcessing sensorProcessing : sensorProcessings)
+         {
+            sensorProcessing.setJointPositionSensorValue(joint, q);
+            sensorProcessing.setJointVelocitySensorValue(joint, qd);
+            sensorProcessing.setJointAccelerationSensorValue(joint, qdd);
+            sensorProcessing.setJointTauSensorValue(joint, tau);
+         }
+      }
+
+      for (IMUDefinition imuDefinition : sensorDefinitions.getIMUSensorDefinitions())
+      {
+         Quaternion orientation = EuclidCoreRandomTools.nextQuaternion(random);
+         Vector3D angularVelocity = EuclidCoreRandomTools.nextVector3D(random);
+         Vector3D linearAcceleration = EuclidCoreRandomTools.nextVector3D(random);
+
+         for (SensorProcessing sensorProcessing : sensorProcessings)
+         {
+            sensorProcessing.setOrientationSensorValue(imuDefinition, orientation);
+            sensorProcessing.setAngularVelocitySensorValue(imuDefinition, angularVelocity);
+            sensorProcessing.setLinearAccelerationSensorValue(imuDefinition, linearAcceleration);
+         }
+      }
+
+      for (ForceSensorDefinition forceSensorDefinition : sensorDefinitions.getForceSensorDefinitions())
+      {
+         for (int i = 0; i < wrench.getNumRows(); i++)
+            wrench.set(i, 0, random.nextDouble());
+
+         for (SensorProcessing sensorProcessing : sensorProcessings)
+            sensorProcessing.setForceSensorValue(forceSensorDefinition, wrench);
+      }
+   }
+
+   private static void assertOutputsEqual(StateEstimatorSensorDefinitions sensorDefinitions, SensorProcessing expected, SensorProcessing actual)
+   {
+      for (OneDoFJoint joint : sensorDefinitions.getJointSensorDefinitions())
+      {
+         assertEquals(expected.getJointPositionProcessedOutput(joint), actual.getJointPositionProcessedOutput(joint), 0.0);
+         assertEquals(expected.getJointVelocityProcessedOutput(joint), actual.getJointVelocityProcessedOutput(joint), 0.0);
+         assertEquals(expected.getJointAccelerationProcessedOutput(joint), actual.getJointAccelerationProcessedOutput(joint), 0.0);
+         assertEquals(expected.getJointTauProcessedOutput(joint), actual.getJointTauProcessedOutput(joint), 0.0);
+      }
+
+      List<? extends IMUSensorReadOnly> expectedIMUs = expected.getIMUProcessedOutputs();
+      List<? extends IMUSensorReadOnly> actualIMUs = actual.getIMUProcessedOutputs();
+
+      for (int i = 0; i < expectedIMUs.size(); i++)
+      {
+         assertEquals(expectedIMUs.get(i).getOrientationMeasurement(), actualIMUs.get(i).getOrientationMeasurement());
+         assertEquals(expectedIMUs.get(i).getAngularVelocityMeasurement(), actualIMUs.get(i).getAngularVelocityMeasurement());
+         assertEquals(expectedIMUs.get(i).getLinearAccelerationMeasurement(), actualIMUs.get(i).getLinearAccelerationMeasurement());
+      }
+
+      DenseMatrix64F expectedWrench = new DenseMatrix64F(Wrench.SIZE, 1);
+      DenseMatrix64F actualWrench = new DenseMatrix64F(Wrench.SIZE, 1);
+
+      for (ForceSensorDefinition forceSensorDefinition : sensorDefinitions.getForceSensorDefinitions())
+      {
+         expected.getForceSensorProcessedOutputs().getForceSensorValue(forceSensorDefinition, expectedWrench);
+         actual.getForceSensorProcessedOutputs().getForceSensorValue(forceSensorDefinition, actualWrench);
+
+         for (int i = 0; i < Wrench.SIZE; i++)
+            assertEquals(expectedWrench.get(i, 0), actualWrench.get(i, 0), 0.0);
+      }
+   }
+}
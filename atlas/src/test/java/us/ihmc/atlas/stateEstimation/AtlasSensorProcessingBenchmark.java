@@ -0,0 +1,75 @@
+package us.ihmc.atlas.stateEstimation;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import us.ihmc.atlas.AtlasRobotModel;
+import us.ihmc.robotics.screwTheory.OneDoFJoint;
+import us.ihmc.sensorProcessing.sensorProcessors.SensorProcessing;
+import us.ihmc.sensorProcessing.simulatedSensors.StateEstimatorSensorDefinitions;
+
+/**
+ * Measures the time spent by {@link SensorProcessing} to process one tick of the Atlas sensors,
+ * with the compiled and the map based processing. Run the main method to also get the allocation
+ * rate of each.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class AtlasSensorProcessingBenchmark
+{
+   /** Whether the processing stages are run from the compiled arrays or from the maps. */
+   @Param({"true", "false"})
+   public boolean useCompiledProcessing;
+
+   private SensorProcessing sensorProcessing;
+   private OneDoFJoint firstJoint;
+   private long tick = 0;
+
+   @Setup(Level.Trial)
+   public void setup()
+   {
+      AtlasRobotModel robotModel = AtlasCompiledSensorProcessingTest.createRobotModel();
+      StateEstimatorSensorDefinitions sensorDefinitions = AtlasCompiledSensorProcessingTest.createSensorDefinitions(robotModel);
+
+      sensorProcessing = AtlasCompiledSensorProcessingTest.createSensorProcessing(robotModel, sensorDefinitions);
+      sensorProcessing.setUseCompiledProcessing(useCompiledProcessing);
+      AtlasCompiledSensorProcessingTest.setRandomSensorValues(new Random(3466L), sensorDefinitions, sensorProcessing);
+      firstJoint = sensorDefinitions.getJointSensorDefinitions().get(0);
+   }
+
+   @Benchmark
+   public double startComputation()
+   {
+      tick++;
+      sensorProcessing.startComputation(tick, tick, -1);
+      return sensorProcessing.getJointPositionProcessedOutput(firstJoint);
+   }
+
+   public static void main(String[] args) throws RunnerException
+   {
+      Options options = new OptionsBuilder().include(AtlasSensorProcessingBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build();
+      new Runner(options).run();
+   }
+}
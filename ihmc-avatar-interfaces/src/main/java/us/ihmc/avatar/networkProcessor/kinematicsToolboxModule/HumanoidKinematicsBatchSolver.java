@@ -0,0 +1,230 @@
+package us.ihmc.avatar.networkProcessor.kinematicsToolboxModule;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import controller_msgs.msg.dds.KinematicsToolboxOutputStatus;
+import us.ihmc.robotModels.FullHumanoidRobotModelFactory;
+
+/**
+ * Solves many independent whole-body inverse kinematics problems using a
+ * {@link HumanoidKinematicsSolverPool}.
+ * <p>
+ * Each query is started from the solution of the closest query, as given by
+ * {@link HumanoidKinematicsQuery#distance(HumanoidKinematicsQuery)}, among the queries this solver
+ * has already solved successfully. The queries without such neighbor start from the configuration
+ * given with {@link #setInitialConfiguration(KinematicsToolboxOutputStatus)}. As the queries are
+ * given to the solvers as they become available, the solution a query starts from depends on the
+ * order the previous queries finished.
+ * </p>
+ * <p>
+ * Only the most recent solved queries are kept, such that looking for the closest one remains
+ * cheap whatever the number of queries solved. The solvers look for it concurrently, and only
+ * wait for each other when a solved query is added.
+ * </p>
+ */
+public class HumanoidKinematicsBatchSolver
+{
+   public static final int DEFAULT_MAXIMUM_NUMBER_OF_SOLVED_QUERIES = 500;
+
+   private final HumanoidKinematicsSolverPool solverPool;
+
+   private KinematicsToolboxOutputStatus initialConfiguration = null;
+
+   /*
+    * Ring buffer of the most recent solved queries and their solution, accessed by all the solvers
+    * and guarded by solvedQueriesLock. The entries are replaced, never modified, such that a
+    * solution can be used after releasing the lock.
+    */
+   private final ReadWriteLock solvedQueriesLock = new ReentrantReadWriteLock();
+   private final HumanoidKinematicsQuery[] solvedQueries;
+   private final KinematicsToolboxOutputStatus[] solvedConfigurations;
+   private int numberOfSolvedQueries = 0;
+   private int oldestSolvedQueryIndex = 0;
+
+   public HumanoidKinematicsBatchSolver(FullHumanoidRobotModelFactory fullRobotModelFactory, int numberOfSolvers)
+   {
+      this(fullRobotModelFactory, numberOfSolvers, DEFAULT_MAXIMUM_NUMBER_OF_SOLVED_QUERIES);
+   }
+
+   /**
+    * @param maximumNumberOfSolvedQueries the number of solved queries kept to start the next queries
+    *           from. When reached, the oldest solved query is forgotten.
+    */
+   public HumanoidKinematicsBatchSolver(FullHumanoidRobotModelFactory fullRobotModelFactory, int numberOfSolvers, int maximumNumberOfSolvedQueries)
+   {
+      if (maximumNumberOfSolvedQueries < 1)
+         throw new RuntimeException("The maximum number of solved queries has to be at least 1, was: " + maximumNumberOfSolvedQueries);
+
+      solverPool = new HumanoidKinematicsSolverPool(fullRobotModelFactory, numberOfSolvers, getClass().getSimpleName());
+      solvedQueries = new HumanoidKinematicsQuery[maximumNumberOfSolvedQueries];
+      solvedConfigurations = new KinematicsToolboxOutputStatus[maximumNumberOfSolvedQueries];
+   }
+
+   /**
+    * Sets the configuration to start from for the queries that have no solved neighbor.
+    */
+   public void setInitialConfiguration(KinematicsToolboxOutputStatus initialConfiguration)
+   {
+      this.initialConfiguration = new KinematicsToolboxOutputStatus(initialConfiguration);
+   }
+
+   /**
+    * Forgets the queries solved so far, such that the next queries do not start from their
+    * solution.
+    */
+   public void clearSolvedQueries()
+   {
+      solvedQueriesLock.writeLock().lock();
+
+      try
+      {
+         for (int i = 0; i < solvedQueries.length; i++)
+         {
+            solvedQueries[i] = null;
+            solvedConfigurations[i] = null;
+         }
+         numberOfSolvedQueries = 0;
+         oldestSolvedQueryIndex = 0;
+      }
+      finally
+      {
+         solvedQueriesLock.writeLock().unlock();
+      }
+   }
+
+   /**
+    * Solves the given queries and returns once all of them are solved.
+    * <p>
+    * The solutions are reported to the {@code listener} one at a time as soon as they are
+    * available, not necessarily in the order of the queries.
+    * </p>
+    *
+    * @param queries the problems to solve. Not modified.
+    * @param listener notified of the solution of each query. Can be {@code null}.
+    */
+   public void solve(List<HumanoidKinematicsQuery> queries, HumanoidKinematicsBatchSolverListener listener) throws InterruptedException, ExecutionException
+   {
+      if (initialConfiguration == null)
+         throw new RuntimeException("The initial configuration has to be set before solving.");
+
+      AtomicInteger nextQueryIndex = new AtomicInteger(0);
+      solverPool.run(queries.size(), (solverIndex, solver) -> solveQueries(solver, queries, nextQueryIndex, listener));
+   }
+
+   private void solveQueries(HumanoidKinematicsSolver solver, List<HumanoidKinematicsQuery> queries, AtomicInteger nextQueryIndex,
+                             HumanoidKinematicsBatchSolverListener listener)
+   {
+      int queryIndex;
+
+      while ((queryIndex = nextQueryIndex.getAndIncrement()) < queries.size())
+      {
+         HumanoidKinematicsQuery query = queries.get(queryIndex);
+
+         solver.setInitialConfiguration(findClosestSolvedConfiguration(query));
+         solver.initialize();
+         solver.submit(query.getRigidBodyMessages());
+         if (query.getCenterOfMassMessage() != null)
+            solver.submit(query.getCenterOfMassMessage());
+
+         boolean hasConverged = solver.solve();
+         KinematicsToolboxOutputStatus solution = new KinematicsToolboxOutputStatus(solver.getSolution());
+
+         if (hasConverged)
+            addSolvedQuery(new HumanoidKinematicsQuery(query), new KinematicsToolboxOutputStatus(solution));
+
+         if (listener != null)
+            listener.querySolved(queryIndex, solution, hasConverged);
+      }
+   }
+
+   private void addSolvedQuery(HumanoidKinematicsQuery solvedQuery, KinematicsToolboxOutputStatus solvedConfiguration)
+   {
+      solvedQueriesLock.writeLock().lock();
+
+      try
+      {
+         int index;
+
+         if (numberOfSolvedQueries < solvedQueries.length)
+         {
+            index = (oldestSolvedQueryIndex + numberOfSolvedQueries) % solvedQueries.length;
+            numberOfSolvedQueries++;
+         }
+         else
+         {
+            index = oldestSolvedQueryIndex;
+            oldestSolvedQueryIndex = (oldestSolvedQueryIndex + 1) % solvedQueries.length;
+         }
+
+         solvedQueries[index] = solvedQuery;
+         solvedConfigurations[index] = solvedConfiguration;
+      }
+      finally
+      {
+         solvedQueriesLock.writeLock().unlock();
+      }
+   }
+
+   private KinematicsToolboxOutputStatus findClosestSolvedConfiguration(HumanoidKinematicsQuery query)
+   {
+      solvedQueriesLock.readLock().lock();
+
+      try
+      {
+         double closestDistance = Double.POSITIVE_INFINITY;
+         KinematicsToolboxOutputStatus closestConfiguration = initialConfiguration;
+
+         for (int i = 0; i < numberOfSolvedQueries; i++)
+         {
+            int index = (oldestSolvedQueryIndex + i) % solvedQueries.length;
+            double distance = query.distance(solvedQueries[index]);
+
+            if (distance < closestDistance)
+            {
+               closestDistance = distance;
+               closestConfiguration = solvedConfigurations[index];
+            }
+         }
+
+         return closestConfiguration;
+      }
+      finally
+      {
+         solvedQueriesLock.readLock().unlock();
+      }
+   }
+
+   /**
+    * @return the number of solved queries kept to start the next queries from.
+    */
+   public int getNumberOfSolvedQueries()
+   {
+      solvedQueriesLock.readLock().lock();
+
+      try
+      {
+         return numberOfSolvedQueries;
+      }
+      finally
+      {
+         solvedQueriesLock.readLock().unlock();
+      }
+   }
+
+   public int getNumberOfSolvers()
+   {
+      return solverPool.getNumberOfSolvers();
+   }
+
+   /**
+    * Stops the threads of this solver, it cannot be used afterwards.
+    */
+   public void destroy()
+   {
+      solverPool.destroy();
+   }
+}
@@ -0,0 +1,16 @@
+package us.ihmc.avatar.networkProcessor.kinematicsToolboxModule;
+
+import controller_msgs.msg.dds.KinematicsToolboxOutputStatus;
+
+public interface HumanoidKinematicsBatchSolverListener
+{
+   /**
+    * Called as soon as a query of a batch is solved, from the thread that solved it. The
+    * implementation has to be thread-safe when the batch solver has more than one solver.
+    *
+    * @param queryIndex the index of the query in the batch.
+    * @param solution the solution to the query. It is not used by the solver afterwards.
+    * @param hasConverged whether the solver converged to a solution of good quality.
+    */
+   void querySolved(int queryIndex, KinematicsToolboxOutputStatus solution, boolean hasConverged);
+}
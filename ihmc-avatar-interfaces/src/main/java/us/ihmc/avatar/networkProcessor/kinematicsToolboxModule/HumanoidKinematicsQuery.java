@@ -0,0 +1,116 @@
+package us.ihmc.avatar.networkProcessor.kinematicsToolboxModule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import controller_msgs.msg.dds.KinematicsToolboxCenterOfMassMessage;
+import controller_msgs.msg.dds.KinematicsToolboxRigidBodyMessage;
+
+/**
+ * Set of inputs defining one whole-body inverse kinematics problem to be solved by the
+ * {@link HumanoidKinematicsBatchSolver}.
+ */
+public class HumanoidKinematicsQuery
+{
+   /**
+    * Weight of the orientation error, in meters per radian, when comparing the targets of two
+    * queries.
+    */
+   private static final double ORIENTATION_DISTANCE_WEIGHT = 0.25;
+
+   private final List<KinematicsToolboxRigidBodyMessage> rigidBodyMessages = new ArrayList<>();
+   private KinematicsToolboxCenterOfMassMessage centerOfMassMessage = null;
+
+   public HumanoidKinematicsQuery()
+   {
+   }
+
+   public HumanoidKinematicsQuery(HumanoidKinematicsQuery other)
+   {
+      set(other);
+   }
+
+   public void set(HumanoidKinematicsQuery other)
+   {
+      rigidBodyMessages.clear();
+      for (int i = 0; i < other.rigidBodyMessages.size(); i++)
+         rigidBodyMessages.add(new KinematicsToolboxRigidBodyMessage(other.rigidBodyMessages.get(i)));
+
+      if (other.centerOfMassMessage == null)
+         centerOfMassMessage = null;
+      else
+         centerOfMassMessage = new KinematicsToolboxCenterOfMassMessage(other.centerOfMassMessage);
+   }
+
+   public void addRigidBodyMessage(KinematicsToolboxRigidBodyMessage rigidBodyMessage)
+   {
+      rigidBodyMessages.add(rigidBodyMessage);
+   }
+
+   public void setCenterOfMassMessage(KinematicsToolboxCenterOfMassMessage centerOfMassMessage)
+   {
+      this.centerOfMassMessage = centerOfMassMessage;
+   }
+
+   public List<KinematicsToolboxRigidBodyMessage> getRigidBodyMessages()
+   {
+      return rigidBodyMessages;
+   }
+
+   /**
+    * @return the center of mass message of this query or {@code null} if the center of mass is not
+    *         controlled.
+    */
+   public KinematicsToolboxCenterOfMassMessage getCenterOfMassMessage()
+   {
+      return centerOfMassMessage;
+   }
+
+   /**
+    * Compares the desired positions and orientations of this query with the ones of another query.
+    * <p>
+    * It is only used to decide which solution to start from when solving a query, the selection
+    * and weight matrices are not considered.
+    * </p>
+    *
+    * @param other the query to compare to. Not modified.
+    * @return the sum of the distances between the targets of the two queries, or
+    *         {@link Double#POSITIVE_INFINITY} if they do not control the same rigid-bodies.
+    */
+   public double distance(HumanoidKinematicsQuery other)
+   {
+      if (rigidBodyMessages.size() != other.rigidBodyMessages.size())
+         return Double.POSITIVE_INFINITY;
+      if ((centerOfMassMessage == null) != (other.centerOfMassMessage == null))
+         return Double.POSITIVE_INFINITY;
+
+      double distance = 0.0;
+
+      for (int i = 0; i < rigidBodyMessages.size(); i++)
+      {
+         KinematicsToolboxRigidBodyMessage message = rigidBodyMessages.get(i);
+         KinematicsToolboxRigidBodyMessage otherMessage = other.findRigidBodyMessage(message.getEndEffectorNameBasedHashCode());
+
+         if (otherMessage == null)
+            return Double.POSITIVE_INFINITY;
+
+         distance += message.getDesiredPositionInWorld().distance(otherMessage.getDesiredPositionInWorld());
+         distance += ORIENTATION_DISTANCE_WEIGHT * message.getDesiredOrientationInWorld().distance(otherMessage.getDesiredOrientationInWorld());
+      }
+
+      if (centerOfMassMessage != null)
+         distance += centerOfMassMessage.getDesiredPositionInWorld().distance(other.centerOfMassMessage.getDesiredPositionInWorld());
+
+      return distance;
+   }
+
+   private KinematicsToolboxRigidBodyMessage findRigidBodyMessage(long endEffectorNameBasedHashCode)
+   {
+      for (int i = 0; i < rigidBodyMessages.size(); i++)
+      {
+         if (rigidBodyMessages.get(i).getEndEffectorNameBasedHashCode() == endEffectorNameBasedHashCode)
+            return rigidBodyMessages.get(i);
+      }
+      return null;
+   }
+}
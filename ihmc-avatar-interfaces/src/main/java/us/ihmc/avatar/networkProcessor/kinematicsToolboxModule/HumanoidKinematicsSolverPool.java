@@ -0,0 +1,136 @@
+package us.ihmc.avatar.networkProcessor.kinematicsToolboxModule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import us.ihmc.graphicsDescription.yoGraphics.YoGraphicsListRegistry;
+import us.ihmc.robotModels.FullHumanoidRobotModelFactory;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+
+/**
+ * Set of {@link HumanoidKinematicsSolver}s, each with its own robot model and registry, such that
+ * they can run in parallel.
+ * <p>
+ * The first solver is run by the calling thread, the others by the threads of this pool.
+ * </p>
+ */
+public class HumanoidKinematicsSolverPool
+{
+   public interface SolverTask
+   {
+      /**
+       * Runs the given solver. Called from as many threads as solvers used at once.
+       *
+       * @param solverIndex the index of the solver in the pool.
+       * @param solver the solver to use, which is not used by any other task at the same time.
+       */
+      void run(int solverIndex, HumanoidKinematicsSolver solver);
+   }
+
+   private final HumanoidKinematicsSolver[] solvers;
+   private final ExecutorService executorService;
+   private final List<Future<?>> futures = new ArrayList<>();
+
+   /**
+    * @param name used to name the registries of the solvers and the threads of this pool.
+    */
+   public HumanoidKinematicsSolverPool(FullHumanoidRobotModelFactory fullRobotModelFactory, int numberOfSolvers, String name)
+   {
+      if (numberOfSolvers < 1)
+         throw new RuntimeException("The number of solvers has to be at least 1, was: " + numberOfSolvers);
+
+      solvers = new HumanoidKinematicsSolver[numberOfSolvers];
+
+      for (int i = 0; i < numberOfSolvers; i++)
+         solvers[i] = new HumanoidKinematicsSolver(fullRobotModelFactory, new YoGraphicsListRegistry(), new YoVariableRegistry(name + i));
+
+      if (numberOfSolvers > 1)
+      {
+         executorService = Executors.newFixedThreadPool(numberOfSolvers - 1, runnable ->
+         {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+         });
+      }
+      else
+      {
+         executorService = null;
+      }
+   }
+
+   /**
+    * Runs the task with the first {@code numberOfSolversToUse} solvers concurrently, and returns
+    * once all of them are done.
+    *
+    * @param numberOfSolversToUse the number of solvers to run, clamped to the size of this pool.
+    * @param task the task to run once with each solver.
+    * @throws ExecutionException if the task failed on one of the threads of this pool.
+    */
+   public void run(int numberOfSolversToUse, SolverTask task) throws InterruptedException, ExecutionException
+   {
+      futures.clear();
+
+      for (int solverIndex = 1; solverIndex < Math.min(solvers.length, numberOfSolversToUse); solverIndex++)
+      {
+         HumanoidKinematicsSolver solver = solvers[solverIndex];
+         int index = solverIndex;
+         futures.add(executorService.submit(() -> task.run(index, solver)));
+      }
+
+      try
+      {
+         if (numberOfSolversToUse > 0)
+            task.run(0, solvers[0]);
+      }
+      finally
+      {
+         waitForOtherSolvers();
+      }
+   }
+
+   /**
+    * Waits for all the solvers, even when one of them failed, such that none of them is still
+    * running when the pool is used again.
+    */
+   private void waitForOtherSolvers() throws InterruptedException, ExecutionException
+   {
+      ExecutionException firstException = null;
+
+      for (int i = 0; i < futures.size(); i++)
+      {
+         try
+         {
+            futures.get(i).get();
+         }
+         catch (ExecutionException e)
+         {
+            if (firstException == null)
+               firstException = e;
+         }
+      }
+
+      futures.clear();
+
+      if (firstException != null)
+         throw firstException;
+   }
+
+   public int getNumberOfSolvers()
+   {
+      return solvers.length;
+   }
+
+   /**
+    * Stops the threads of this pool, it cannot be used afterwards.
+    */
+   public void destroy()
+   {
+      if (executorService != null)
+         executorService.shutdownNow();
+   }
+}
@@ -0,0 +1,98 @@
+package us.ihmc.avatar.networkProcessor.rrtToolboxModule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import controller_msgs.msg.dds.KinematicsToolboxOutputStatus;
+import controller_msgs.msg.dds.KinematicsToolboxRigidBodyMessage;
+import us.ihmc.avatar.drcRobot.DRCRobotModel;
+import us.ihmc.avatar.networkProcessor.kinematicsToolboxModule.HumanoidKinematicsSolver;
+import us.ihmc.avatar.networkProcessor.kinematicsToolboxModule.HumanoidKinematicsSolverPool;
+import us.ihmc.manipulation.planning.rrt.constrainedplanning.configurationAndTimeSpace.SpatialNode;
+
+/**
+ * Validates batches of {@link SpatialNode}s concurrently using a
+ * {@link HumanoidKinematicsSolverPool}.
+ * <p>
+ * The i<sup>th</sup> node of a batch is always solved by the solver {@code i % numberOfSolvers},
+ * which goes through its nodes in the order of the batch. The outcome then does not depend on the
+ * scheduling of the threads, and a planning is reproducible for a given seed.
+ * </p>
+ */
+class SpatialNodeValidationPool
+{
+   private final HumanoidKinematicsSolverPool solverPool;
+
+   private final List<KinematicsToolboxOutputStatus> initialConfigurations = new ArrayList<>();
+   private final List<List<KinematicsToolboxRigidBodyMessage>> messages = new ArrayList<>();
+
+   SpatialNodeValidationPool(DRCRobotModel drcRobotModel, int numberOfSolvers)
+   {
+      solverPool = new HumanoidKinematicsSolverPool(drcRobotModel, numberOfSolvers, getClass().getSimpleName());
+   }
+
+   /**
+    * Solves the whole-body inverse kinematics of each node and packs the result in the node: the
+    * solver configuration and whether it converged.
+    * <p>
+    * A node is solved starting from the configuration of its parent, or from
+    * {@code defaultInitialConfiguration} if it has none. The messages for the solvers are created
+    * on the calling thread beforehand, {@code toolboxData} is not used concurrently.
+    * </p>
+    *
+    * @param nodes the nodes to validate. Modified.
+    * @param defaultInitialConfiguration the configuration to start from for the nodes without
+    *           parent. Not modified.
+    * @param toolboxData used to create the inverse kinematics messages of the nodes. Not modified.
+    */
+   void updateValidity(List<SpatialNode> nodes, KinematicsToolboxOutputStatus defaultInitialConfiguration, WholeBodyTrajectoryToolboxData toolboxData)
+         throws InterruptedException, ExecutionException
+   {
+      initialConfigurations.clear();
+      messages.clear();
+
+      for (int i = 0; i < nodes.size(); i++)
+      {
+         SpatialNode node = nodes.get(i);
+
+         if (node.getParent() != null && node.getParent().getConfiguration() != null)
+            initialConfigurations.add(node.getParent().getConfiguration());
+         else
+            initialConfigurations.add(defaultInitialConfiguration);
+
+         messages.add(toolboxData.createMessages(node));
+      }
+
+      solverPool.run(nodes.size(), (solverIndex, solver) -> updateValidity(solverIndex, solver, nodes));
+   }
+
+   private void updateValidity(int firstNodeIndex, HumanoidKinematicsSolver solver, List<SpatialNode> nodes)
+   {
+      for (int nodeIndex = firstNodeIndex; nodeIndex < nodes.size(); nodeIndex += solverPool.getNumberOfSolvers())
+      {
+         SpatialNode node = nodes.get(nodeIndex);
+
+         solver.setInitialConfiguration(initialConfigurations.get(nodeIndex));
+         solver.initialize();
+         solver.submit(messages.get(nodeIndex));
+         boolean success = solver.solve();
+
+         node.setConfiguration(solver.getSolution());
+         node.setValidity(success);
+      }
+   }
+
+   int getNumberOfSolvers()
+   {
+      return solverPool.getNumberOfSolvers();
+   }
+
+   /**
+    * Stops the threads of this pool, it cannot be used afterwards.
+    */
+   void destroy()
+   {
+      solverPool.destroy();
+   }
+}
@@ -52,12 +52,20 @@ public class WholeBodyTrajectoryToolboxController extends ToolboxController
    private static final int DEFAULT_MAXIMUM_EXPANSION_SIZE_VALUE = 1000;
    private static final int DEFAULT_NUMBER_OF_INITIAL_GUESSES_VALUE = 200;
    private static final int TERMINAL_CONDITION_NUMBER_OF_VALID_INITIAL_GUESSES = 20;
+   private static final int DEFAULT_NUMBER_OF_CANDIDATES_PER_BATCH = 8;
+   /**
+    * Fixed rather than based on the number of processors: the candidates validated by each solver
+    * depend on the number of solvers, and so does the plan.
+    */
+   static final int DEFAULT_NUMBER_OF_VALIDATION_SOLVERS = 4;
 
    private static final ReferenceFrame worldFrame = ReferenceFrame.getWorldFrame();
 
    private final Random randomManager = new Random(1);
 
    private final HumanoidKinematicsSolver humanoidKinematicsSolver;
+   /** Validates the initial guesses and the candidates of the tree expansion in parallel. */
+   private final SpatialNodeValidationPool validationPool;
 
    private final WholeBodyTrajectoryToolboxOutputStatus toolboxSolution;
 
@@ -129,6 +137,13 @@ public class WholeBodyTrajectoryToolboxController extends ToolboxController
 
    private YoInteger numberOfIterationForShortcutOptimization = new YoInteger("numberOfIterationForShortcutOptimization", registry);
 
+   /**
+    * Number of initial guesses or tree expansion candidates validated at once. The planning only
+    * depends on the seed, this value, and the number of solvers of the {@link #validationPool}.
+    */
+   private final YoInteger numberOfCandidatesPerBatch = new YoInteger("numberOfCandidatesPerBatch", registry);
+   private final List<SpatialNode> candidates = new ArrayList<>();
+
    /**
     * Toolbox state
     */
@@ -141,6 +156,11 @@ public class WholeBodyTrajectoryToolboxController extends ToolboxController
 
    private final YoDouble initialGuessComputationTime = new YoDouble("initialGuessComputationTime", registry);
    private final YoDouble treeExpansionComputationTime = new YoDouble("treeExpansionComputationTime", registry);
+   // Time spent sampling the candidates and solving their inverse kinematics in the first two stages.
+   private final YoDouble initialGuessSamplingTime = new YoDouble("initialGuessSamplingTime", registry);
+   private final YoDouble initialGuessValidationTime = new YoDouble("initialGuessValidationTime", registry);
+   private final YoDouble treeExpansionSamplingTime = new YoDouble("treeExpansionSamplingTime", registry);
+   private final YoDouble treeExpansionValidationTime = new YoDouble("treeExpansionValidationTime", registry);
    private final YoDouble shortcutPathComputationTime = new YoDouble("shortcutPathComputationTime", registry);
    private final YoDouble motionGenerationComputationTime = new YoDouble("motionGenerationComputationTime", registry);
    private final YoDouble totalComputationTime = new YoDouble("totalComputationTime", registry);
@@ -155,6 +175,18 @@ public class WholeBodyTrajectoryToolboxController extends ToolboxController
    public WholeBodyTrajectoryToolboxController(DRCRobotModel drcRobotModel, FullHumanoidRobotModel fullRobotModel, CommandInputManager commandInputManager,
                                                StatusMessageOutputManager statusOutputManager, YoVariableRegistry registry,
                                                YoGraphicsListRegistry yoGraphicsListRegistry, boolean visualize)
+   {
+      this(drcRobotModel, fullRobotModel, commandInputManager, statusOutputManager, registry, yoGraphicsListRegistry, visualize,
+           DEFAULT_NUMBER_OF_VALIDATION_SOLVERS);
+   }
+
+   /**
+    * @param numberOfValidationSolvers the number of inverse kinematics solvers, each with its own
+    *           robot model, that validate the candidate nodes in parallel.
+    */
+   public WholeBodyTrajectoryToolboxController(DRCRobotModel drcRobotModel, FullHumanoidRobotModel fullRobotModel, CommandInputManager commandInputManager,
+                                               StatusMessageOutputManager statusOutputManager, YoVariableRegistry registry,
+                                               YoGraphicsListRegistry yoGraphicsListRegistry, boolean visualize, int numberOfValidationSolvers)
    {
       super(statusOutputManager, registry);
       this.commandInputManager = commandInputManager;
@@ -185,8 +217,10 @@ public class WholeBodyTrajectoryToolboxController extends ToolboxController
       numberOfIterationForShortcutOptimization.set(DEFAULT_NUMBER_OF_ITERATIONS_FOR_SHORTCUT_OPTIMIZATION);
       maximumNumberOfIterations.set(DEFAULT_MAXIMUM_NUMBER_OF_ITERATIONS);
       terminalConditionNumberOfValidInitialGuesses.set(TERMINAL_CONDITION_NUMBER_OF_VALID_INITIAL_GUESSES);
+      numberOfCandidatesPerBatch.set(DEFAULT_NUMBER_OF_CANDIDATES_PER_BATCH);
 
       humanoidKinematicsSolver = new HumanoidKinematicsSolver(drcRobotModel, yoGraphicsListRegistry, registry);
+      validationPool = new SpatialNodeValidationPool(drcRobotModel, numberOfValidationSolvers);
 
       toolboxSolution = new WholeBodyTrajectoryToolboxOutputStatus();
       toolboxSolution.setDestination(-1);
@@ -384,14 +418,18 @@ public class WholeBodyTrajectoryToolboxController extends ToolboxController
    /**
     * state == EXPAND_TREE
     */
-   private void expandingTree()
+   private void expandingTree() throws InterruptedException, ExecutionException
    {
-      currentExpansionSize.increment();
+      long samplingStartTime = System.nanoTime();
       boolean isExpandingTerminalCondition = false;
 
-      boolean randomNodeHasParentNode = false;
-      int maximumPatientCounter = 1000;
-      while (!randomNodeHasParentNode)
+      int numberOfCandidates = Math.min(numberOfCandidatesPerBatch.getIntegerValue(),
+                                        maximumExpansionSize.getIntegerValue() - currentExpansionSize.getIntegerValue());
+      numberOfCandidates = Math.max(numberOfCandidates, 1);
+      candidates.clear();
+
+      // The candidates of a batch are all attached to the tree as it was before the batch.
+      while (candidates.size() < numberOfCandidates)
       {
          SpatialNode randomNode;
 
@@ -401,6 +439,7 @@ public class WholeBodyTrajectoryToolboxController extends ToolboxController
 
          randomNode = new SpatialNode(randomTime, randomData);
 
+         boolean randomNodeHasParentNode = false;
          tree.setRandomNode(randomNode);
          if (trajectoryCommands != null)
             randomNodeHasParentNode = tree.findNearestValidNodeToCandidate(true);
@@ -410,58 +449,65 @@ public class WholeBodyTrajectoryToolboxController extends ToolboxController
          if (randomNodeHasParentNode)
          {
             tree.limitCandidateDistanceFromParent(toolboxData.getTrajectoryTime());
-            SpatialNode candidate = tree.getCandidate();
-            updateValidity(candidate);
+            candidates.add(tree.getCandidate());
+         }
+      }
+
+      long validationStartTime = addToTimer(treeExpansionSamplingTime, samplingStartTime);
+      validationPool.updateValidity(candidates, initialConfiguration, toolboxData);
+      addToTimer(treeExpansionValidationTime, validationStartTime);
+
+      for (int i = 0; i < candidates.size(); i++)
+      {
+         SpatialNode candidate = candidates.get(i);
+         currentExpansionSize.increment();
 
-            /*
-             * visualize
-             */
-            visualizedNode = new SpatialNode(candidate);
-            nodePlotter.update(candidate, 1);
+         /*
+          * visualize
+          */
+         visualizedNode = new SpatialNode(candidate);
+         nodePlotter.update(candidate, 1);
 
-            if (candidate.isValid())
+         if (candidate.isValid())
+         {
+            tree.attachCandidate(candidate);
+            numberOfValidPosture++;
+
+            // TODO: generic terminal conditions.
+            if (trajectoryCommands != null)
             {
-               tree.attachCandidate();
-               numberOfValidPosture++;
-
-               // TODO: generic terminal conditions.
-               if (trajectoryCommands != null)
-               {
-                  if (tree.getMostAdvancedTime() >= toolboxData.getTrajectoryTime())
-                     isExpandingTerminalCondition = true;
-               }
-               else if (manifoldCommands != null)
-               {  
-                  Pose3D testFrame = toolboxData.getTestFrame(tree.getLastNodeAdded());
-
-                  testFramePose.setPosition(testFrame.getPosition());
-                  testFramePose.setOrientation(testFrame.getOrientation());
-                  testFrameViz.setVisible(true);
-                  testFrameViz.update();
-
-                  // TODO : terminal condition for manifold command.
-                  double maximumDistanceFromManifolds = toolboxData.getMaximumDistanceFromManifolds(tree.getLastNodeAdded());
-                  minimumDistanceFromManifold.set(maximumDistanceFromManifolds);
-                  if(maximumDistanceFromManifolds < 0.05)
-                     isExpandingTerminalCondition = true;
-               }
-               else
-               {
-                  if (VERBOSE)
-                     PrintTools.warn("any command is available");
-               }
+               if (tree.getMostAdvancedTime() >= toolboxData.getTrajectoryTime())
+                  isExpandingTerminalCondition = true;
+            }
+            else if (manifoldCommands != null)
+            {  
+               Pose3D testFrame = toolboxData.getTestFrame(tree.getLastNodeAdded());
+
+               testFramePose.setPosition(testFrame.getPosition());
+               testFramePose.setOrientation(testFrame.getOrientation());
+               testFrameViz.setVisible(true);
+               testFrameViz.update();
+
+               // TODO : terminal condition for manifold command.
+               double maximumDistanceFromManifolds = toolboxData.getMaximumDistanceFromManifolds(tree.getLastNodeAdded());
+               minimumDistanceFromManifold.set(maximumDistanceFromManifolds);
+               if(maximumDistanceFromManifolds < 0.05)
+                  isExpandingTerminalCondition = true;
             }
             else
             {
-               tree.dismissCandidate();
-               numberOfInvalidPosture++;
+               if (VERBOSE)
+                  PrintTools.warn("any command is available");
             }
+
+            // The last node added has to be the one reaching the goal for the shortcut stage.
+            if (isExpandingTerminalCondition)
+               break;
          }
          else
          {
-            maximumPatientCounter--;
-            if (maximumPatientCounter == 0)
-               continue;
+            tree.dismissCandidate(candidate);
+            numberOfInvalidPosture++;
          }
       }
 
@@ -554,47 +600,67 @@ public class WholeBodyTrajectoryToolboxController extends ToolboxController
       treeExpansionStartTime = updateTimer(initialGuessComputationTime, initialGuessStartTime);
    }
 
-   private void findInitialGuess()
+   private void findInitialGuess() throws InterruptedException, ExecutionException
    {
-      SpatialData initialGuessData = toolboxData.createRandomSpatialData();
+      long samplingStartTime = System.nanoTime();
 
-      SpatialNode initialGuessNode = new SpatialNode(initialGuessData);
-      updateValidity(initialGuessNode);
-
-      visualizedNode = initialGuessNode;
+      int numberOfCandidates = Math.min(numberOfCandidatesPerBatch.getIntegerValue(),
+                                        desiredNumberOfInitialGuesses.getIntegerValue() - currentNumberOfInitialGuesses.getIntegerValue());
+      numberOfCandidates = Math.max(numberOfCandidates, 1);
+      candidates.clear();
 
-      double jointScore = 0.0;
-      if (initialGuessNode.isValid())
+      for (int i = 0; i < numberOfCandidates; i++)
       {
-         tree.addInitialNode(initialGuessNode);
-         currentNumberOfValidInitialGuesses.increment();
-         jointScore = computeArmJointsLimitScore(humanoidKinematicsSolver.getDesiredFullRobotModel());
+         SpatialData initialGuessData = toolboxData.createRandomSpatialData();
+         candidates.add(new SpatialNode(initialGuessData));
       }
-      jointlimitScore.set(jointScore);
-
-      nodePlotter.update(initialGuessNode, 1);
 
-      /*
-       * terminate finding initial guess.
-       */
-      currentNumberOfInitialGuesses.increment();
+      long validationStartTime = addToTimer(initialGuessSamplingTime, samplingStartTime);
+      validationPool.updateValidity(candidates, initialConfiguration, toolboxData);
+      addToTimer(initialGuessValidationTime, validationStartTime);
 
-      if (currentNumberOfInitialGuesses.getIntegerValue() >= desiredNumberOfInitialGuesses.getIntegerValue()
-            || currentNumberOfValidInitialGuesses.getIntegerValue() >= terminalConditionNumberOfValidInitialGuesses.getIntegerValue())
+      for (int i = 0; i < candidates.size(); i++)
       {
-         if (tree.getValidNodes().size() == 0)
+         SpatialNode initialGuessNode = candidates.get(i);
+
+         visualizedNode = initialGuessNode;
+
+         double jointScore = 0.0;
+         if (initialGuessNode.isValid())
          {
-            if (VERBOSE)
-               PrintTools.info("Did not find a single valid root node.");
-            setOutputStatus(toolboxSolution, 1);
-            terminateToolboxController();
+            tree.addInitialNode(initialGuessNode);
+            currentNumberOfValidInitialGuesses.increment();
+            // The solver that found this configuration may already be working on another node.
+            updateVisualizerRobotConfiguration(initialGuessNode.getConfiguration());
+            jointScore = computeArmJointsLimitScore(visualizedFullRobotModel);
          }
-         else
+         jointlimitScore.set(jointScore);
+
+         nodePlotter.update(initialGuessNode, 1);
+
+         /*
+          * terminate finding initial guess.
+          */
+         currentNumberOfInitialGuesses.increment();
+
+         if (currentNumberOfInitialGuesses.getIntegerValue() >= desiredNumberOfInitialGuesses.getIntegerValue()
+               || currentNumberOfValidInitialGuesses.getIntegerValue() >= terminalConditionNumberOfValidInitialGuesses.getIntegerValue())
          {
-            if (VERBOSE)
-               PrintTools.info("Successfully finished initial guess stage. " + currentNumberOfInitialGuesses.getIntegerValue() + " "
-                     + currentNumberOfValidInitialGuesses.getIntegerValue());
-            state.set(CWBToolboxState.EXPAND_TREE);
+            if (tree.getValidNodes().size() == 0)
+            {
+               if (VERBOSE)
+                  PrintTools.info("Did not find a single valid root node.");
+               setOutputStatus(toolboxSolution, 1);
+               terminateToolboxController();
+            }
+            else
+            {
+               if (VERBOSE)
+                  PrintTools.info("Successfully finished initial guess stage. " + currentNumberOfInitialGuesses.getIntegerValue() + " "
+                        + currentNumberOfValidInitialGuesses.getIntegerValue());
+               state.set(CWBToolboxState.EXPAND_TREE);
+            }
+            break;
          }
       }
       treeExpansionStartTime = updateTimer(initialGuessComputationTime, initialGuessStartTime);
@@ -607,6 +673,13 @@ public class WholeBodyTrajectoryToolboxController extends ToolboxController
       return endTime;
    }
 
+   private long addToTimer(YoDouble currentTimer, long currentTimerStartTime)
+   {
+      long endTime = System.nanoTime();
+      currentTimer.add(Conversions.nanosecondsToSeconds(endTime - currentTimerStartTime));
+      return endTime;
+   }
+
    @Override
    protected boolean initialize()
    {
@@ -647,6 +720,10 @@ public class WholeBodyTrajectoryToolboxController extends ToolboxController
       treeExpansionComputationTime.setToNaN();
       shortcutPathComputationTime.setToNaN();
       motionGenerationComputationTime.setToNaN();
+      initialGuessSamplingTime.set(0.0);
+      initialGuessValidationTime.set(0.0);
+      treeExpansionSamplingTime.set(0.0);
+      treeExpansionValidationTime.set(0.0);
 
       numberOfValidPosture = 0;
       numberOfInvalidPosture = 0;
@@ -788,7 +865,9 @@ public class WholeBodyTrajectoryToolboxController extends ToolboxController
       {
          PrintTools.info("===========================================");
          PrintTools.info("initialGuessComputationTime is " + initialGuessComputationTime.getDoubleValue());
+         PrintTools.info("   sampling " + initialGuessSamplingTime.getDoubleValue() + ", validation " + initialGuessValidationTime.getDoubleValue());
          PrintTools.info("treeExpansionComputationTime is " + treeExpansionComputationTime.getDoubleValue());
+         PrintTools.info("   sampling " + treeExpansionSamplingTime.getDoubleValue() + ", validation " + treeExpansionValidationTime.getDoubleValue());
          PrintTools.info("shortcutPathComputationTime is " + shortcutPathComputationTime.getDoubleValue());
          PrintTools.info("motionGenerationComputationTime is " + motionGenerationComputationTime.getDoubleValue());
          PrintTools.info("toolbox executing time is " + totalComputationTime.getDoubleValue() + " seconds " + currentNumberOfIterations.getIntegerValue());
@@ -945,6 +1024,19 @@ public class WholeBodyTrajectoryToolboxController extends ToolboxController
       return score;
    }
 
+   /**
+    * Stops the threads used to validate the candidate nodes.
+    */
+   public void destroy()
+   {
+      validationPool.destroy();
+   }
+
+   int getNumberOfValidationSolvers()
+   {
+      return validationPool.getNumberOfSolvers();
+   }
+
    void updateRobotConfigurationData(RobotConfigurationData newConfigurationData)
    {
       currentRobotConfigurationDataReference.set(newConfigurationData);
@@ -51,6 +51,13 @@ public class WholeBodyTrajectoryToolboxModule extends ToolboxModule
       return wholeBodyTrajectoryToolboxController;
    }
 
+   @Override
+   public void destroy()
+   {
+      super.destroy();
+      wholeBodyTrajectoryToolboxController.destroy();
+   }
+
    @Override
    public List<Class<? extends Command<?, ?>>> createListOfSupportedCommands()
    {
@@ -0,0 +1,134 @@
+package us.ihmc.avatar.controllerCore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import us.ihmc.avatar.drcRobot.DRCRobotModel;
+import us.ihmc.commonWalkingControlModules.controllerCore.command.inverseDynamics.JointspaceAccelerationCommand;
+import us.ihmc.commonWalkingControlModules.controllerCore.command.inverseDynamics.MomentumRateCommand;
+import us.ihmc.commonWalkingControlModules.controllerCore.command.inverseDynamics.SpatialAccelerationCommand;
+import us.ihmc.commonWalkingControlModules.momentumBasedController.optimization.CentroidalMomentumHandler;
+import us.ihmc.commonWalkingControlModules.momentumBasedController.optimization.ControllerCoreOptimizationSettings;
+import us.ihmc.commonWalkingControlModules.momentumBasedController.optimization.InverseDynamicsQPSolver;
+import us.ihmc.commonWalkingControlModules.momentumBasedController.optimization.JointIndexHandler;
+import us.ihmc.commonWalkingControlModules.momentumBasedController.optimization.MotionQPInput;
+import us.ihmc.commonWalkingControlModules.momentumBasedController.optimization.MotionQPInputCalculator;
+import us.ihmc.euclid.referenceFrame.FrameVector3D;
+import us.ihmc.euclid.referenceFrame.ReferenceFrame;
+import us.ihmc.robotModels.FullHumanoidRobotModel;
+import us.ihmc.robotics.referenceFrames.CenterOfMassReferenceFrame;
+import us.ihmc.robotics.robotSide.RobotSide;
+import us.ihmc.robotics.screwTheory.InverseDynamicsJoint;
+import us.ihmc.robotics.screwTheory.OneDoFJoint;
+import us.ihmc.robotics.screwTheory.RigidBody;
+import us.ihmc.robotics.screwTheory.ScrewTestTools;
+import us.ihmc.robotics.screwTheory.ScrewTools;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+
+/**
+ * Measures the time spent by {@link InverseDynamicsQPSolver} to add the motion tasks that the
+ * walking controller typically submits to the controller core: momentum rate, feet, hands, chest,
+ * pelvis, head, and a jointspace task on all the joints as done for the privileged configuration.
+ * <p>
+ * Robot specific benchmarks extend this class, add the JMH annotations, and toggle the block-sparse
+ * assembly with a JMH parameter.
+ * </p>
+ */
+public abstract class AvatarInverseDynamicsQPSolverBenchmark
+{
+   private static final ReferenceFrame worldFrame = ReferenceFrame.getWorldFrame();
+
+   private final List<MotionQPInput> motionQPInputs = new ArrayList<>();
+   private InverseDynamicsQPSolver qpSolver;
+
+   public abstract DRCRobotModel getRobotModel();
+
+   public void setup(boolean useBlockSparseMotionTasks)
+   {
+      Random random = new Random(5641L);
+      DRCRobotModel robotModel = getRobotModel();
+      FullHumanoidRobotModel fullRobotModel = robotModel.createFullRobotModel();
+      ControllerCoreOptimizationSettings optimizationSettings = robotModel.getWalkingControllerParameters().getMomentumOptimizationSettings();
+
+      OneDoFJoint[] oneDoFJoints = fullRobotModel.getOneDoFJoints();
+      InverseDynamicsJoint[] controlledJoints = ScrewTools.computeSubtreeJoints(fullRobotModel.getElevator());
+      ScrewTestTools.setRandomPositionsWithinJointLimits(oneDoFJoints, random);
+      ScrewTestTools.setRandomVelocities(controlledJoints, random);
+      fullRobotModel.getRootJoint().setPosition(0.0, 0.0, 1.0);
+      fullRobotModel.updateFrames();
+
+      CenterOfMassReferenceFrame centerOfMassFrame = new CenterOfMassReferenceFrame("centerOfMass", worldFrame, fullRobotModel.getElevator());
+      centerOfMassFrame.update();
+
+      YoVariableRegistry registry = new YoVariableRegistry(getClass().getSimpleName());
+      JointIndexHandler jointIndexHandler = new JointIndexHandler(controlledJoints);
+      CentroidalMomentumHandler centroidalMomentumHandler = new CentroidalMomentumHandler(fullRobotModel.getElevator(), centerOfMassFrame);
+      MotionQPInputCalculator motionQPInputCalculator = new MotionQPInputCalculator(centerOfMassFrame, centroidalMomentumHandler, jointIndexHandler, null,
+                                                                                    registry);
+      motionQPInputCalculator.initialize();
+
+      int numberOfDoFs = jointIndexHandler.getNumberOfDoFs();
+      qpSolver = new InverseDynamicsQPSolver(optimizationSettings.getActiveSetQPSolver(), numberOfDoFs, optimizationSettings.getRhoSize(), true, registry);
+      qpSolver.setUseBlockSparseMotionTasks(useBlockSparseMotionTasks);
+
+      motionQPInputs.clear();
+
+      MomentumRateCommand momentumRateCommand = new MomentumRateCommand();
+      momentumRateCommand.setMomentumRate(new FrameVector3D(worldFrame, 0.0, 0.0, 0.0), new FrameVector3D(worldFrame, 10.0, -5.0, 0.0));
+      momentumRateCommand.setSelectionMatrixForLinearControl();
+      momentumRateCommand.setWeight(0.0, 1.0);
+      MotionQPInput momentumInput = new MotionQPInput(numberOfDoFs);
+      if (motionQPInputCalculator.convertMomentumRateCommand(momentumRateCommand, momentumInput))
+         motionQPInputs.add(momentumInput);
+
+      RigidBody elevator = fullRobotModel.getElevator();
+      RigidBody pelvis = fullRobotModel.getPelvis();
+      RigidBody chest = fullRobotModel.getChest();
+
+      for (RobotSide robotSide : RobotSide.values)
+      {
+         addSpatialAccelerationTask(elevator, fullRobotModel.getFoot(robotSide), null, false, 10.0, motionQPInputCalculator, numberOfDoFs);
+         addSpatialAccelerationTask(chest, fullRobotModel.getHand(robotSide), null, false, 1.0, motionQPInputCalculator, numberOfDoFs);
+      }
+      addSpatialAccelerationTask(elevator, chest, pelvis, true, 5.0, motionQPInputCalculator, numberOfDoFs);
+      addSpatialAccelerationTask(elevator, pelvis, null, true, 5.0, motionQPInputCalculator, numberOfDoFs);
+      addSpatialAccelerationTask(chest, fullRobotModel.getHead(), null, true, 1.0, motionQPInputCalculator, numberOfDoFs);
+
+      JointspaceAccelerationCommand jointspaceAccelerationCommand = new JointspaceAccelerationCommand();
+      for (OneDoFJoint joint : oneDoFJoints)
+         jointspaceAccelerationCommand.addJoint(joint, random.nextDouble() - 0.5, 0.1);
+      MotionQPInput jointspaceInput = new MotionQPInput(numberOfDoFs);
+      if (motionQPInputCalculator.convertJointspaceAccelerationCommand(jointspaceAccelerationCommand, jointspaceInput))
+         motionQPInputs.add(jointspaceInput);
+   }
+
+   private void addSpatialAccelerationTask(RigidBody base, RigidBody endEffector, RigidBody primaryBase, boolean angularOnly, double weight,
+                                           MotionQPInputCalculator motionQPInputCalculator, int numberOfDoFs)
+   {
+      if (endEffector == null)
+         return;
+
+      SpatialAccelerationCommand command = new SpatialAccelerationCommand();
+      command.set(base, endEffector);
+      command.setPrimaryBase(primaryBase);
+      command.setSpatialAccelerationToZero(endEffector.getBodyFixedFrame());
+      if (angularOnly)
+         command.setSelectionMatrixForAngularControl();
+      command.setWeight(weight);
+
+      MotionQPInput motionQPInput = new MotionQPInput(numberOfDoFs);
+      if (motionQPInputCalculator.convertSpatialAccelerationCommand(command, motionQPInput))
+         motionQPInputs.add(motionQPInput);
+   }
+
+   /**
+    * Assembles the QP from scratch, as done once per control tick.
+    */
+   public void assembleMotionTasks()
+   {
+      qpSolver.reset();
+      for (int i = 0; i < motionQPInputs.size(); i++)
+         qpSolver.addMotionInput(motionQPInputs.get(i));
+   }
+}
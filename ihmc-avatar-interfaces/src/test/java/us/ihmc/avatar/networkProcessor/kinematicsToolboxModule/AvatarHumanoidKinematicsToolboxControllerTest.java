@@ -1,11 +1,15 @@
 package us.ihmc.avatar.networkProcessor.kinematicsToolboxModule;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static us.ihmc.humanoidRobotics.communication.packets.KinematicsToolboxMessageFactory.holdRigidBodyCurrentPose;
 
 import java.awt.Color;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.stream.Collectors;
 
 import org.junit.After;
@@ -14,6 +18,7 @@ import org.junit.Test;
 
 import controller_msgs.msg.dds.CapturabilityBasedStatus;
 import controller_msgs.msg.dds.KinematicsToolboxCenterOfMassMessage;
+import controller_msgs.msg.dds.KinematicsToolboxOutputStatus;
 import controller_msgs.msg.dds.KinematicsToolboxRigidBodyMessage;
 import controller_msgs.msg.dds.RobotConfigurationData;
 import us.ihmc.avatar.MultiRobotTestInterface;
@@ -33,6 +38,7 @@ import us.ihmc.euclid.transform.RigidBodyTransform;
 import us.ihmc.euclid.tuple3D.Point3D;
 import us.ihmc.graphicsDescription.appearance.YoAppearanceRGBColor;
 import us.ihmc.graphicsDescription.yoGraphics.YoGraphicsListRegistry;
+import us.ihmc.humanoidRobotics.communication.packets.HumanoidMessageTools;
 import us.ihmc.robotModels.FullHumanoidRobotModel;
 import us.ihmc.robotModels.FullRobotModelUtils;
 import us.ihmc.robotics.robotDescription.RobotDescription;
@@ -397,6 +403,85 @@ public abstract class AvatarHumanoidKinematicsToolboxControllerTest implements M
       assertTrue("Poor average solution quality: " + averageSolutionQuality, averageSolutionQuality < 1.0e-4);
    }
 
+   @ContinuousIntegrationTest(estimatedDuration = 30.0)
+   @Test(timeout = 60000)
+   public void testBatchSolver() throws Exception
+   {
+      if (VERBOSE)
+         PrintTools.info(this, "Entering: testBatchSolver");
+      Random random = new Random(2136);
+      FullHumanoidRobotModel initialFullRobotModel = createFullRobotModelAtInitialConfiguration();
+      FullHumanoidRobotModel randomizedFullRobotModel = createFullRobotModelAtInitialConfiguration();
+
+      List<HumanoidKinematicsQuery> queries = new ArrayList<>();
+
+      for (int i = 0; i < 20; i++)
+      {
+         HumanoidKinematicsQuery query = new HumanoidKinematicsQuery();
+
+         for (RobotSide robotSide : RobotSide.values)
+         {
+            randomizeArmJointPositions(random, robotSide, randomizedFullRobotModel, 0.6);
+            RigidBody hand = randomizedFullRobotModel.getHand(robotSide);
+            FramePoint3D desiredPosition = new FramePoint3D(hand.getBodyFixedFrame());
+            desiredPosition.changeFrame(worldFrame);
+            KinematicsToolboxRigidBodyMessage message = MessageTools.createKinematicsToolboxRigidBodyMessage(hand, desiredPosition);
+            message.getAngularWeightMatrix().set(MessageTools.createWeightMatrix3DMessage(20.0));
+            message.getLinearWeightMatrix().set(MessageTools.createWeightMatrix3DMessage(20.0));
+            query.addRigidBodyMessage(message);
+         }
+
+         { // Setup CoM message
+            KinematicsToolboxCenterOfMassMessage message = MessageTools.createKinematicsToolboxCenterOfMassMessage(computeCenterOfMass3D(randomizedFullRobotModel));
+            SelectionMatrix3D selectionMatrix = new SelectionMatrix3D();
+            selectionMatrix.selectZAxis(false);
+            message.getSelectionMatrix().set(MessageTools.createSelectionMatrix3DMessage(selectionMatrix));
+            message.getWeights().set(MessageTools.createWeightMatrix3DMessage(1.0));
+            query.setCenterOfMassMessage(message);
+         }
+
+         queries.add(query);
+      }
+
+      HumanoidKinematicsBatchSolver batchSolver = new HumanoidKinematicsBatchSolver(getRobotModel(), 2);
+      batchSolver.setInitialConfiguration(HumanoidMessageTools.createKinematicsToolboxOutputStatus(initialFullRobotModel));
+
+      AtomicIntegerArray numberOfSolutionsPerQuery = new AtomicIntegerArray(queries.size());
+      KinematicsToolboxOutputStatus[] solutions = new KinematicsToolboxOutputStatus[queries.size()];
+
+      batchSolver.solve(queries, (queryIndex, solution, hasConverged) ->
+      {
+         numberOfSolutionsPerQuery.incrementAndGet(queryIndex);
+         solutions[queryIndex] = solution;
+         assertTrue("Query " + queryIndex + " did not converge, solution quality: " + solution.getSolutionQuality(), hasConverged);
+      });
+      batchSolver.destroy();
+
+      for (int i = 0; i < queries.size(); i++)
+      {
+         assertEquals(1, numberOfSolutionsPerQuery.get(i));
+         double solutionQuality = solutions[i].getSolutionQuality();
+         if (VERBOSE)
+            PrintTools.info(this, "Solution quality: " + solutionQuality);
+         assertTrue("Poor solution quality: " + solutionQuality, solutionQuality < 5.0e-3);
+      }
+
+      // Only the most recent solved queries are kept to start from.
+      int maximumNumberOfSolvedQueries = 5;
+      HumanoidKinematicsBatchSolver boundedBatchSolver = new HumanoidKinematicsBatchSolver(getRobotModel(), 2, maximumNumberOfSolvedQueries);
+      boundedBatchSolver.setInitialConfiguration(HumanoidMessageTools.createKinematicsToolboxOutputStatus(initialFullRobotModel));
+
+      boundedBatchSolver.solve(queries, (queryIndex, solution, hasConverged) ->
+      {
+         assertTrue("Query " + queryIndex + " did not converge, solution quality: " + solution.getSolutionQuality(), hasConverged);
+      });
+      assertEquals(maximumNumberOfSolvedQueries, boundedBatchSolver.getNumberOfSolvedQueries());
+
+      boundedBatchSolver.clearSolvedQueries();
+      assertEquals(0, boundedBatchSolver.getNumberOfSolvedQueries());
+      boundedBatchSolver.destroy();
+   }
+
    private void runKinematicsToolboxController(int numberOfIterations) throws SimulationExceededMaximumTimeException
    {
       initializationSucceeded.set(false);
@@ -1,6 +1,8 @@
 package us.ihmc.avatar.networkProcessor.rrtToolboxModule;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static us.ihmc.avatar.networkProcessor.kinematicsToolboxModule.AvatarHumanoidKinematicsToolboxControllerTest.createCapturabilityBasedStatus;
 import static us.ihmc.avatar.networkProcessor.kinematicsToolboxModule.AvatarHumanoidKinematicsToolboxControllerTest.extractRobotConfigurationData;
@@ -223,6 +225,30 @@ public abstract class AvatarWholeBodyTrajectoryToolboxControllerTest implements
    @ContinuousIntegrationTest(estimatedDuration = 20.0)
    @Test(timeout = 100000)
    public void testOneBigCircle() throws Exception, UnreasonableAccelerationException
+   {
+      runTrajectoryTest(createOneBigCircleMessage(), 100000);
+   }
+
+   /**
+    * Plans twice the same trajectory with two toolboxes created with the default number of
+    * validation solvers. As the toolbox always starts from the same seed, the plans have to be the
+    * same whatever the machine the test runs on.
+    */
+   @ContinuousIntegrationTest(estimatedDuration = 40.0)
+   @Test(timeout = 200000)
+   public void testPlanningIsReproducible() throws Exception
+   {
+      int maxNumberOfIterations = 100000;
+      WholeBodyTrajectoryToolboxOutputStatus expectedSolution = planWithNewToolboxController(createOneBigCircleMessage(), maxNumberOfIterations);
+      WholeBodyTrajectoryToolboxOutputStatus solution = planWithNewToolboxController(createOneBigCircleMessage(), maxNumberOfIterations);
+
+      assertNotNull("The toolbox did not report a solution.", expectedSolution);
+      assertNotNull("The toolbox did not report a solution.", solution);
+      assertEquals(4, expectedSolution.getPlanningResult());
+      assertTrue("The two plans are different.", expectedSolution.epsilonEquals(solution, 0.0));
+   }
+
+   private WholeBodyTrajectoryToolboxMessage createOneBigCircleMessage()
    {
       // Trajectory parameters
       double trajectoryTime = 10.0;
@@ -280,11 +306,7 @@ public abstract class AvatarWholeBodyTrajectoryToolboxControllerTest implements
          }
       }
 
-      WholeBodyTrajectoryToolboxMessage message = HumanoidMessageTools.createWholeBodyTrajectoryToolboxMessage(configuration, handTrajectories, null,
-                                                                                                               rigidBodyConfigurations);
-
-      // run toolbox
-      runTrajectoryTest(message, 100000);
+      return HumanoidMessageTools.createWholeBodyTrajectoryToolboxMessage(configuration, handTrajectories, null, rigidBodyConfigurations);
    }
 
    @ContinuousIntegrationTest(estimatedDuration = 20.0)
@@ -864,6 +886,45 @@ public abstract class AvatarWholeBodyTrajectoryToolboxControllerTest implements
       return status.getAndSet(null);
    }
 
+   /**
+    * Creates a toolbox with the default settings, independent from the one used by the other tests,
+    * and runs it until it is done.
+    */
+   private WholeBodyTrajectoryToolboxOutputStatus planWithNewToolboxController(WholeBodyTrajectoryToolboxMessage message, int maxNumberOfIterations)
+         throws InterruptedException, ExecutionException
+   {
+      DRCRobotModel robotModel = getRobotModel();
+      FullHumanoidRobotModel desiredFullRobotModel = robotModel.createFullRobotModel();
+      CommandInputManager commandInputManager = new CommandInputManager(WholeBodyTrajectoryToolboxModule.supportedCommands());
+      commandInputManager.registerConversionHelper(new WholeBodyTrajectoryToolboxCommandConverter(desiredFullRobotModel));
+      commandInputManager.registerMessageUnpacker(WholeBodyTrajectoryToolboxMessage.class, MessageUnpackingTools.createWholeBodyTrajectoryToolboxMessageUnpacker());
+      StatusMessageOutputManager statusOutputManager = new StatusMessageOutputManager(WholeBodyTrajectoryToolboxModule.supportedStatus());
+      AtomicReference<WholeBodyTrajectoryToolboxOutputStatus> status = new AtomicReference<>(null);
+      statusOutputManager.attachStatusMessageListener(WholeBodyTrajectoryToolboxOutputStatus.class, status::set);
+
+      WholeBodyTrajectoryToolboxController toolboxController = new WholeBodyTrajectoryToolboxController(robotModel, desiredFullRobotModel,
+                                                                                                        commandInputManager, statusOutputManager,
+                                                                                                        new YoVariableRegistry("main"),
+                                                                                                        new YoGraphicsListRegistry(), false);
+      toolboxController.setPacketDestination(PacketDestination.BROADCAST);
+      assertEquals(WholeBodyTrajectoryToolboxController.DEFAULT_NUMBER_OF_VALIDATION_SOLVERS, toolboxController.getNumberOfValidationSolvers());
+
+      commandInputManager.submitMessage(message);
+
+      boolean initialized = false;
+
+      for (int i = 0; !toolboxController.isDone() && i < maxNumberOfIterations; i++)
+      {
+         if (!initialized)
+            initialized = toolboxController.initialize();
+         if (initialized)
+            toolboxController.updateInternal();
+      }
+
+      toolboxController.destroy();
+      return status.get();
+   }
+
    private RobotController createToolboxUpdater()
    {
       return new RobotController()
@@ -9,6 +9,9 @@ import us.ihmc.trajectoryOptimization.SimpleDDPSolver;
 import us.ihmc.trajectoryOptimization.DiscreteTimeVaryingTrackingLQRSolver;
 import us.ihmc.trajectoryOptimization.LQRSolverInterface;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class LIPMDDPCalculator
 {
    private final DiscreteHybridDynamics<DefaultDiscreteState> dynamics;
@@ -22,7 +25,7 @@ public class LIPMDDPCalculator
 
    private int numberOfTimeSteps;
 
-   private final SimpleDDPSolver<DefaultDiscreteState> ddpSolver;
+   private final AbstractDDPSolver<DefaultDiscreteState> ddpSolver;
    private final LQRSolverInterface<DefaultDiscreteState> lqrSolver;
 
    private final LQTrackingCostFunction<DefaultDiscreteState> costFunction = new LIPMSimpleCostFunction();
@@ -32,13 +35,33 @@ public class LIPMDDPCalculator
    private double gravityZ;
 
    public LIPMDDPCalculator(double deltaT, double mass, double gravityZ)
+   {
+      this(deltaT, mass, gravityZ, 0);
+   }
+
+   /**
+    * @param numberOfLineSearchThreads number of line search gains tried at once by the forward pass
+    *           of the solver, each on its own thread. When {@code 0}, the forward pass does not use
+    *           a line search.
+    */
+   public LIPMDDPCalculator(double deltaT, double mass, double gravityZ, int numberOfLineSearchThreads)
    {
       this.dynamics = new LIPMDynamics(deltaT, mass, gravityZ);
       this.deltaT = deltaT;
       this.mass = mass;
       this.gravityZ = gravityZ;
 
-      ddpSolver = new SimpleDDPSolver<>(dynamics, true);
+      if (numberOfLineSearchThreads > 0)
+      {
+         List<LIPMDynamics> lineSearchDynamics = new ArrayList<>();
+         for (int i = 1; i < numberOfLineSearchThreads; i++)
+            lineSearchDynamics.add(new LIPMDynamics(deltaT, mass, gravityZ));
+         ddpSolver = new DDPSolver<>(dynamics, lineSearchDynamics, false);
+      }
+      else
+      {
+         ddpSolver = new SimpleDDPSolver<>(dynamics, false);
+      }
       lqrSolver = new DiscreteTimeVaryingTrackingLQRSolver<>(dynamics, costFunction, terminalCostFunction);
 
       int stateSize = dynamics.getStateVectorSize();
@@ -52,7 +75,7 @@ public class LIPMDDPCalculator
 
    public void setDeltaT(double deltaT)
    {
-      dynamics.setTimeStepSize(deltaT);
+      ddpSolver.setTimeStepSize(deltaT);
       this.deltaT = deltaT;
       this.modifiedDeltaT = deltaT;
    }
@@ -63,7 +86,7 @@ public class LIPMDDPCalculator
    public void initialize(DenseMatrix64F currentState, SegmentedFrameTrajectory3D copDesiredPlan)
    {
       modifiedDeltaT = computeDeltaT(copDesiredPlan.getFinalTime());
-      dynamics.setTimeStepSize(modifiedDeltaT);
+      ddpSolver.setTimeStepSize(modifiedDeltaT);
       desiredTrajectory.setTrajectoryDuration(0, copDesiredPlan.getFinalTime(), deltaT);
       optimalTrajectory.setTrajectoryDuration(0, copDesiredPlan.getFinalTime(), deltaT);
       constantSequence.setLength(desiredTrajectory.size());
@@ -145,4 +168,12 @@ public class LIPMDDPCalculator
    {
       return 0.0;
    }
+
+   /**
+    * Stops the line search threads of the solver, this calculator cannot be used afterwards.
+    */
+   public void destroy()
+   {
+      ddpSolver.destroy();
+   }
 }
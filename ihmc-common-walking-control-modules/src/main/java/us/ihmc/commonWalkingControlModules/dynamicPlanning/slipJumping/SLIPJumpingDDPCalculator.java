@@ -25,7 +25,7 @@ public class SLIPJumpingDDPCalculator
    private final DiscreteOptimizationSequence desiredSequence;
    private final DiscreteSequence constantSequence;
 
-   private final SimpleDDPSolver<SLIPState> ddpSolver;
+   private final AbstractDDPSolver<SLIPState> ddpSolver;
 
    private final double mass;
    private final double gravityZ;
@@ -43,6 +43,16 @@ public class SLIPJumpingDDPCalculator
    private final TIntArrayList endIndices = new TIntArrayList();
 
    public SLIPJumpingDDPCalculator(double deltaT, double mass, double nominalHeight, double gravityZ)
+   {
+      this(deltaT, mass, nominalHeight, gravityZ, 0);
+   }
+
+   /**
+    * @param numberOfLineSearchThreads number of line search gains tried at once by the forward pass
+    *           of the solver, each on its own thread. When {@code 0}, the forward pass does not use
+    *           a line search.
+    */
+   public SLIPJumpingDDPCalculator(double deltaT, double mass, double nominalHeight, double gravityZ, int numberOfLineSearchThreads)
    {
       this.dynamics = new SimpleReactionDynamics(deltaT, mass, gravityZ);
       this.deltaT = deltaT;
@@ -50,7 +60,17 @@ public class SLIPJumpingDDPCalculator
       this.nominalHeight = nominalHeight;
       this.gravityZ = gravityZ;
 
-      ddpSolver = new SimpleDDPSolver<>(dynamics, true);
+      if (numberOfLineSearchThreads > 0)
+      {
+         List<SimpleReactionDynamics> lineSearchDynamics = new ArrayList<>();
+         for (int i = 1; i < numberOfLineSearchThreads; i++)
+            lineSearchDynamics.add(new SimpleReactionDynamics(deltaT, mass, gravityZ));
+         ddpSolver = new DDPSolver<>(dynamics, lineSearchDynamics, false);
+      }
+      else
+      {
+         ddpSolver = new SimpleDDPSolver<>(dynamics, false);
+      }
 
       LQCostFunction<SLIPState> slipModelTrackingCost = new SLIPModelForceTrackingCost(mass, gravityZ);
       LQCostFunction<SLIPState> slipRegularizationCost = new SLIPRegularizationCost();
@@ -74,7 +94,7 @@ public class SLIPJumpingDDPCalculator
 
    public void setDeltaT(double deltaT)
    {
-      dynamics.setTimeStepSize(deltaT);
+      ddpSolver.setTimeStepSize(deltaT);
       this.deltaT = deltaT;
    }
 
@@ -93,7 +113,14 @@ public class SLIPJumpingDDPCalculator
       double nominalSecondLength = nominalHeight + mass * gravityZ / nominalFinalStiffness;
 
       double modifiedDeltaT = firstStanceDuration / numberOfInitialTimeSteps;
-      dynamics.setTimeStepSize(modifiedDeltaT);
+      ddpSolver.setTimeStepSize(modifiedDeltaT);
+
+      // Start over from the phases of this jump, such that the calculator can be reused.
+      dynamicStates.clear();
+      startIndices.resetQuick();
+      endIndices.resetQuick();
+      costFunctions.clear();
+      terminalCostFunctions.clear();
 
       dynamicStates.add(SLIPState.STANCE);
       startIndices.add(0);
@@ -200,4 +227,12 @@ public class SLIPJumpingDDPCalculator
    {
       return 0.0;
    }
+
+   /**
+    * Stops the line search threads of the solver, this calculator cannot be used afterwards.
+    */
+   public void destroy()
+   {
+      ddpSolver.destroy();
+   }
 }
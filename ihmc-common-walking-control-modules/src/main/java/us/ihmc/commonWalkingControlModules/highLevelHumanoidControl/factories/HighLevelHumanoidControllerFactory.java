@@ -23,6 +23,7 @@ import us.ihmc.commonWalkingControlModules.sensors.footSwitch.KinematicsBasedFoo
 import us.ihmc.commonWalkingControlModules.sensors.footSwitch.WrenchAndContactSensorFusedFootSwitch;
 import us.ihmc.commonWalkingControlModules.sensors.footSwitch.WrenchBasedFootSwitch;
 import us.ihmc.communication.controllerAPI.CommandInputManager;
+import us.ihmc.communication.controllerAPI.CommandQueuePolicy;
 import us.ihmc.communication.controllerAPI.MessageUnpackingTools;
 import us.ihmc.communication.controllerAPI.StatusMessageOutputManager;
 import us.ihmc.communication.controllerAPI.command.Command;
@@ -31,6 +32,11 @@ import us.ihmc.graphicsDescription.HeightMap;
 import us.ihmc.graphicsDescription.yoGraphics.YoGraphicsListRegistry;
 import us.ihmc.humanoidRobotics.bipedSupportPolygons.ContactableFoot;
 import us.ihmc.humanoidRobotics.bipedSupportPolygons.ContactablePlaneBody;
+import us.ihmc.humanoidRobotics.communication.controllerAPI.command.AbortWalkingCommand;
+import us.ihmc.humanoidRobotics.communication.controllerAPI.command.NeckDesiredAccelerationsCommand;
+import us.ihmc.humanoidRobotics.communication.controllerAPI.command.PauseWalkingCommand;
+import us.ihmc.humanoidRobotics.communication.controllerAPI.command.SpineDesiredAccelerationsCommand;
+import us.ihmc.humanoidRobotics.communication.controllerAPI.command.StopAllTrajectoryCommand;
 import us.ihmc.humanoidRobotics.communication.controllerAPI.converter.ClearDelayQueueConverter;
 import us.ihmc.humanoidRobotics.communication.controllerAPI.converter.FrameMessageCommandConverter;
 import us.ihmc.humanoidRobotics.communication.packets.dataobjects.HighLevelControllerName;
@@ -137,6 +143,8 @@ public class HighLevelHumanoidControllerFactory implements CloseableAndDisposabl
       {
          e.printStackTrace();
       }
+      setCommandQueuePolicies(commandInputManager);
+      commandInputManager.createYoVariables(registry);
       statusMessageOutputManager = new StatusMessageOutputManager(ControllerAPIDefinition.getControllerSupportedStatusMessages());
 
       managerFactory = new HighLevelControlManagerFactory(statusMessageOutputManager, registry);
@@ -144,6 +152,21 @@ public class HighLevelHumanoidControllerFactory implements CloseableAndDisposabl
       managerFactory.setWalkingControllerParameters(walkingControllerParameters);
    }
 
+   /**
+    * The desired accelerations are streamed every tick and only the latest one is used, so they are
+    * coalesced. The trajectory commands are not as they can be queued. The stop, pause, and abort
+    * commands are drained from the input buffers and handled before the others.
+    */
+   private static void setCommandQueuePolicies(CommandInputManager commandInputManager)
+   {
+      commandInputManager.setCommandQueuePolicy(NeckDesiredAccelerationsCommand.class, CommandQueuePolicy.KEEP_LATEST);
+      commandInputManager.setCommandQueuePolicy(SpineDesiredAccelerationsCommand.class, CommandQueuePolicy.KEEP_LATEST);
+
+      commandInputManager.setCommandQueuePolicy(StopAllTrajectoryCommand.class, CommandQueuePolicy.PRIORITY);
+      commandInputManager.setCommandQueuePolicy(PauseWalkingCommand.class, CommandQueuePolicy.PRIORITY);
+      commandInputManager.setCommandQueuePolicy(AbortWalkingCommand.class, CommandQueuePolicy.PRIORITY);
+   }
+
    private ContinuousStepGenerator continuousStepGenerator;
 
    public void createComponentBasedFootstepDataMessageGenerator()
@@ -508,14 +508,13 @@ public class WalkingHighLevelHumanoidController implements JointLoadStatusProvid
 
       WalkingState currentState = stateMachine.getCurrentState();
       commandConsumer.update();
+      commandConsumer.consumePriorityCommands(abortWalkingRequested);
       commandConsumer.consumeHeadCommands();
       commandConsumer.consumeChestCommands();
       commandConsumer.consumePelvisHeightCommands();
       commandConsumer.consumeGoHomeMessages();
       commandConsumer.consumeFootLoadBearingCommands(currentState);
-      commandConsumer.consumeStopAllTrajectoryCommands();
       commandConsumer.consumeFootCommands();
-      commandConsumer.consumeAbortWalkingCommands(abortWalkingRequested);
       commandConsumer.consumePelvisCommands(currentState, allowUpperBodyMotionDuringLocomotion.getBooleanValue());
       commandConsumer.consumeManipulationCommands(currentState, allowUpperBodyMotionDuringLocomotion.getBooleanValue());
       commandConsumer.handleAutomaticManipulationAbortOnICPError(currentState);
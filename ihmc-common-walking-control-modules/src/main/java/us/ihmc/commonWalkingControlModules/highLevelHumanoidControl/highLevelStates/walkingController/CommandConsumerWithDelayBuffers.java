@@ -2,6 +2,7 @@ package us.ihmc.commonWalkingControlModules.highLevelHumanoidControl.highLevelSt
 
 import us.ihmc.commons.PrintTools;
 import us.ihmc.communication.controllerAPI.CommandInputManager;
+import us.ihmc.communication.controllerAPI.CommandQueuePolicy;
 import us.ihmc.communication.controllerAPI.command.Command;
 import us.ihmc.communication.packets.Packet;
 import us.ihmc.concurrent.Builder;
@@ -10,6 +11,7 @@ import us.ihmc.robotics.lists.PriorityQueue;
 import us.ihmc.robotics.lists.RecyclingArrayList;
 import us.ihmc.yoVariables.variable.YoDouble;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +34,8 @@ public class CommandConsumerWithDelayBuffers
    private final Map<Class<?>, PriorityQueue<Command<?, ?>>> priorityQueues = new HashMap<>();
    private final Map<Class<? extends Packet<?>>, Class<? extends Command<?,?>>> messageToCommandMap = new HashMap<>();
    private final List<Class<? extends Command<?, ?>>> listOfSupportedCommands;
+   /** The supported commands, with the {@link CommandQueuePolicy#PRIORITY} ones first. */
+   private final List<Class<? extends Command<?, ?>>> commandsInPollingOrder = new ArrayList<>();
 
    public CommandConsumerWithDelayBuffers(CommandInputManager commandInputManager, YoDouble yoTime)
    {
@@ -39,6 +43,17 @@ public class CommandConsumerWithDelayBuffers
       this.commandInputManager = commandInputManager;
       listOfSupportedCommands = commandInputManager.getListOfSupportedCommands();
       registerNewCommands(listOfSupportedCommands);
+
+      for (int i = 0; i < listOfSupportedCommands.size(); i++)
+      {
+         if (commandInputManager.getCommandQueuePolicy(listOfSupportedCommands.get(i)) == CommandQueuePolicy.PRIORITY)
+            commandsInPollingOrder.add(listOfSupportedCommands.get(i));
+      }
+      for (int i = 0; i < listOfSupportedCommands.size(); i++)
+      {
+         if (!commandsInPollingOrder.contains(listOfSupportedCommands.get(i)))
+            commandsInPollingOrder.add(listOfSupportedCommands.get(i));
+      }
    }
    
    @SuppressWarnings("unchecked")
@@ -66,12 +81,13 @@ public class CommandConsumerWithDelayBuffers
    /**
     * You MUST call this method each tick or you wont get any commands!
     * Polls commands from the commandInputManager and puts them in the delay queue. 
+    * The commands with the {@link CommandQueuePolicy#PRIORITY} policy are polled first.
     */
    public <C extends Command<C, ?>> void update()
    {
-      for(int i = 0; i < listOfSupportedCommands.size(); i++)
+      for(int i = 0; i < commandsInPollingOrder.size(); i++)
       {
-         Class<? extends Command<?, ?>> commandClass = listOfSupportedCommands.get(i);
+         Class<? extends Command<?, ?>> commandClass = commandsInPollingOrder.get(i);
          RecyclingArrayList<C> newCommands = (RecyclingArrayList<C>) commandInputManager.pollNewCommands((Class<C>) commandClass);
 
          for(int commandIndex = 0; commandIndex < newCommands.size(); commandIndex++)
@@ -156,6 +156,17 @@ public class WalkingCommandConsumer
       commandConsumerWithDelayBuffers.update();
    }
 
+   /**
+    * Handles the stop, pause, and abort commands. This should be called right after
+    * {@link #update()}, before consuming the other commands of this tick.
+    */
+   public void consumePriorityCommands(YoBoolean abortWalkingRequested)
+   {
+      consumeStopAllTrajectoryCommands();
+      consumePauseWalkingCommands();
+      consumeAbortWalkingCommands(abortWalkingRequested);
+   }
+
    public void consumeHeadCommands()
    {
       if (headManager == null)
@@ -434,11 +445,6 @@ public class WalkingCommandConsumer
          walkingMessageHandler.handleFootTrajectoryCommand(commandConsumerWithDelayBuffers.pollNewCommands(FootTrajectoryCommand.class));
       }
 
-      if (commandConsumerWithDelayBuffers.isNewCommandAvailable(PauseWalkingCommand.class))
-      {
-         walkingMessageHandler.handlePauseWalkingCommand(commandConsumerWithDelayBuffers.pollNewestCommand(PauseWalkingCommand.class));
-      }
-
       if (commandConsumerWithDelayBuffers.isNewCommandAvailable(FootstepDataListCommand.class))
       {
          walkingMessageHandler.handleFootstepDataListCommand(commandConsumerWithDelayBuffers.pollNewestCommand(FootstepDataListCommand.class));
@@ -461,6 +467,14 @@ public class WalkingCommandConsumer
 
    }
 
+   public void consumePauseWalkingCommands()
+   {
+      if (commandConsumerWithDelayBuffers.isNewCommandAvailable(PauseWalkingCommand.class))
+      {
+         walkingMessageHandler.handlePauseWalkingCommand(commandConsumerWithDelayBuffers.pollNewestCommand(PauseWalkingCommand.class));
+      }
+   }
+
    public void consumeAbortWalkingCommands(YoBoolean abortWalkingRequested)
    {
       if (!commandConsumerWithDelayBuffers.isNewCommandAvailable(AbortWalkingCommand.class))
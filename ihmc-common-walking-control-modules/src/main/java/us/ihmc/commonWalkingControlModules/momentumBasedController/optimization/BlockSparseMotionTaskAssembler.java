@@ -0,0 +1,191 @@
+package us.ihmc.commonWalkingControlModules.momentumBasedController.optimization;
+
+import org.ejml.data.DenseMatrix64F;
+
+/**
+ * Adds motion tasks to the QP cost function while skipping the columns of the task Jacobian that
+ * are zero.
+ * <p>
+ * The task Jacobians created by the {@link MotionQPInputCalculator} are built by inserting the
+ * columns of the joints used in the task at the columns given by the {@link JointIndexHandler}.
+ * For a typical task such as a hand or a foot, only the floating joint and a single kinematic chain
+ * are non-zero. The non-zero columns are grouped into contiguous blocks, and J<sup>T</sup> W J and
+ * J<sup>T</sup> W b are only accumulated over these blocks. The result is identical to the dense
+ * computation.
+ * </p>
+ * <p>
+ * This class does not allocate memory once created, as long as the task Jacobians have at most
+ * {@code numberOfDoFs} columns.
+ * </p>
+ */
+public class BlockSparseMotionTaskAssembler
+{
+   private final int[] blockStarts;
+   private final int[] blockEnds;
+   private int numberOfBlocks = 0;
+   private int numberOfNonZeroColumns = 0;
+
+   private double[] rowWeights = new double[6];
+
+   public BlockSparseMotionTaskAssembler(int numberOfDoFs)
+   {
+      blockStarts = new int[numberOfDoFs];
+      blockEnds = new int[numberOfDoFs];
+   }
+
+   /**
+    * Computes the blocks of contiguous non-zero columns of the given task Jacobian.
+    */
+   public void computeColumnBlocks(DenseMatrix64F taskJacobian)
+   {
+      int numberOfRows = taskJacobian.getNumRows();
+      int numberOfCols = taskJacobian.getNumCols();
+      double[] data = taskJacobian.getData();
+
+      numberOfBlocks = 0;
+      numberOfNonZeroColumns = 0;
+      boolean inBlock = false;
+
+      for (int col = 0; col < numberOfCols; col++)
+      {
+         boolean isColumnZero = true;
+         for (int row = 0, index = col; row < numberOfRows; row++, index += numberOfCols)
+         {
+            if (data[index] != 0.0)
+            {
+               isColumnZero = false;
+               break;
+            }
+         }
+
+         if (!isColumnZero)
+         {
+            if (!inBlock)
+            {
+               blockStarts[numberOfBlocks] = col;
+               inBlock = true;
+            }
+            numberOfNonZeroColumns++;
+         }
+         else if (inBlock)
+         {
+            blockEnds[numberOfBlocks++] = col;
+            inBlock = false;
+         }
+      }
+
+      if (inBlock)
+         blockEnds[numberOfBlocks++] = numberOfCols;
+   }
+
+   /**
+    * Adds the motion task to the cost function:
+    * <p>
+    * H += J<sup>T</sup> W J <br>
+    * f += - J<sup>T</sup> W b
+    * </p>
+    * Only the upper-left block of size {@code taskJacobian.getNumCols()} of H and f is modified.
+    *
+    * @param taskJacobian J in the above equation.
+    * @param taskObjective b in the above equation.
+    * @param taskWeight scalar weight W in the above equation.
+    * @param hessianToModify H in the above equation.
+    * @param gradientToModify f in the above equation.
+    */
+   public void addMotionTask(DenseMatrix64F taskJacobian, DenseMatrix64F taskObjective, double taskWeight, DenseMatrix64F hessianToModify,
+                             DenseMatrix64F gradientToModify)
+   {
+      int taskSize = taskJacobian.getNumRows();
+      packRowWeights(taskSize);
+      for (int row = 0; row < taskSize; row++)
+         rowWeights[row] = taskWeight;
+
+      addMotionTaskInternal(taskJacobian, taskObjective, hessianToModify, gradientToModify);
+   }
+
+   /**
+    * Same as {@link #addMotionTask(DenseMatrix64F, DenseMatrix64F, double, DenseMatrix64F, DenseMatrix64F)}
+    * with a weight matrix. The weight matrix is assumed to be diagonal.
+    */
+   public void addMotionTask(DenseMatrix64F taskJacobian, DenseMatrix64F taskObjective, DenseMatrix64F taskWeight, DenseMatrix64F hessianToModify,
+                             DenseMatrix64F gradientToModify)
+   {
+      int taskSize = taskJacobian.getNumRows();
+      packRowWeights(taskSize);
+      for (int row = 0; row < taskSize; row++)
+         rowWeights[row] = taskWeight.unsafe_get(row, row);
+
+      addMotionTaskInternal(taskJacobian, taskObjective, hessianToModify, gradientToModify);
+   }
+
+   private void packRowWeights(int taskSize)
+   {
+      if (rowWeights.length < taskSize)
+         rowWeights = new double[taskSize];
+   }
+
+   private void addMotionTaskInternal(DenseMatrix64F taskJacobian, DenseMatrix64F taskObjective, DenseMatrix64F hessianToModify,
+                                      DenseMatrix64F gradientToModify)
+   {
+      computeColumnBlocks(taskJacobian);
+
+      int taskSize = taskJacobian.getNumRows();
+      int numberOfCols = taskJacobian.getNumCols();
+      int hessianCols = hessianToModify.getNumCols();
+      double[] J = taskJacobian.getData();
+      double[] b = taskObjective.getData();
+      double[] H = hessianToModify.getData();
+      double[] f = gradientToModify.getData();
+
+      for (int blockI = 0; blockI < numberOfBlocks; blockI++)
+      {
+         for (int i = blockStarts[blockI]; i < blockEnds[blockI]; i++)
+         {
+            // Compute: f += - J^T W Objective
+            double gradient = 0.0;
+            for (int row = 0, index = i; row < taskSize; row++, index += numberOfCols)
+               gradient += J[index] * rowWeights[row] * b[row];
+            f[i] -= gradient;
+
+            // Compute: H += J^T W J, only the upper triangle is computed and then mirrored.
+            for (int blockJ = blockI; blockJ < numberOfBlocks; blockJ++)
+            {
+               int start = blockJ == blockI ? i : blockStarts[blockJ];
+               for (int j = start; j < blockEnds[blockJ]; j++)
+               {
+                  double value = 0.0;
+                  for (int row = 0, rowIndex = 0; row < taskSize; row++, rowIndex += numberOfCols)
+                     value += J[rowIndex + i] * rowWeights[row] * J[rowIndex + j];
+
+                  H[i * hessianCols + j] += value;
+                  if (i != j)
+                     H[j * hessianCols + i] += value;
+               }
+            }
+         }
+      }
+   }
+
+   public int getNumberOfBlocks()
+   {
+      return numberOfBlocks;
+   }
+
+   public int getNumberOfNonZeroColumns()
+   {
+      return numberOfNonZeroColumns;
+   }
+
+   public int getBlockStart(int blockIndex)
+   {
+      return blockStarts[blockIndex];
+   }
+
+   /**
+    * @return the index of the first column after the block (exclusive).
+    */
+   public int getBlockEnd(int blockIndex)
+   {
+      return blockEnds[blockIndex];
+   }
+}
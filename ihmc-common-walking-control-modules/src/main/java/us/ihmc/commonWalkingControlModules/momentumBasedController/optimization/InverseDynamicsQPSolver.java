@@ -59,6 +59,7 @@ public class InverseDynamicsQPSolver
    private final YoDouble jointAccelerationRegularization = new YoDouble("jointAccelerationRegularization", registry);
    private final YoDouble jointJerkRegularization = new YoDouble("jointJerkRegularization", registry);
    private final YoDouble jointTorqueWeight = new YoDouble("jointTorqueWeight", registry);
+   private final YoBoolean useBlockSparseMotionTasks = new YoBoolean("useBlockSparseMotionTasks", registry);
    private final DenseMatrix64F regularizationMatrix;
 
    private final DenseMatrix64F tempJtW;
@@ -68,6 +69,8 @@ public class InverseDynamicsQPSolver
    private final DenseMatrix64F tempRhoTask_f;
    private final DenseMatrix64F tempTorqueTask_H;
 
+   private final BlockSparseMotionTaskAssembler blockSparseMotionTaskAssembler;
+
    private final int numberOfDoFs;
    private final int rhoSize;
    private final int problemSize;
@@ -125,6 +128,9 @@ public class InverseDynamicsQPSolver
 
       tempTorqueTask_H = new DenseMatrix64F(numberOfDoFs, problemSize);
 
+      blockSparseMotionTaskAssembler = new BlockSparseMotionTaskAssembler(numberOfDoFs);
+      useBlockSparseMotionTasks.set(true);
+
       jointAccelerationRegularization.set(0.005);
       jointJerkRegularization.set(0.1);
       jointTorqueWeight.set(0.001);
@@ -170,6 +176,15 @@ public class InverseDynamicsQPSolver
       CommonOps.insert(weight, regularizationMatrix, numberOfDoFs, numberOfDoFs);
    }
 
+   /**
+    * When enabled, the motion tasks are only accumulated over the non-zero columns of their
+    * Jacobian. See {@link BlockSparseMotionTaskAssembler}.
+    */
+   public void setUseBlockSparseMotionTasks(boolean useBlockSparseMotionTasks)
+   {
+      this.useBlockSparseMotionTasks.set(useBlockSparseMotionTasks);
+   }
+
    public void setUseWarmStart(boolean useWarmStart)
    {
       this.useWarmStart = useWarmStart;
@@ -251,6 +266,12 @@ public class InverseDynamicsQPSolver
 
    public void addMotionTask(DenseMatrix64F taskJ, DenseMatrix64F taskObjective, double taskWeight)
    {
+      if (useBlockSparseMotionTasks.getBooleanValue())
+      {
+         blockSparseMotionTaskAssembler.addMotionTask(taskJ, taskObjective, taskWeight, solverInput_H, solverInput_f);
+         return;
+      }
+
       int taskSize = taskJ.getNumRows();
 
       // J^T W
@@ -271,6 +292,12 @@ public class InverseDynamicsQPSolver
     */
    public void addMotionTask(DenseMatrix64F taskJacobian, DenseMatrix64F taskObjective, DenseMatrix64F taskWeight)
    {
+      if (useBlockSparseMotionTasks.getBooleanValue())
+      {
+         blockSparseMotionTaskAssembler.addMotionTask(taskJacobian, taskObjective, taskWeight, solverInput_H, solverInput_f);
+         return;
+      }
+
       int taskSize = taskJacobian.getNumRows();
 
       // J^T W
@@ -0,0 +1,121 @@
+package us.ihmc.commonWalkingControlModules.dynamicPlanning;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ejml.alg.dense.decomposition.bidiagonal.BidiagonalDecompositionRow_D64;
+import org.ejml.data.DenseMatrix64F;
+import org.junit.Before;
+import org.junit.Test;
+
+import gnu.trove.list.array.TIntArrayList;
+import us.ihmc.commonWalkingControlModules.dynamicPlanning.lipm.LIPMDDPCalculator;
+import us.ihmc.commonWalkingControlModules.dynamicPlanning.slipJumping.SLIPJumpingDDPCalculator;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.continuousIntegration.IntegrationCategory;
+import us.ihmc.robotics.allocations.AllocationTest;
+import us.ihmc.robotics.lists.RecyclingArrayList;
+import us.ihmc.trajectoryOptimization.AbstractDDPSolver;
+import us.ihmc.trajectoryOptimization.DDPSolver;
+import us.ihmc.trajectoryOptimization.SimpleDDPSolver;
+
+/**
+ * Checks that once warmed up, planning with the DDP calculators does not allocate, with and
+ * without the parallel line search. Runs the same plans as {@link DDPCalculatorBenchmark}.
+ */
+public class DDPCalculatorAllocationTest implements AllocationTest
+{
+   private static final int numberOfWarmupSolves = 20;
+
+   @Before
+   public void before()
+   {
+      AllocationTest.checkInstrumentation();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 10.0, categoriesOverride = {IntegrationCategory.SLOW})
+   @Test(timeout = 120000)
+   public void testForAllocationsWithoutLineSearch()
+   {
+      testInternal(0);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 10.0, categoriesOverride = {IntegrationCategory.SLOW})
+   @Test(timeout = 120000)
+   public void testForAllocationsWithSerialLineSearch()
+   {
+      testInternal(1);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 10.0, categoriesOverride = {IntegrationCategory.SLOW})
+   @Test(timeout = 120000)
+   public void testForAllocationsWithParallelLineSearch()
+   {
+      testInternal(4);
+   }
+
+   private void testInternal(int numberOfLineSearchThreads)
+   {
+      DDPCalculatorBenchmark benchmark = new DDPCalculatorBenchmark();
+      benchmark.numberOfLineSearchThreads = numberOfLineSearchThreads;
+      benchmark.setup();
+
+      try
+      {
+         // Grows the recycling lists and the matrices to their final sizes.
+         for (int i = 0; i < numberOfWarmupSolves; i++)
+         {
+            benchmark.lipmSolve();
+            benchmark.slipSingleSolve();
+         }
+
+         List<Throwable> allocations = runAndCollectAllocations(() ->
+         {
+            benchmark.lipmSolve();
+            benchmark.slipSingleSolve();
+         });
+
+         allocations.forEach(allocation -> allocation.printStackTrace());
+         assertTrue("Found " + allocations.size() + " allocations with " + numberOfLineSearchThreads + " line search threads.", allocations.isEmpty());
+      }
+      finally
+      {
+         benchmark.tearDown();
+      }
+   }
+
+   @Override
+   public List<Class<?>> getClassesOfInterest()
+   {
+      List<Class<?>> classesOfInterest = new ArrayList<>();
+      classesOfInterest.add(LIPMDDPCalculator.class);
+      classesOfInterest.add(SLIPJumpingDDPCalculator.class);
+      // The line search threads of the solver are not started from the calculators.
+      classesOfInterest.add(AbstractDDPSolver.class);
+      classesOfInterest.add(DDPSolver.class);
+      classesOfInterest.add(SimpleDDPSolver.class);
+      return classesOfInterest;
+   }
+
+   @Override
+   public List<Class<?>> getClassesToIgnore()
+   {
+      return new ArrayList<>();
+   }
+
+   @Override
+   public List<String> getMethodsToIgnore()
+   {
+      List<String> methodsToIgnore = new ArrayList<>();
+
+      // These methods are "safe" as they will only allocate to increase their capacity.
+      methodsToIgnore.add(DenseMatrix64F.class.getName() + ".reshape");
+      methodsToIgnore.add(TIntArrayList.class.getName() + ".ensureCapacity");
+      methodsToIgnore.add(RecyclingArrayList.class.getName() + ".ensureCapacity");
+      methodsToIgnore.add(BidiagonalDecompositionRow_D64.class.getName() + ".init");
+
+      return methodsToIgnore;
+   }
+}
@@ -0,0 +1,174 @@
+package us.ihmc.commonWalkingControlModules.dynamicPlanning;
+
+import java.util.concurrent.TimeUnit;
+
+import org.ejml.data.DenseMatrix64F;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import us.ihmc.commonWalkingControlModules.dynamicPlanning.lipm.LIPMDDPCalculator;
+import us.ihmc.commonWalkingControlModules.dynamicPlanning.slipJumping.SLIPJumpingDDPCalculator;
+import us.ihmc.commonWalkingControlModules.dynamicPlanning.slipJumping.SLIPState;
+import us.ihmc.euclid.referenceFrame.FramePoint3D;
+import us.ihmc.euclid.referenceFrame.ReferenceFrame;
+import us.ihmc.robotics.math.trajectories.FrameTrajectory3D;
+import us.ihmc.robotics.math.trajectories.SegmentedFrameTrajectory3D;
+import us.ihmc.trajectoryOptimization.DiscreteOptimizationData;
+
+/**
+ * Measures the time to plan with the DDP calculators from scratch, as done when replanning in the
+ * controller, for the different line search modes of the solver.
+ * <p>
+ * Run {@link #main(String[])} to get the allocation rate along with the timings. Once warmed up,
+ * the iterations of the solvers do not allocate, as checked by {@link DDPCalculatorAllocationTest}.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class DDPCalculatorBenchmark
+{
+   private static final ReferenceFrame worldFrame = ReferenceFrame.getWorldFrame();
+
+   private static final double deltaT = 0.01;
+   private static final double mass = 150.0;
+   private static final double gravityZ = 9.81;
+   private static final double nominalComHeight = 1.0;
+
+   private static final double transferDuration = 0.1;
+   private static final double swingDuration = 0.5;
+   private static final double stepLength = 0.3;
+   private static final double stepWidth = 0.2;
+
+   private static final double stanceDuration = 0.3;
+   private static final double jumpLength = 1.5;
+   private static final double jumpHeight = 0.05;
+   private static final double landingAngle = Math.toRadians(20.0);
+
+   /** Number of line search gains tried at once by the solvers, {@code 0} to use no line search. */
+   @Param({"0", "1", "4"})
+   public int numberOfLineSearchThreads;
+
+   private LIPMDDPCalculator lipmCalculator;
+   private final SegmentedFrameTrajectory3D copPlan = new SegmentedFrameTrajectory3D(10, 5);
+   private final DenseMatrix64F lipmInitialState = new DenseMatrix64F(6, 1);
+
+   private SLIPJumpingDDPCalculator slipCalculator;
+   private final DenseMatrix64F slipInitialState = new DenseMatrix64F(SLIPState.stateVectorSize, 1);
+   private final FramePoint3D takeOffPoint = new FramePoint3D(worldFrame);
+   private final FramePoint3D apexPoint = new FramePoint3D(worldFrame);
+   private final FramePoint3D landingPoint = new FramePoint3D(worldFrame);
+   private double flightDuration;
+   private double nominalStiffness;
+
+   @Setup(Level.Trial)
+   public void setup()
+   {
+      lipmCalculator = new LIPMDDPCalculator(deltaT, mass, gravityZ, numberOfLineSearchThreads);
+      lipmInitialState.set(2, 0, nominalComHeight);
+      createCoPPlan();
+
+      slipCalculator = new SLIPJumpingDDPCalculator(deltaT, mass, nominalComHeight, gravityZ, numberOfLineSearchThreads);
+      slipInitialState.set(SLIPState.z, 0, nominalComHeight);
+      createJump();
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown()
+   {
+      lipmCalculator.destroy();
+      slipCalculator.destroy();
+   }
+
+   /**
+    * Two steps: the CoP shifts to the next support foot during each transfer and stays there during
+    * the swing.
+    */
+   private void createCoPPlan()
+   {
+      FramePoint3D initialCoP = new FramePoint3D(worldFrame);
+      FramePoint3D finalCoP = new FramePoint3D(worldFrame, 0.0, 0.5 * stepWidth, 0.0);
+
+      copPlan.reset();
+      double time = 0.0;
+
+      for (int step = 0; step < 2; step++)
+      {
+         FrameTrajectory3D transferTrajectory = copPlan.add();
+         transferTrajectory.setCubic(time, time + transferDuration, initialCoP, finalCoP);
+         time += transferDuration;
+
+         FrameTrajectory3D swingTrajectory = copPlan.add();
+         swingTrajectory.setConstant(time, time + swingDuration, finalCoP);
+         time += swingDuration;
+
+         initialCoP.set(finalCoP);
+         finalCoP.set(initialCoP.getX() + stepLength, -initialCoP.getY(), 0.0);
+      }
+
+      finalCoP.set(initialCoP.getX() - 0.5 * stepLength, 0.0, 0.0);
+      FrameTrajectory3D finalTransferTrajectory = copPlan.add();
+      finalTransferTrajectory.setCubic(time, time + 2.0 * transferDuration, initialCoP, finalCoP);
+   }
+
+   /**
+    * Same jump as the one computed by the SLIP jumping visualizer.
+    */
+   private void createJump()
+   {
+      takeOffPoint.set(0.0, 0.0, 0.0);
+      landingPoint.set(jumpLength, 0.0, jumpHeight);
+
+      double length = takeOffPoint.distance(landingPoint);
+      double heightChange = landingPoint.getZ() - takeOffPoint.getZ();
+      flightDuration = Math.sqrt(2.0 * (heightChange + length * Math.tan(landingAngle)) / gravityZ);
+      double apexHeight = 0.5 * Math.pow(length * Math.tan(landingAngle), 2.0) / (flightDuration * flightDuration * gravityZ) + heightChange;
+
+      apexPoint.interpolate(takeOffPoint, landingPoint, 0.5);
+      apexPoint.setZ(apexHeight + nominalComHeight);
+
+      nominalStiffness = 4.0 * Math.PI * Math.PI * mass / (stanceDuration * stanceDuration);
+   }
+
+   @Benchmark
+   public DiscreteOptimizationData lipmSolve()
+   {
+      lipmCalculator.initialize(lipmInitialState, copPlan);
+      lipmCalculator.solve();
+      return lipmCalculator.getOptimalTrajectory();
+   }
+
+   @Benchmark
+   public DiscreteOptimizationData slipSingleSolve()
+   {
+      slipCalculator.initialize(slipInitialState, takeOffPoint, apexPoint, landingPoint, stanceDuration, flightDuration, stanceDuration, nominalStiffness,
+                                nominalStiffness);
+      slipCalculator.singleSolve();
+      return slipCalculator.getOptimalSequence();
+   }
+
+   public static void main(String[] args) throws RunnerException
+   {
+      Options options = new OptionsBuilder().include(DDPCalculatorBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build();
+      new Runner(options).run();
+   }
+}
@@ -0,0 +1,136 @@
+package us.ihmc.commonWalkingControlModules.momentumBasedController.optimization;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.ejml.data.DenseMatrix64F;
+import org.ejml.ops.CommonOps;
+import org.ejml.ops.RandomMatrices;
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.robotics.linearAlgebra.DiagonalMatrixTools;
+import us.ihmc.robotics.linearAlgebra.MatrixTools;
+
+public class BlockSparseMotionTaskAssemblerTest
+{
+   private static final double EPSILON = 1.0e-10;
+   private static final int ITERATIONS = 500;
+
+   // Similar to Atlas: floating joint, spine, two arms, neck, two legs.
+   private static final int[][] ROBOT_CHAINS = {{0, 6}, {6, 9}, {9, 16}, {16, 23}, {23, 24}, {24, 30}, {30, 36}};
+   private static final int NUMBER_OF_DOFS = 36;
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.3)
+   @Test(timeout = 30000)
+   public void testColumnBlocks()
+   {
+      BlockSparseMotionTaskAssembler assembler = new BlockSparseMotionTaskAssembler(10);
+      DenseMatrix64F taskJacobian = new DenseMatrix64F(2, 10);
+      taskJacobian.set(0, 1, 1.0);
+      taskJacobian.set(1, 2, 1.0);
+      taskJacobian.set(0, 5, 1.0);
+      taskJacobian.set(1, 9, 1.0);
+
+      assembler.computeColumnBlocks(taskJacobian);
+      assertEquals(3, assembler.getNumberOfBlocks());
+      assertEquals(4, assembler.getNumberOfNonZeroColumns());
+      assertEquals(1, assembler.getBlockStart(0));
+      assertEquals(3, assembler.getBlockEnd(0));
+      assertEquals(5, assembler.getBlockStart(1));
+      assertEquals(6, assembler.getBlockEnd(1));
+      assertEquals(9, assembler.getBlockStart(2));
+      assertEquals(10, assembler.getBlockEnd(2));
+
+      taskJacobian.zero();
+      assembler.computeColumnBlocks(taskJacobian);
+      assertEquals(0, assembler.getNumberOfBlocks());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testAgainstDenseAssembly()
+   {
+      Random random = new Random(4525L);
+      int problemSize = NUMBER_OF_DOFS + 16;
+      BlockSparseMotionTaskAssembler assembler = new BlockSparseMotionTaskAssembler(NUMBER_OF_DOFS);
+
+      DenseMatrix64F sparseH = new DenseMatrix64F(problemSize, problemSize);
+      DenseMatrix64F sparsef = new DenseMatrix64F(problemSize, 1);
+      DenseMatrix64F denseH = new DenseMatrix64F(problemSize, problemSize);
+      DenseMatrix64F densef = new DenseMatrix64F(problemSize, 1);
+
+      for (int i = 0; i < ITERATIONS; i++)
+      {
+         int taskSize = 1 + random.nextInt(6);
+         DenseMatrix64F taskJacobian = nextSparseJacobian(random, taskSize);
+         DenseMatrix64F taskObjective = RandomMatrices.createRandom(taskSize, 1, -1.0, 1.0, random);
+
+         RandomMatrices.setRandom(sparseH, random);
+         RandomMatrices.setRandom(sparsef, random);
+         denseH.set(sparseH);
+         densef.set(sparsef);
+
+         if (random.nextBoolean())
+         {
+            double weight = random.nextDouble();
+            assembler.addMotionTask(taskJacobian, taskObjective, weight, sparseH, sparsef);
+            addDense(taskJacobian, taskObjective, CommonOps.identity(taskSize, taskSize), weight, denseH, densef);
+         }
+         else
+         {
+            DenseMatrix64F weight = RandomMatrices.createDiagonal(taskSize, 0.0, 10.0, random);
+            assembler.addMotionTask(taskJacobian, taskObjective, weight, sparseH, sparsef);
+            addDense(taskJacobian, taskObjective, weight, 1.0, denseH, densef);
+         }
+
+         assertMatrixEquals(denseH, sparseH);
+         assertMatrixEquals(densef, sparsef);
+      }
+   }
+
+   private static DenseMatrix64F nextSparseJacobian(Random random, int taskSize)
+   {
+      DenseMatrix64F taskJacobian = new DenseMatrix64F(taskSize, NUMBER_OF_DOFS);
+
+      for (int[] chain : ROBOT_CHAINS)
+      {
+         if (chain[0] != 0 && random.nextDouble() < 0.7)
+            continue;
+
+         for (int row = 0; row < taskSize; row++)
+         {
+            for (int col = chain[0]; col < chain[1]; col++)
+               taskJacobian.set(row, col, random.nextDouble() - 0.5);
+         }
+      }
+
+      return taskJacobian;
+   }
+
+   private static void addDense(DenseMatrix64F taskJacobian, DenseMatrix64F taskObjective, DenseMatrix64F taskWeight, double scale, DenseMatrix64F H,
+                                DenseMatrix64F f)
+   {
+      int numberOfDoFs = taskJacobian.getNumCols();
+      DenseMatrix64F JtW = new DenseMatrix64F(numberOfDoFs, taskJacobian.getNumRows());
+      DiagonalMatrixTools.postMultTransA(taskJacobian, taskWeight, JtW);
+      CommonOps.scale(scale, JtW);
+
+      DenseMatrix64F taskH = new DenseMatrix64F(numberOfDoFs, numberOfDoFs);
+      CommonOps.mult(JtW, taskJacobian, taskH);
+      MatrixTools.addMatrixBlock(H, 0, 0, taskH, 0, 0, numberOfDoFs, numberOfDoFs, 1.0);
+
+      DenseMatrix64F taskf = new DenseMatrix64F(numberOfDoFs, 1);
+      CommonOps.mult(JtW, taskObjective, taskf);
+      MatrixTools.addMatrixBlock(f, 0, 0, taskf, 0, 0, numberOfDoFs, 1, -1.0);
+   }
+
+   private static void assertMatrixEquals(DenseMatrix64F expected, DenseMatrix64F actual)
+   {
+      assertEquals(expected.getNumRows(), actual.getNumRows());
+      assertEquals(expected.getNumCols(), actual.getNumCols());
+      for (int i = 0; i < expected.getNumElements(); i++)
+         assertEquals(expected.get(i), actual.get(i), EPSILON);
+   }
+}
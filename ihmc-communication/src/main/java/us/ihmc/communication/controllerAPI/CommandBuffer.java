@@ -0,0 +1,248 @@
+package us.ihmc.communication.controllerAPI;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import us.ihmc.communication.controllerAPI.command.Command;
+import us.ihmc.concurrent.Builder;
+import us.ihmc.concurrent.ConcurrentCopier;
+import us.ihmc.concurrent.ConcurrentRingBuffer;
+import us.ihmc.robotics.lists.RecyclingArrayList;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+import us.ihmc.yoVariables.variable.YoDouble;
+import us.ihmc.yoVariables.variable.YoInteger;
+
+/**
+ * Buffer holding the commands of a single class between the thread submitting them and the
+ * controller thread, according to a {@link CommandQueuePolicy}.
+ * <p>
+ * As the {@link ConcurrentRingBuffer} it is built on, it assumes one producer thread and one
+ * consumer thread and does not allocate once created. The counters are updated with atomics on the
+ * producer side and published to the YoVariables from the consumer side.
+ * </p>
+ */
+class CommandBuffer<C extends Command<C, ?>>
+{
+   private final Class<C> commandClass;
+   private final Builder<C> builder;
+   private final CommandQueuePolicy policy;
+
+   /** Used with {@link CommandQueuePolicy#FIFO} and {@link CommandQueuePolicy#PRIORITY}. */
+   private final ConcurrentRingBuffer<C> ringBuffer;
+
+   /** Used with {@link CommandQueuePolicy#KEEP_LATEST}. */
+   private final ConcurrentCopier<StampedCommand<C>> latestCommandCopier;
+   private StampedCommand<C> stampedCommandForWriting;
+   private long producerSequence = 0;
+   private long consumerSequence = 0;
+
+   private final AtomicInteger numberOfOverflows = new AtomicInteger();
+   private final AtomicLong oldestPendingSubmitTime = new AtomicLong();
+   private int numberOfCoalescedCommands = 0;
+   private double latency = 0.0;
+
+   private YoInteger yoNumberOfOverflows;
+   private YoInteger yoNumberOfCoalescedCommands;
+   private YoDouble yoLatency;
+
+   CommandBuffer(Class<C> commandClass, Builder<C> builder, CommandQueuePolicy policy, int capacity)
+   {
+      this.commandClass = commandClass;
+      this.builder = builder;
+      this.policy = policy;
+
+      if (policy == CommandQueuePolicy.KEEP_LATEST)
+      {
+         ringBuffer = null;
+         latestCommandCopier = new ConcurrentCopier<>(() -> new StampedCommand<>(builder.newInstance()));
+      }
+      else
+      {
+         ringBuffer = new ConcurrentRingBuffer<>(builder, capacity);
+         latestCommandCopier = null;
+      }
+   }
+
+   /**
+    * @return a new buffer for the same command class, with a different policy.
+    */
+   CommandBuffer<C> withPolicy(CommandQueuePolicy policy, int capacity)
+   {
+      CommandBuffer<C> newBuffer = new CommandBuffer<>(commandClass, builder, policy, capacity);
+      newBuffer.yoNumberOfOverflows = yoNumberOfOverflows;
+      newBuffer.yoNumberOfCoalescedCommands = yoNumberOfCoalescedCommands;
+      newBuffer.yoLatency = yoLatency;
+      return newBuffer;
+   }
+
+   void createYoVariables(YoVariableRegistry registry)
+   {
+      String prefix = commandClass.getSimpleName();
+      yoNumberOfOverflows = new YoInteger(prefix + "Overflows", registry);
+      yoNumberOfCoalescedCommands = new YoInteger(prefix + "Coalesced", registry);
+      yoLatency = new YoDouble(prefix + "Latency", registry);
+   }
+
+   CommandQueuePolicy getPolicy()
+   {
+      return policy;
+   }
+
+   /**
+    * Producer side: gets the command to write the new data in.
+    *
+    * @return the command to be modified and then committed with {@link #commit()}, or {@code null}
+    *         if the buffer is full.
+    */
+   C next()
+   {
+      if (policy == CommandQueuePolicy.KEEP_LATEST)
+      {
+         stampedCommandForWriting = latestCommandCopier.getCopyForWriting();
+         return stampedCommandForWriting.command;
+      }
+
+      C nextCommand = ringBuffer.next();
+      if (nextCommand == null)
+         numberOfOverflows.incrementAndGet();
+      return nextCommand;
+   }
+
+   /**
+    * Producer side: makes the command obtained with {@link #next()} visible to the consumer.
+    */
+   void commit()
+   {
+      if (policy == CommandQueuePolicy.KEEP_LATEST)
+      {
+         stampedCommandForWriting.sequence = ++producerSequence;
+         latestCommandCopier.commit();
+      }
+      else
+      {
+         ringBuffer.commit();
+      }
+
+      oldestPendingSubmitTime.compareAndSet(0, System.nanoTime());
+   }
+
+   /**
+    * Consumer side: checks if a new command is available.
+    */
+   boolean poll()
+   {
+      if (policy == CommandQueuePolicy.KEEP_LATEST)
+      {
+         StampedCommand<C> latestCommand = latestCommandCopier.getCopyForReading();
+         return latestCommand != null && latestCommand.sequence != consumerSequence;
+      }
+
+      return ringBuffer.poll();
+   }
+
+   /**
+    * Consumer side: copies the new available commands in the given list, and marks them as read.
+    *
+    * @param commandsToPack the list in which the new commands are stored. Cleared first. Modified.
+    */
+   void pollNewCommands(RecyclingArrayList<C> commandsToPack)
+   {
+      commandsToPack.clear();
+
+      if (policy == CommandQueuePolicy.KEEP_LATEST)
+      {
+         StampedCommand<C> latestCommand = latestCommandCopier.getCopyForReading();
+
+         if (latestCommand != null && latestCommand.sequence != consumerSequence)
+         {
+            numberOfCoalescedCommands += (int) (latestCommand.sequence - consumerSequence - 1);
+            consumerSequence = latestCommand.sequence;
+            commandsToPack.add().set(latestCommand.command);
+            updateLatency();
+         }
+      }
+      else if (ringBuffer.poll())
+      {
+         C command;
+         while ((command = ringBuffer.read()) != null)
+         {
+            commandsToPack.add().set(command);
+            command.clear();
+         }
+         ringBuffer.flush();
+         updateLatency();
+      }
+
+      updateYoVariables();
+   }
+
+   /**
+    * Consumer side: throws away the new available commands.
+    */
+   void clear()
+   {
+      if (policy == CommandQueuePolicy.KEEP_LATEST)
+      {
+         StampedCommand<C> latestCommand = latestCommandCopier.getCopyForReading();
+         if (latestCommand != null)
+            consumerSequence = latestCommand.sequence;
+      }
+      else if (ringBuffer.poll())
+      {
+         for (int i = 0; i < ringBuffer.getCapacity(); i++)
+         {
+            if (ringBuffer.read() == null)
+               break;
+         }
+         ringBuffer.flush();
+      }
+
+      oldestPendingSubmitTime.set(0);
+      updateYoVariables();
+   }
+
+   /**
+    * The latency is the time the oldest command of the batch spent in the buffer.
+    */
+   private void updateLatency()
+   {
+      long submitTime = oldestPendingSubmitTime.getAndSet(0);
+      if (submitTime != 0)
+         latency = (System.nanoTime() - submitTime) / 1.0e9;
+   }
+
+   private void updateYoVariables()
+   {
+      if (yoNumberOfOverflows == null)
+         return;
+
+      yoNumberOfOverflows.set(numberOfOverflows.get());
+      yoNumberOfCoalescedCommands.set(numberOfCoalescedCommands);
+      yoLatency.set(latency);
+   }
+
+   int getNumberOfOverflows()
+   {
+      return numberOfOverflows.get();
+   }
+
+   int getNumberOfCoalescedCommands()
+   {
+      return numberOfCoalescedCommands;
+   }
+
+   /**
+    * The sequence number tells the consumer whether the command has already been read, without
+    * having to compare the command data.
+    */
+   private static class StampedCommand<C>
+   {
+      private final C command;
+      private long sequence = 0;
+
+      private StampedCommand(C command)
+      {
+         this.command = command;
+      }
+   }
+}
@@ -14,6 +14,7 @@ import us.ihmc.communication.packets.Packet;
 import us.ihmc.concurrent.Builder;
 import us.ihmc.concurrent.ConcurrentRingBuffer;
 import us.ihmc.robotics.lists.RecyclingArrayList;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
 
 /**
  * CommandInputManager is used to generate a thread-safe input API for a controller. {@link Packet}
@@ -32,6 +33,11 @@ import us.ihmc.robotics.lists.RecyclingArrayList;
  * another thread. ABSOLUTELY NO Packet/Command should be directly passed to controller, any
  * Packet/Command has to go through this API to ensure that multi-threading is done properly.
  * 
+ * By default, the commands of each class are queued in order in a buffer of fixed capacity. This can
+ * be changed per command class with {@link #setCommandQueuePolicy(Class, CommandQueuePolicy)}, for
+ * instance to only keep the latest of streamed commands. The overflows, coalesced commands and
+ * latency of each buffer can be logged with {@link #createYoVariables(YoVariableRegistry)}.
+ * 
  * @author Sylvain
  *
  */
@@ -45,17 +51,17 @@ public class CommandInputManager
     * {@link #clearAllCommands()}. These buffers CANNOT be visible or accessed from outside this
     * class.
     */
-   private final List<ConcurrentRingBuffer<?>> allBuffers = new ArrayList<>();
+   private final List<CommandBuffer<?>> allBuffers = new ArrayList<>();
    /**
     * Map from the registered commands to their associated buffer. These buffers CANNOT be visible
     * or accessed from outside this class.
     */
-   private final Map<Class<? extends Command<?, ?>>, ConcurrentRingBuffer<? extends Command<?, ?>>> commandClassToBufferMap = new HashMap<>();
+   private final Map<Class<? extends Command<?, ?>>, CommandBuffer<? extends Command<?, ?>>> commandClassToBufferMap = new HashMap<>();
    /**
     * Map from the registered messages to their associated buffer. These buffers CANNOT be visible
     * or accessed from outside this class.
     */
-   private final Map<Class<? extends Packet<?>>, ConcurrentRingBuffer<? extends Command<?, ?>>> messageClassToBufferMap = new HashMap<>();
+   private final Map<Class<? extends Packet<?>>, CommandBuffer<? extends Command<?, ?>>> messageClassToBufferMap = new HashMap<>();
 
    /** Controller's copy of the new commands to be processed. */
    private final Map<Class<? extends Command<?, ?>>, RecyclingArrayList<? extends Command<?, ?>>> commandsMap = new HashMap<>();
@@ -159,7 +165,7 @@ public class CommandInputManager
    private <C extends Command<C, M>, M extends Packet<M>> void registerNewCommand(Class<C> commandClass)
    {
       Builder<C> builer = createBuilderWithEmptyConstructor(commandClass);
-      ConcurrentRingBuffer<C> newBuffer = new ConcurrentRingBuffer<>(builer, buffersCapacity);
+      CommandBuffer<C> newBuffer = new CommandBuffer<>(commandClass, builer, CommandQueuePolicy.FIFO, buffersCapacity);
       allBuffers.add(newBuffer);
       // This is retarded, but I could not find another way that is more elegant.
       Class<M> messageClass = builer.newInstance().getMessageClass();
@@ -171,6 +177,72 @@ public class CommandInputManager
       listOfSupportedMessages.add(messageClass);
    }
 
+   /**
+    * Changes how the commands of the given class are queued until polled by the controller. This
+    * has to be called before any command of this class is submitted.
+    * 
+    * @param commandClass the class of the commands to change the policy of.
+    * @param policy the new queue policy.
+    */
+   public void setCommandQueuePolicy(Class<? extends Command<?, ?>> commandClass, CommandQueuePolicy policy)
+   {
+      setCommandQueuePolicy(commandClass, policy, buffersCapacity);
+   }
+
+   /**
+    * Changes how the commands of the given class are queued until polled by the controller. This
+    * has to be called before any command of this class is submitted.
+    * 
+    * @param commandClass the class of the commands to change the policy of.
+    * @param policy the new queue policy.
+    * @param capacity the capacity of the buffer, should be a power of 2. Not used with
+    *           {@link CommandQueuePolicy#KEEP_LATEST}.
+    */
+   public void setCommandQueuePolicy(Class<? extends Command<?, ?>> commandClass, CommandQueuePolicy policy, int capacity)
+   {
+      CommandBuffer<? extends Command<?, ?>> oldBuffer = commandClassToBufferMap.get(commandClass);
+      if (oldBuffer == null)
+         throw new RuntimeException(printStatementPrefix + "The command type " + commandClass.getSimpleName() + " is not supported.");
+
+      CommandBuffer<? extends Command<?, ?>> newBuffer = oldBuffer.withPolicy(policy, capacity);
+
+      allBuffers.set(allBuffers.indexOf(oldBuffer), newBuffer);
+
+      commandClassToBufferMap.put(commandClass, newBuffer);
+      for (Map.Entry<Class<? extends Packet<?>>, CommandBuffer<? extends Command<?, ?>>> entry : messageClassToBufferMap.entrySet())
+      {
+         if (entry.getValue() == oldBuffer)
+            entry.setValue(newBuffer);
+      }
+   }
+
+   /**
+    * @param commandClass the class of the commands to get the policy of.
+    * @return how the commands of the given class are queued until polled by the controller.
+    */
+   public CommandQueuePolicy getCommandQueuePolicy(Class<? extends Command<?, ?>> commandClass)
+   {
+      CommandBuffer<? extends Command<?, ?>> buffer = commandClassToBufferMap.get(commandClass);
+      if (buffer == null)
+         throw new RuntimeException(printStatementPrefix + "The command type " + commandClass.getSimpleName() + " is not supported.");
+      return buffer.getPolicy();
+   }
+
+   /**
+    * Creates for each command class the YoVariables counting the commands ignored because the buffer
+    * was full, the commands replaced before being polled, and the time the commands spent in the
+    * buffer. The variables are updated when the commands are polled or cleared.
+    * 
+    * @param parentRegistry the registry to add the variables to.
+    */
+   public void createYoVariables(YoVariableRegistry parentRegistry)
+   {
+      YoVariableRegistry registry = new YoVariableRegistry(getClass().getSimpleName());
+      for (int i = 0; i < allBuffers.size(); i++)
+         allBuffers.get(i).createYoVariables(registry);
+      parentRegistry.addChild(registry);
+   }
+
    public void registerHasReceivedInputListener(HasReceivedInputListener hasReceivedInputListener)
    {
       hasReceivedInputListeners.add(hasReceivedInputListener);
@@ -211,7 +283,7 @@ public class CommandInputManager
          return;
       }
 
-      ConcurrentRingBuffer buffer = messageClassToBufferMap.get(message.getClass());
+      CommandBuffer buffer = messageClassToBufferMap.get(message.getClass());
       if (buffer == null)
       {
          PrintTools.error(this, printStatementPrefix + "The message type " + message.getClass().getSimpleName() + " is not supported.");
@@ -292,7 +364,7 @@ public class CommandInputManager
       if (!command.isCommandValid())
          return;
 
-      ConcurrentRingBuffer<? extends Command<?, ?>> buffer = commandClassToBufferMap.get(command.getClass());
+      CommandBuffer<? extends Command<?, ?>> buffer = commandClassToBufferMap.get(command.getClass());
       if (buffer == null)
       {
          PrintTools.error(this, printStatementPrefix + "The command type " + command.getClass().getSimpleName() + " is not supported.");
@@ -363,7 +435,7 @@ public class CommandInputManager
    public void clearAllCommands()
    {
       for (int i = 0; i < allBuffers.size(); i++)
-         clearBuffer(allBuffers.get(i));
+         allBuffers.get(i).clear();
    }
 
    /**
@@ -384,7 +456,7 @@ public class CommandInputManager
     */
    public <C extends Command<C, ?>> void clearCommands(Class<C> commandClassToClear)
    {
-      clearBuffer(commandClassToBufferMap.get(commandClassToClear));
+      commandClassToBufferMap.get(commandClassToClear).clear();
    }
 
    /**
@@ -411,53 +483,11 @@ public class CommandInputManager
    public <C extends Command<C, ?>> List<C> pollNewCommands(Class<C> commandClassToPoll)
    {
       RecyclingArrayList<C> commands = (RecyclingArrayList<C>) commandsMap.get(commandClassToPoll);
-      ConcurrentRingBuffer<C> buffer = (ConcurrentRingBuffer<C>) commandClassToBufferMap.get(commandClassToPoll);
-      pollNewCommands(buffer, commands);
+      CommandBuffer<C> buffer = (CommandBuffer<C>) commandClassToBufferMap.get(commandClassToPoll);
+      buffer.pollNewCommands(commands);
       return commands;
    }
 
-   /**
-    * Reads all the available elements from the buffer and then flushes it.
-    * 
-    * @param bufferToClear the buffer to be cleared from the reader perspective. Modified.
-    */
-   private static void clearBuffer(ConcurrentRingBuffer<?> bufferToClear)
-   {
-      if (bufferToClear.poll())
-      {
-         for (int i = 0; i < bufferToClear.getCapacity(); i++)
-         {
-            if (bufferToClear.read() == null)
-               break;
-         }
-         bufferToClear.flush();
-      }
-   }
-
-   /**
-    * This method has to remain private. Reads all the new available commands from a buffer and copy
-    * them in a list.
-    * 
-    * @param buffer Buffer in which the new available commands are stored.
-    * @param commandsToPack Used to copy and store all the new available commands. This list will be
-    *           empty is there is no new available command.
-    */
-   private static <C extends Command<C, ?>> void pollNewCommands(ConcurrentRingBuffer<C> buffer, RecyclingArrayList<C> commandsToPack)
-   {
-      commandsToPack.clear();
-
-      if (buffer.poll())
-      {
-         C command;
-         while ((command = buffer.read()) != null)
-         {
-            commandsToPack.add().set(command);
-            command.clear();
-         }
-         buffer.flush();
-      }
-   }
-
    /**
     * Method to help creating a {@link ConcurrentRingBuffer} for a given class. The class has to
     * have an empty constructor.
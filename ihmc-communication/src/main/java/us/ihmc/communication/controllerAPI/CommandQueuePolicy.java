@@ -0,0 +1,28 @@
+package us.ihmc.communication.controllerAPI;
+
+/**
+ * Defines how the {@link CommandInputManager} queues the commands of a given class until they are
+ * polled by the controller.
+ */
+public enum CommandQueuePolicy
+{
+   /**
+    * Every command is kept and polled in the order it was submitted. The commands submitted when the
+    * buffer is full are ignored. This is the default policy, it should be used for commands that
+    * can be queued such as footstep lists.
+    */
+   FIFO,
+   /**
+    * Only the most recent command is kept, the commands that have not been polled yet are replaced.
+    * The controller processes at most one command per poll no matter how fast they are submitted.
+    * It should be used for streaming commands such as trajectories sent continuously by an operator
+    * interface.
+    */
+   KEEP_LATEST,
+   /**
+    * Queued as with {@link #FIFO}, but the controller drains and handles these commands before the
+    * others, see {@link CommandInputManager#getCommandQueuePolicy(Class)}. It should be used for stop
+    * or abort commands.
+    */
+   PRIORITY;
+}
@@ -4,8 +4,6 @@ import java.awt.Container;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.JFrame;
@@ -19,18 +17,21 @@ import com.esotericsoftware.kryonet.FrameworkMessage.KeepAlive;
 import com.esotericsoftware.kryonet.Listener;
 
 import us.ihmc.commons.FormattingTools;
-import us.ihmc.commons.thread.ThreadTools;
+import us.ihmc.communication.net.ObjectDispatcher.DispatchStatistics;
+import us.ihmc.communication.net.ObjectDispatcher.QueuePolicy;
 
 public abstract class KryoObjectCommunicator implements NetworkedObjectCommunicator
 {
    private final AtomicBoolean throwExceptionForUnregisteredPackets = new AtomicBoolean(true);
-   private final LinkedHashMap<Class<?>, ExecutorService> listenerExecutors = new LinkedHashMap<Class<?>, ExecutorService>();
    private final LinkedHashMap<Class<?>, ArrayList<ObjectConsumer<?>>> listeners = new LinkedHashMap<Class<?>, ArrayList<ObjectConsumer<?>>>();
 
    private final ArrayList<TcpNetStateListener> tcpStateListeners = new ArrayList<TcpNetStateListener>();
    private final ArrayList<ConnectionStateListener> stateListeners = new ArrayList<ConnectionStateListener>();
    
    private final ArrayList<GlobalObjectConsumer> globalListeners = new ArrayList<GlobalObjectConsumer>();
+
+   /** Received objects are consumed on a few shared threads, in order for each class. */
+   private final ObjectDispatcher dispatcher = new ObjectDispatcher("KryoObjectDispatcher", this::notifyListeners);
    
    // Stuff for data count table 
    private DefaultTableModel dataRateTable;
@@ -78,10 +79,30 @@ public abstract class KryoObjectCommunicator implements NetworkedObjectCommunica
 	   for(Class<?> clazz : classList.getPacketClassList())
 	   {
 		   listeners.put(clazz, new ArrayList<ObjectConsumer<?>>());
-		   listenerExecutors.put(clazz, Executors.newFixedThreadPool(1, ThreadTools.getNamedThreadFactory("Kryo" + clazz.getSimpleName() + "Listener")));
+		   dispatcher.registerClass(clazz);
 	   }
    }
    
+   /**
+    * Sets how the received objects of the given class are queued while waiting for the listeners.
+    * By default all the objects are kept. This can be used to bound the memory used by classes that
+    * are received faster than they are consumed, such as sensor data.
+    *
+    * @see ObjectDispatcher#setQueuePolicy(Class, QueuePolicy, int)
+    */
+   public void setReceiveQueuePolicy(Class<?> clazz, QueuePolicy policy, int capacity)
+   {
+      dispatcher.setQueuePolicy(clazz, policy, capacity);
+   }
+
+   /**
+    * @return the queue depth and dispatch latency of the received objects of the given class.
+    */
+   public DispatchStatistics getReceiveStatistics(Class<?> clazz)
+   {
+      return dispatcher.getStatistics(clazz);
+   }
+
    @Override
    public void attachStateListener(ConnectionStateListener stateListener)
    {
@@ -157,6 +178,16 @@ public abstract class KryoObjectCommunicator implements NetworkedObjectCommunica
       return bytesSend;
    }
 
+   /**
+    * Kryonet serializes the object into the write buffer of every connection before
+    * {@link #sendTCP(Object)} and {@link #sendUDP(Object)} return.
+    */
+   @Override
+   public boolean isDoneWithObjectWhenSent()
+   {
+      return true;
+   }
+
    public void throwExceptionForUnregisteredPackets(boolean value)
    {
       throwExceptionForUnregisteredPackets.set(value);
@@ -184,41 +215,11 @@ public abstract class KryoObjectCommunicator implements NetworkedObjectCommunica
       Listener listener = new Listener()
       {
          @Override
-         @SuppressWarnings("unchecked")
-         public void received(Connection connection, final Object object)
+         public void received(Connection connection, Object object)
          {
-            final Class<? extends Object> classType = object.getClass();
-            ExecutorService executorService = listenerExecutors.get(classType);
-            if(executorService != null)
+            if (!dispatcher.dispatch(object) && !(object instanceof KeepAlive))
             {
-               executorService.execute(new Runnable()
-               {
-                  
-                  @Override
-                  public void run()
-                  {
-                     for(int i = 0; i < globalListeners.size(); i++)
-                     {
-                        globalListeners.get(i).consumeObject(object);
-                     }
-                     
-                     ArrayList<ObjectConsumer<?>> objectListeners = listeners.get(classType);
-                     if (objectListeners != null)
-                     {
-                        for (int i = 0; i < objectListeners.size(); i++)
-                        {
-                           @SuppressWarnings("rawtypes")
-                           ObjectConsumer listener = objectListeners.get(i);
-                           listener.consumeObject(object);
-                        }
-                     }
-                  }
-               });
-            }
-            
-            else if (!(object instanceof KeepAlive))
-            {
-               System.err.println("Received unkown object of class " + classType);
+               System.err.println("Received unkown object of class " + object.getClass());
             }
          }
          
@@ -265,9 +266,25 @@ public abstract class KryoObjectCommunicator implements NetworkedObjectCommunica
    public final void disconnect()
    {
       closeConnection();
-      for(ExecutorService executor : listenerExecutors.values())
+      dispatcher.shutdown();
+   }
+
+   @SuppressWarnings({"unchecked", "rawtypes"})
+   private void notifyListeners(Object object)
+   {
+      for (int i = 0; i < globalListeners.size(); i++)
+      {
+         globalListeners.get(i).consumeObject(object);
+      }
+
+      ArrayList<ObjectConsumer<?>> objectListeners = listeners.get(object.getClass());
+      if (objectListeners != null)
       {
-         executor.shutdownNow();
+         for (int i = 0; i < objectListeners.size(); i++)
+         {
+            ObjectConsumer listener = objectListeners.get(i);
+            listener.consumeObject(object);
+         }
       }
    }
    
@@ -10,6 +10,19 @@ public interface NetworkedObjectCommunicator extends ObjectCommunicator
     */
    int send(Object object);
 
+   /**
+    * Whether the communicator is done with the object when {@link #send(Object)} returns, because it
+    * serialized or copied it. If so, the sent object can be modified or recycled right after
+    * sending, as done by {@link us.ihmc.communication.packetCommunicator.PacketCommunicator} for the
+    * packets borrowed from its pool.
+    *
+    * @return {@code false} unless the implementation guarantees it.
+    */
+   default boolean isDoneWithObjectWhenSent()
+   {
+      return false;
+   }
+
    /**
     * TCP connections may want to change settings like keepAlive or timeOut.
     */
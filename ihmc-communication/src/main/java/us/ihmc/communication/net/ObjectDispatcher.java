@@ -0,0 +1,322 @@
+package us.ihmc.communication.net;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import us.ihmc.commons.thread.ThreadTools;
+
+/**
+ * Dispatches received objects to a consumer on a small pool of worker threads.
+ * <p>
+ * Every registered class has its own lock-free queue. The objects of a class are consumed in the
+ * order they were received and never by two workers at the same time, while different classes are
+ * consumed in parallel. A worker consumes at most {@link #MAXIMUM_BATCH_SIZE} objects of a class
+ * before giving the other classes a chance to run.
+ * </p>
+ * <p>
+ * The queue of a class is unbounded by default. It can be bounded with
+ * {@link #setQueuePolicy(Class, QueuePolicy, int)}, in which case the oldest objects are dropped
+ * when the queue is full, or reduced to only the latest object received.
+ * </p>
+ */
+public class ObjectDispatcher
+{
+   public static final int DEFAULT_NUMBER_OF_THREADS = 2;
+   private static final int MAXIMUM_BATCH_SIZE = 16;
+
+   public enum QueuePolicy
+   {
+      /** All the objects are kept. */
+      UNBOUNDED,
+      /** When the queue is full, the oldest object is dropped to make room for the new one. */
+      DROP_OLDEST,
+      /** Only the latest object is kept, the objects that were not consumed yet are replaced. */
+      COALESCE_LATEST
+   }
+
+   private final ObjectConsumer<Object> consumer;
+   private final ExecutorService executor;
+   private final ConcurrentHashMap<Class<?>, ClassQueue> queues = new ConcurrentHashMap<>();
+
+   public ObjectDispatcher(String name, ObjectConsumer<Object> consumer)
+   {
+      this(name, DEFAULT_NUMBER_OF_THREADS, consumer);
+   }
+
+   /**
+    * @param name used to name the worker threads.
+    * @param numberOfThreads the number of worker threads shared by all the classes.
+    * @param consumer called from the worker threads with every object dispatched.
+    */
+   public ObjectDispatcher(String name, int numberOfThreads, ObjectConsumer<Object> consumer)
+   {
+      this.consumer = consumer;
+      executor = Executors.newFixedThreadPool(numberOfThreads, ThreadTools.getNamedThreadFactory(name));
+   }
+
+   public void registerClass(Class<?> clazz)
+   {
+      queues.computeIfAbsent(clazz, ClassQueue::new);
+   }
+
+   public boolean isRegistered(Class<?> clazz)
+   {
+      return queues.containsKey(clazz);
+   }
+
+   /**
+    * Sets how the objects of the given class are queued. Should be called before objects of this
+    * class are dispatched.
+    *
+    * @param clazz the class to set the policy of. Has to be registered.
+    * @param policy the queue policy.
+    * @param capacity the maximum number of objects in the queue, only used with
+    *           {@link QueuePolicy#DROP_OLDEST}.
+    */
+   public void setQueuePolicy(Class<?> clazz, QueuePolicy policy, int capacity)
+   {
+      if (policy == QueuePolicy.DROP_OLDEST && capacity < 1)
+         throw new RuntimeException("The capacity has to be at least 1, was: " + capacity);
+
+      ClassQueue queue = getQueue(clazz);
+      queue.policy = policy;
+      queue.capacity = capacity;
+   }
+
+   /**
+    * Queues the object to be consumed by one of the workers.
+    *
+    * @return {@code false} if the class of the object is not registered, {@code true} otherwise.
+    */
+   public boolean dispatch(Object object)
+   {
+      ClassQueue queue = queues.get(object.getClass());
+      if (queue == null)
+         return false;
+
+      queue.add(object);
+      return true;
+   }
+
+   public DispatchStatistics getStatistics(Class<?> clazz)
+   {
+      return getQueue(clazz).statistics;
+   }
+
+   public void shutdown()
+   {
+      executor.shutdownNow();
+   }
+
+   private ClassQueue getQueue(Class<?> clazz)
+   {
+      ClassQueue queue = queues.get(clazz);
+      if (queue == null)
+         throw new RuntimeException("Class " + clazz.getSimpleName() + " is not registered with ObjectDispatcher");
+      return queue;
+   }
+
+   private static class Envelope
+   {
+      private final Object object;
+      private final long receiveTime;
+
+      private Envelope(Object object)
+      {
+         this.object = object;
+         receiveTime = System.nanoTime();
+      }
+   }
+
+   private class ClassQueue implements Runnable
+   {
+      private final ConcurrentLinkedQueue<Envelope> queue = new ConcurrentLinkedQueue<>();
+      private final AtomicReference<Envelope> latest = new AtomicReference<>();
+      private final AtomicInteger size = new AtomicInteger();
+      private final AtomicBoolean isScheduled = new AtomicBoolean(false);
+      private final DispatchStatistics statistics;
+
+      private volatile QueuePolicy policy = QueuePolicy.UNBOUNDED;
+      private volatile int capacity = Integer.MAX_VALUE;
+
+      private ClassQueue(Class<?> clazz)
+      {
+         statistics = new DispatchStatistics(clazz);
+      }
+
+      private void add(Object object)
+      {
+         Envelope envelope = new Envelope(object);
+         statistics.numberOfReceivedObjects.incrementAndGet();
+
+         if (policy == QueuePolicy.COALESCE_LATEST)
+         {
+            if (latest.getAndSet(envelope) != null)
+               statistics.numberOfDroppedObjects.incrementAndGet();
+            else
+               statistics.updateQueueDepth(1);
+         }
+         else
+         {
+            // Drop before adding so that the new object is never the one dropped.
+            while (policy == QueuePolicy.DROP_OLDEST && size.get() >= capacity)
+            {
+               if (queue.poll() == null)
+                  break;
+               size.decrementAndGet();
+               statistics.numberOfDroppedObjects.incrementAndGet();
+            }
+
+            queue.add(envelope);
+            statistics.updateQueueDepth(size.incrementAndGet());
+         }
+
+         schedule();
+      }
+
+      private void schedule()
+      {
+         if (isScheduled.compareAndSet(false, true))
+            executor.execute(this);
+      }
+
+      @Override
+      public void run()
+      {
+         for (int i = 0; i < MAXIMUM_BATCH_SIZE; i++)
+         {
+            Envelope envelope = poll();
+            if (envelope == null)
+               break;
+
+            statistics.updateDispatchLatency(System.nanoTime() - envelope.receiveTime);
+
+            try
+            {
+               consumer.consumeObject(envelope.object);
+            }
+            catch (Throwable e)
+            {
+               e.printStackTrace();
+            }
+         }
+
+         isScheduled.set(false);
+
+         // Objects may have been added after the last poll but before the flag was cleared.
+         if (!isEmpty())
+            schedule();
+      }
+
+      private Envelope poll()
+      {
+         Envelope envelope = latest.getAndSet(null);
+         if (envelope != null)
+            return envelope;
+
+         envelope = queue.poll();
+         if (envelope != null)
+            size.decrementAndGet();
+         return envelope;
+      }
+
+      private boolean isEmpty()
+      {
+         return latest.get() == null && queue.isEmpty();
+      }
+   }
+
+   /**
+    * Counters for the objects of a single class. All the values are updated from the receiving
+    * and worker threads and can be read from any thread.
+    */
+   public static class DispatchStatistics
+   {
+      private final Class<?> clazz;
+      private final AtomicLong numberOfReceivedObjects = new AtomicLong();
+      private final AtomicLong numberOfDroppedObjects = new AtomicLong();
+      private final AtomicLong numberOfDispatchedObjects = new AtomicLong();
+      private final AtomicInteger maximumQueueDepth = new AtomicInteger();
+      private final AtomicLong totalDispatchLatency = new AtomicLong();
+      private final AtomicLong maximumDispatchLatency = new AtomicLong();
+
+      private DispatchStatistics(Class<?> clazz)
+      {
+         this.clazz = clazz;
+      }
+
+      private void updateQueueDepth(int queueDepth)
+      {
+         maximumQueueDepth.accumulateAndGet(queueDepth, Math::max);
+      }
+
+      private void updateDispatchLatency(long latency)
+      {
+         numberOfDispatchedObjects.incrementAndGet();
+         totalDispatchLatency.addAndGet(latency);
+         maximumDispatchLatency.accumulateAndGet(latency, Math::max);
+      }
+
+      public Class<?> getObjectClass()
+      {
+         return clazz;
+      }
+
+      public long getNumberOfReceivedObjects()
+      {
+         return numberOfReceivedObjects.get();
+      }
+
+      public long getNumberOfDroppedObjects()
+      {
+         return numberOfDroppedObjects.get();
+      }
+
+      public long getNumberOfDispatchedObjects()
+      {
+         return numberOfDispatchedObjects.get();
+      }
+
+      /**
+       * @return the number of objects waiting to be dispatched, computed from the other counters.
+       */
+      public long getQueueDepth()
+      {
+         return getNumberOfReceivedObjects() - getNumberOfDroppedObjects() - getNumberOfDispatchedObjects();
+      }
+
+      public int getMaximumQueueDepth()
+      {
+         return maximumQueueDepth.get();
+      }
+
+      /**
+       * @return the average time in nanoseconds between the reception of an object and the start of
+       *         its consumption.
+       */
+      public long getAverageDispatchLatency()
+      {
+         long numberOfDispatchedObjects = getNumberOfDispatchedObjects();
+         return numberOfDispatchedObjects == 0 ? 0 : totalDispatchLatency.get() / numberOfDispatchedObjects;
+      }
+
+      public long getMaximumDispatchLatency()
+      {
+         return maximumDispatchLatency.get();
+      }
+
+      @Override
+      public String toString()
+      {
+         return clazz.getSimpleName() + ": received " + getNumberOfReceivedObjects() + ", dropped " + getNumberOfDroppedObjects() + ", queue depth "
+               + getQueueDepth() + " (max " + getMaximumQueueDepth() + "), dispatch latency " + getAverageDispatchLatency() / 1000 + " us (max "
+               + getMaximumDispatchLatency() / 1000 + " us)";
+      }
+   }
+}
@@ -51,6 +51,15 @@ public class IntraprocessObjectCommunicator implements NetworkedObjectCommunicat
       return IntraprocessCommunicationNetwork.sendObject(this, port, object);
    }
    
+   /**
+    * The object is copied for every receiver before {@link #send(Object)} returns.
+    */
+   @Override
+   public boolean isDoneWithObjectWhenSent()
+   {
+      return true;
+   }
+
    @SuppressWarnings("unchecked")
    /* package-private */void receiveObject(Object object)
    {
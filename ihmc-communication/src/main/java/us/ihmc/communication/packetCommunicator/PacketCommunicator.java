@@ -29,6 +29,7 @@ public class PacketCommunicator implements Connectable
    private final HashMap<GlobalPacketConsumer, GlobalObjectConsumer> globalConsumers = new HashMap<>();
 
    private final NetClassList netClassList;
+   private final PacketPool packetPool = new PacketPool();
 
    private final String description;
 
@@ -175,12 +176,50 @@ public class PacketCommunicator implements Connectable
       communicator.connect();
    }
 
+   /**
+    * Borrows a packet to be populated and passed to {@link #send(Packet)}, to avoid allocating a new
+    * packet for every message. The packet still contains the data it was last sent with.
+    * <p>
+    * The packet must not be used after being sent. It is given back to the pool once the
+    * communicator has serialized or copied it. If the communicator cannot guarantee that, see
+    * {@link NetworkedObjectCommunicator#isDoneWithObjectWhenSent()}, the packet is dropped from the
+    * pool instead.
+    * </p>
+    */
+   public <T extends Packet<?>> T borrowPacket(Class<T> clazz)
+   {
+      return packetPool.borrow(clazz);
+   }
+
+   public PacketPool getPacketPool()
+   {
+      return packetPool;
+   }
+
    /**
     * @param packet Send a packet to connected receivers. Does not call listeners
     * @return
     */
-   @SuppressWarnings({"unchecked", "rawtypes"})
    public int send(Packet<?> packet)
+   {
+      try
+      {
+         return sendInternal(packet);
+      }
+      finally
+      {
+         if (packetPool.isFromPool(packet))
+         {
+            if (communicator.isDoneWithObjectWhenSent())
+               packetPool.release(packet);
+            else
+               packetPool.discard(packet);
+         }
+      }
+   }
+
+   @SuppressWarnings({"unchecked", "rawtypes"})
+   private int sendInternal(Packet<?> packet)
    {
       if (!freezeCommunication)
       {
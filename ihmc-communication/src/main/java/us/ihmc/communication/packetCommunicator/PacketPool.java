@@ -0,0 +1,128 @@
+package us.ihmc.communication.packetCommunicator;
+
+import java.lang.reflect.Constructor;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import us.ihmc.communication.packets.Packet;
+
+/**
+ * Pool of preallocated packets, one free list per packet class.
+ * <p>
+ * A publisher borrows a packet with {@link #borrow(Class)}, populates all its fields, and hands it
+ * to a sender that calls {@link #release(Packet)} once the packet has been serialized, see
+ * {@link PacketCommunicator#borrowPacket(Class)}. The packet
+ * must not be used by the publisher after it has been handed to the sender. Once the pool holds
+ * enough packets for the publishing rate, publishing does not allocate.
+ * </p>
+ * <p>
+ * Borrowed packets still contain the data they were last sent with.
+ * </p>
+ */
+public class PacketPool
+{
+   public static final int DEFAULT_CAPACITY_PER_CLASS = 8;
+
+   private final int capacityPerClass;
+   private final ConcurrentHashMap<Class<?>, ClassPool> classPools = new ConcurrentHashMap<>();
+
+   public PacketPool()
+   {
+      this(DEFAULT_CAPACITY_PER_CLASS);
+   }
+
+   /**
+    * @param capacityPerClass the maximum number of free packets kept for each class. The packets
+    *           released when the free list is full are left to the garbage collector.
+    */
+   public PacketPool(int capacityPerClass)
+   {
+      if (capacityPerClass < 1)
+         throw new RuntimeException("The capacity has to be at least 1, was: " + capacityPerClass);
+      this.capacityPerClass = capacityPerClass;
+   }
+
+   /**
+    * Gets a free packet of the given class, creating a new one with its default constructor if none
+    * is available.
+    */
+   @SuppressWarnings("unchecked")
+   public <T extends Packet<?>> T borrow(Class<T> clazz)
+   {
+      ClassPool classPool = classPools.computeIfAbsent(clazz, key -> new ClassPool());
+      Packet<?> packet = classPool.freePackets.poll();
+
+      if (packet == null)
+      {
+         packet = newInstance(clazz);
+         classPool.ownedPackets.add(packet);
+      }
+
+      return (T) packet;
+   }
+
+   /**
+    * Gives a borrowed packet back to the pool. Does nothing if the packet was not created by this
+    * pool.
+    */
+   public void release(Packet<?> packet)
+   {
+      ClassPool classPool = classPools.get(packet.getClass());
+      if (classPool == null || !classPool.ownedPackets.contains(packet))
+         return;
+
+      if (!classPool.freePackets.offer(packet))
+         classPool.ownedPackets.remove(packet);
+   }
+
+   /**
+    * Removes a borrowed packet from the pool without making it available again. To be used when the
+    * packet was handed to a sender that may still be using it.
+    */
+   public void discard(Packet<?> packet)
+   {
+      ClassPool classPool = classPools.get(packet.getClass());
+      if (classPool != null)
+         classPool.ownedPackets.remove(packet);
+   }
+
+   /**
+    * @return whether the packet was created by this pool and is currently borrowed or free.
+    */
+   public boolean isFromPool(Packet<?> packet)
+   {
+      ClassPool classPool = classPools.get(packet.getClass());
+      return classPool != null && classPool.ownedPackets.contains(packet);
+   }
+
+   public int getNumberOfFreePackets(Class<?> clazz)
+   {
+      ClassPool classPool = classPools.get(clazz);
+      return classPool == null ? 0 : classPool.freePackets.size();
+   }
+
+   private static Packet<?> newInstance(Class<? extends Packet<?>> clazz)
+   {
+      try
+      {
+         Constructor<? extends Packet<?>> constructor = clazz.getDeclaredConstructor();
+         constructor.setAccessible(true);
+         return constructor.newInstance();
+      }
+      catch (ReflectiveOperationException e)
+      {
+         throw new RuntimeException("Cannot create a packet of class " + clazz.getSimpleName() + ", it needs a default constructor", e);
+      }
+   }
+
+   private class ClassPool
+   {
+      /** Array-based so that releasing a packet does not allocate. */
+      private final ArrayBlockingQueue<Packet<?>> freePackets = new ArrayBlockingQueue<>(capacityPerClass);
+      /** Compared by identity, packets override {@code equals}. */
+      private final Set<Packet<?>> ownedPackets = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+   }
+}
@@ -1,6 +1,5 @@
 package us.ihmc.communication.producers;
 
-import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -44,6 +43,8 @@ public class H264CompressedVideoDataServer implements ConnectionStateListener, C
    private long prevTimeStamp;
    
    private final YUVPictureConverter converter = new YUVPictureConverter();
+   private final Object encoderLock = new Object();
+   private final VideoFramePipeline pipeline = new VideoFramePipeline("H264VideoEncoder", this::encodeFrame);
 
    public int getFps()
    {
@@ -63,90 +64,134 @@ public class H264CompressedVideoDataServer implements ConnectionStateListener, C
 
    }
 
+   /**
+    * Called from the camera thread. Only the frame rate limiting and the copy of the image are done
+    * here, the conversion and encoding are done on the pipeline thread. Frames arriving while the
+    * encoder is busy replace the one waiting to be encoded.
+    */
    @Override
-   public synchronized void onFrame(VideoSource videoSource, BufferedImage bufferedImage, final long timeStamp, final Point3DReadOnly cameraPosition, final QuaternionReadOnly cameraOrientation,
+   public void onFrame(VideoSource videoSource, BufferedImage bufferedImage, final long timeStamp, final Point3DReadOnly cameraPosition, final QuaternionReadOnly cameraOrientation,
          IntrinsicParameters intrinsicParameters)
    {
-      if (!handler.isConnected() || !videoEnabled)
-      {
-         return;
-      }
-      if (desiredFPS != fps)
-      {
-         encoder.setMaxFrameRate(desiredFPS);
-         fps = desiredFPS;
-      }
+      int x, y, width, height;
 
-      if (initialTimestamp == -1)
-      {
-         initialTimestamp = timeStamp;
-      }
-      else if ((timeStamp - prevTimeStamp) < Conversions.secondsToNanoseconds(1.0 / ((double) fps)))
+      synchronized (this)
       {
-         return;
-      }
+         if (!handler.isConnected() || !videoEnabled)
+         {
+            return;
+         }
 
-      if (desiredBandwidth != bandwidth)
-      {
-         encoder.setBitRate(desiredBandwidth * 1024);
-         bandwidth = desiredBandwidth;
+         if (initialTimestamp == -1)
+         {
+            initialTimestamp = timeStamp;
+         }
+         else if ((timeStamp - prevTimeStamp) < Conversions.secondsToNanoseconds(1.0 / ((double) desiredFPS)))
+         {
+            return;
+         }
+         prevTimeStamp = timeStamp;
+
+         width = bufferedImage.getWidth();
+         height = bufferedImage.getHeight();
+
+         if (cropVideo)
+         {
+            width = width / 2;
+            height = height / 2;
+            x = (width * cropX) / 100;
+            y = (height * cropY) / 100;
+         }
+         else
+         {
+            x = 0;
+            y = 0;
+         }
       }
 
-      int desiredEvenHorizontalResolution = (desiredHorizontalResolution >> 1) << 1;
-      int desiredVerticalResolution = (bufferedImage.getHeight() * desiredEvenHorizontalResolution) / bufferedImage.getWidth();
-      int desiredEvenVerticalResolution = (desiredVerticalResolution >> 1) << 1;
+      pipeline.onFrame(videoSource, bufferedImage, x, y, width, height, timeStamp, cameraPosition, cameraOrientation, intrinsicParameters);
+   }
 
-      if (desiredEvenHorizontalResolution != horizontalResolution || desiredEvenVerticalResolution != verticalResolution)
+   /**
+    * Called from the pipeline thread with the cropped copy of the camera image.
+    */
+   private void encodeFrame(VideoSource videoSource, BufferedImage bufferedImage, long timeStamp, Point3DReadOnly cameraPosition, QuaternionReadOnly cameraOrientation,
+         IntrinsicParameters intrinsicParameters)
+   {
+      int desiredFPS, desiredBandwidth, desiredHorizontalResolution;
+
+      synchronized (this)
       {
-         encoder.setSize(desiredEvenHorizontalResolution, desiredEvenVerticalResolution);
-         horizontalResolution = desiredEvenHorizontalResolution;
-         verticalResolution = desiredEvenVerticalResolution;
+         desiredFPS = this.desiredFPS;
+         desiredBandwidth = this.desiredBandwidth;
+         desiredHorizontalResolution = this.desiredHorizontalResolution;
       }
 
-      if (cropVideo)
+      synchronized (encoderLock)
       {
-         int width = bufferedImage.getWidth();
-         int height = bufferedImage.getHeight();
+         if (desiredFPS != fps)
+         {
+            encoder.setMaxFrameRate(desiredFPS);
+            fps = desiredFPS;
+         }
 
-         int newWidth = width / 2;
-         int newHeight = height / 2;
+         if (desiredBandwidth != bandwidth)
+         {
+            encoder.setBitRate(desiredBandwidth * 1024);
+            bandwidth = desiredBandwidth;
+         }
 
-         int x = (newWidth * cropX) / 100;
-         int y = (newHeight * cropY) / 100;
+         int desiredEvenHorizontalResolution = (desiredHorizontalResolution >> 1) << 1;
+         int desiredVerticalResolution = (bufferedImage.getHeight() * desiredEvenHorizontalResolution) / bufferedImage.getWidth();
+         int desiredEvenVerticalResolution = (desiredVerticalResolution >> 1) << 1;
 
-         BufferedImage croppedImage = new BufferedImage(newWidth, newHeight, bufferedImage.getType());
-         Graphics2D graphics = croppedImage.createGraphics();
-         graphics.drawImage(bufferedImage, 0, 0, newWidth, newHeight, x, y, x + newWidth, y + newHeight, null);
-         graphics.dispose();
-         bufferedImage = croppedImage;
-      }
+         if (desiredEvenHorizontalResolution != horizontalResolution || desiredEvenVerticalResolution != verticalResolution)
+         {
+            encoder.setSize(desiredEvenHorizontalResolution, desiredEvenVerticalResolution);
+            horizontalResolution = desiredEvenHorizontalResolution;
+            verticalResolution = desiredEvenVerticalResolution;
+         }
 
-      YUVPicture frame = converter.fromBufferedImage(bufferedImage, YUVSubsamplingType.YUV420);
-      frame.scale(desiredEvenHorizontalResolution, desiredEvenVerticalResolution, FilterModeEnum.kFilterBilinear);
-      try
-      {
-         encoder.encodeFrame(frame);
-         frame.delete();
-         while(encoder.nextNAL())
+         YUVPicture frame = converter.fromBufferedImage(bufferedImage, YUVSubsamplingType.YUV420);
+         frame.scale(desiredEvenHorizontalResolution, desiredEvenVerticalResolution, FilterModeEnum.kFilterBilinear);
+         try
          {
-            ByteBuffer nal = encoder.getNAL();
-            byte[] data = new byte[nal.remaining()];
-            nal.get(data);
-            handler.onFrame(videoSource, data, timeStamp, cameraPosition, cameraOrientation, intrinsicParameters);
+            encoder.encodeFrame(frame);
+            while(encoder.nextNAL())
+            {
+               ByteBuffer nal = encoder.getNAL();
+               byte[] data = new byte[nal.remaining()];
+               nal.get(data);
+               handler.onFrame(videoSource, data, timeStamp, cameraPosition, cameraOrientation, intrinsicParameters);
+            }
+         }
+         catch (IOException e)
+         {
+            e.printStackTrace();
+         }
+         finally
+         {
+            frame.delete();
          }
       }
-      catch (IOException e)
-      {
-         e.printStackTrace();
-      }
-      
-      prevTimeStamp = timeStamp;
+   }
+
+   /**
+    * @return the number of camera frames that were dropped because the encoder was still busy.
+    */
+   public long getNumberOfDroppedFrames()
+   {
+      return pipeline.getNumberOfDroppedFrames();
    }
 
    @Override
-   public synchronized void dispose()
+   public void dispose()
    {
-      encoder.delete();
+      pipeline.shutdown();
+      synchronized (encoderLock)
+      {
+         encoder.delete();
+      }
    }
 
    @Override
@@ -156,9 +201,12 @@ public class H264CompressedVideoDataServer implements ConnectionStateListener, C
    }
 
    @Override
-   public synchronized void connected()
+   public void connected()
    {
-      encoder.sendIntraFrame();
+      synchronized (encoderLock)
+      {
+         encoder.sendIntraFrame();
+      }
    }
 
    @Override
@@ -1,24 +1,17 @@
 package us.ihmc.communication.producers;
 
 import java.awt.image.BufferedImage;
-import java.io.IOException;
-import java.nio.ByteBuffer;
 
 import boofcv.struct.calib.IntrinsicParameters;
-import us.ihmc.codecs.generated.YUVPicture;
-import us.ihmc.codecs.generated.YUVPicture.YUVSubsamplingType;
-import us.ihmc.codecs.yuv.JPEGEncoder;
-import us.ihmc.codecs.yuv.YUVPictureConverter;
 import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
 import us.ihmc.euclid.tuple4D.interfaces.QuaternionReadOnly;
 
 public class JPEGCompressedVideoDataServer implements CompressedVideoDataServer
 {
-   private static final Object hackyLockBecauseJPEGEncoderIsNotThreadsafe = new Object();
-   
-   private final YUVPictureConverter converter = new YUVPictureConverter();
-   private final JPEGEncoder encoder = new JPEGEncoder();
+   private final JPEGCompressor compressor = new JPEGCompressor();
    private final CompressedVideoHandler handler;
+   /** Compresses the frames off the camera thread, dropping the frames that arrive while busy. */
+   private final VideoFramePipeline pipeline = new VideoFramePipeline("JPEGVideoEncoder", this::compressFrame);
    
    public JPEGCompressedVideoDataServer(CompressedVideoHandler handler)
    {
@@ -28,23 +21,22 @@ public class JPEGCompressedVideoDataServer implements CompressedVideoDataServer
    @Override
    public void onFrame(VideoSource videoSource, BufferedImage bufferedImage, long timeStamp, Point3DReadOnly cameraPosition, QuaternionReadOnly cameraOrientation, IntrinsicParameters intrinsicParameters)
    {
-      YUVPicture picture = converter.fromBufferedImage(bufferedImage, YUVSubsamplingType.YUV420);
-      try
-      {
-         ByteBuffer buffer;
-         synchronized (hackyLockBecauseJPEGEncoderIsNotThreadsafe)
-         {
-            buffer = encoder.encode(picture, 75);
-         }
-         byte[] data =  new byte[buffer.remaining()];
-         buffer.get(data);
+      pipeline.onFrame(videoSource, bufferedImage, timeStamp, cameraPosition, cameraOrientation, intrinsicParameters);
+   }
+
+   private void compressFrame(VideoSource videoSource, BufferedImage bufferedImage, long timeStamp, Point3DReadOnly cameraPosition, QuaternionReadOnly cameraOrientation, IntrinsicParameters intrinsicParameters)
+   {
+      byte[] data = compressor.convertBufferedImageToJPEGData(bufferedImage);
+      if (data != null)
          handler.onFrame(videoSource, data, timeStamp, cameraPosition, cameraOrientation, intrinsicParameters);
-      }
-      catch (IOException e)
-      {
-         e.printStackTrace();
-      }
-      picture.delete();
+   }
+
+   /**
+    * @return the number of camera frames that were dropped because the compressor was still busy.
+    */
+   public long getNumberOfDroppedFrames()
+   {
+      return pipeline.getNumberOfDroppedFrames();
    }
 
    @Override
@@ -62,5 +54,6 @@ public class JPEGCompressedVideoDataServer implements CompressedVideoDataServer
    @Override
    public void dispose()
    {
+      pipeline.shutdown();
    }
 }
@@ -11,15 +11,25 @@ import us.ihmc.codecs.yuv.YUVPictureConverter;
 
 public class JPEGCompressor
 {   
+   private static final Object hackyLockBecauseJPEGEncoderIsNotThreadsafe = new Object();
+
    private final YUVPictureConverter converter = new YUVPictureConverter();
    private final JPEGEncoder encoder = new JPEGEncoder();
    
+   /**
+    * Converts and encodes the image on the calling thread. Use a {@link VideoFramePipeline} to do it
+    * on another thread when the caller is a camera thread.
+    */
    public byte[] convertBufferedImageToJPEGData(BufferedImage bufferedImage)
    {
+      YUVPicture picture = converter.fromBufferedImage(bufferedImage, YUVSubsamplingType.YUV420);
       try
       {
-         YUVPicture picture = converter.fromBufferedImage(bufferedImage, YUVSubsamplingType.YUV420);
-         ByteBuffer buffer = encoder.encode(picture, 75);
+         ByteBuffer buffer;
+         synchronized (hackyLockBecauseJPEGEncoderIsNotThreadsafe)
+         {
+            buffer = encoder.encode(picture, 75);
+         }
          byte[] data = new byte[buffer.remaining()];
          buffer.get(data);
          return data;
@@ -29,5 +39,9 @@ public class JPEGCompressor
          e.printStackTrace();
          return null;
       }
+      finally
+      {
+         picture.delete();
+      }
    }
 }
@@ -0,0 +1,191 @@
+package us.ihmc.communication.producers;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import boofcv.struct.calib.IntrinsicParameters;
+import us.ihmc.commons.thread.ThreadTools;
+import us.ihmc.communication.video.VideoCallback;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
+import us.ihmc.euclid.tuple4D.Quaternion;
+import us.ihmc.euclid.tuple4D.interfaces.QuaternionReadOnly;
+
+/**
+ * Moves the processing of camera frames off the camera thread.
+ * <p>
+ * The camera thread only copies the image in one of a few preallocated frames and returns. A
+ * worker thread then passes the frames to the given {@link VideoCallback}, typically to convert
+ * and encode them. When the worker falls behind, only the most recent frame waits to be processed
+ * and the older ones are dropped, so the camera thread is never blocked by the encoder.
+ * </p>
+ * <p>
+ * The images passed to the callback are only valid until the callback returns.
+ * </p>
+ */
+public class VideoFramePipeline implements VideoCallback
+{
+   /** One frame being processed, one waiting, and one being filled by the camera thread. */
+   private static final int NUMBER_OF_FRAMES = 3;
+
+   private final VideoCallback frameProcessor;
+   private final ExecutorService executor;
+
+   private final ArrayBlockingQueue<Frame> freeFrames = new ArrayBlockingQueue<>(NUMBER_OF_FRAMES);
+   private final AtomicReference<Frame> pendingFrame = new AtomicReference<>();
+   private final AtomicBoolean isScheduled = new AtomicBoolean(false);
+   private final Runnable processPendingFrames = this::processPendingFrames;
+
+   private final AtomicLong numberOfReceivedFrames = new AtomicLong();
+   private final AtomicLong numberOfDroppedFrames = new AtomicLong();
+
+   /**
+    * @param name used to name the worker thread.
+    * @param frameProcessor called from the worker thread with the frames to process.
+    */
+   public VideoFramePipeline(String name, VideoCallback frameProcessor)
+   {
+      this.frameProcessor = frameProcessor;
+      executor = Executors.newSingleThreadExecutor(ThreadTools.getNamedThreadFactory(name));
+
+      for (int i = 0; i < NUMBER_OF_FRAMES; i++)
+         freeFrames.add(new Frame());
+   }
+
+   @Override
+   public void onFrame(VideoSource videoSource, BufferedImage bufferedImage, long timestamp, Point3DReadOnly cameraPosition,
+                       QuaternionReadOnly cameraOrientation, IntrinsicParameters intrinsicParamaters)
+   {
+      onFrame(videoSource, bufferedImage, 0, 0, bufferedImage.getWidth(), bufferedImage.getHeight(), timestamp, cameraPosition, cameraOrientation,
+              intrinsicParamaters);
+   }
+
+   /**
+    * Copies the given region of the image and queues it for processing. Returns as soon as the
+    * image is copied.
+    */
+   public synchronized void onFrame(VideoSource videoSource, BufferedImage bufferedImage, int x, int y, int width, int height, long timestamp,
+                                    Point3DReadOnly cameraPosition, QuaternionReadOnly cameraOrientation, IntrinsicParameters intrinsicParamaters)
+   {
+      numberOfReceivedFrames.incrementAndGet();
+
+      Frame frame = freeFrames.poll();
+      if (frame == null)
+      {
+         // All the frames are in use, reuse the one waiting to be processed.
+         frame = pendingFrame.getAndSet(null);
+         numberOfDroppedFrames.incrementAndGet();
+         if (frame == null)
+            return;
+      }
+
+      frame.set(videoSource, bufferedImage, x, y, width, height, timestamp, cameraPosition, cameraOrientation, intrinsicParamaters);
+
+      Frame droppedFrame = pendingFrame.getAndSet(frame);
+      if (droppedFrame != null)
+      {
+         freeFrames.offer(droppedFrame);
+         numberOfDroppedFrames.incrementAndGet();
+      }
+
+      if (isScheduled.compareAndSet(false, true))
+         executor.execute(processPendingFrames);
+   }
+
+   private void processPendingFrames()
+   {
+      Frame frame;
+      while ((frame = pendingFrame.getAndSet(null)) != null)
+      {
+         try
+         {
+            frameProcessor.onFrame(frame.videoSource, frame.image, frame.timestamp, frame.getCameraPosition(), frame.getCameraOrientation(),
+                                   frame.intrinsicParameters);
+         }
+         catch (Throwable e)
+         {
+            e.printStackTrace();
+         }
+         finally
+         {
+            freeFrames.offer(frame);
+         }
+      }
+
+      isScheduled.set(false);
+
+      // A frame may have been queued after the last check but before the flag was cleared.
+      if (pendingFrame.get() != null && isScheduled.compareAndSet(false, true))
+         executor.execute(processPendingFrames);
+   }
+
+   public long getNumberOfReceivedFrames()
+   {
+      return numberOfReceivedFrames.get();
+   }
+
+   /**
+    * @return the number of frames that were replaced by a more recent one before being processed.
+    */
+   public long getNumberOfDroppedFrames()
+   {
+      return numberOfDroppedFrames.get();
+   }
+
+   public void shutdown()
+   {
+      executor.shutdownNow();
+   }
+
+   private static class Frame
+   {
+      private BufferedImage image;
+      private VideoSource videoSource;
+      private long timestamp;
+      private final Point3D cameraPosition = new Point3D();
+      private final Quaternion cameraOrientation = new Quaternion();
+      private boolean hasCameraPose;
+      private IntrinsicParameters intrinsicParameters;
+
+      private void set(VideoSource videoSource, BufferedImage source, int x, int y, int width, int height, long timestamp, Point3DReadOnly cameraPosition,
+                       QuaternionReadOnly cameraOrientation, IntrinsicParameters intrinsicParameters)
+      {
+         int type = source.getType() == BufferedImage.TYPE_CUSTOM ? BufferedImage.TYPE_3BYTE_BGR : source.getType();
+
+         // The image is only reallocated when the size or format of the video changes.
+         if (image == null || image.getWidth() != width || image.getHeight() != height || image.getType() != type)
+            image = new BufferedImage(width, height, type);
+
+         Graphics2D graphics = image.createGraphics();
+         graphics.drawImage(source, 0, 0, width, height, x, y, x + width, y + height, null);
+         graphics.dispose();
+
+         this.videoSource = videoSource;
+         this.timestamp = timestamp;
+         this.intrinsicParameters = intrinsicParameters;
+
+         hasCameraPose = cameraPosition != null && cameraOrientation != null;
+         if (hasCameraPose)
+         {
+            this.cameraPosition.set(cameraPosition);
+            this.cameraOrientation.set(cameraOrientation);
+         }
+      }
+
+      private Point3DReadOnly getCameraPosition()
+      {
+         return hasCameraPose ? cameraPosition : null;
+      }
+
+      private QuaternionReadOnly getCameraOrientation()
+      {
+         return hasCameraPose ? cameraOrientation : null;
+      }
+   }
+}
@@ -0,0 +1,206 @@
+package us.ihmc.communication.controllerAPI;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import us.ihmc.communication.controllerAPI.command.Command;
+import us.ihmc.communication.packets.Packet;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+import us.ihmc.yoVariables.variable.YoInteger;
+
+public class CommandInputManagerTest
+{
+   private static final int BUFFERS_CAPACITY = 4;
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testFIFO()
+   {
+      CommandInputManager commandInputManager = createCommandInputManager();
+      YoVariableRegistry registry = new YoVariableRegistry("Test");
+      commandInputManager.createYoVariables(registry);
+
+      int numberOfMessages = 3 * BUFFERS_CAPACITY;
+      for (int i = 0; i < numberOfMessages; i++)
+         commandInputManager.submitMessage(new TestMessage(i));
+
+      // The first messages are kept, the ones submitted once the buffer is full are ignored.
+      List<TestCommand> commands = commandInputManager.pollNewCommands(TestCommand.class);
+      assertTrue(commands.size() > 0 && commands.size() <= BUFFERS_CAPACITY);
+      for (int i = 0; i < commands.size(); i++)
+         assertEquals(i, commands.get(i).value);
+
+      int numberOfOverflows = ((YoInteger) registry.getVariable("CommandInputManager", "TestCommandOverflows")).getIntegerValue();
+      assertEquals(numberOfMessages, commands.size() + numberOfOverflows);
+      assertFalse(commandInputManager.isNewCommandAvailable(TestCommand.class));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testKeepLatest()
+   {
+      CommandInputManager commandInputManager = createCommandInputManager();
+      commandInputManager.setCommandQueuePolicy(TestCommand.class, CommandQueuePolicy.KEEP_LATEST);
+      YoVariableRegistry registry = new YoVariableRegistry("Test");
+      commandInputManager.createYoVariables(registry);
+
+      assertFalse(commandInputManager.isNewCommandAvailable(TestCommand.class));
+
+      int numberOfMessages = 10 * BUFFERS_CAPACITY;
+      for (int i = 0; i < numberOfMessages; i++)
+         commandInputManager.submitMessage(new TestMessage(i));
+
+      assertTrue(commandInputManager.isNewCommandAvailable(TestCommand.class));
+      List<TestCommand> commands = commandInputManager.pollNewCommands(TestCommand.class);
+      assertEquals(1, commands.size());
+      assertEquals(numberOfMessages - 1, commands.get(0).value);
+      assertEquals(numberOfMessages - 1, ((YoInteger) registry.getVariable("CommandInputManager", "TestCommandCoalesced")).getIntegerValue());
+      assertEquals(0, ((YoInteger) registry.getVariable("CommandInputManager", "TestCommandOverflows")).getIntegerValue());
+
+      // The latest command is only polled once.
+      assertFalse(commandInputManager.isNewCommandAvailable(TestCommand.class));
+      assertTrue(commandInputManager.pollNewCommands(TestCommand.class).isEmpty());
+
+      commandInputManager.submitMessage(new TestMessage(-1));
+      commandInputManager.clearAllCommands();
+      assertFalse(commandInputManager.isNewCommandAvailable());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testPriority()
+   {
+      CommandInputManager commandInputManager = createCommandInputManager();
+      assertEquals(CommandQueuePolicy.FIFO, commandInputManager.getCommandQueuePolicy(OtherTestCommand.class));
+      commandInputManager.setCommandQueuePolicy(OtherTestCommand.class, CommandQueuePolicy.PRIORITY);
+      assertEquals(CommandQueuePolicy.PRIORITY, commandInputManager.getCommandQueuePolicy(OtherTestCommand.class));
+      assertEquals(CommandQueuePolicy.FIFO, commandInputManager.getCommandQueuePolicy(TestCommand.class));
+
+      commandInputManager.submitMessage(new TestMessage(1));
+      commandInputManager.submitMessage(new OtherTestMessage());
+      commandInputManager.submitMessage(new OtherTestMessage());
+      assertEquals(2, commandInputManager.pollNewCommands(OtherTestCommand.class).size());
+      assertFalse(commandInputManager.isNewCommandAvailable(OtherTestCommand.class));
+      assertEquals(1, commandInputManager.pollNewCommands(TestCommand.class).size());
+   }
+
+   private static CommandInputManager createCommandInputManager()
+   {
+      List<Class<? extends Command<?, ?>>> commands = new ArrayList<>();
+      commands.add(TestCommand.class);
+      commands.add(OtherTestCommand.class);
+      return new CommandInputManager("Test", commands, BUFFERS_CAPACITY);
+   }
+
+   public static class TestMessage extends Packet<TestMessage>
+   {
+      public long value;
+
+      public TestMessage()
+      {
+      }
+
+      public TestMessage(long value)
+      {
+         this.value = value;
+      }
+
+      @Override
+      public boolean epsilonEquals(TestMessage other, double epsilon)
+      {
+         return other.value == value;
+      }
+
+      @Override
+      public void set(TestMessage other)
+      {
+         value = other.value;
+      }
+   }
+
+   public static class TestCommand implements Command<TestCommand, TestMessage>
+   {
+      public long value;
+
+      @Override
+      public void set(TestCommand other)
+      {
+         value = other.value;
+      }
+
+      @Override
+      public void clear()
+      {
+         value = 0;
+      }
+
+      @Override
+      public void set(TestMessage message)
+      {
+         value = message.value;
+      }
+
+      @Override
+      public Class<TestMessage> getMessageClass()
+      {
+         return TestMessage.class;
+      }
+
+      @Override
+      public boolean isCommandValid()
+      {
+         return true;
+      }
+   }
+
+   public static class OtherTestMessage extends Packet<OtherTestMessage>
+   {
+      @Override
+      public boolean epsilonEquals(OtherTestMessage other, double epsilon)
+      {
+         return true;
+      }
+
+      @Override
+      public void set(OtherTestMessage other)
+      {
+      }
+   }
+
+   public static class OtherTestCommand implements Command<OtherTestCommand, OtherTestMessage>
+   {
+      @Override
+      public void set(OtherTestCommand other)
+      {
+      }
+
+      @Override
+      public void clear()
+      {
+      }
+
+      @Override
+      public void set(OtherTestMessage message)
+      {
+      }
+
+      @Override
+      public Class<OtherTestMessage> getMessageClass()
+      {
+         return OtherTestMessage.class;
+      }
+
+      @Override
+      public boolean isCommandValid()
+      {
+         return true;
+      }
+   }
+}
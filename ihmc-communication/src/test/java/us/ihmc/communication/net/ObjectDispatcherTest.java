@@ -0,0 +1,150 @@
+package us.ihmc.communication.net;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import us.ihmc.communication.net.ObjectDispatcher.DispatchStatistics;
+import us.ihmc.communication.net.ObjectDispatcher.QueuePolicy;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class ObjectDispatcherTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testOrderIsKeptForEachClass() throws InterruptedException
+   {
+      int numberOfObjects = 5000;
+      List<Object> integers = Collections.synchronizedList(new ArrayList<>());
+      List<Object> strings = Collections.synchronizedList(new ArrayList<>());
+      CountDownLatch done = new CountDownLatch(2 * numberOfObjects);
+
+      ObjectDispatcher dispatcher = new ObjectDispatcher("TestDispatcher", 4, object ->
+      {
+         (object instanceof Integer ? integers : strings).add(object);
+         done.countDown();
+      });
+      dispatcher.registerClass(Integer.class);
+      dispatcher.registerClass(String.class);
+
+      assertFalse(dispatcher.dispatch(1.0));
+
+      for (int i = 0; i < numberOfObjects; i++)
+      {
+         assertTrue(dispatcher.dispatch(i));
+         assertTrue(dispatcher.dispatch(Integer.toString(i)));
+      }
+
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+
+      for (int i = 0; i < numberOfObjects; i++)
+      {
+         assertEquals(i, integers.get(i));
+         assertEquals(Integer.toString(i), strings.get(i));
+      }
+
+      DispatchStatistics statistics = dispatcher.getStatistics(Integer.class);
+      assertEquals(numberOfObjects, statistics.getNumberOfReceivedObjects());
+      assertEquals(numberOfObjects, statistics.getNumberOfDispatchedObjects());
+      assertEquals(0, statistics.getNumberOfDroppedObjects());
+      assertEquals(0, statistics.getQueueDepth());
+
+      dispatcher.shutdown();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testDropOldest() throws InterruptedException
+   {
+      int capacity = 3;
+      int numberOfObjects = 10;
+      List<Object> received = Collections.synchronizedList(new ArrayList<>());
+      CountDownLatch firstReceived = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      CountDownLatch done = new CountDownLatch(capacity + 1);
+
+      ObjectDispatcher dispatcher = new ObjectDispatcher("TestDispatcher", 1, object ->
+      {
+         received.add(object);
+         firstReceived.countDown();
+         awaitQuietly(release);
+         done.countDown();
+      });
+      dispatcher.registerClass(Integer.class);
+      dispatcher.setQueuePolicy(Integer.class, QueuePolicy.DROP_OLDEST, capacity);
+
+      // The worker holds the first object until the others are queued.
+      dispatcher.dispatch(0);
+      assertTrue(firstReceived.await(10, TimeUnit.SECONDS));
+      for (int i = 1; i < numberOfObjects; i++)
+         dispatcher.dispatch(i);
+
+      assertEquals(capacity, dispatcher.getStatistics(Integer.class).getQueueDepth());
+      release.countDown();
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+
+      assertEquals(capacity + 1, received.size());
+      assertEquals(0, received.get(0));
+      for (int i = 0; i < capacity; i++)
+         assertEquals(numberOfObjects - capacity + i, received.get(i + 1));
+      assertEquals(numberOfObjects - capacity - 1, dispatcher.getStatistics(Integer.class).getNumberOfDroppedObjects());
+
+      dispatcher.shutdown();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testCoalesceLatest() throws InterruptedException
+   {
+      int numberOfObjects = 10;
+      List<Object> received = Collections.synchronizedList(new ArrayList<>());
+      CountDownLatch firstReceived = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      CountDownLatch done = new CountDownLatch(2);
+
+      ObjectDispatcher dispatcher = new ObjectDispatcher("TestDispatcher", 1, object ->
+      {
+         received.add(object);
+         firstReceived.countDown();
+         awaitQuietly(release);
+         done.countDown();
+      });
+      dispatcher.registerClass(Integer.class);
+      dispatcher.setQueuePolicy(Integer.class, QueuePolicy.COALESCE_LATEST, 1);
+
+      dispatcher.dispatch(0);
+      assertTrue(firstReceived.await(10, TimeUnit.SECONDS));
+      for (int i = 1; i < numberOfObjects; i++)
+         dispatcher.dispatch(i);
+
+      release.countDown();
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+
+      assertEquals(2, received.size());
+      assertEquals(0, received.get(0));
+      assertEquals(numberOfObjects - 1, received.get(1));
+      assertEquals(numberOfObjects - 2, dispatcher.getStatistics(Integer.class).getNumberOfDroppedObjects());
+
+      dispatcher.shutdown();
+   }
+
+   private static void awaitQuietly(CountDownLatch latch)
+   {
+      try
+      {
+         latch.await();
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+      }
+   }
+}
@@ -0,0 +1,215 @@
+package us.ihmc.communication.packetCommunicator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import std_msgs.msg.dds.Int32;
+import us.ihmc.communication.net.ConnectionStateListener;
+import us.ihmc.communication.net.GlobalObjectConsumer;
+import us.ihmc.communication.net.NetClassList;
+import us.ihmc.communication.net.NetworkedObjectCommunicator;
+import us.ihmc.communication.net.ObjectConsumer;
+import us.ihmc.communication.net.TcpNetStateListener;
+import us.ihmc.communication.util.NetworkPorts;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class PacketCommunicatorPoolTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testPooledPacketIsReleasedAfterBeingSerialized()
+   {
+      RecordingCommunicator objectCommunicator = new RecordingCommunicator(true);
+      PacketCommunicator packetCommunicator = PacketCommunicator.createCustomPacketCommunicator(objectCommunicator, new NetClassList());
+      PacketPool pool = packetCommunicator.getPacketPool();
+      objectCommunicator.pool = pool;
+
+      Int32 packet = packetCommunicator.borrowPacket(Int32.class);
+      packet.setData(42);
+      packetCommunicator.send(packet);
+
+      // While being sent, the packet was still borrowed.
+      assertEquals(1, objectCommunicator.sentObjects.size());
+      assertSame(packet, objectCommunicator.sentObjects.get(0));
+      assertEquals(0, objectCommunicator.numberOfFreePacketsWhenSent.get(0).intValue());
+      assertEquals(42, objectCommunicator.sentValues.get(0).intValue());
+
+      // Once sent, it is given back and borrowed again without allocating.
+      assertEquals(1, pool.getNumberOfFreePackets(Int32.class));
+      Int32 nextPacket = packetCommunicator.borrowPacket(Int32.class);
+      assertSame(packet, nextPacket);
+      nextPacket.setData(43);
+      packetCommunicator.send(nextPacket);
+      assertEquals(42, objectCommunicator.sentValues.get(0).intValue());
+      assertEquals(43, objectCommunicator.sentValues.get(1).intValue());
+      assertEquals(0, objectCommunicator.numberOfFreePacketsWhenSent.get(1).intValue());
+      assertEquals(1, pool.getNumberOfFreePackets(Int32.class));
+
+      // Packets that were not borrowed are left alone.
+      Int32 notPooledPacket = new Int32();
+      packetCommunicator.send(notPooledPacket);
+      assertFalse(pool.isFromPool(notPooledPacket));
+      assertEquals(1, pool.getNumberOfFreePackets(Int32.class));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testPooledPacketIsDroppedWhenCommunicatorMayKeepIt()
+   {
+      RecordingCommunicator objectCommunicator = new RecordingCommunicator(false);
+      PacketCommunicator packetCommunicator = PacketCommunicator.createCustomPacketCommunicator(objectCommunicator, new NetClassList());
+      PacketPool pool = packetCommunicator.getPacketPool();
+
+      Int32 packet = packetCommunicator.borrowPacket(Int32.class);
+      packetCommunicator.send(packet);
+
+      assertFalse(pool.isFromPool(packet));
+      assertEquals(0, pool.getNumberOfFreePackets(Int32.class));
+      assertNotSame(packet, packetCommunicator.borrowPacket(Int32.class));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testPooledPacketsWithIntraprocessCommunicators() throws IOException, InterruptedException
+   {
+      NetClassList netClassList = new NetClassList();
+      netClassList.registerPacketClass(Int32.class);
+      NetworkPorts port = NetworkPorts.createRandomTestPort(new Random(2384L));
+
+      PacketCommunicator sender = PacketCommunicator.createIntraprocessPacketCommunicator(port, netClassList);
+      PacketCommunicator receiver = PacketCommunicator.createIntraprocessPacketCommunicator(port, netClassList);
+      BlockingQueue<Int32> receivedPackets = new ArrayBlockingQueue<>(100);
+      receiver.attachListener(Int32.class, receivedPackets::add);
+      sender.connect();
+      receiver.connect();
+
+      List<Int32> sentPackets = new ArrayList<>();
+      int numberOfPackets = 50;
+      for (int i = 0; i < numberOfPackets; i++)
+      {
+         Int32 packet = sender.borrowPacket(Int32.class);
+         packet.setData(i);
+         sender.send(packet);
+         sentPackets.add(packet);
+      }
+
+      // Every packet is released right after sending, so the same instance is used over and over.
+      for (Int32 packet : sentPackets)
+         assertSame(sentPackets.get(0), packet);
+      assertEquals(1, sender.getPacketPool().getNumberOfFreePackets(Int32.class));
+
+      // The receiver gets copies with the values at the time they were sent.
+      for (int i = 0; i < numberOfPackets; i++)
+      {
+         Int32 receivedPacket = receivedPackets.poll(10, TimeUnit.SECONDS);
+         assertTrue(receivedPacket != null);
+         assertNotSame(sentPackets.get(0), receivedPacket);
+         assertEquals(i, receivedPacket.getData());
+      }
+
+      sender.disconnect();
+      receiver.disconnect();
+   }
+
+   /**
+    * Checks the state of the pool when an object is sent, and serializes it by recording its value.
+    */
+   private static class RecordingCommunicator implements NetworkedObjectCommunicator
+   {
+      private final boolean isDoneWithObjectWhenSent;
+      private PacketPool pool;
+      private final List<Object> sentObjects = new ArrayList<>();
+      private final List<Integer> sentValues = new ArrayList<>();
+      private final List<Integer> numberOfFreePacketsWhenSent = new ArrayList<>();
+
+      private RecordingCommunicator(boolean isDoneWithObjectWhenSent)
+      {
+         this.isDoneWithObjectWhenSent = isDoneWithObjectWhenSent;
+      }
+
+      @Override
+      public int send(Object object)
+      {
+         sentObjects.add(object);
+         sentValues.add(((Int32) object).getData());
+         numberOfFreePacketsWhenSent.add(pool == null ? -1 : pool.getNumberOfFreePackets(Int32.class));
+         return 4;
+      }
+
+      @Override
+      public boolean isDoneWithObjectWhenSent()
+      {
+         return isDoneWithObjectWhenSent;
+      }
+
+      @Override
+      public void consumeObject(Object object)
+      {
+         send(object);
+      }
+
+      @Override
+      public boolean isConnected()
+      {
+         return true;
+      }
+
+      @Override
+      public void attachStateListener(ConnectionStateListener stateListener)
+      {
+      }
+
+      @Override
+      public void attachStateListener(TcpNetStateListener stateListener)
+      {
+      }
+
+      @Override
+      public <T> void attachListener(Class<T> clazz, ObjectConsumer<T> listener)
+      {
+      }
+
+      @Override
+      public <T> void detachListener(Class<T> clazz, ObjectConsumer<T> listener)
+      {
+      }
+
+      @Override
+      public void attachGlobalListener(GlobalObjectConsumer listener)
+      {
+      }
+
+      @Override
+      public void detachGlobalListener(GlobalObjectConsumer listener)
+      {
+      }
+
+      @Override
+      public void closeConnection()
+      {
+      }
+
+      @Override
+      public void disconnect()
+      {
+      }
+
+      @Override
+      public void connect()
+      {
+      }
+   }
+}
@@ -0,0 +1,75 @@
+package us.ihmc.communication.packetCommunicator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import us.ihmc.communication.packets.Packet;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class PacketPoolTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testBorrowAndRelease()
+   {
+      PacketPool pool = new PacketPool(2);
+
+      TestPacket first = pool.borrow(TestPacket.class);
+      TestPacket second = pool.borrow(TestPacket.class);
+      TestPacket third = pool.borrow(TestPacket.class);
+      assertNotSame(first, second);
+      assertTrue(pool.isFromPool(first));
+      assertFalse(pool.isFromPool(new TestPacket()));
+
+      pool.release(first);
+      pool.release(second);
+      assertEquals(2, pool.getNumberOfFreePackets(TestPacket.class));
+
+      // The free list is full, this packet is not kept.
+      pool.release(third);
+      assertEquals(2, pool.getNumberOfFreePackets(TestPacket.class));
+      assertFalse(pool.isFromPool(third));
+
+      assertSame(first, pool.borrow(TestPacket.class));
+      assertSame(second, pool.borrow(TestPacket.class));
+      assertEquals(0, pool.getNumberOfFreePackets(TestPacket.class));
+
+      // Packets that were not created by the pool are ignored.
+      pool.release(new TestPacket());
+      assertEquals(0, pool.getNumberOfFreePackets(TestPacket.class));
+   }
+
+   private static class TestPacket extends Packet<TestPacket>
+   {
+      public double value;
+
+      @Override
+      public boolean epsilonEquals(TestPacket other, double epsilon)
+      {
+         return Math.abs(other.value - value) <= epsilon;
+      }
+
+      @Override
+      public void set(TestPacket other)
+      {
+         value = other.value;
+      }
+
+      @Override
+      public boolean equals(Object other)
+      {
+         return other instanceof TestPacket && ((TestPacket) other).value == value;
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return Double.hashCode(value);
+      }
+   }
+}
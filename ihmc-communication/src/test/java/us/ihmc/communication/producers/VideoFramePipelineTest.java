@@ -0,0 +1,99 @@
+package us.ihmc.communication.producers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class VideoFramePipelineTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testFramesAreDroppedWhileBusy() throws InterruptedException
+   {
+      List<Long> processedTimestamps = Collections.synchronizedList(new ArrayList<>());
+      CountDownLatch firstFrameReceived = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      CountDownLatch done = new CountDownLatch(2);
+
+      VideoFramePipeline pipeline = new VideoFramePipeline("TestPipeline", (videoSource, image, timestamp, position, orientation, intrinsics) ->
+      {
+         processedTimestamps.add(timestamp);
+         firstFrameReceived.countDown();
+         try
+         {
+            release.await();
+         }
+         catch (InterruptedException e)
+         {
+            Thread.currentThread().interrupt();
+         }
+         done.countDown();
+      });
+
+      BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+      int numberOfFrames = 10;
+
+      // The first frame blocks the worker, the camera thread is never blocked.
+      pipeline.onFrame(VideoSource.CV_THRESHOLD, image, 0, null, null, null);
+      assertTrue(firstFrameReceived.await(10, TimeUnit.SECONDS));
+      for (int i = 1; i < numberOfFrames; i++)
+         pipeline.onFrame(VideoSource.CV_THRESHOLD, image, i, null, null, null);
+
+      release.countDown();
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+
+      assertEquals(2, processedTimestamps.size());
+      assertEquals(0L, (long) processedTimestamps.get(0));
+      assertEquals(numberOfFrames - 1, (long) processedTimestamps.get(1));
+      assertEquals(numberOfFrames, pipeline.getNumberOfReceivedFrames());
+      assertEquals(numberOfFrames - 2, pipeline.getNumberOfDroppedFrames());
+
+      pipeline.shutdown();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testCrop() throws InterruptedException
+   {
+      int width = 16;
+      int height = 12;
+      BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+      for (int x = 0; x < width; x++)
+      {
+         for (int y = 0; y < height; y++)
+            image.setRGB(x, y, (x << 8) | y);
+      }
+
+      int cropX = 4, cropY = 2, cropWidth = 8, cropHeight = 6;
+      CountDownLatch done = new CountDownLatch(1);
+      int[] croppedPixels = new int[cropWidth * cropHeight];
+
+      VideoFramePipeline pipeline = new VideoFramePipeline("TestPipeline", (videoSource, croppedImage, timestamp, position, orientation, intrinsics) ->
+      {
+         if (croppedImage.getWidth() == cropWidth && croppedImage.getHeight() == cropHeight)
+            croppedImage.getRGB(0, 0, cropWidth, cropHeight, croppedPixels, 0, cropWidth);
+         done.countDown();
+      });
+
+      pipeline.onFrame(VideoSource.CV_THRESHOLD, image, cropX, cropY, cropWidth, cropHeight, 0, null, null, null);
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+
+      for (int x = 0; x < cropWidth; x++)
+      {
+         for (int y = 0; y < cropHeight; y++)
+            assertEquals(image.getRGB(cropX + x, cropY + y), croppedPixels[y * cropWidth + x]);
+      }
+
+      pipeline.shutdown();
+   }
+}
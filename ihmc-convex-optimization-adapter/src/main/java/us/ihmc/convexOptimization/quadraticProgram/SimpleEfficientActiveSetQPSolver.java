@@ -4,6 +4,7 @@ import org.ejml.data.DenseMatrix64F;
 import org.ejml.factory.LinearSolverFactory;
 import org.ejml.interfaces.linsol.LinearSolver;
 import org.ejml.ops.CommonOps;
+import org.ejml.ops.MatrixFeatures;
 
 import gnu.trove.list.array.TIntArrayList;
 import us.ihmc.commons.PrintTools;
@@ -21,6 +22,12 @@ import us.ihmc.robotics.linearAlgebra.MatrixTools;
  * "An efficiently solvable quadratic program for stabilizing dynamic locomotion"
  * by Scott Kuindersma, Frank Permenter, and Russ Tedrake.
  *
+ * When the incremental factorization is enabled, the Schur complement of the active constraints,
+ * C Q<sup>-1</sup> C<sup>T</sup>, is kept as a Cholesky factorization that is updated when
+ * constraints enter or leave the active set, instead of being rebuilt and factorized at every
+ * iteration. The factorization is kept between consecutive solves: Q<sup>-1</sup> is only
+ * recomputed when Q changes and a constraint is only refactorized when its row changes.
+ *
  * @author JerryPratt
  *
  */
@@ -107,6 +114,31 @@ public class SimpleEfficientActiveSetQPSolver extends AbstractSimpleActiveSetQPS
    private int previousNumberOfLowerBoundConstraints = 0;
    private int previousNumberOfUpperBoundConstraints = 0;
 
+   private static final int EQUALITY_CONSTRAINT = 0;
+   private static final int INEQUALITY_CONSTRAINT = 1;
+   private static final int LOWER_BOUND_CONSTRAINT = 2;
+   private static final int UPPER_BOUND_CONSTRAINT = 3;
+
+   private boolean useIncrementalFactorization = false;
+
+   private final UpdatableCholeskyFactorization schurComplementFactorization = new UpdatableCholeskyFactorization();
+   private final DenseMatrix64F factorizedQuadraticCostQMatrix = new DenseMatrix64F(0, 0);
+   private final DenseMatrix64F QInverseQVector = new DenseMatrix64F(0, 0);
+   /** The constraints in the factorization, one per row, in the order of the factorization. */
+   private final DenseMatrix64F factorizedConstraints = new DenseMatrix64F(0, 0);
+   /** The rows of C Q^-1, with C the constraints in the factorization. */
+   private final DenseMatrix64F factorizedConstraintsQInverse = new DenseMatrix64F(0, 0);
+   private final TIntArrayList factorizedConstraintTypes = new TIntArrayList();
+   private final TIntArrayList factorizedConstraintIndices = new TIntArrayList();
+   private double[] schurComplementColumn = new double[0];
+
+   private int numberOfIterations = 0;
+   private int numberOfRefactorizations = 0;
+   private int numberOfFactorizationUpdates = 0;
+   private int numberOfFactorizationFailures = 0;
+   /** Set when the factorization failed, the remaining iterations of the solve use the LU decomposition. */
+   private boolean factorizationFailed = false;
+
    @Override
    public void setConvergenceThreshold(double convergenceThreshold)
    {
@@ -311,6 +343,52 @@ public class SimpleEfficientActiveSetQPSolver extends AbstractSimpleActiveSetQPS
       this.useWarmStart = useWarmStart;
    }
 
+   /**
+    * Enables the incremental factorization of the active constraints. Most useful combined with the
+    * warm start, as the active set and its factorization are then carried over to the next solve.
+    */
+   public void setUseIncrementalFactorization(boolean useIncrementalFactorization)
+   {
+      this.useIncrementalFactorization = useIncrementalFactorization;
+      clearFactorization();
+   }
+
+   /**
+    * @return the number of active set iterations of the last solve.
+    */
+   public int getNumberOfIterations()
+   {
+      return numberOfIterations;
+   }
+
+   /**
+    * @return the number of times Q was factorized during the last solve, 0 or 1. Only counted when
+    *         using the incremental factorization.
+    */
+   public int getNumberOfRefactorizations()
+   {
+      return numberOfRefactorizations;
+   }
+
+   /**
+    * @return the number of constraints added to or removed from the factorization during the last
+    *         solve. Only counted when using the incremental factorization.
+    */
+   public int getNumberOfFactorizationUpdates()
+   {
+      return numberOfFactorizationUpdates;
+   }
+
+   /**
+    * @return the number of times the factorization could not be updated during the last solve, 0 or
+    *         1. This happens when the active constraints are linearly dependent, the solve is then
+    *         finished with the LU decomposition as when the incremental factorization is disabled.
+    */
+   public int getNumberOfFactorizationFailures()
+   {
+      return numberOfFactorizationFailures;
+   }
+
    @Override
    public void resetActiveConstraints()
    {
@@ -349,6 +427,20 @@ public class SimpleEfficientActiveSetQPSolver extends AbstractSimpleActiveSetQPS
                     DenseMatrix64F lagrangeInequalityConstraintMultipliersToPack, DenseMatrix64F lagrangeLowerBoundConstraintMultipliersToPack,
                     DenseMatrix64F lagrangeUpperBoundConstraintMultipliersToPack)
    {
+      numberOfIterations = solveInternal(solutionToPack, lagrangeEqualityConstraintMultipliersToPack, lagrangeInequalityConstraintMultipliersToPack,
+                                         lagrangeLowerBoundConstraintMultipliersToPack, lagrangeUpperBoundConstraintMultipliersToPack);
+      return numberOfIterations;
+   }
+
+   private int solveInternal(DenseMatrix64F solutionToPack, DenseMatrix64F lagrangeEqualityConstraintMultipliersToPack,
+                             DenseMatrix64F lagrangeInequalityConstraintMultipliersToPack, DenseMatrix64F lagrangeLowerBoundConstraintMultipliersToPack,
+                             DenseMatrix64F lagrangeUpperBoundConstraintMultipliersToPack)
+   {
+      numberOfRefactorizations = 0;
+      numberOfFactorizationUpdates = 0;
+      numberOfFactorizationFailures = 0;
+      factorizationFailed = false;
+
       if (!useWarmStart || problemSizeChanged())
          resetActiveConstraints();
       else
@@ -372,7 +464,10 @@ public class SimpleEfficientActiveSetQPSolver extends AbstractSimpleActiveSetQPS
       lagrangeUpperBoundConstraintMultipliersToPack.reshape(numberOfUpperBoundConstraints, 1);
       lagrangeUpperBoundConstraintMultipliersToPack.zero();
 
-      computeQInverseAndAQInverse();
+      if (useIncrementalFactorization)
+         updateQInverse();
+      else
+         computeQInverseAndAQInverse();
 
       solveEqualityConstrainedSubproblemEfficiently(solutionToPack, lagrangeEqualityConstraintMultipliersToPack, lagrangeInequalityConstraintMultipliersToPack,
                                                     lagrangeLowerBoundConstraintMultipliersToPack, lagrangeUpperBoundConstraintMultipliersToPack);
@@ -430,15 +525,22 @@ public class SimpleEfficientActiveSetQPSolver extends AbstractSimpleActiveSetQPS
    private void computeQInverseAndAQInverse()
    {
       int numberOfVariables = quadraticCostQMatrix.getNumRows();
-      int numberOfEqualityConstraints = linearEqualityConstraintsAMatrix.getNumRows();
-
-      ATranspose.reshape(linearEqualityConstraintsAMatrix.getNumCols(), linearEqualityConstraintsAMatrix.getNumRows());
-      CommonOps.transpose(linearEqualityConstraintsAMatrix, ATranspose);
       QInverse.reshape(numberOfVariables, numberOfVariables);
 
       solver.setA(quadraticCostQMatrix);
       solver.invert(QInverse);
 
+      computeAQInverse();
+   }
+
+   private void computeAQInverse()
+   {
+      int numberOfVariables = quadraticCostQMatrix.getNumRows();
+      int numberOfEqualityConstraints = linearEqualityConstraintsAMatrix.getNumRows();
+
+      ATranspose.reshape(linearEqualityConstraintsAMatrix.getNumCols(), linearEqualityConstraintsAMatrix.getNumRows());
+      CommonOps.transpose(linearEqualityConstraintsAMatrix, ATranspose);
+
       AQInverse.reshape(numberOfEqualityConstraints, numberOfVariables);
       QInverseATranspose.reshape(numberOfVariables, numberOfEqualityConstraints);
       AQInverseATranspose.reshape(numberOfEqualityConstraints, numberOfEqualityConstraints);
@@ -835,6 +937,24 @@ public class SimpleEfficientActiveSetQPSolver extends AbstractSimpleActiveSetQPS
       int numberOfAugmentedEqualityConstraints = numberOfOriginalEqualityConstraints + numberOfActiveInequalityConstraints + numberOfActiveLowerBoundConstraints
             + numberOfActiveUpperBoundConstraints;
 
+      if (useIncrementalFactorization && !factorizationFailed)
+      {
+         if (updateFactorization())
+         {
+            solveEqualityConstrainedSubproblemWithFactorization(xSolutionToPack, lagrangeEqualityConstraintMultipliersToPack,
+                                                                lagrangeInequalityConstraintMultipliersToPack, lagrangeLowerBoundConstraintMultipliersToPack,
+                                                                lagrangeUpperBoundConstraintMultipliersToPack);
+            return;
+         }
+
+         // The active constraints are linearly dependent, the factorization now holds NaN or huge values and cannot be updated anymore.
+         // Drop it and finish the solve with the LU decomposition, Q^-1 is still valid.
+         clearSchurComplementFactorization();
+         factorizationFailed = true;
+         numberOfFactorizationFailures++;
+         computeAQInverse();
+      }
+
       negativeQuadraticCostQVector.set(quadraticCostQVector);
       CommonOps.scale(-1.0, negativeQuadraticCostQVector);
 
@@ -949,4 +1069,300 @@ public class SimpleEfficientActiveSetQPSolver extends AbstractSimpleActiveSetQPS
                            upperBoundConstraintIndex, 0);
       }
    }
+
+   private void clearFactorization()
+   {
+      factorizedQuadraticCostQMatrix.reshape(0, 0);
+      clearSchurComplementFactorization();
+   }
+
+   private void clearSchurComplementFactorization()
+   {
+      int numberOfVariables = factorizedQuadraticCostQMatrix.getNumRows();
+      schurComplementFactorization.reset();
+      factorizedConstraints.reshape(0, numberOfVariables);
+      factorizedConstraintsQInverse.reshape(0, numberOfVariables);
+      factorizedConstraintTypes.reset();
+      factorizedConstraintIndices.reset();
+   }
+
+   /**
+    * Computes Q<sup>-1</sup> only if Q changed since the last solve. When it changed, all the
+    * constraints are removed from the factorization as C Q<sup>-1</sup> C<sup>T</sup> changed too.
+    */
+   private void updateQInverse()
+   {
+      int numberOfVariables = quadraticCostQMatrix.getNumRows();
+
+      if (!MatrixFeatures.isIdentical(quadraticCostQMatrix, factorizedQuadraticCostQMatrix, 0.0))
+      {
+         QInverse.reshape(numberOfVariables, numberOfVariables);
+         solver.setA(quadraticCostQMatrix);
+         solver.invert(QInverse);
+
+         factorizedQuadraticCostQMatrix.set(quadraticCostQMatrix);
+         clearSchurComplementFactorization();
+         numberOfRefactorizations++;
+      }
+
+      QInverseQVector.reshape(numberOfVariables, 1);
+      CommonOps.mult(QInverse, quadraticCostQVector, QInverseQVector);
+   }
+
+   /**
+    * Brings the factorization up to date with the equality constraints and the current active set.
+    * Constraints that left the active set or whose row changed are removed, then the missing ones are
+    * added.
+    *
+    * @return false if a constraint could not be added because it is linearly dependent on the
+    *         constraints already factorized, in which case the factorization is not usable.
+    */
+   private boolean updateFactorization()
+   {
+      for (int i = factorizedConstraintTypes.size() - 1; i >= 0; i--)
+      {
+         if (!isFactorizedConstraintValid(i))
+            removeConstraintFromFactorization(i);
+      }
+
+      for (int i = 0; i < linearEqualityConstraintsAMatrix.getNumRows(); i++)
+      {
+         if (!isConstraintFactorized(EQUALITY_CONSTRAINT, i) && !addConstraintToFactorization(EQUALITY_CONSTRAINT, i))
+            return false;
+      }
+
+      for (int i = 0; i < activeInequalityIndices.size(); i++)
+      {
+         if (!isConstraintFactorized(INEQUALITY_CONSTRAINT, activeInequalityIndices.get(i)) && !addConstraintToFactorization(INEQUALITY_CONSTRAINT, activeInequalityIndices.get(i)))
+            return false;
+      }
+
+      for (int i = 0; i < activeLowerBoundIndices.size(); i++)
+      {
+         if (!isConstraintFactorized(LOWER_BOUND_CONSTRAINT, activeLowerBoundIndices.get(i)) && !addConstraintToFactorization(LOWER_BOUND_CONSTRAINT, activeLowerBoundIndices.get(i)))
+            return false;
+      }
+
+      for (int i = 0; i < activeUpperBoundIndices.size(); i++)
+      {
+         if (!isConstraintFactorized(UPPER_BOUND_CONSTRAINT, activeUpperBoundIndices.get(i)) && !addConstraintToFactorization(UPPER_BOUND_CONSTRAINT, activeUpperBoundIndices.get(i)))
+            return false;
+      }
+
+      return true;
+   }
+
+   private boolean isConstraintFactorized(int type, int index)
+   {
+      for (int i = 0; i < factorizedConstraintTypes.size(); i++)
+      {
+         if (factorizedConstraintTypes.get(i) == type && factorizedConstraintIndices.get(i) == index)
+            return true;
+      }
+      return false;
+   }
+
+   private boolean isFactorizedConstraintValid(int factorizationIndex)
+   {
+      int index = factorizedConstraintIndices.get(factorizationIndex);
+
+      switch (factorizedConstraintTypes.get(factorizationIndex))
+      {
+      case EQUALITY_CONSTRAINT:
+         return index < linearEqualityConstraintsAMatrix.getNumRows()
+               && isRowEqual(linearEqualityConstraintsAMatrix, index, factorizedConstraints, factorizationIndex);
+      case INEQUALITY_CONSTRAINT:
+         return activeInequalityIndices.contains(index)
+               && isRowEqual(linearInequalityConstraintsCMatrixO, index, factorizedConstraints, factorizationIndex);
+      case LOWER_BOUND_CONSTRAINT:
+         return activeLowerBoundIndices.contains(index);
+      case UPPER_BOUND_CONSTRAINT:
+         return activeUpperBoundIndices.contains(index);
+      default:
+         throw new RuntimeException("Unexpected constraint type: " + factorizedConstraintTypes.get(factorizationIndex));
+      }
+   }
+
+   private static boolean isRowEqual(DenseMatrix64F a, int rowA, DenseMatrix64F b, int rowB)
+   {
+      int numberOfColumns = a.getNumCols();
+      int startA = rowA * numberOfColumns;
+      int startB = rowB * numberOfColumns;
+
+      for (int col = 0; col < numberOfColumns; col++)
+      {
+         if (a.data[startA + col] != b.data[startB + col])
+            return false;
+      }
+      return true;
+   }
+
+   private boolean addConstraintToFactorization(int type, int index)
+   {
+      int numberOfVariables = quadraticCostQMatrix.getNumRows();
+      int size = factorizedConstraintTypes.size();
+
+      factorizedConstraints.reshape(size + 1, numberOfVariables, true);
+      factorizedConstraintsQInverse.reshape(size + 1, numberOfVariables, true);
+      double[] constraints = factorizedConstraints.data;
+      double[] constraintsQInverse = factorizedConstraintsQInverse.data;
+      int rowStart = size * numberOfVariables;
+
+      if (type == EQUALITY_CONSTRAINT || type == INEQUALITY_CONSTRAINT)
+      {
+         DenseMatrix64F constraintMatrix = type == EQUALITY_CONSTRAINT ? linearEqualityConstraintsAMatrix : linearInequalityConstraintsCMatrixO;
+         System.arraycopy(constraintMatrix.data, index * numberOfVariables, constraints, rowStart, numberOfVariables);
+
+         // c Q^-1, Q^-1 is symmetric.
+         for (int col = 0; col < numberOfVariables; col++)
+         {
+            double value = 0.0;
+            for (int k = 0; k < numberOfVariables; k++)
+               value += constraints[rowStart + k] * QInverse.data[k * numberOfVariables + col];
+            constraintsQInverse[rowStart + col] = value;
+         }
+      }
+      else
+      {
+         double sign = type == LOWER_BOUND_CONSTRAINT ? -1.0 : 1.0;
+         for (int col = 0; col < numberOfVariables; col++)
+         {
+            constraints[rowStart + col] = 0.0;
+            constraintsQInverse[rowStart + col] = sign * QInverse.data[index * numberOfVariables + col];
+         }
+         constraints[rowStart + index] = sign;
+      }
+
+      if (schurComplementColumn.length < size)
+         schurComplementColumn = new double[2 * size];
+
+      // The new column of C Q^-1 C^T
+      for (int i = 0; i < size; i++)
+      {
+         double value = 0.0;
+         int otherRowStart = i * numberOfVariables;
+         for (int col = 0; col < numberOfVariables; col++)
+            value += constraints[otherRowStart + col] * constraintsQInverse[rowStart + col];
+         schurComplementColumn[i] = value;
+      }
+
+      double diagonal = 0.0;
+      for (int col = 0; col < numberOfVariables; col++)
+         diagonal += constraints[rowStart + col] * constraintsQInverse[rowStart + col];
+
+      boolean success = schurComplementFactorization.addRowAndColumn(schurComplementColumn, diagonal);
+      factorizedConstraintTypes.add(type);
+      factorizedConstraintIndices.add(index);
+      numberOfFactorizationUpdates++;
+      return success;
+   }
+
+   private void removeConstraintFromFactorization(int factorizationIndex)
+   {
+      int numberOfVariables = quadraticCostQMatrix.getNumRows();
+      int size = factorizedConstraintTypes.size();
+
+      int start = (factorizationIndex + 1) * numberOfVariables;
+      int length = (size - factorizationIndex - 1) * numberOfVariables;
+      System.arraycopy(factorizedConstraints.data, start, factorizedConstraints.data, start - numberOfVariables, length);
+      System.arraycopy(factorizedConstraintsQInverse.data, start, factorizedConstraintsQInverse.data, start - numberOfVariables, length);
+      factorizedConstraints.reshape(size - 1, numberOfVariables, true);
+      factorizedConstraintsQInverse.reshape(size - 1, numberOfVariables, true);
+
+      schurComplementFactorization.removeRowAndColumn(factorizationIndex);
+      factorizedConstraintTypes.removeAt(factorizationIndex);
+      factorizedConstraintIndices.removeAt(factorizationIndex);
+      numberOfFactorizationUpdates++;
+   }
+
+   /**
+    * Same as the regular solution of the equality constrained subproblem, but using the
+    * factorization of C Q<sup>-1</sup> C<sup>T</sup>:
+    * <p>
+    * &lambda; = -(C Q<sup>-1</sup> C<sup>T</sup>)<sup>-1</sup> (C Q<sup>-1</sup> q + d) <br>
+    * x = -Q<sup>-1</sup> q - (C Q<sup>-1</sup>)<sup>T</sup> &lambda;
+    * </p>
+    */
+   private void solveEqualityConstrainedSubproblemWithFactorization(DenseMatrix64F xSolutionToPack,
+                                                                    DenseMatrix64F lagrangeEqualityConstraintMultipliersToPack,
+                                                                    DenseMatrix64F lagrangeInequalityConstraintMultipliersToPack,
+                                                                    DenseMatrix64F lagrangeLowerBoundConstraintMultipliersToPack,
+                                                                    DenseMatrix64F lagrangeUpperBoundConstraintMultipliersToPack)
+   {
+      int numberOfVariables = quadraticCostQMatrix.getNumRows();
+      int size = factorizedConstraintTypes.size();
+      double[] constraintsQInverse = factorizedConstraintsQInverse.data;
+      double[] q = quadraticCostQVector.data;
+
+      bigVectorForLagrangeMultiplierSolution.reshape(size, 1);
+      for (int i = 0; i < size; i++)
+      {
+         int rowStart = i * numberOfVariables;
+         double value = 0.0;
+         for (int col = 0; col < numberOfVariables; col++)
+            value += constraintsQInverse[rowStart + col] * q[col];
+
+         bigVectorForLagrangeMultiplierSolution.set(i, 0, -(value + getConstraintObjective(i)));
+      }
+
+      schurComplementFactorization.solve(bigVectorForLagrangeMultiplierSolution, augmentedLagrangeMultipliers);
+
+      xSolutionToPack.reshape(numberOfVariables, 1);
+      for (int col = 0; col < numberOfVariables; col++)
+         xSolutionToPack.set(col, 0, -QInverseQVector.get(col, 0));
+
+      for (int i = 0; i < size; i++)
+      {
+         double lagrangeMultiplier = augmentedLagrangeMultipliers.get(i, 0);
+         int rowStart = i * numberOfVariables;
+         for (int col = 0; col < numberOfVariables; col++)
+            xSolutionToPack.data[col] -= constraintsQInverse[rowStart + col] * lagrangeMultiplier;
+      }
+
+      lagrangeEqualityConstraintMultipliersToPack.zero();
+      lagrangeInequalityConstraintMultipliersToPack.zero();
+      lagrangeLowerBoundConstraintMultipliersToPack.zero();
+      lagrangeUpperBoundConstraintMultipliersToPack.zero();
+
+      for (int i = 0; i < size; i++)
+      {
+         int index = factorizedConstraintIndices.get(i);
+         double lagrangeMultiplier = augmentedLagrangeMultipliers.get(i, 0);
+
+         switch (factorizedConstraintTypes.get(i))
+         {
+         case EQUALITY_CONSTRAINT:
+            lagrangeEqualityConstraintMultipliersToPack.set(index, 0, lagrangeMultiplier);
+            break;
+         case INEQUALITY_CONSTRAINT:
+            lagrangeInequalityConstraintMultipliersToPack.set(index, 0, lagrangeMultiplier);
+            break;
+         case LOWER_BOUND_CONSTRAINT:
+            lagrangeLowerBoundConstraintMultipliersToPack.set(index, 0, lagrangeMultiplier);
+            break;
+         case UPPER_BOUND_CONSTRAINT:
+            lagrangeUpperBoundConstraintMultipliersToPack.set(index, 0, lagrangeMultiplier);
+            break;
+         }
+      }
+   }
+
+   private double getConstraintObjective(int factorizationIndex)
+   {
+      int index = factorizedConstraintIndices.get(factorizationIndex);
+
+      switch (factorizedConstraintTypes.get(factorizationIndex))
+      {
+      case EQUALITY_CONSTRAINT:
+         return linearEqualityConstraintsBVector.get(index, 0);
+      case INEQUALITY_CONSTRAINT:
+         return linearInequalityConstraintsDVectorO.get(index, 0);
+      case LOWER_BOUND_CONSTRAINT:
+         return -variableLowerBounds.get(index, 0);
+      case UPPER_BOUND_CONSTRAINT:
+         return variableUpperBounds.get(index, 0);
+      default:
+         throw new RuntimeException("Unexpected constraint type: " + factorizedConstraintTypes.get(factorizationIndex));
+      }
+   }
 }
@@ -0,0 +1,168 @@
+package us.ihmc.convexOptimization.quadraticProgram;
+
+import org.ejml.data.DenseMatrix64F;
+
+/**
+ * Cholesky factorization M = L L<sup>T</sup> of a symmetric positive definite matrix that can be
+ * updated when a row and column are added to or removed from M, without refactorizing M.
+ * <ul>
+ * <li>Adding a row and column at the end of M costs O(n<sup>2</sup>): one forward substitution.
+ * <li>Removing any row and column of M costs O(n<sup>2</sup>): the row is deleted from L and the
+ * lower triangular shape is restored with Givens rotations.
+ * </ul>
+ * Memory is only allocated when the factorization grows beyond its previous maximum size.
+ */
+public class UpdatableCholeskyFactorization
+{
+   /**
+    * A new row is rejected when its squared pivot is below this fraction of its diagonal element,
+    * i.e. when it is linearly dependent on the previous rows up to round-off.
+    */
+   private static final double RELATIVE_PIVOT_TOLERANCE = 1.0e-12;
+
+   private double[] L = new double[0];
+   private int capacity = 0;
+   private int size = 0;
+
+   public void reset()
+   {
+      size = 0;
+   }
+
+   public int getSize()
+   {
+      return size;
+   }
+
+   /**
+    * Adds a row and column at the end of the factorized matrix.
+    *
+    * @param offDiagonal the new column of M above the diagonal. Only the first {@link #getSize()}
+    *           elements are used.
+    * @param diagonal the new diagonal element of M.
+    * @return false if the matrix is not positive definite anymore or is singular up to round-off, in
+    *         which case the factorization contains NaN, infinite, or meaningless values and has to
+    *         be reset.
+    */
+   public boolean addRowAndColumn(double[] offDiagonal, double diagonal)
+   {
+      ensureCapacity(size + 1);
+
+      int newRowStart = size * capacity;
+      double diagonalSquared = diagonal;
+
+      for (int col = 0; col < size; col++)
+      {
+         int rowStart = col * capacity;
+         double value = offDiagonal[col];
+         for (int k = 0; k < col; k++)
+            value -= L[newRowStart + k] * L[rowStart + k];
+         value /= L[rowStart + col];
+
+         L[newRowStart + col] = value;
+         diagonalSquared -= value * value;
+      }
+
+      L[newRowStart + size] = Math.sqrt(diagonalSquared);
+      size++;
+
+      return diagonalSquared > RELATIVE_PIVOT_TOLERANCE * diagonal;
+   }
+
+   /**
+    * Removes a row and the corresponding column of the factorized matrix.
+    */
+   public void removeRowAndColumn(int index)
+   {
+      if (index >= size)
+         throw new RuntimeException("The index was expected to be in [0, " + (size - 1) + "], but was: " + index);
+
+      for (int row = index; row < size - 1; row++)
+         System.arraycopy(L, (row + 1) * capacity, L, row * capacity, row + 2);
+      size--;
+
+      // Every row from index on has now one element above the diagonal, rotate the columns to zero it.
+      for (int col = index; col < size; col++)
+      {
+         int diagonalIndex = col * capacity + col;
+         double a = L[diagonalIndex];
+         double b = L[diagonalIndex + 1];
+         double norm = Math.hypot(a, b);
+
+         if (norm == 0.0)
+            continue;
+
+         double cos = a / norm;
+         double sin = b / norm;
+
+         for (int row = col; row < size; row++)
+         {
+            int rowIndex = row * capacity + col;
+            double x = L[rowIndex];
+            double y = L[rowIndex + 1];
+            L[rowIndex] = cos * x + sin * y;
+            L[rowIndex + 1] = -sin * x + cos * y;
+         }
+      }
+   }
+
+   /**
+    * Solves M x = b.
+    *
+    * @param b the right-hand side. Not modified.
+    * @param xToPack the solution. Modified.
+    */
+   public void solve(DenseMatrix64F b, DenseMatrix64F xToPack)
+   {
+      xToPack.reshape(size, 1);
+      double[] x = xToPack.getData();
+
+      // L y = b
+      for (int row = 0; row < size; row++)
+      {
+         int rowStart = row * capacity;
+         double value = b.get(row);
+         for (int k = 0; k < row; k++)
+            value -= L[rowStart + k] * x[k];
+         x[row] = value / L[rowStart + row];
+      }
+
+      // L^T x = y
+      for (int row = size - 1; row >= 0; row--)
+      {
+         double value = x[row];
+         for (int k = row + 1; k < size; k++)
+            value -= L[k * capacity + row] * x[k];
+         x[row] = value / L[row * capacity + row];
+      }
+   }
+
+   /**
+    * Packs the lower triangular factor L.
+    */
+   public void getL(DenseMatrix64F LToPack)
+   {
+      LToPack.reshape(size, size);
+      LToPack.zero();
+
+      for (int row = 0; row < size; row++)
+      {
+         for (int col = 0; col <= row; col++)
+            LToPack.unsafe_set(row, col, L[row * capacity + col]);
+      }
+   }
+
+   private void ensureCapacity(int requiredSize)
+   {
+      if (requiredSize <= capacity)
+         return;
+
+      int newCapacity = Math.max(Math.max(2 * capacity, requiredSize), 8);
+      double[] newL = new double[newCapacity * newCapacity];
+      for (int row = 0; row < size; row++)
+         System.arraycopy(L, row * capacity, newL, row * newCapacity, row + 1);
+
+      L = newL;
+      capacity = newCapacity;
+   }
+}
@@ -1,12 +1,17 @@
 package us.ihmc.convexOptimization.quadraticProgram;
 
+import java.util.Random;
+
 import org.ejml.data.DenseMatrix64F;
+import org.ejml.ops.CommonOps;
 import org.junit.Test;
 import us.ihmc.commons.PrintTools;
+import us.ihmc.commons.RandomNumbers;
 import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationPlan;
 import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
 import us.ihmc.continuousIntegration.IntegrationCategory;
 import us.ihmc.robotics.linearAlgebra.MatrixTools;
+import us.ihmc.robotics.random.RandomGeometry;
 
 import static junit.framework.TestCase.assertFalse;
 import static junit.framework.TestCase.assertTrue;
@@ -162,4 +167,121 @@ public class SimpleEfficientActiveSetQPSolverTest extends AbstractSimpleActiveSe
 
       assertTrue(numberOfIterationsWithWarmStart < numberOfIterationsWithoutWarmStart);
    }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testIncrementalFactorizationMatchesRegularSolver()
+   {
+      Random random = new Random(4591L);
+
+      int numberOfVariables = 30;
+      int numberOfEqualityConstraints = 4;
+      int numberOfInequalityConstraints = 12;
+      int numberOfProblems = 20;
+      int numberOfTicks = 10;
+
+      SimpleEfficientActiveSetQPSolver regularSolver = new SimpleEfficientActiveSetQPSolver();
+      SimpleEfficientActiveSetQPSolver incrementalSolver = new SimpleEfficientActiveSetQPSolver();
+      regularSolver.setUseWarmStart(true);
+      incrementalSolver.setUseWarmStart(true);
+      incrementalSolver.setUseIncrementalFactorization(true);
+
+      DenseMatrix64F regularSolution = new DenseMatrix64F(0, 0);
+      DenseMatrix64F incrementalSolution = new DenseMatrix64F(0, 0);
+
+      for (int problem = 0; problem < numberOfProblems; problem++)
+      {
+         DenseMatrix64F costQuadraticMatrix = RandomGeometry.nextDenseMatrix64F(random, numberOfVariables, numberOfVariables);
+         DenseMatrix64F identity = CommonOps.identity(numberOfVariables, numberOfVariables);
+         CommonOps.scale(numberOfVariables, identity);
+         CommonOps.addEquals(costQuadraticMatrix, identity);
+
+         DenseMatrix64F linearEqualityConstraintsAMatrix = RandomGeometry.nextDenseMatrix64F(random, numberOfEqualityConstraints, numberOfVariables);
+         DenseMatrix64F linearEqualityConstraintsBVector = RandomGeometry.nextDenseMatrix64F(random, numberOfEqualityConstraints, 1);
+         DenseMatrix64F linearInequalityConstraintsCMatrix = RandomGeometry.nextDenseMatrix64F(random, numberOfInequalityConstraints, numberOfVariables);
+         DenseMatrix64F linearInequalityConstraintsDVector = RandomGeometry.nextDenseMatrix64F(random, numberOfInequalityConstraints, 1);
+         DenseMatrix64F variableLowerBounds = RandomGeometry.nextDenseMatrix64F(random, numberOfVariables, 1, -5.0, -0.01);
+         DenseMatrix64F variableUpperBounds = RandomGeometry.nextDenseMatrix64F(random, numberOfVariables, 1, 0.01, 5.0);
+         DenseMatrix64F costLinearVector = RandomGeometry.nextDenseMatrix64F(random, numberOfVariables, 1);
+
+         for (int tick = 0; tick < numberOfTicks; tick++)
+         {
+            // Consecutive problems only differ by a small change of the linear cost.
+            for (int i = 0; i < numberOfVariables; i++)
+               costLinearVector.add(i, 0, RandomNumbers.nextDouble(random, 0.05));
+
+            for (SimpleEfficientActiveSetQPSolver solver : new SimpleEfficientActiveSetQPSolver[] {regularSolver, incrementalSolver})
+            {
+               solver.clear();
+               solver.setQuadraticCostFunction(costQuadraticMatrix, costLinearVector, 0.0);
+               solver.setLinearEqualityConstraints(linearEqualityConstraintsAMatrix, linearEqualityConstraintsBVector);
+               solver.setLinearInequalityConstraints(linearInequalityConstraintsCMatrix, linearInequalityConstraintsDVector);
+               solver.setVariableBounds(variableLowerBounds, variableUpperBounds);
+            }
+
+            regularSolver.solve(regularSolution);
+            int incrementalIterations = incrementalSolver.solve(incrementalSolution);
+
+            assertEquals(incrementalIterations, incrementalSolver.getNumberOfIterations());
+            assertEquals(tick == 0 ? 1 : 0, incrementalSolver.getNumberOfRefactorizations());
+
+            for (int i = 0; i < numberOfVariables; i++)
+               assertEquals(regularSolution.get(i, 0), incrementalSolution.get(i, 0), 1.0e-7);
+         }
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testIncrementalFactorizationWithLinearlyDependentConstraints()
+   {
+      Random random = new Random(7321L);
+      int numberOfVariables = 8;
+
+      DenseMatrix64F costQuadraticMatrix = RandomGeometry.nextDenseMatrix64F(random, numberOfVariables, numberOfVariables);
+      CommonOps.multInner(costQuadraticMatrix, costQuadraticMatrix);
+      for (int i = 0; i < numberOfVariables; i++)
+         costQuadraticMatrix.add(i, i, 1.0);
+      DenseMatrix64F costLinearVector = RandomGeometry.nextDenseMatrix64F(random, numberOfVariables, 1);
+
+      // The third equality constraint is the sum of the first two.
+      DenseMatrix64F dependentAMatrix = RandomGeometry.nextDenseMatrix64F(random, 3, numberOfVariables);
+      DenseMatrix64F dependentBVector = RandomGeometry.nextDenseMatrix64F(random, 3, 1);
+      for (int col = 0; col < numberOfVariables; col++)
+         dependentAMatrix.set(2, col, dependentAMatrix.get(0, col) + dependentAMatrix.get(1, col));
+      dependentBVector.set(2, 0, dependentBVector.get(0, 0) + dependentBVector.get(1, 0));
+
+      DenseMatrix64F independentAMatrix = new DenseMatrix64F(2, numberOfVariables);
+      DenseMatrix64F independentBVector = new DenseMatrix64F(2, 1);
+      CommonOps.extract(dependentAMatrix, 0, 2, 0, numberOfVariables, independentAMatrix, 0, 0);
+      CommonOps.extract(dependentBVector, 0, 2, 0, 1, independentBVector, 0, 0);
+
+      SimpleEfficientActiveSetQPSolver regularSolver = new SimpleEfficientActiveSetQPSolver();
+      SimpleEfficientActiveSetQPSolver incrementalSolver = new SimpleEfficientActiveSetQPSolver();
+      incrementalSolver.setUseIncrementalFactorization(true);
+
+      DenseMatrix64F regularSolution = new DenseMatrix64F(0, 0);
+      DenseMatrix64F incrementalSolution = new DenseMatrix64F(0, 0);
+
+      // Degenerate, then well posed to check that the factorization recovers.
+      DenseMatrix64F[][] equalityConstraints = {{dependentAMatrix, dependentBVector}, {independentAMatrix, independentBVector}};
+      int[] expectedNumberOfFailures = {1, 0};
+
+      for (int problem = 0; problem < equalityConstraints.length; problem++)
+      {
+         for (SimpleEfficientActiveSetQPSolver solver : new SimpleEfficientActiveSetQPSolver[] {regularSolver, incrementalSolver})
+         {
+            solver.clear();
+            solver.setQuadraticCostFunction(costQuadraticMatrix, costLinearVector, 0.0);
+            solver.setLinearEqualityConstraints(equalityConstraints[problem][0], equalityConstraints[problem][1]);
+         }
+
+         regularSolver.solve(regularSolution);
+         incrementalSolver.solve(incrementalSolution);
+
+         assertEquals(expectedNumberOfFailures[problem], incrementalSolver.getNumberOfFactorizationFailures());
+         for (int i = 0; i < numberOfVariables; i++)
+            assertEquals(regularSolution.get(i, 0), incrementalSolution.get(i, 0), 1.0e-7);
+      }
+   }
 }
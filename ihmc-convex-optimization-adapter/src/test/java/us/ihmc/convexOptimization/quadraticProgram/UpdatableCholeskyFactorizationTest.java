@@ -0,0 +1,128 @@
+package us.ihmc.convexOptimization.quadraticProgram;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.ejml.data.DenseMatrix64F;
+import org.ejml.ops.CommonOps;
+import org.ejml.ops.RandomMatrices;
+import org.junit.Test;
+
+import gnu.trove.list.array.TIntArrayList;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class UpdatableCholeskyFactorizationTest
+{
+   private static final double EPSILON = 1.0e-10;
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testRandomAddAndRemove()
+   {
+      Random random = new Random(2384L);
+      int matrixSize = 25;
+
+      DenseMatrix64F B = RandomMatrices.createRandom(matrixSize, matrixSize, -1.0, 1.0, random);
+      DenseMatrix64F M = CommonOps.identity(matrixSize);
+      CommonOps.multAddTransB(B, B, M);
+
+      UpdatableCholeskyFactorization factorization = new UpdatableCholeskyFactorization();
+      TIntArrayList indices = new TIntArrayList();
+      double[] offDiagonal = new double[matrixSize];
+
+      DenseMatrix64F L = new DenseMatrix64F(0, 0);
+      DenseMatrix64F LLTranspose = new DenseMatrix64F(0, 0);
+      DenseMatrix64F b = new DenseMatrix64F(0, 0);
+      DenseMatrix64F x = new DenseMatrix64F(0, 0);
+      DenseMatrix64F Mx = new DenseMatrix64F(0, 0);
+
+      for (int step = 0; step < 300; step++)
+      {
+         if (indices.size() < matrixSize && (indices.isEmpty() || random.nextDouble() < 0.6))
+         {
+            int index;
+            do
+            {
+               index = random.nextInt(matrixSize);
+            }
+            while (indices.contains(index));
+
+            for (int i = 0; i < indices.size(); i++)
+               offDiagonal[i] = M.get(indices.get(i), index);
+            assertTrue(factorization.addRowAndColumn(offDiagonal, M.get(index, index)));
+            indices.add(index);
+         }
+         else
+         {
+            int position = random.nextInt(indices.size());
+            factorization.removeRowAndColumn(position);
+            indices.removeAt(position);
+         }
+
+         int size = indices.size();
+         assertEquals(size, factorization.getSize());
+
+         DenseMatrix64F subMatrix = new DenseMatrix64F(size, size);
+         for (int row = 0; row < size; row++)
+         {
+            for (int col = 0; col < size; col++)
+               subMatrix.set(row, col, M.get(indices.get(row), indices.get(col)));
+         }
+
+         factorization.getL(L);
+         LLTranspose.reshape(size, size);
+         CommonOps.multTransB(L, L, LLTranspose);
+         assertMatrixEquals(subMatrix, LLTranspose);
+
+         b.reshape(size, 1);
+         RandomMatrices.setRandom(b, random);
+         factorization.solve(b, x);
+         Mx.reshape(size, 1);
+         CommonOps.mult(subMatrix, x, Mx);
+         assertMatrixEquals(b, Mx);
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testLinearlyDependentRowIsRejected()
+   {
+      Random random = new Random(9823L);
+      int numberOfRows = 6;
+      int numberOfColumns = 10;
+
+      // M = C C^T where the last row of C is a combination of the first two.
+      DenseMatrix64F C = RandomMatrices.createRandom(numberOfRows, numberOfColumns, -1.0, 1.0, random);
+      for (int col = 0; col < numberOfColumns; col++)
+         C.set(numberOfRows - 1, col, 0.3 * C.get(0, col) - 2.0 * C.get(1, col));
+      DenseMatrix64F M = new DenseMatrix64F(numberOfRows, numberOfRows);
+      CommonOps.multTransB(C, C, M);
+
+      UpdatableCholeskyFactorization factorization = new UpdatableCholeskyFactorization();
+      double[] offDiagonal = new double[numberOfRows];
+
+      for (int index = 0; index < numberOfRows; index++)
+      {
+         for (int i = 0; i < index; i++)
+            offDiagonal[i] = M.get(i, index);
+         boolean success = factorization.addRowAndColumn(offDiagonal, M.get(index, index));
+         assertEquals(index < numberOfRows - 1, success);
+      }
+
+      factorization.reset();
+      assertTrue(factorization.addRowAndColumn(offDiagonal, 1.0));
+      offDiagonal[0] = 1.0;
+      assertFalse(factorization.addRowAndColumn(offDiagonal, -1.0));
+   }
+
+   private static void assertMatrixEquals(DenseMatrix64F expected, DenseMatrix64F actual)
+   {
+      assertEquals(expected.getNumRows(), actual.getNumRows());
+      assertEquals(expected.getNumCols(), actual.getNumCols());
+      for (int i = 0; i < expected.getNumElements(); i++)
+         assertEquals(expected.get(i), actual.get(i), EPSILON);
+   }
+}
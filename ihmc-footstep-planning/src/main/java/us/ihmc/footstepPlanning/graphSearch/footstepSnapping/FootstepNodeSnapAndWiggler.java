@@ -1,7 +1,10 @@
 package us.ihmc.footstepPlanning.graphSearch.footstepSnapping;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 import us.ihmc.euclid.geometry.ConvexPolygon2D;
 import us.ihmc.euclid.transform.RigidBodyTransform;
@@ -24,9 +27,16 @@ public class FootstepNodeSnapAndWiggler extends FootstepNodeSnapper
    private final SideDependentList<ConvexPolygon2D> footPolygonsInSoleFrame;
    private final FootstepPlannerParameters parameters;
 
-   private final WiggleParameters wiggleParameters = new WiggleParameters();
-   private final PlanarRegion planarRegionToPack = new PlanarRegion();
-   private final ConvexPolygon2D footPolygon = new ConvexPolygon2D();
+   private final ThreadLocal<WiggleParameters> wiggleParameters = ThreadLocal.withInitial(WiggleParameters::new);
+   private final ThreadLocal<PlanarRegion> planarRegionToPack = ThreadLocal.withInitial(PlanarRegion::new);
+   private final ThreadLocal<ConvexPolygon2D> footPolygon = ThreadLocal.withInitial(ConvexPolygon2D::new);
+
+   /**
+    * The listener is not thread-safe: while snapping on a pool, the rejections are stored here and
+    * the listener is notified from the calling thread once all the nodes are snapped.
+    */
+   private final ConcurrentHashMap<FootstepNode, BipedalFootstepPlannerNodeRejectionReason> pendingRejections = new ConcurrentHashMap<>();
+   private volatile boolean deferRejectionNotifications = false;
 
    public FootstepNodeSnapAndWiggler(SideDependentList<ConvexPolygon2D> footPolygonsInSoleFrame, FootstepPlannerParameters parameters,
                                      BipedalFootstepPlannerListener listener)
@@ -36,9 +46,45 @@ public class FootstepNodeSnapAndWiggler extends FootstepNodeSnapper
       this.listener = listener;
    }
 
+   /**
+    * Snaps the nodes on the given pool as {@link FootstepNodeSnapper#snapFootstepNodes(Collection, ForkJoinPool)}
+    * does, and notifies the listener of the rejected nodes from the calling thread after all the
+    * nodes are snapped, in the order of the given collection.
+    */
+   @Override
+   public void snapFootstepNodes(Collection<FootstepNode> footstepNodes, ForkJoinPool pool)
+   {
+      if (listener == null)
+      {
+         super.snapFootstepNodes(footstepNodes, pool);
+         return;
+      }
+
+      deferRejectionNotifications = true;
+      try
+      {
+         super.snapFootstepNodes(footstepNodes, pool);
+      }
+      finally
+      {
+         deferRejectionNotifications = false;
+      }
+
+      for (FootstepNode footstepNode : footstepNodes)
+      {
+         BipedalFootstepPlannerNodeRejectionReason reason = pendingRejections.remove(footstepNode);
+         if (reason != null)
+            listener.nodeUnderConsiderationWasRejected(footstepNode, reason);
+      }
+      pendingRejections.clear();
+   }
+
    @Override
    public FootstepNodeSnapData snapInternal(FootstepNode footstepNode)
    {
+      PlanarRegion planarRegionToPack = this.planarRegionToPack.get();
+      ConvexPolygon2D footPolygon = this.footPolygon.get();
+
       FootstepNodeTools.getFootPolygon(footstepNode, footPolygonsInSoleFrame.get(footstepNode.getRobotSide()), footPolygon);
       RigidBodyTransform snapTransform = PlanarRegionsListPolygonSnapper.snapPolygonToPlanarRegionsList(footPolygon, planarRegionsList, planarRegionToPack);
 
@@ -49,7 +95,7 @@ public class FootstepNodeSnapAndWiggler extends FootstepNodeSnapper
       if (footholdPolygonInLocalFrame.isEmpty())
          return FootstepNodeSnapData.emptyData();
 
-      RigidBodyTransform wiggleTransformLocalToLocal = getWiggleTransformInPlanarRegionFrame(footholdPolygonInLocalFrame);
+      RigidBodyTransform wiggleTransformLocalToLocal = getWiggleTransformInPlanarRegionFrame(footholdPolygonInLocalFrame, planarRegionToPack);
       
       if (wiggleTransformLocalToLocal == null)
       {
@@ -65,7 +111,7 @@ public class FootstepNodeSnapAndWiggler extends FootstepNodeSnapper
          }
       }
 
-      RigidBodyTransform wiggleTransformWorldToWorld = getWiggleTransformInWorldFrame(wiggleTransformLocalToLocal);
+      RigidBodyTransform wiggleTransformWorldToWorld = getWiggleTransformInWorldFrame(wiggleTransformLocalToLocal, planarRegionToPack);
       RigidBodyTransform snapAndWiggleTransform = new RigidBodyTransform(wiggleTransformWorldToWorld);
       snapAndWiggleTransform.multiply(snapTransform);
 
@@ -85,9 +131,10 @@ public class FootstepNodeSnapAndWiggler extends FootstepNodeSnapper
       return new FootstepNodeSnapData(snapAndWiggleTransform, wiggledFootholdPolygonInLocalFrame);
    }
 
-   private RigidBodyTransform getWiggleTransformInPlanarRegionFrame(ConvexPolygon2D footholdPolygon)
+   private RigidBodyTransform getWiggleTransformInPlanarRegionFrame(ConvexPolygon2D footholdPolygon, PlanarRegion planarRegionToPack)
    {
-      updateWiggleParameters();
+      WiggleParameters wiggleParameters = this.wiggleParameters.get();
+      updateWiggleParameters(wiggleParameters);
 
       if (parameters.getWiggleIntoConvexHullOfPlanarRegions())
          return PolygonWiggler.wigglePolygonIntoConvexHullOfRegion(footholdPolygon, planarRegionToPack, wiggleParameters);
@@ -95,7 +142,7 @@ public class FootstepNodeSnapAndWiggler extends FootstepNodeSnapper
          return PolygonWiggler.wigglePolygonIntoRegion(footholdPolygon, planarRegionToPack, wiggleParameters);
    }
 
-   private void updateWiggleParameters()
+   private void updateWiggleParameters(WiggleParameters wiggleParameters)
    {
       wiggleParameters.deltaInside = parameters.getWiggleInsideDelta();
       wiggleParameters.maxX = parameters.getMaximumXYWiggleDistance();
@@ -103,7 +150,7 @@ public class FootstepNodeSnapAndWiggler extends FootstepNodeSnapper
       wiggleParameters.maxYaw = parameters.getMaximumYawWiggle();
    }
 
-   private RigidBodyTransform getWiggleTransformInWorldFrame(RigidBodyTransform wiggleTransformLocalToLocal)
+   private RigidBodyTransform getWiggleTransformInWorldFrame(RigidBodyTransform wiggleTransformLocalToLocal, PlanarRegion planarRegionToPack)
    {
       RigidBodyTransform wiggleTransformWorldToWorld = new RigidBodyTransform();
       RigidBodyTransform localToWorld = new RigidBodyTransform();
@@ -161,9 +208,12 @@ public class FootstepNodeSnapAndWiggler extends FootstepNodeSnapper
 
    private void notifyListenerNodeUnderConsiderationWasRejected(FootstepNode nodeToExpand, BipedalFootstepPlannerNodeRejectionReason reason)
    {
-      if (listener != null)
-      {
+      if (listener == null)
+         return;
+
+      if (deferRejectionNotifications)
+         pendingRejections.put(nodeToExpand, reason);
+      else
          listener.nodeUnderConsiderationWasRejected(nodeToExpand, reason);
-      }
    }
 }
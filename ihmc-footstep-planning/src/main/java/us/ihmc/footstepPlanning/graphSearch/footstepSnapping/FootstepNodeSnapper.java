@@ -1,26 +1,43 @@
 package us.ihmc.footstepPlanning.graphSearch.footstepSnapping;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import us.ihmc.footstepPlanning.graphSearch.graph.FootstepNode;
 import us.ihmc.robotics.geometry.PlanarRegionsList;
 
+/**
+ * Snaps footstep nodes to the planar regions and caches the result for every node.
+ *
+ * The cache can be filled from several threads at once, see
+ * {@link #snapFootstepNodes(Collection, ForkJoinPool)}. For this the implementations of
+ * {@link #snapInternal(FootstepNode)} must not share temporary variables between calls.
+ */
 public abstract class FootstepNodeSnapper implements FootstepNodeSnapperReadOnly
 {
-   private final HashMap<FootstepNode, FootstepNodeSnapData> snapDataHolder = new HashMap<>();
+   private final ConcurrentHashMap<FootstepNode, FootstepNodeSnapData> snapDataHolder = new ConcurrentHashMap<>();
    protected PlanarRegionsList planarRegionsList;
 
+   private final List<ForkJoinTask<?>> snapTasks = new ArrayList<>();
+
    public void setPlanarRegions(PlanarRegionsList planarRegionsList)
    {
       this.planarRegionsList = planarRegionsList;
+      if (planarRegionsList != null)
+         planarRegionsList.setUseSpatialIndex(true);
       snapDataHolder.clear();
    }
 
    public FootstepNodeSnapData snapFootstepNode(FootstepNode footstepNode)
    {
-      if (snapDataHolder.containsKey(footstepNode))
+      FootstepNodeSnapData snapData = snapDataHolder.get(footstepNode);
+      if (snapData != null)
       {
-         return snapDataHolder.get(footstepNode);
+         return snapData;
       }
       else if (planarRegionsList == null)
       {
@@ -30,12 +47,32 @@ public abstract class FootstepNodeSnapper implements FootstepNodeSnapperReadOnly
       }
       else
       {
-         FootstepNodeSnapData snapData = snapInternal(footstepNode);
+         snapData = snapInternal(footstepNode);
          addSnapData(footstepNode, snapData);
          return snapData;
       }
    }
 
+   /**
+    * Snaps all nodes that are not cached yet on the given pool and blocks until they are done. The
+    * snap data of a node does not depend on the order in which nodes are snapped, so calling
+    * {@link #snapFootstepNode(FootstepNode)} afterwards gives the same result as snapping serially.
+    * Must not be called from more than one thread at a time.
+    */
+   public void snapFootstepNodes(Collection<FootstepNode> footstepNodes, ForkJoinPool pool)
+   {
+      snapTasks.clear();
+      for (FootstepNode footstepNode : footstepNodes)
+      {
+         if (!snapDataHolder.containsKey(footstepNode))
+            snapTasks.add(pool.submit(() -> snapFootstepNode(footstepNode)));
+      }
+
+      for (int i = 0; i < snapTasks.size(); i++)
+         snapTasks.get(i).join();
+      snapTasks.clear();
+   }
+
    /**
     * Can manually add snap data for a footstep node to bypass the snapper.
     */
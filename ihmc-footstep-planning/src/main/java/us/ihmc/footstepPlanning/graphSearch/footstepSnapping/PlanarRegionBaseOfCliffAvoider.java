@@ -40,6 +40,8 @@ public class PlanarRegionBaseOfCliffAvoider implements FootstepNodeChecker
    public void setPlanarRegions(PlanarRegionsList planarRegionsList)
    {
       this.planarRegionsList = planarRegionsList;
+      if (planarRegionsList != null)
+         planarRegionsList.setUseSpatialIndex(true);
    }
 
    @Override
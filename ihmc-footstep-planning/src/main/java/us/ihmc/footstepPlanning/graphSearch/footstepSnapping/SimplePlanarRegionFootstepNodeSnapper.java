@@ -12,8 +12,8 @@ public class SimplePlanarRegionFootstepNodeSnapper extends FootstepNodeSnapper
 {
    private final SideDependentList<ConvexPolygon2D> footPolygonsInSoleFrame;
 
-   private final PlanarRegion planarRegionToPack = new PlanarRegion();
-   private final ConvexPolygon2D footPolygon = new ConvexPolygon2D();
+   private final ThreadLocal<PlanarRegion> planarRegionToPack = ThreadLocal.withInitial(PlanarRegion::new);
+   private final ThreadLocal<ConvexPolygon2D> footPolygon = ThreadLocal.withInitial(ConvexPolygon2D::new);
 
    public SimplePlanarRegionFootstepNodeSnapper(SideDependentList<ConvexPolygon2D> footPolygonsInSoleFrame)
    {
@@ -23,6 +23,9 @@ public class SimplePlanarRegionFootstepNodeSnapper extends FootstepNodeSnapper
    @Override
    public FootstepNodeSnapData snapInternal(FootstepNode footstepNode)
    {
+      PlanarRegion planarRegionToPack = this.planarRegionToPack.get();
+      ConvexPolygon2D footPolygon = this.footPolygon.get();
+
       FootstepNodeTools.getFootPolygon(footstepNode, footPolygonsInSoleFrame.get(footstepNode.getRobotSide()), footPolygon);
       RigidBodyTransform snapTransform = PlanarRegionsListPolygonSnapper.snapPolygonToPlanarRegionsList(footPolygon, planarRegionsList, planarRegionToPack);
 
@@ -1,9 +1,8 @@
 package us.ihmc.footstepPlanning.graphSearch.graph;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 
 /**
@@ -13,15 +12,42 @@ import java.util.List;
  * edges must start at known nodes. The class is initialized with a start node and maintains
  * shortest paths and costs to reach all nodes in the graph efficiently.
  *
+ * Nodes are given consecutive indices in the order they are added to the graph, and are looked up
+ * by their lattice key in a primitive hash table. Costs and edges are stored in packed arrays that
+ * are kept when the graph is initialized again, so planning repeatedly does not allocate once the
+ * arrays have grown to the size of the largest graph.
+ *
  * @author Georg
  */
 public class FootstepGraph
 {
-   private final HashMap<FootstepEdge, EdgeCost> edgeCostMap = new HashMap<>();
-   private final HashMap<FootstepNode, NodeCost> nodeCostMap = new HashMap<>();
+   private static final int INITIAL_CAPACITY = 1024;
+   private static final int NO_EDGE = -1;
+
+   /**
+    * Notified when the cost of a node decreases because a cheaper path to one of its ancestors was
+    * found, so search queues ordered by node cost can be updated.
+    */
+   public interface DescendantCostListener
+   {
+      public abstract void descendantCostDecreased(int nodeIndex);
+   }
+
+   private final LatticeNodeIndexMap nodeIndices = new LatticeNodeIndexMap(2 * INITIAL_CAPACITY);
+
+   private FootstepNode[] nodes = new FootstepNode[INITIAL_CAPACITY];
+   private double[] nodeCosts = new double[INITIAL_CAPACITY];
+   private int[] incomingBestEdges = new int[INITIAL_CAPACITY];
+   private int[] firstOutgoingEdges = new int[INITIAL_CAPACITY];
+   private int numberOfNodes = 0;
 
-   private final HashMap<FootstepNode, HashSet<FootstepEdge>> outgoingEdges = new HashMap<>();
-   private final HashMap<FootstepNode, FootstepEdge> incomingBestEdge = new HashMap<>();
+   private int[] edgeStartNodes = new int[INITIAL_CAPACITY];
+   private int[] edgeEndNodes = new int[INITIAL_CAPACITY];
+   private int[] nextOutgoingEdges = new int[INITIAL_CAPACITY];
+   private double[] edgeCosts = new double[INITIAL_CAPACITY];
+   private int numberOfEdges = 0;
+
+   private DescendantCostListener descendantCostListener = null;
 
    /**
     * Removes all nodes and edges stored in the graph and
@@ -31,14 +57,24 @@ public class FootstepGraph
     */
    public void initialize(FootstepNode startNode)
    {
-      edgeCostMap.clear();
-      nodeCostMap.clear();
-      outgoingEdges.clear();
-      incomingBestEdge.clear();
+      nodeIndices.clear();
+      Arrays.fill(nodes, 0, numberOfNodes, null);
+      numberOfNodes = 0;
+      numberOfEdges = 0;
+
+      addNode(startNode, 0.0, NO_EDGE);
+   }
 
-      nodeCostMap.put(startNode, new NodeCost(0.0));
-      FootstepEdge edgeToStart = new FootstepEdge(null, startNode);
-      incomingBestEdge.put(startNode, edgeToStart);
+   /**
+    * Sets the listener notified for every node whose cost decreased when
+    * {@link #checkAndSetEdge(FootstepNode, FootstepNode, double)} found a cheaper path to one of its
+    * ancestors. The end node of the new edge itself is not notified.
+    *
+    * @param descendantCostListener the listener, or null to remove it.
+    */
+   public void setDescendantCostListener(DescendantCostListener descendantCostListener)
+   {
+      this.descendantCostListener = descendantCostListener;
    }
 
    /**
@@ -51,34 +87,33 @@ public class FootstepGraph
     */
    public void checkAndSetEdge(FootstepNode startNode, FootstepNode endNode, double transitionCost)
    {
-      checkNodeExists(startNode);
+      int startIndex = checkNodeExists(startNode);
+      int endIndex = getNodeIndex(endNode);
 
-      FootstepEdge edge = new FootstepEdge(startNode, endNode);
-      if (edgeCostMap.containsKey(edge))
-         throw new RuntimeException("Edge exists already.");
-
-      if (!outgoingEdges.containsKey(startNode))
-         outgoingEdges.put(startNode, new HashSet<FootstepEdge>());
-      EdgeCost cost = new EdgeCost(transitionCost);
-      edgeCostMap.put(edge, cost);
-      outgoingEdges.get(startNode).add(edge);
-
-      double newNodeCost = nodeCostMap.get(startNode).getNodeCost() + transitionCost;
-      if (nodeCostMap.containsKey(endNode))
+      if (endIndex != -1)
       {
-         double oldNodeCost = nodeCostMap.get(endNode).getNodeCost();
-         if (newNodeCost >= oldNodeCost)
-            return;
-
-         nodeCostMap.put(endNode, new NodeCost(newNodeCost));
-         incomingBestEdge.put(endNode, edge);
-         updateChildCostsRecursively(endNode);
+         for (int edge = firstOutgoingEdges[startIndex]; edge != NO_EDGE; edge = nextOutgoingEdges[edge])
+         {
+            if (edgeEndNodes[edge] == endIndex)
+               throw new RuntimeException("Edge exists already.");
+         }
       }
-      else
+
+      double newNodeCost = nodeCosts[startIndex] + transitionCost;
+      if (endIndex == -1)
       {
-         nodeCostMap.put(endNode, new NodeCost(newNodeCost));
-         incomingBestEdge.put(endNode, edge);
+         endIndex = addNode(endNode, newNodeCost, NO_EDGE);
+         incomingBestEdges[endIndex] = addEdge(startIndex, endIndex, transitionCost);
+         return;
       }
+
+      int edge = addEdge(startIndex, endIndex, transitionCost);
+      if (newNodeCost >= nodeCosts[endIndex])
+         return;
+
+      nodeCosts[endIndex] = newNodeCost;
+      incomingBestEdges[endIndex] = edge;
+      updateChildCostsRecursively(endIndex);
    }
 
    /**
@@ -86,9 +121,16 @@ public class FootstepGraph
     */
    public double getCostFromStart(FootstepNode node)
    {
-      checkNodeExists(node);
+      return nodeCosts[checkNodeExists(node)];
+   }
 
-      return nodeCostMap.get(node).getNodeCost();
+   /**
+    * Gets the cost associated to traveling from the start node to the node with the given index.
+    */
+   public double getCostFromStart(int nodeIndex)
+   {
+      checkNodeIndex(nodeIndex);
+      return nodeCosts[nodeIndex];
    }
 
    /**
@@ -97,17 +139,17 @@ public class FootstepGraph
     */
    public List<FootstepNode> getPathFromStart(FootstepNode node)
    {
-      checkNodeExists(node);
+      int nodeIndex = checkNodeExists(node);
 
       ArrayList<FootstepNode> path = new ArrayList<>();
-      path.add(node);
+      path.add(nodes[nodeIndex]);
 
-      FootstepEdge edgeFromParent = incomingBestEdge.get(node);
-      while (edgeFromParent.getStartNode() != null)
+      int edgeFromParent = incomingBestEdges[nodeIndex];
+      while (edgeFromParent != NO_EDGE)
       {
-         FootstepNode parentNode = edgeFromParent.getStartNode();
-         path.add(parentNode);
-         edgeFromParent = incomingBestEdge.get(parentNode);
+         int parentIndex = edgeStartNodes[edgeFromParent];
+         path.add(nodes[parentIndex]);
+         edgeFromParent = incomingBestEdges[parentIndex];
       }
 
       Collections.reverse(path);
@@ -120,33 +162,105 @@ public class FootstepGraph
     */
    public boolean doesNodeExist(FootstepNode node)
    {
-      return nodeCostMap.containsKey(node);
+      return getNodeIndex(node) != -1;
    }
 
-   private void updateChildCostsRecursively(FootstepNode node)
+   /**
+    * Returns the index of the given node in this graph, or -1 if the node has not been added yet.
+    * Indices are consecutive in the order nodes were added, starting at 0 for the start node, and
+    * are only valid until the graph is initialized again.
+    */
+   public int getNodeIndex(FootstepNode node)
    {
-      if (!outgoingEdges.containsKey(node))
-         return;
+      return nodeIndices.get(node.getLatticeKey());
+   }
+
+   public FootstepNode getNode(int nodeIndex)
+   {
+      checkNodeIndex(nodeIndex);
+      return nodes[nodeIndex];
+   }
+
+   public int getNumberOfNodes()
+   {
+      return numberOfNodes;
+   }
+
+   public int getNumberOfEdges()
+   {
+      return numberOfEdges;
+   }
+
+   private int addNode(FootstepNode node, double nodeCost, int incomingBestEdge)
+   {
+      if (numberOfNodes == nodes.length)
+      {
+         int newCapacity = 2 * nodes.length;
+         nodes = Arrays.copyOf(nodes, newCapacity);
+         nodeCosts = Arrays.copyOf(nodeCosts, newCapacity);
+         incomingBestEdges = Arrays.copyOf(incomingBestEdges, newCapacity);
+         firstOutgoingEdges = Arrays.copyOf(firstOutgoingEdges, newCapacity);
+      }
+
+      int nodeIndex = numberOfNodes++;
+      nodes[nodeIndex] = node;
+      nodeCosts[nodeIndex] = nodeCost;
+      incomingBestEdges[nodeIndex] = incomingBestEdge;
+      firstOutgoingEdges[nodeIndex] = NO_EDGE;
+      nodeIndices.put(node.getLatticeKey(), nodeIndex);
+      return nodeIndex;
+   }
+
+   private int addEdge(int startIndex, int endIndex, double transitionCost)
+   {
+      if (numberOfEdges == edgeStartNodes.length)
+      {
+         int newCapacity = 2 * edgeStartNodes.length;
+         edgeStartNodes = Arrays.copyOf(edgeStartNodes, newCapacity);
+         edgeEndNodes = Arrays.copyOf(edgeEndNodes, newCapacity);
+         nextOutgoingEdges = Arrays.copyOf(nextOutgoingEdges, newCapacity);
+         edgeCosts = Arrays.copyOf(edgeCosts, newCapacity);
+      }
 
-      double parentNodeCost = nodeCostMap.get(node).getNodeCost();
-      for (FootstepEdge outgoingEdge : outgoingEdges.get(node))
+      int edge = numberOfEdges++;
+      edgeStartNodes[edge] = startIndex;
+      edgeEndNodes[edge] = endIndex;
+      edgeCosts[edge] = transitionCost;
+      nextOutgoingEdges[edge] = firstOutgoingEdges[startIndex];
+      firstOutgoingEdges[startIndex] = edge;
+      return edge;
+   }
+
+   private void updateChildCostsRecursively(int nodeIndex)
+   {
+      double parentNodeCost = nodeCosts[nodeIndex];
+      for (int edge = firstOutgoingEdges[nodeIndex]; edge != NO_EDGE; edge = nextOutgoingEdges[edge])
       {
-         double newCost = parentNodeCost + edgeCostMap.get(outgoingEdge).getEdgeCost();
-         FootstepNode childNode = outgoingEdge.getEndNode();
+         double newCost = parentNodeCost + edgeCosts[edge];
+         int childIndex = edgeEndNodes[edge];
 
-         double oldCost = nodeCostMap.get(childNode).getNodeCost();
-         if (oldCost <= newCost)
+         if (nodeCosts[childIndex] <= newCost)
             continue;
 
-         nodeCostMap.put(childNode, new NodeCost(newCost));
-         incomingBestEdge.put(childNode, outgoingEdge);
-         updateChildCostsRecursively(childNode);
+         nodeCosts[childIndex] = newCost;
+         incomingBestEdges[childIndex] = edge;
+         if (descendantCostListener != null)
+            descendantCostListener.descendantCostDecreased(childIndex);
+         updateChildCostsRecursively(childIndex);
       }
    }
 
-   private void checkNodeExists(FootstepNode node)
+   private int checkNodeExists(FootstepNode node)
+   {
+      int nodeIndex = getNodeIndex(node);
+      if (nodeIndex == -1)
+         throw new RuntimeException("Node has not been added to graph yet.");
+      return nodeIndex;
+   }
+
+   private void checkNodeIndex(int nodeIndex)
    {
-      if (!nodeCostMap.containsKey(node))
+      if (nodeIndex < 0 || nodeIndex >= numberOfNodes)
          throw new RuntimeException("Node has not been added to graph yet.");
    }
 }
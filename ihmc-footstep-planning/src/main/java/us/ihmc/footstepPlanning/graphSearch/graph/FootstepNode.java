@@ -56,6 +56,35 @@ public class FootstepNode
       return robotSide;
    }
 
+   public int getXIndex()
+   {
+      return xIndex;
+   }
+
+   public int getYIndex()
+   {
+      return yIndex;
+   }
+
+   public int getYawIndex()
+   {
+      return yawIndex;
+   }
+
+   /**
+    * Packs the lattice indices and the robot side of this node into a single non-negative key that
+    * is unique for every node within 24 bits of x and y index (about 400km at the current grid
+    * size). Used to store nodes in primitive hash tables without boxing.
+    */
+   public long getLatticeKey()
+   {
+      long key = ((long) xIndex & 0xFFFFFFL) << 32;
+      key |= ((long) yIndex & 0xFFFFFFL) << 8;
+      key |= ((long) yawIndex & 0x7FL) << 1;
+      key |= robotSide == RobotSide.RIGHT ? 1L : 0L;
+      return key;
+   }
+
    public double euclideanDistance(FootstepNode other)
    {
       double dx = getX() - other.getX();
@@ -0,0 +1,180 @@
+package us.ihmc.footstepPlanning.graphSearch.graph;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of node indices, as given by {@link FootstepGraph#getNodeIndex(FootstepNode)},
+ * ordered by a priority stored per index. The position of every index in the heap is tracked so
+ * its priority can be decreased in O(log n) instead of inserting duplicates.
+ *
+ * Indices with equal priority are polled in increasing index order, which is the order in which
+ * the graph discovered the nodes. Clearing the heap keeps its arrays so it can be reused between
+ * plans without allocating.
+ */
+public class IndexedNodeHeap
+{
+   private int[] heap;
+   private int[] positions;
+   private double[] priorities;
+   private int size = 0;
+
+   public IndexedNodeHeap(int initialCapacity)
+   {
+      heap = new int[initialCapacity];
+      positions = new int[initialCapacity];
+      priorities = new double[initialCapacity];
+      Arrays.fill(positions, -1);
+   }
+
+   /**
+    * Adds the index to the heap with the given priority. If the index is in the heap already its
+    * priority is only updated if the new priority is lower.
+    *
+    * @return whether the heap was modified.
+    */
+   public boolean addOrDecrease(int index, double priority)
+   {
+      ensureCapacity(index + 1);
+
+      int position = positions[index];
+      if (position == -1)
+      {
+         heap[size] = index;
+         positions[index] = size;
+         priorities[index] = priority;
+         siftUp(size++);
+         return true;
+      }
+
+      if (priority >= priorities[index])
+         return false;
+
+      priorities[index] = priority;
+      siftUp(position);
+      return true;
+   }
+
+   /**
+    * Removes and returns the index with the lowest priority.
+    */
+   public int poll()
+   {
+      if (size == 0)
+         throw new RuntimeException("Heap is empty.");
+
+      int index = heap[0];
+      positions[index] = -1;
+      size--;
+
+      if (size > 0)
+      {
+         heap[0] = heap[size];
+         positions[heap[0]] = 0;
+         siftDown(0);
+      }
+
+      return index;
+   }
+
+   public int peek()
+   {
+      if (size == 0)
+         throw new RuntimeException("Heap is empty.");
+      return heap[0];
+   }
+
+   public boolean contains(int index)
+   {
+      return index < positions.length && positions[index] != -1;
+   }
+
+   public double getPriority(int index)
+   {
+      if (!contains(index))
+         throw new RuntimeException("Index " + index + " is not in the heap.");
+      return priorities[index];
+   }
+
+   public boolean isEmpty()
+   {
+      return size == 0;
+   }
+
+   public int size()
+   {
+      return size;
+   }
+
+   public void clear()
+   {
+      for (int i = 0; i < size; i++)
+         positions[heap[i]] = -1;
+      size = 0;
+   }
+
+   private void siftUp(int position)
+   {
+      int index = heap[position];
+      while (position > 0)
+      {
+         int parentPosition = (position - 1) >> 1;
+         int parentIndex = heap[parentPosition];
+         if (!isLower(index, parentIndex))
+            break;
+
+         heap[position] = parentIndex;
+         positions[parentIndex] = position;
+         position = parentPosition;
+      }
+
+      heap[position] = index;
+      positions[index] = position;
+   }
+
+   private void siftDown(int position)
+   {
+      int index = heap[position];
+      while (true)
+      {
+         int childPosition = 2 * position + 1;
+         if (childPosition >= size)
+            break;
+
+         if (childPosition + 1 < size && isLower(heap[childPosition + 1], heap[childPosition]))
+            childPosition++;
+
+         int childIndex = heap[childPosition];
+         if (!isLower(childIndex, index))
+            break;
+
+         heap[position] = childIndex;
+         positions[childIndex] = position;
+         position = childPosition;
+      }
+
+      heap[position] = index;
+      positions[index] = position;
+   }
+
+   private boolean isLower(int indexA, int indexB)
+   {
+      double priorityA = priorities[indexA];
+      double priorityB = priorities[indexB];
+      if (priorityA != priorityB)
+         return priorityA < priorityB;
+      return indexA < indexB;
+   }
+
+   private void ensureCapacity(int requiredCapacity)
+   {
+      if (requiredCapacity <= positions.length)
+         return;
+
+      int newCapacity = Math.max(requiredCapacity, 2 * positions.length);
+      int oldCapacity = positions.length;
+      heap = Arrays.copyOf(heap, newCapacity);
+      priorities = Arrays.copyOf(priorities, newCapacity);
+      positions = Arrays.copyOf(positions, newCapacity);
+      Arrays.fill(positions, oldCapacity, newCapacity, -1);
+   }
+}
@@ -0,0 +1,107 @@
+package us.ihmc.footstepPlanning.graphSearch.graph;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash table mapping the lattice key of a {@link FootstepNode} (see
+ * {@link FootstepNode#getLatticeKey()}) to an integer index, using linear probing on primitive
+ * arrays. Clearing the table keeps its arrays so it can be reused between plans without allocating.
+ */
+public class LatticeNodeIndexMap
+{
+   private static final long EMPTY_KEY = -1L;
+   private static final double MAX_LOAD_FACTOR = 0.5;
+
+   private long[] keys;
+   private int[] values;
+   private int mask;
+   private int size = 0;
+
+   public LatticeNodeIndexMap(int initialCapacity)
+   {
+      int capacity = Integer.highestOneBit(Math.max(initialCapacity, 8) - 1) << 1;
+      allocate(capacity);
+   }
+
+   private void allocate(int capacity)
+   {
+      keys = new long[capacity];
+      values = new int[capacity];
+      Arrays.fill(keys, EMPTY_KEY);
+      mask = capacity - 1;
+   }
+
+   /**
+    * @return the index stored for the given key, or -1 if the key is not in the table.
+    */
+   public int get(long key)
+   {
+      int slot = hash(key) & mask;
+      while (true)
+      {
+         long slotKey = keys[slot];
+         if (slotKey == key)
+            return values[slot];
+         if (slotKey == EMPTY_KEY)
+            return -1;
+         slot = (slot + 1) & mask;
+      }
+   }
+
+   /**
+    * Stores the index for the given key, replacing any previous value.
+    */
+   public void put(long key, int value)
+   {
+      if (key < 0)
+         throw new RuntimeException("Lattice keys are expected to be non-negative, got: " + key);
+
+      if (size + 1 > MAX_LOAD_FACTOR * keys.length)
+         grow();
+
+      int slot = hash(key) & mask;
+      while (keys[slot] != EMPTY_KEY && keys[slot] != key)
+         slot = (slot + 1) & mask;
+
+      if (keys[slot] == EMPTY_KEY)
+      {
+         keys[slot] = key;
+         size++;
+      }
+      values[slot] = value;
+   }
+
+   public int size()
+   {
+      return size;
+   }
+
+   public void clear()
+   {
+      if (size == 0)
+         return;
+
+      Arrays.fill(keys, EMPTY_KEY);
+      size = 0;
+   }
+
+   private void grow()
+   {
+      long[] oldKeys = keys;
+      int[] oldValues = values;
+      allocate(2 * oldKeys.length);
+      size = 0;
+
+      for (int i = 0; i < oldKeys.length; i++)
+      {
+         if (oldKeys[i] != EMPTY_KEY)
+            put(oldKeys[i], oldValues[i]);
+      }
+   }
+
+   private static int hash(long key)
+   {
+      long mixed = key * 0x9E3779B97F4A7C15L;
+      return (int) (mixed ^ (mixed >>> 32));
+   }
+}
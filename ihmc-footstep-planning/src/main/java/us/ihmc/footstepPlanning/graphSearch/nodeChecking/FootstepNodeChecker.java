@@ -1,5 +1,8 @@
 package us.ihmc.footstepPlanning.graphSearch.nodeChecking;
 
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+
 import us.ihmc.euclid.transform.RigidBodyTransform;
 import us.ihmc.footstepPlanning.graphSearch.graph.FootstepNode;
 import us.ihmc.robotics.geometry.PlanarRegionsList;
@@ -11,4 +14,12 @@ public interface FootstepNodeChecker
    public boolean isNodeValid(FootstepNode node, FootstepNode previosNode);
 
    public void addStartNode(FootstepNode startNode, RigidBodyTransform startNodeTransform);
+
+   /**
+    * Snaps the given nodes on the pool ahead of calls to {@link #isNodeValid(FootstepNode, FootstepNode)}
+    * so that the checks only need to look up the snap data. Checkers that do not snap nodes can ignore this.
+    */
+   public default void snapNodes(Collection<FootstepNode> nodes, ForkJoinPool pool)
+   {
+   }
 }
@@ -4,7 +4,9 @@ import us.ihmc.euclid.transform.RigidBodyTransform;
 import us.ihmc.footstepPlanning.graphSearch.graph.FootstepNode;
 import us.ihmc.robotics.geometry.PlanarRegionsList;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 public class FootstepNodeCheckerOfCheckers implements FootstepNodeChecker
 {
@@ -37,4 +39,10 @@ public class FootstepNodeCheckerOfCheckers implements FootstepNodeChecker
    {
       nodeCheckers.forEach((checker) -> checker.addStartNode(startNode, startNodeTransform));
    }
+
+   @Override
+   public void snapNodes(Collection<FootstepNode> nodes, ForkJoinPool pool)
+   {
+      nodeCheckers.forEach((checker) -> checker.snapNodes(nodes, pool));
+   }
 }
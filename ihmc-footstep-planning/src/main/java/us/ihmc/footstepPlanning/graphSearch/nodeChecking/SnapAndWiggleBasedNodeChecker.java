@@ -1,5 +1,8 @@
 package us.ihmc.footstepPlanning.graphSearch.nodeChecking;
 
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+
 import us.ihmc.euclid.geometry.ConvexPolygon2D;
 import us.ihmc.euclid.referenceFrame.FramePoint3D;
 import us.ihmc.euclid.referenceFrame.ReferenceFrame;
@@ -212,4 +215,10 @@ public class SnapAndWiggleBasedNodeChecker implements FootstepNodeChecker
    {
       snapAndWiggler.addSnapData(startNode, new FootstepNodeSnapData(startNodeTransform));
    }
+
+   @Override
+   public void snapNodes(Collection<FootstepNode> nodes, ForkJoinPool pool)
+   {
+      snapAndWiggler.snapFootstepNodes(nodes, pool);
+   }
 }
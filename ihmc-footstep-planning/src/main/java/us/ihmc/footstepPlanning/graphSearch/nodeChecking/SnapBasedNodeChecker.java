@@ -1,6 +1,8 @@
 package us.ihmc.footstepPlanning.graphSearch.nodeChecking;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import us.ihmc.commons.PrintTools;
 import us.ihmc.euclid.geometry.ConvexPolygon2D;
@@ -184,6 +186,12 @@ public class SnapBasedNodeChecker implements FootstepNodeChecker
       snapper.addSnapData(startNode, new FootstepNodeSnapData(startNodeTransform));
    }
 
+   @Override
+   public void snapNodes(Collection<FootstepNode> nodes, ForkJoinPool pool)
+   {
+      snapper.snapFootstepNodes(nodes, pool);
+   }
+
    private void notifyPlannerListenerThatNodeIsRejected(FootstepNode node, BipedalFootstepPlannerNodeRejectionReason rejectionReason)
    {
       if(listener != null)
@@ -12,10 +12,10 @@ import us.ihmc.footstepPlanning.graphSearch.FootstepPlannerParameters;
 import us.ihmc.footstepPlanning.graphSearch.footstepSnapping.*;
 import us.ihmc.footstepPlanning.graphSearch.graph.FootstepGraph;
 import us.ihmc.footstepPlanning.graphSearch.graph.FootstepNode;
+import us.ihmc.footstepPlanning.graphSearch.graph.IndexedNodeHeap;
 import us.ihmc.footstepPlanning.graphSearch.graph.visualization.GraphVisualization;
 import us.ihmc.footstepPlanning.graphSearch.heuristics.CostToGoHeuristics;
 import us.ihmc.footstepPlanning.graphSearch.heuristics.DistanceAndYawBasedHeuristics;
-import us.ihmc.footstepPlanning.graphSearch.heuristics.NodeComparator;
 import us.ihmc.footstepPlanning.graphSearch.nodeChecking.AlwaysValidNodeChecker;
 import us.ihmc.footstepPlanning.graphSearch.nodeChecking.FootstepNodeChecker;
 import us.ihmc.footstepPlanning.graphSearch.nodeChecking.FootstepNodeCheckerOfCheckers;
@@ -33,9 +33,10 @@ import us.ihmc.yoVariables.variable.YoDouble;
 import us.ihmc.yoVariables.variable.YoLong;
 
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.List;
-import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
 
 public class AStarFootstepPlanner implements FootstepPlanner
 {
@@ -47,8 +48,8 @@ public class AStarFootstepPlanner implements FootstepPlanner
    private final FootstepPlannerParameters parameters;
 
    private SideDependentList<FootstepNode> goalNodes;
-   private HashSet<FootstepNode> expandedNodes;
-   private PriorityQueue<FootstepNode> stack;
+   private final BitSet expandedNodes = new BitSet();
+   private final IndexedNodeHeap stack = new IndexedNodeHeap(1024);
    private FootstepNode startNode;
    private FootstepNode endNode;
    private PlanarRegionsList planarRegionsList;
@@ -60,6 +61,7 @@ public class AStarFootstepPlanner implements FootstepPlanner
    private final FootstepNodeExpansion nodeExpansion;
    private final FootstepCost stepCostCalculator;
    private final FootstepNodeSnapper snapper;
+   private ForkJoinPool snappingPool = null;
 
    private final YoDouble timeout;
    private final YoDouble planningTime = new YoDouble("PlanningTime", registry);
@@ -87,6 +89,7 @@ public class AStarFootstepPlanner implements FootstepPlanner
       this.visualization = visualization;
       this.snapper = snapper;
       this.graph = new FootstepGraph();
+      graph.setDescendantCostListener(this::updateQueuedNodeCost);
 
       this.timeout = new YoDouble("timeout", registry);
       timeout.set(Double.POSITIVE_INFINITY);
@@ -99,6 +102,18 @@ public class AStarFootstepPlanner implements FootstepPlanner
       heuristics.setWeight(weight);
    }
 
+   /**
+    * When a pool is set, the neighbors of every expanded node are snapped in parallel on the pool
+    * before they are checked one by one. The snap data of a node does not depend on the order in
+    * which nodes are snapped, so the resulting plan is identical to planning without a pool.
+    *
+    * @param snappingPool work-stealing pool to snap nodes on, or null to disable parallel snapping.
+    */
+   public void setSnappingPool(ForkJoinPool snappingPool)
+   {
+      this.snappingPool = snappingPool;
+   }
+
    @Override
    public void setTimeout(double timeoutInSeconds)
    {
@@ -199,8 +214,8 @@ public class AStarFootstepPlanner implements FootstepPlanner
          throw new RuntimeException("Need to set goal before planning.");
       
       graph.initialize(startNode);
-      NodeComparator nodeComparator = new NodeComparator(graph, goalNodes, heuristics);
-      stack = new PriorityQueue<>(nodeComparator);
+      stack.clear();
+      expandedNodes.clear();
 
       validGoalNode.set(true);
       for (RobotSide robotSide : RobotSide.values)
@@ -215,8 +230,7 @@ public class AStarFootstepPlanner implements FootstepPlanner
 //      RigidBodyTransform snapTransform = snapper.snapFootstepNode(startNode).getSnapTransform();
 //      FootstepNodeSnappingTools.constructGroundPlaneAroundFeet(planarRegionsList, startNode, snapTransform, parameters.getIdealFootstepWidth(), 0.5, 0.2,  0.5);
 
-      stack.add(startNode);
-      expandedNodes = new HashSet<>();
+      stack.addOrDecrease(graph.getNodeIndex(startNode), computeTotalCost(startNode));
       endNode = null;
 
       if (visualization != null)
@@ -240,10 +254,9 @@ public class AStarFootstepPlanner implements FootstepPlanner
       {
          iterations++;
          
-         FootstepNode nodeToExpand = stack.poll();
-         if (expandedNodes.contains(nodeToExpand))
-            continue;
-         expandedNodes.add(nodeToExpand);
+         int nodeToExpandIndex = stack.poll();
+         FootstepNode nodeToExpand = graph.getNode(nodeToExpandIndex);
+         expandedNodes.set(nodeToExpandIndex);
 
          if (visualization != null)
          {
@@ -258,6 +271,9 @@ public class AStarFootstepPlanner implements FootstepPlanner
 
          HashSet<FootstepNode> neighbors = nodeExpansion.expandNode(nodeToExpand);
          expandedNodesCount += neighbors.size();
+         if (snappingPool != null)
+            nodeChecker.snapNodes(neighbors, snappingPool);
+
          for (FootstepNode neighbor : neighbors)
          {
             /** Checks if the footstep (center of the foot) is on a planar region*/
@@ -270,8 +286,13 @@ public class AStarFootstepPlanner implements FootstepPlanner
             double cost = stepCostCalculator.compute(nodeToExpand, neighbor);
             graph.checkAndSetEdge(nodeToExpand, neighbor, cost);
 
-            if(endNode == null || stack.comparator().compare(neighbor, endNode) < 0)
-               stack.add(neighbor);
+            int neighborIndex = graph.getNodeIndex(neighbor);
+            if (expandedNodes.get(neighborIndex))
+               continue;
+
+            double neighborTotalCost = computeTotalCost(neighbor);
+            if (endNode == null || neighborTotalCost < computeTotalCost(endNode))
+               stack.addOrDecrease(neighborIndex, neighborTotalCost);
          }
 
          long timeInNano = System.nanoTime();
@@ -286,6 +307,24 @@ public class AStarFootstepPlanner implements FootstepPlanner
       numberOfExpandedNodes.set(expandedNodesCount / iterations);
    }
 
+   /**
+    * Cost from the start plus the heuristic cost to the goal, used to order the nodes in the stack. It is computed once
+    * when a node is added or its cost decreases rather than on every comparison.
+    */
+   private double computeTotalCost(FootstepNode node)
+   {
+      return graph.getCostFromStart(node) + heuristics.compute(node, goalNodes.get(node.getRobotSide()));
+   }
+
+   /**
+    * Re-keys a node still waiting in the stack when a cheaper path to one of its ancestors lowered its cost from the start.
+    */
+   private void updateQueuedNodeCost(int nodeIndex)
+   {
+      if (stack.contains(nodeIndex))
+         stack.addOrDecrease(nodeIndex, computeTotalCost(graph.getNode(nodeIndex)));
+   }
+
    private boolean checkAndHandleNodeAtGoal(FootstepNode nodeToExpand)
    {
       if(!validGoalNode.getBooleanValue())
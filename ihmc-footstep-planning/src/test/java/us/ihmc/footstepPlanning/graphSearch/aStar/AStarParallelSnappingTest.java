@@ -0,0 +1,76 @@
+package us.ihmc.footstepPlanning.graphSearch.aStar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.geometry.ConvexPolygon2D;
+import us.ihmc.euclid.referenceFrame.FramePose2D;
+import us.ihmc.euclid.referenceFrame.FramePose3D;
+import us.ihmc.euclid.referenceFrame.ReferenceFrame;
+import us.ihmc.euclid.tuple2D.Point2D;
+import us.ihmc.footstepPlanning.DefaultFootstepPlanningParameters;
+import us.ihmc.footstepPlanning.FootstepPlan;
+import us.ihmc.footstepPlanning.graphSearch.FootstepPlannerParameters;
+import us.ihmc.footstepPlanning.graphSearch.nodeExpansion.ParameterBasedNodeExpansion;
+import us.ihmc.footstepPlanning.graphSearch.planners.AStarFootstepPlanner;
+import us.ihmc.footstepPlanning.polygonSnapping.PlanarRegionsListExamples;
+import us.ihmc.footstepPlanning.simplePlanners.FlatGroundPlanningUtils;
+import us.ihmc.footstepPlanning.testTools.PlanningTestTools;
+import us.ihmc.robotics.geometry.PlanarRegionsList;
+import us.ihmc.robotics.robotSide.RobotSide;
+import us.ihmc.robotics.robotSide.SideDependentList;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+
+public class AStarParallelSnappingTest
+{
+   private static final double footWidth = 0.1;
+   private static final double footLength = 0.2;
+   private static final SideDependentList<ConvexPolygon2D> footPolygons = PlanningTestTools.createFootPolygons(footLength, footWidth);
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testParallelSnappingGivesIdenticalPlan()
+   {
+      FootstepPlannerParameters parameters = new DefaultFootstepPlanningParameters();
+      int numberOfSteps = 8;
+      PlanarRegionsList planarRegionsList = PlanarRegionsListExamples.generateSteppingStoneField(1.5 * footWidth, 1.5 * footLength, parameters.getIdealFootstepWidth(),
+                                                                                                 parameters.getIdealFootstepLength(), numberOfSteps);
+
+      FramePose2D initialStanceFootPose = new FramePose2D(ReferenceFrame.getWorldFrame(), new Point2D(), 0.0);
+      FramePose2D goalPose = new FramePose2D(ReferenceFrame.getWorldFrame(), new Point2D(0.6 + (numberOfSteps + 1) * parameters.getIdealFootstepLength(), 0.0), 0.0);
+      FramePose3D initialStanceFootPose3d = FlatGroundPlanningUtils.poseFormPose2d(initialStanceFootPose);
+      FramePose3D goalPose3d = FlatGroundPlanningUtils.poseFormPose2d(goalPose);
+
+      AStarFootstepPlanner serialPlanner = createPlanner(parameters, "serial");
+      FootstepPlan serialPlan = PlanningTestTools.runPlanner(serialPlanner, initialStanceFootPose3d, RobotSide.LEFT, goalPose3d, planarRegionsList, true);
+
+      ForkJoinPool pool = new ForkJoinPool(4);
+      AStarFootstepPlanner parallelPlanner = createPlanner(parameters, "parallel");
+      parallelPlanner.setSnappingPool(pool);
+
+      for (int i = 0; i < 3; i++)
+      {
+         FootstepPlan parallelPlan = PlanningTestTools.runPlanner(parallelPlanner, initialStanceFootPose3d, RobotSide.LEFT, goalPose3d, planarRegionsList,
+                                                                  true);
+
+         assertEquals(serialPlan.getNumberOfSteps(), parallelPlan.getNumberOfSteps());
+         for (int stepIndex = 0; stepIndex < serialPlan.getNumberOfSteps(); stepIndex++)
+            assertTrue(serialPlan.getFootstep(stepIndex).epsilonEquals(parallelPlan.getFootstep(stepIndex), 0.0));
+      }
+
+      pool.shutdown();
+   }
+
+   private static AStarFootstepPlanner createPlanner(FootstepPlannerParameters parameters, String name)
+   {
+      ParameterBasedNodeExpansion expansion = new ParameterBasedNodeExpansion(parameters);
+      AStarFootstepPlanner planner = AStarFootstepPlanner.createRoughTerrainPlanner(parameters, null, footPolygons, expansion, new YoVariableRegistry(name));
+      planner.setTimeout(10.0);
+      return planner;
+   }
+}
@@ -104,6 +104,44 @@ public class AStarPlanarRegionsPlannerTest
       }
    }
 
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testDescendantCostListener()
+   {
+      FootstepNode startNode = new FootstepNode(0.0, 0.0);
+      FootstepGraph graph = new FootstepGraph();
+      List<Integer> notifiedNodes = new ArrayList<>();
+      graph.setDescendantCostListener(notifiedNodes::add);
+      graph.initialize(startNode);
+
+      // start -> a -> b -> c and b -> d with an expensive edge to a, and start -> e
+      FootstepNode nodeA = new FootstepNode(1.0, 0.0);
+      FootstepNode nodeB = new FootstepNode(2.0, 0.0);
+      FootstepNode nodeC = new FootstepNode(3.0, 0.0);
+      FootstepNode nodeD = new FootstepNode(3.0, 1.0);
+      FootstepNode nodeE = new FootstepNode(1.0, 1.0);
+      graph.checkAndSetEdge(startNode, nodeA, 5.0);
+      graph.checkAndSetEdge(nodeA, nodeB, 1.0);
+      graph.checkAndSetEdge(nodeB, nodeC, 1.0);
+      graph.checkAndSetEdge(nodeB, nodeD, 1.0);
+      graph.checkAndSetEdge(startNode, nodeE, 1.0);
+      assertTrue(notifiedNodes.isEmpty());
+
+      // cheaper path to a through e, all descendants of a get cheaper
+      graph.checkAndSetEdge(nodeE, nodeA, 1.0);
+      assertEquals(2.0, graph.getCostFromStart(nodeA), 1.0e-10);
+      assertEquals(3, notifiedNodes.size());
+      assertTrue(notifiedNodes.contains(graph.getNodeIndex(nodeB)));
+      assertTrue(notifiedNodes.contains(graph.getNodeIndex(nodeC)));
+      assertTrue(notifiedNodes.contains(graph.getNodeIndex(nodeD)));
+      assertEquals(4.0, graph.getCostFromStart(nodeC), 1.0e-10);
+
+      // more expensive path, nothing changes
+      notifiedNodes.clear();
+      graph.checkAndSetEdge(startNode, nodeB, 10.0);
+      assertTrue(notifiedNodes.isEmpty());
+   }
+
    @ContinuousIntegrationTest(estimatedDuration = 0.0)
    @Test(timeout = 30000)
    public void testFootstepNode()
@@ -0,0 +1,148 @@
+package us.ihmc.footstepPlanning.graphSearch.footstepSnapping;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.continuousIntegration.IntegrationCategory;
+import us.ihmc.euclid.geometry.ConvexPolygon2D;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.footstepPlanning.DefaultFootstepPlanningParameters;
+import us.ihmc.footstepPlanning.FootstepPlan;
+import us.ihmc.footstepPlanning.graphSearch.FootstepPlannerParameters;
+import us.ihmc.footstepPlanning.graphSearch.graph.FootstepNode;
+import us.ihmc.footstepPlanning.graphSearch.graph.visualization.BipedalFootstepPlannerListener;
+import us.ihmc.footstepPlanning.graphSearch.graph.visualization.BipedalFootstepPlannerNodeRejectionReason;
+import us.ihmc.footstepPlanning.polygonSnapping.PlanarRegionsListExamples;
+import us.ihmc.footstepPlanning.testTools.PlanningTestTools;
+import us.ihmc.robotics.geometry.PlanarRegionsList;
+import us.ihmc.robotics.robotSide.RobotSide;
+import us.ihmc.robotics.robotSide.SideDependentList;
+
+@ContinuousIntegrationAnnotations.ContinuousIntegrationPlan(categories = IntegrationCategory.FAST)
+public class FootstepNodeSnapAndWigglerTest
+{
+   private static final double footWidth = 0.1;
+   private static final double footLength = 0.2;
+   private final SideDependentList<ConvexPolygon2D> footPolygons = PlanningTestTools.createFootPolygons(footLength, footWidth);
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testRejectionsAreNotifiedFromCallingThreadWhenSnappingInParallel()
+   {
+      FootstepPlannerParameters parameters = new DefaultFootstepPlanningParameters()
+      {
+         @Override
+         public boolean getRejectIfCannotFullyWiggleInside()
+         {
+            return true;
+         }
+      };
+
+      // The stones are smaller than the foot so the wiggler cannot fit any foothold inside them
+      PlanarRegionsList planarRegionsList = PlanarRegionsListExamples.generateSteppingStoneField(0.8 * footWidth, 0.8 * footLength,
+                                                                                                 parameters.getIdealFootstepWidth(),
+                                                                                                 parameters.getIdealFootstepLength(), 4);
+
+      List<FootstepNode> nodes = new ArrayList<>();
+      for (int xIndex = -4; xIndex < 30; xIndex++)
+      {
+         for (int yIndex = -6; yIndex < 6; yIndex++)
+         {
+            double x = xIndex * FootstepNode.gridSizeXY;
+            double y = yIndex * FootstepNode.gridSizeXY;
+            nodes.add(new FootstepNode(x, y, 0.0, RobotSide.LEFT));
+            nodes.add(new FootstepNode(x, y, 0.3, RobotSide.RIGHT));
+         }
+      }
+
+      RecordingListener serialListener = new RecordingListener();
+      FootstepNodeSnapAndWiggler serialSnapper = new FootstepNodeSnapAndWiggler(footPolygons, parameters, serialListener);
+      serialSnapper.setPlanarRegions(planarRegionsList);
+      for (FootstepNode node : nodes)
+         serialSnapper.snapFootstepNode(node);
+      assertFalse(serialListener.rejectedNodes.isEmpty());
+
+      ForkJoinPool pool = new ForkJoinPool(4);
+      RecordingListener parallelListener = new RecordingListener();
+      FootstepNodeSnapAndWiggler parallelSnapper = new FootstepNodeSnapAndWiggler(footPolygons, parameters, parallelListener);
+      parallelSnapper.setPlanarRegions(planarRegionsList);
+      parallelSnapper.snapFootstepNodes(nodes, pool);
+
+      assertFalse(parallelListener.notifiedFromOtherThread);
+      assertEquals(serialListener.rejectedNodes, parallelListener.rejectedNodes);
+      assertEquals(serialListener.rejectionReasons, parallelListener.rejectionReasons);
+
+      // Snapping again only hits the cache and does not notify the listener a second time
+      parallelSnapper.snapFootstepNodes(nodes, pool);
+      assertEquals(serialListener.rejectedNodes.size(), parallelListener.rejectedNodes.size());
+      assertTrue(parallelSnapper.getSnapData(nodes.get(0)) != null);
+
+      pool.shutdown();
+   }
+
+   private static class RecordingListener implements BipedalFootstepPlannerListener
+   {
+      private final Thread creationThread = Thread.currentThread();
+      private final List<FootstepNode> rejectedNodes = new ArrayList<>();
+      private final List<BipedalFootstepPlannerNodeRejectionReason> rejectionReasons = new ArrayList<>();
+      private boolean notifiedFromOtherThread = false;
+
+      @Override
+      public void nodeUnderConsiderationWasRejected(FootstepNode rejectedNode, BipedalFootstepPlannerNodeRejectionReason reason)
+      {
+         if (Thread.currentThread() != creationThread)
+            notifiedFromOtherThread = true;
+         rejectedNodes.add(rejectedNode);
+         rejectionReasons.add(reason);
+      }
+
+      @Override
+      public void goalWasSet(RigidBodyTransform goalLeftFootPose, RigidBodyTransform goalRightFootPose)
+      {
+      }
+
+      @Override
+      public void startNodeWasAdded(FootstepNode startNode)
+      {
+      }
+
+      @Override
+      public void planarRegionsListSet(PlanarRegionsList planarRegionsList)
+      {
+      }
+
+      @Override
+      public void nodeIsBeingExpanded(FootstepNode nodeToExpand)
+      {
+      }
+
+      @Override
+      public void nodeUnderConsideration(FootstepNode nodeToExpand)
+      {
+      }
+
+      @Override
+      public void nodeUnderConsiderationWasSuccessful(FootstepNode node)
+      {
+      }
+
+      @Override
+      public void solutionWasFound(FootstepPlan footstepPlan)
+      {
+      }
+
+      @Override
+      public void solutionWasNotFound()
+      {
+      }
+   }
+}
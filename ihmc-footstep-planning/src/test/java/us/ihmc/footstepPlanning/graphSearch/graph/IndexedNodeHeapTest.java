@@ -0,0 +1,87 @@
+package us.ihmc.footstepPlanning.graphSearch.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations;
+import us.ihmc.continuousIntegration.IntegrationCategory;
+
+@ContinuousIntegrationAnnotations.ContinuousIntegrationPlan(categories = {IntegrationCategory.FAST})
+public class IndexedNodeHeapTest
+{
+   private final Random random = new Random(3281L);
+
+   @ContinuousIntegrationAnnotations.ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testPollOrderWithDecreaseKey()
+   {
+      int numberOfIndices = 2000;
+      IndexedNodeHeap heap = new IndexedNodeHeap(16);
+      double[] priorities = new double[numberOfIndices];
+
+      for (int i = 0; i < numberOfIndices; i++)
+      {
+         priorities[i] = random.nextDouble();
+         assertTrue(heap.addOrDecrease(i, priorities[i]));
+      }
+
+      for (int i = 0; i < numberOfIndices; i++)
+      {
+         int index = random.nextInt(numberOfIndices);
+         double newPriority = random.nextDouble();
+         boolean decreased = newPriority < priorities[index];
+         assertEquals(decreased, heap.addOrDecrease(index, newPriority));
+         if (decreased)
+            priorities[index] = newPriority;
+         assertEquals(priorities[index], heap.getPriority(index), 0.0);
+      }
+
+      List<Double> expected = new ArrayList<>();
+      for (double priority : priorities)
+         expected.add(priority);
+      Collections.sort(expected);
+
+      assertEquals(numberOfIndices, heap.size());
+      for (int i = 0; i < numberOfIndices; i++)
+      {
+         int index = heap.poll();
+         assertFalse(heap.contains(index));
+         assertEquals(expected.get(i), priorities[index], 0.0);
+      }
+      assertTrue(heap.isEmpty());
+   }
+
+   @ContinuousIntegrationAnnotations.ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testTiesAndReuse()
+   {
+      IndexedNodeHeap heap = new IndexedNodeHeap(4);
+
+      for (int i = 9; i >= 0; i--)
+         heap.addOrDecrease(i, 1.0);
+      for (int i = 0; i < 10; i++)
+         assertEquals(i, heap.poll());
+
+      heap.addOrDecrease(3, 2.0);
+      heap.addOrDecrease(5, 1.0);
+      heap.clear();
+      assertTrue(heap.isEmpty());
+      assertFalse(heap.contains(3));
+      assertFalse(heap.contains(5));
+
+      heap.addOrDecrease(5, 3.0);
+      heap.addOrDecrease(7, 2.0);
+      heap.addOrDecrease(5, 1.0);
+      assertEquals(5, heap.peek());
+      assertEquals(5, heap.poll());
+      assertEquals(7, heap.poll());
+   }
+}
@@ -0,0 +1,83 @@
+package us.ihmc.footstepPlanning.graphSearch.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations;
+import us.ihmc.continuousIntegration.IntegrationCategory;
+import us.ihmc.robotics.robotSide.RobotSide;
+
+@ContinuousIntegrationAnnotations.ContinuousIntegrationPlan(categories = {IntegrationCategory.FAST})
+public class LatticeNodeIndexMapTest
+{
+   private final Random random = new Random(9021L);
+
+   @ContinuousIntegrationAnnotations.ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testAgainstHashMap()
+   {
+      LatticeNodeIndexMap map = new LatticeNodeIndexMap(8);
+      Map<FootstepNode, Integer> expected = new HashMap<>();
+
+      for (int i = 0; i < 20000; i++)
+      {
+         FootstepNode node = FootstepNode.generateRandomFootstepNode(random, 5.0);
+         if (!expected.containsKey(node))
+         {
+            expected.put(node, expected.size());
+            map.put(node.getLatticeKey(), expected.get(node));
+         }
+      }
+
+      assertEquals(expected.size(), map.size());
+      for (int i = 0; i < 20000; i++)
+      {
+         FootstepNode node = FootstepNode.generateRandomFootstepNode(random, 6.0);
+         Integer index = expected.get(node);
+         assertEquals(index == null ? -1 : index.intValue(), map.get(node.getLatticeKey()));
+      }
+
+      map.clear();
+      assertEquals(0, map.size());
+      for (FootstepNode node : expected.keySet())
+         assertEquals(-1, map.get(node.getLatticeKey()));
+   }
+
+   @ContinuousIntegrationAnnotations.ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testLatticeKeysAreUnique()
+   {
+      Set<Long> keys = new HashSet<>();
+      int numberOfNodes = 0;
+
+      for (int x = -3; x <= 3; x++)
+      {
+         for (int y = -3; y <= 3; y++)
+         {
+            for (int yaw = -17; yaw <= 18; yaw++)
+            {
+               for (RobotSide robotSide : RobotSide.values)
+               {
+                  FootstepNode node = new FootstepNode(x * FootstepNode.gridSizeXY, y * FootstepNode.gridSizeXY, yaw * FootstepNode.gridSizeYaw, robotSide);
+                  keys.add(node.getLatticeKey());
+                  numberOfNodes++;
+               }
+            }
+         }
+      }
+
+      assertEquals(numberOfNodes, keys.size());
+
+      FootstepNode far = new FootstepNode(-1000.0, 1000.0, 0.0, RobotSide.LEFT);
+      FootstepNode farOther = new FootstepNode(1000.0, -1000.0, 0.0, RobotSide.LEFT);
+      assertNotEquals(far.getLatticeKey(), farOther.getLatticeKey());
+   }
+}
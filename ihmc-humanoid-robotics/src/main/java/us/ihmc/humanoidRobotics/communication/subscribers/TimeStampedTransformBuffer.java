@@ -1,29 +1,44 @@
 package us.ihmc.humanoidRobotics.communication.subscribers;
 
+import java.util.concurrent.locks.StampedLock;
+
+import us.ihmc.commons.MathTools;
 import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.euclid.tuple4D.Quaternion;
 import us.ihmc.robotics.kinematics.TimeStampedTransform3D;
-import us.ihmc.robotics.kinematics.TransformInterpolationCalculator;
 
+/**
+ * Ring buffer storing the history of a transform with its time stamps.
+ * <p>
+ * The buffer is meant to be written by a single thread, typically the state estimator, while any
+ * number of threads query it. Queries never take a lock: they read the history optimistically and
+ * retry in the rare case the producer modified the buffer in the meantime, such that the producer
+ * is never blocked by a reader. The time stamps have to be put in increasing order, which allows
+ * to find a time stamp with a binary search.
+ * </p>
+ */
 public class TimeStampedTransformBuffer
 {
+   private static final int TRANSFORM_SIZE = 12;
+
    private final int size;
-   private final TimeStampedTransform3D[] buffer;
+   private final long[] timeStamps;
+   /** Rotation matrix and translation of each transform stored row by row: m00, m01, m02, m03, m10, ..., m23. */
+   private final double[] transforms;
    private int currentIndex;
+   private int numberOfTransforms;
    private long oldestTimeStamp = Long.MAX_VALUE;
    private long newestTimestamp;
-   private boolean filledBufferAtleastOnce;
 
-   private final TransformInterpolationCalculator transformInterpolationCalculator = new TransformInterpolationCalculator();
-   
+   private final StampedLock lock = new StampedLock();
+   private final ThreadLocal<InterpolationData> interpolationData = ThreadLocal.withInitial(InterpolationData::new);
+
    public TimeStampedTransformBuffer(int size)
    {
       this.size = size;
-      this.buffer = new TimeStampedTransform3D[size];
-      for(int i = 0; i < buffer.length; i++)
-      {
-         this.buffer[i] = new TimeStampedTransform3D();
-         this.buffer[i].setTimeStamp(Long.MAX_VALUE);
-      }
+      this.timeStamps = new long[size];
+      this.transforms = new double[size * TRANSFORM_SIZE];
       currentIndex = 0;
    }
 
@@ -35,75 +50,286 @@ public class TimeStampedTransformBuffer
     */
    public boolean findTransform(long timestamp, TimeStampedTransform3D timeStampedTransform3DToPack)
    {
-      if (!isInRange(timestamp))
+      InterpolationData data = interpolationData.get();
+
+      if (!fetchInterpolationData(timestamp, data))
          return false;
 
-      for (int i = currentIndex - 1; i >= -size + currentIndex; i--)
-      {
-         int index = (i < 0) ? size + i : i;
+      data.interpolate(timestamp, timeStampedTransform3DToPack);
+      return true;
+   }
 
-         TimeStampedTransform3D floorData = buffer[index];
-         if (floorData.getTimeStamp() == timestamp)
-         {
-            timeStampedTransform3DToPack.set(floorData);
-            return true;
-         }
-         else if (floorData.getTimeStamp() < timestamp)
-         {
-            index++;
+   /**
+    * Finds the transforms at several time stamps at once, as for instance the time stamps of the
+    * points of a scan. The two transforms surrounding a time stamp are reused for the next time
+    * stamps as long as they fall in the same interval, so the buffer is searched only once per
+    * interval when the time stamps are sorted.
+    *
+    * @param timestamps the time stamps to find the transform of. Not modified.
+    * @param numberOfTimestamps the number of time stamps to consider in {@code timestamps}.
+    * @param timeStampedTransform3DsToPack the transforms at the time stamps. Modified.
+    * @return {@code false} if any of the time stamps is outside the buffer range, in which case
+    *         {@code timeStampedTransform3DsToPack} may be partially packed.
+    */
+   public boolean findTransforms(long[] timestamps, int numberOfTimestamps, TimeStampedTransform3D[] timeStampedTransform3DsToPack)
+   {
+      InterpolationData data = interpolationData.get();
+      data.clear();
 
-            if (index >= size)
-            {
-               index = 0;
-            }
+      for (int i = 0; i < numberOfTimestamps; i++)
+      {
+         long timestamp = timestamps[i];
 
-            TimeStampedTransform3D ceilingData = buffer[index];
+         if (!data.contains(timestamp) && !fetchInterpolationData(timestamp, data))
+            return false;
 
-            transformInterpolationCalculator.interpolate(floorData, ceilingData, timeStampedTransform3DToPack, timestamp);
-            return true;
-         }
+         data.interpolate(timestamp, timeStampedTransform3DsToPack[i]);
       }
 
-      return false;
+      return true;
    }
 
    public void put(RigidBodyTransform newestTransform, long timeStamp)
    {
-      TimeStampedTransform3D recycledTimestampedTransformFromBuffer = buffer[currentIndex];
-      recycledTimestampedTransformFromBuffer.setTimeStamp(timeStamp);
-      recycledTimestampedTransformFromBuffer.setTransform3D(newestTransform);
-      
-      newestTimestamp = timeStamp;
-      currentIndex++;
-
-      if (currentIndex >= size)
-      {
-         currentIndex = 0;
-         filledBufferAtleastOnce = true;
-      }
+      long stamp = lock.writeLock();
 
-      if (oldestTimeStamp == Long.MAX_VALUE)
+      try
       {
-         oldestTimeStamp = newestTimestamp;
+         timeStamps[currentIndex] = timeStamp;
+         int offset = currentIndex * TRANSFORM_SIZE;
+         transforms[offset++] = newestTransform.getM00();
+         transforms[offset++] = newestTransform.getM01();
+         transforms[offset++] = newestTransform.getM02();
+         transforms[offset++] = newestTransform.getM03();
+         transforms[offset++] = newestTransform.getM10();
+         transforms[offset++] = newestTransform.getM11();
+         transforms[offset++] = newestTransform.getM12();
+         transforms[offset++] = newestTransform.getM13();
+         transforms[offset++] = newestTransform.getM20();
+         transforms[offset++] = newestTransform.getM21();
+         transforms[offset++] = newestTransform.getM22();
+         transforms[offset] = newestTransform.getM23();
+
+         newestTimestamp = timeStamp;
+         // The index is written only once, such that an optimistic reader never sees it out of bounds.
+         int nextIndex = currentIndex + 1;
+         currentIndex = nextIndex >= size ? 0 : nextIndex;
+
+         if (numberOfTransforms < size)
+            numberOfTransforms++;
+
+         oldestTimeStamp = timeStamps[getOldestIndex(currentIndex, numberOfTransforms)];
       }
-      else if(filledBufferAtleastOnce)
+      finally
       {
-         oldestTimeStamp = buffer[currentIndex].getTimeStamp();
+         lock.unlockWrite(stamp);
       }
    }
 
    public boolean isInRange(long timestamp)
    {
-      return ((timestamp >= oldestTimeStamp) && (timestamp <= newestTimestamp));
+      while (true)
+      {
+         long stamp = lock.tryOptimisticRead();
+         boolean isInRange = (timestamp >= oldestTimeStamp) && (timestamp <= newestTimestamp);
+
+         if (lock.validate(stamp))
+            return isInRange;
+      }
    }
 
    public long getNewestTimestamp()
    {
-      return newestTimestamp;
+      while (true)
+      {
+         long stamp = lock.tryOptimisticRead();
+         long newestTimestamp = this.newestTimestamp;
+
+         if (lock.validate(stamp))
+            return newestTimestamp;
+      }
    }
 
    public long getOldestTimestamp()
    {
-      return oldestTimeStamp;
+      while (true)
+      {
+         long stamp = lock.tryOptimisticRead();
+         long oldestTimeStamp = this.oldestTimeStamp;
+
+         if (lock.validate(stamp))
+            return oldestTimeStamp;
+      }
+   }
+
+   private boolean fetchInterpolationData(long timestamp, InterpolationData data)
+   {
+      while (true)
+      {
+         long stamp = lock.tryOptimisticRead();
+         boolean success = readFloorAndCeiling(timestamp, data);
+
+         if (lock.validate(stamp))
+         {
+            if (success)
+               data.update();
+            return success;
+         }
+      }
+   }
+
+   /**
+    * Copies the newest transform with a time stamp lower or equal to the given one, and the
+    * transform following it if the time stamps are not equal.
+    * <p>
+    * This is called without holding the lock, so the data read can be inconsistent. It only has to
+    * remain in bounds, the caller then discards the result if the buffer has been modified.
+    * </p>
+    */
+   private boolean readFloorAndCeiling(long timestamp, InterpolationData data)
+   {
+      int currentIndex = this.currentIndex;
+      int numberOfTransforms = this.numberOfTransforms;
+
+      if (numberOfTransforms <= 0 || numberOfTransforms > size)
+         return false;
+      if (currentIndex < 0 || currentIndex >= size)
+         return false;
+
+      int oldestIndex = getOldestIndex(currentIndex, numberOfTransforms);
+      if (timestamp < timeStamps[oldestIndex] || timestamp > timeStamps[getIndex(oldestIndex, numberOfTransforms - 1)])
+         return false;
+
+      // Binary search for the first transform that is strictly newer than the time stamp.
+      int low = 0;
+      int high = numberOfTransforms;
+
+      while (low < high)
+      {
+         int mid = (low + high) >>> 1;
+
+         if (timeStamps[getIndex(oldestIndex, mid)] <= timestamp)
+            low = mid + 1;
+         else
+            high = mid;
+      }
+
+      int floor = low - 1;
+
+      if (floor < 0)
+         return false;
+
+      int floorIndex = getIndex(oldestIndex, floor);
+      data.floorTimeStamp = timeStamps[floorIndex];
+      System.arraycopy(transforms, floorIndex * TRANSFORM_SIZE, data.floorData, 0, TRANSFORM_SIZE);
+
+      if (data.floorTimeStamp == timestamp)
+      {
+         data.ceilingTimeStamp = timestamp;
+         return true;
+      }
+
+      if (floor + 1 >= numberOfTransforms)
+         return false;
+
+      int ceilingIndex = getIndex(oldestIndex, floor + 1);
+      data.ceilingTimeStamp = timeStamps[ceilingIndex];
+      System.arraycopy(transforms, ceilingIndex * TRANSFORM_SIZE, data.ceilingData, 0, TRANSFORM_SIZE);
+      return data.ceilingTimeStamp > timestamp;
+   }
+
+   private int getOldestIndex(int currentIndex, int numberOfTransforms)
+   {
+      return numberOfTransforms < size ? 0 : currentIndex;
+   }
+
+   private int getIndex(int oldestIndex, int age)
+   {
+      int index = oldestIndex + age;
+      return index >= size ? index - size : index;
+   }
+
+   private static class InterpolationData
+   {
+      private long floorTimeStamp;
+      private long ceilingTimeStamp;
+      private final double[] floorData = new double[TRANSFORM_SIZE];
+      private final double[] ceilingData = new double[TRANSFORM_SIZE];
+
+      private final RigidBodyTransform floorTransform = new RigidBodyTransform();
+      private final RigidBodyTransform ceilingTransform = new RigidBodyTransform();
+      private final Vector3D floorTranslation = new Vector3D();
+      private final Vector3D ceilingTranslation = new Vector3D();
+      private final Quaternion floorQuaternion = new Quaternion();
+      private final Quaternion ceilingQuaternion = new Quaternion();
+      private final Vector3D interpolatedTranslation = new Vector3D();
+      private final Quaternion interpolatedQuaternion = new Quaternion();
+
+      public InterpolationData()
+      {
+         clear();
+      }
+
+      public void clear()
+      {
+         floorTimeStamp = Long.MAX_VALUE;
+         ceilingTimeStamp = Long.MIN_VALUE;
+      }
+
+      public boolean contains(long timestamp)
+      {
+         if (ceilingTimeStamp < floorTimeStamp)
+            return false;
+         if (timestamp == floorTimeStamp)
+            return true;
+         return timestamp > floorTimeStamp && timestamp < ceilingTimeStamp;
+      }
+
+      /**
+       * Sets up the transforms from the data copied from the buffer, once it is known to be
+       * consistent.
+       */
+      public void update()
+      {
+         set(floorTransform, floorData);
+
+         if (ceilingTimeStamp == floorTimeStamp)
+            return;
+
+         set(ceilingTransform, ceilingData);
+         floorTransform.get(floorQuaternion, floorTranslation);
+         ceilingTransform.get(ceilingQuaternion, ceilingTranslation);
+      }
+
+      /**
+       * Same interpolation as
+       * {@link us.ihmc.robotics.kinematics.TransformInterpolationCalculator#interpolate(TimeStampedTransform3D, TimeStampedTransform3D, TimeStampedTransform3D, long)},
+       * without converting the two surrounding transforms every time.
+       */
+      public void interpolate(long timestamp, TimeStampedTransform3D resultToPack)
+      {
+         resultToPack.setTimeStamp(timestamp);
+         RigidBodyTransform result = resultToPack.getTransform3D();
+
+         if (timestamp == floorTimeStamp)
+         {
+            result.set(floorTransform);
+            return;
+         }
+
+         double alpha = ((double) (timestamp - floorTimeStamp)) / ((double) (ceilingTimeStamp - floorTimeStamp));
+         alpha = MathTools.clamp(alpha, 0.0, 1.0);
+
+         interpolatedTranslation.interpolate(floorTranslation, ceilingTranslation, alpha);
+         interpolatedQuaternion.interpolate(floorQuaternion, ceilingQuaternion, alpha);
+
+         result.setRotationAndZeroTranslation(interpolatedQuaternion);
+         result.setTranslation(interpolatedTranslation);
+      }
+
+      private static void set(RigidBodyTransform transformToPack, double[] data)
+      {
+         transformToPack.set(data[0], data[1], data[2], data[3], data[4], data[5], data[6], data[7], data[8], data[9], data[10], data[11]);
+      }
    }
 }
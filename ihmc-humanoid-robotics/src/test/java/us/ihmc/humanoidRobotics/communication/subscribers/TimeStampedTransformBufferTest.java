@@ -5,7 +5,12 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Test;
 
@@ -219,5 +224,156 @@ public class TimeStampedTransformBufferTest
             }
          }
       }
+   }
+
+	@ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testFindTransforms()
+   {
+      int bufferSize = 100;
+      Random random = new Random(5616L);
+
+      TimeStampedTransformBuffer timeStampedPelvisPoseBuffer = new TimeStampedTransformBuffer(bufferSize);
+      TransformInterpolationCalculator transformInterpolationCalculator = new TransformInterpolationCalculator();
+
+      ArrayList<TimeStampedTransform3D> pelvisPosesRegistered = new ArrayList<>();
+      long timeStamp = 0L;
+
+      for (int poseIndex = 0; poseIndex < 3 * bufferSize + 17; poseIndex++)
+      {
+         RigidBodyTransform newestPelvisPose = EuclidCoreRandomTools.nextRigidBodyTransform(random);
+         timeStamp += (long) RandomNumbers.nextInt(random, 1, 1516);
+         pelvisPosesRegistered.add(new TimeStampedTransform3D(newestPelvisPose, timeStamp));
+         timeStampedPelvisPoseBuffer.put(newestPelvisPose, timeStamp);
+      }
+
+      int firstPoseInBuffer = pelvisPosesRegistered.size() - bufferSize;
+      long oldestTimeStamp = pelvisPosesRegistered.get(firstPoseInBuffer).getTimeStamp();
+      assertEquals(oldestTimeStamp, timeStampedPelvisPoseBuffer.getOldestTimestamp());
+
+      int numberOfTimeStamps = 1000;
+      long[] timeStamps = new long[numberOfTimeStamps];
+      TimeStampedTransform3D[] toTest = new TimeStampedTransform3D[numberOfTimeStamps];
+      for (int i = 0; i < numberOfTimeStamps; i++)
+         toTest[i] = new TimeStampedTransform3D();
+      TimeStampedTransform3D expected = new TimeStampedTransform3D();
+
+      for (int i = 0; i < 10; i++)
+      {
+         long scanStart = oldestTimeStamp + (long) RandomNumbers.nextInt(random, 0, (int) (timeStamp - oldestTimeStamp) / 2);
+
+         for (int j = 0; j < numberOfTimeStamps; j++)
+         {
+            if (i % 2 == 0)
+               timeStamps[j] = scanStart + 10L * j; // Sorted time stamps as for a scan.
+            else
+               timeStamps[j] = oldestTimeStamp + (long) RandomNumbers.nextInt(random, 0, (int) (timeStamp - oldestTimeStamp));
+         }
+
+         if (i % 3 == 0)
+            timeStamps[RandomNumbers.nextInt(random, 0, numberOfTimeStamps - 1)] = pelvisPosesRegistered.get(firstPoseInBuffer + 1).getTimeStamp();
+
+         assertTrue(timeStampedPelvisPoseBuffer.findTransforms(timeStamps, numberOfTimeStamps, toTest));
+
+         for (int j = 0; j < numberOfTimeStamps; j++)
+         {
+            int ceilingIndex = firstPoseInBuffer;
+            while (pelvisPosesRegistered.get(ceilingIndex).getTimeStamp() < timeStamps[j])
+               ceilingIndex++;
+
+            TimeStampedTransform3D ceiling = pelvisPosesRegistered.get(ceilingIndex);
+            if (ceiling.getTimeStamp() == timeStamps[j])
+               expected.set(ceiling);
+            else
+               transformInterpolationCalculator.interpolate(pelvisPosesRegistered.get(ceilingIndex - 1), ceiling, expected, timeStamps[j]);
+
+            assertTrue(expected.epsilonEquals(toTest[j], 1.0e-10));
+         }
+      }
+
+      timeStamps[numberOfTimeStamps - 1] = oldestTimeStamp - 1L;
+      assertFalse(timeStampedPelvisPoseBuffer.findTransforms(timeStamps, numberOfTimeStamps, toTest));
+      timeStamps[numberOfTimeStamps - 1] = timeStamp + 1L;
+      assertFalse(timeStampedPelvisPoseBuffer.findTransforms(timeStamps, numberOfTimeStamps, toTest));
+      assertTrue(timeStampedPelvisPoseBuffer.findTransforms(timeStamps, numberOfTimeStamps - 1, toTest));
+   }
+
+	@ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testConcurrentProducerAndConsumers() throws Exception
+   {
+      int bufferSize = 1000;
+      int numberOfPoses = 200000;
+      int numberOfConsumers = 3;
+      TimeStampedTransformBuffer timeStampedPelvisPoseBuffer = new TimeStampedTransformBuffer(bufferSize);
+
+      // The translation of each pose is a linear function of its time stamp, so any interpolated pose can be checked.
+      timeStampedPelvisPoseBuffer.put(new RigidBodyTransform(), 0L);
+      AtomicBoolean producerDone = new AtomicBoolean(false);
+      ExecutorService service = Executors.newFixedThreadPool(numberOfConsumers + 1);
+      List<Future<?>> futures = new ArrayList<>();
+
+      futures.add(service.submit(() ->
+      {
+         RigidBodyTransform newestPelvisPose = new RigidBodyTransform();
+         for (long timeStamp = 1L; timeStamp < numberOfPoses; timeStamp++)
+         {
+            newestPelvisPose.setTranslation(0.01 * timeStamp, 0.02 * timeStamp, -0.01 * timeStamp);
+            timeStampedPelvisPoseBuffer.put(newestPelvisPose, 10L * timeStamp);
+         }
+         producerDone.set(true);
+      }));
+
+      for (int consumerIndex = 0; consumerIndex < numberOfConsumers; consumerIndex++)
+      {
+         Random random = new Random(consumerIndex);
+         futures.add(service.submit(() ->
+         {
+            long[] timeStamps = new long[50];
+            TimeStampedTransform3D[] toTest = new TimeStampedTransform3D[timeStamps.length];
+            for (int i = 0; i < toTest.length; i++)
+               toTest[i] = new TimeStampedTransform3D();
+
+            while (!producerDone.get())
+            {
+               long oldestTimeStamp = timeStampedPelvisPoseBuffer.getOldestTimestamp();
+               long newestTimeStamp = timeStampedPelvisPoseBuffer.getNewestTimestamp();
+               assertTrue(oldestTimeStamp <= newestTimeStamp);
+
+               // Half of the queries are on the oldest poses, which are the ones being overwritten by the producer.
+               long timeStamp;
+               if (random.nextBoolean())
+                  timeStamp = oldestTimeStamp + (long) random.nextInt(20);
+               else
+                  timeStamp = oldestTimeStamp + (long) (random.nextDouble() * (newestTimeStamp - oldestTimeStamp));
+               if (timeStampedPelvisPoseBuffer.findTransform(timeStamp, toTest[0]))
+                  assertTranslationMatchesTimeStamp(toTest[0]);
+
+               for (int i = 0; i < timeStamps.length; i++)
+                  timeStamps[i] = timeStamp + i;
+               if (timeStampedPelvisPoseBuffer.findTransforms(timeStamps, timeStamps.length, toTest))
+               {
+                  for (int i = 0; i < timeStamps.length; i++)
+                     assertTranslationMatchesTimeStamp(toTest[i]);
+               }
+            }
+         }));
+      }
+
+      for (Future<?> future : futures)
+         future.get();
+      service.shutdown();
+
+      assertEquals(10L * (numberOfPoses - 1), timeStampedPelvisPoseBuffer.getNewestTimestamp());
+      assertEquals(10L * (numberOfPoses - bufferSize), timeStampedPelvisPoseBuffer.getOldestTimestamp());
+   }
+
+   private static void assertTranslationMatchesTimeStamp(TimeStampedTransform3D timeStampedTransform)
+   {
+      RigidBodyTransform transform = timeStampedTransform.getTransform3D();
+      double expectedX = 0.001 * timeStampedTransform.getTimeStamp();
+      assertEquals(expectedX, transform.getM03(), 1.0e-9);
+      assertEquals(2.0 * expectedX, transform.getM13(), 1.0e-9);
+      assertEquals(-expectedX, transform.getM23(), 1.0e-9);
    }
 }
@@ -0,0 +1,387 @@
+package us.ihmc.manipulation.planning.rrt.constrainedplanning.configurationAndTimeSpace;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import us.ihmc.euclid.geometry.Pose3D;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
+import us.ihmc.euclid.tuple4D.interfaces.QuaternionReadOnly;
+
+/**
+ * KD-tree over {@link SpatialNode}s used by {@link SpatialNodeTree} to find the nearest node to a
+ * query without going through all the nodes.
+ * <p>
+ * Each node is represented by its time followed by the position and orientation quaternion of each
+ * rigid-body. The bounding box of each subtree gives a lower bound on the distance computed by
+ * {@link SpatialNode#computeDistanceWithinMaxDistance}, used to skip the subtrees that cannot
+ * contain a node closer than the best one found so far, or that only contain nodes too far to be
+ * reached within the maximum time interval.
+ * </p>
+ * <p>
+ * Nodes are added one at a time as the tree grows. To remain balanced whatever the order in which
+ * nodes are added, the nodes are stored in a set of balanced trees of sizes 2<sup>k</sup> that are
+ * merged and rebuilt as nodes are added, similarly to incrementing a binary counter.
+ * </p>
+ */
+public class SpatialNodeKDTree
+{
+   private static final int POSE_SIZE = 7;
+   /** Shrinks the lower bounds slightly such that round-off errors never prune the nearest node. */
+   private static final double LOWER_BOUND_SCALE = 1.0 - 1.0e-9;
+
+   private final List<StaticTree> levels = new ArrayList<>();
+   private final List<Entry> entriesToMerge = new ArrayList<>();
+   private int size = 0;
+   private int dimension = -1;
+
+   private double[] queryCoordinates;
+   private double queryTime;
+   private double timeWeight, positionWeight, orientationWeight;
+   private double maxTimeInterval, maxPositionDistance, maxOrientationDistance;
+   private SpatialNode query;
+   private SpatialNode nearestNode;
+   private int nearestNodeIndex;
+   private double distanceToNearestNode;
+
+   public SpatialNodeKDTree()
+   {
+   }
+
+   public void clear()
+   {
+      levels.clear();
+      size = 0;
+      dimension = -1;
+   }
+
+   /**
+    * Adds a node to this tree. The node should not be modified afterwards.
+    */
+   public void add(SpatialNode node)
+   {
+      if (dimension == -1)
+         dimension = 1 + POSE_SIZE * node.getSize();
+      else if (dimension != 1 + POSE_SIZE * node.getSize())
+         throw new RuntimeException("All the nodes should have the same number of rigid-bodies.");
+
+      entriesToMerge.clear();
+      entriesToMerge.add(new Entry(node, size, computeCoordinates(node, new double[dimension])));
+      size++;
+
+      for (int level = 0;; level++)
+      {
+         if (level == levels.size())
+            levels.add(null);
+
+         StaticTree tree = levels.get(level);
+
+         if (tree == null)
+         {
+            levels.set(level, new StaticTree(entriesToMerge.toArray(new Entry[entriesToMerge.size()]), dimension));
+            break;
+         }
+
+         for (int i = 0; i < tree.entries.length; i++)
+            entriesToMerge.add(tree.entries[i]);
+         levels.set(level, null);
+      }
+
+      entriesToMerge.clear();
+   }
+
+   public int size()
+   {
+      return size;
+   }
+
+   /**
+    * Finds the node minimizing
+    * {@link SpatialNode#computeDistanceWithinMaxDistance(double, double, double, SpatialNode, double, double, double)}
+    * to the query among the nodes that are not after the query in time.
+    *
+    * @return the nearest node, or {@code null} if no node can reach the query. When several nodes
+    *         are at the same distance, the first added is returned.
+    */
+   public SpatialNode findNearest(SpatialNode query, double timeWeight, double positionWeight, double orientationWeight, double maxTimeInterval,
+                                  double maxPositionDistance, double maxOrientationDistance)
+   {
+      if (size == 0)
+         return null;
+
+      if (queryCoordinates == null || queryCoordinates.length != dimension)
+         queryCoordinates = new double[dimension];
+      computeCoordinates(query, queryCoordinates);
+
+      this.query = query;
+      this.queryTime = query.getTime();
+      this.timeWeight = timeWeight;
+      this.positionWeight = positionWeight;
+      this.orientationWeight = orientationWeight;
+      this.maxTimeInterval = maxTimeInterval;
+      this.maxPositionDistance = maxPositionDistance;
+      this.maxOrientationDistance = maxOrientationDistance;
+
+      nearestNode = null;
+      nearestNodeIndex = Integer.MAX_VALUE;
+      distanceToNearestNode = Double.MAX_VALUE;
+
+      for (int level = levels.size() - 1; level >= 0; level--)
+      {
+         StaticTree tree = levels.get(level);
+         if (tree != null)
+            search(tree, 0, tree.entries.length);
+      }
+
+      SpatialNode nearestNode = this.nearestNode;
+      this.query = null;
+      this.nearestNode = null;
+      return nearestNode;
+   }
+
+   private void search(StaticTree tree, int start, int end)
+   {
+      if (start >= end)
+         return;
+
+      int mid = (start + end) >>> 1;
+
+      if (computeDistanceLowerBound(tree, mid) > distanceToNearestNode)
+         return;
+
+      Entry entry = tree.entries[mid];
+
+      if (entry.node.getTime() <= queryTime)
+      {
+         double distance = entry.node.computeDistanceWithinMaxDistance(timeWeight, positionWeight, orientationWeight, query, maxTimeInterval,
+                                                                       maxPositionDistance, maxOrientationDistance);
+
+         if (distance < distanceToNearestNode || (distance == distanceToNearestNode && distance < Double.MAX_VALUE && entry.index < nearestNodeIndex))
+         {
+            distanceToNearestNode = distance;
+            nearestNode = entry.node;
+            nearestNodeIndex = entry.index;
+         }
+      }
+
+      int axis = tree.splitAxes[mid];
+
+      if (queryCoordinates[axis] < entry.coordinates[axis])
+      {
+         search(tree, start, mid);
+         search(tree, mid + 1, end);
+      }
+      else
+      {
+         search(tree, mid + 1, end);
+         search(tree, start, mid);
+      }
+   }
+
+   /**
+    * Computes a lower bound of the distance between the query and the nodes of a subtree from its
+    * bounding box. Returns {@link Double#POSITIVE_INFINITY} if none of the nodes can be a parent of
+    * the query.
+    */
+   private double computeDistanceLowerBound(StaticTree tree, int mid)
+   {
+      int offset = mid * dimension;
+      double[] min = tree.boundsMin;
+      double[] max = tree.boundsMax;
+
+      if (min[offset] > queryTime)
+         return Double.POSITIVE_INFINITY;
+
+      double timeGapLowerBound = LOWER_BOUND_SCALE * Math.max(0.0, queryTime - max[offset]);
+      double timeGapUpperBound = queryTime - min[offset];
+
+      double positionDistanceSum = 0.0;
+      double orientationDistanceSum = 0.0;
+      double greatestPositionDistance = 0.0;
+      double greatestOrientationDistance = 0.0;
+
+      for (int bodyOffset = offset + 1; bodyOffset < offset + dimension; bodyOffset += POSE_SIZE)
+      {
+         int queryOffset = bodyOffset - offset;
+         double positionDistance = LOWER_BOUND_SCALE * Math.sqrt(distanceSquaredToBox(queryOffset, min, max, bodyOffset, 3, 1.0));
+
+         // The angle between two orientations is at least twice the distance between their quaternions.
+         double quaternionDistanceSquared = Math.min(distanceSquaredToBox(queryOffset + 3, min, max, bodyOffset + 3, 4, 1.0),
+                                                     distanceSquaredToBox(queryOffset + 3, min, max, bodyOffset + 3, 4, -1.0));
+         double orientationDistance = LOWER_BOUND_SCALE * Math.min(2.0 * Math.sqrt(quaternionDistanceSquared), Math.PI);
+
+         positionDistanceSum += positionDistance;
+         orientationDistanceSum += orientationDistance;
+         greatestPositionDistance = Math.max(greatestPositionDistance, positionDistance);
+         greatestOrientationDistance = Math.max(greatestOrientationDistance, orientationDistance);
+      }
+
+      if (greatestPositionDistance / timeGapUpperBound > maxPositionDistance / maxTimeInterval)
+         return Double.POSITIVE_INFINITY;
+      if (greatestOrientationDistance / timeGapUpperBound > maxOrientationDistance / maxTimeInterval)
+         return Double.POSITIVE_INFINITY;
+
+      return timeWeight * timeGapLowerBound + positionWeight * positionDistanceSum + orientationWeight * orientationDistanceSum;
+   }
+
+   private double distanceSquaredToBox(int queryOffset, double[] min, double[] max, int boxOffset, int length, double querySign)
+   {
+      double distanceSquared = 0.0;
+
+      for (int i = 0; i < length; i++)
+      {
+         double value = querySign * queryCoordinates[queryOffset + i];
+         double delta;
+
+         if (value < min[boxOffset + i])
+            delta = min[boxOffset + i] - value;
+         else if (value > max[boxOffset + i])
+            delta = value - max[boxOffset + i];
+         else
+            continue;
+
+         distanceSquared += delta * delta;
+      }
+
+      return distanceSquared;
+   }
+
+   private static double[] computeCoordinates(SpatialNode node, double[] coordinatesToPack)
+   {
+      coordinatesToPack[0] = node.getTime();
+
+      for (int i = 0; i < node.getSize(); i++)
+      {
+         Pose3D pose = node.getSpatialData(i);
+         Point3DReadOnly position = pose.getPosition();
+         QuaternionReadOnly orientation = pose.getOrientation();
+         int offset = 1 + POSE_SIZE * i;
+
+         coordinatesToPack[offset] = position.getX();
+         coordinatesToPack[offset + 1] = position.getY();
+         coordinatesToPack[offset + 2] = position.getZ();
+
+         // q and -q are the same orientation, the one with a positive s is stored to keep the bounding boxes small.
+         double sign = orientation.getS() < 0.0 ? -1.0 : 1.0;
+         coordinatesToPack[offset + 3] = sign * orientation.getX();
+         coordinatesToPack[offset + 4] = sign * orientation.getY();
+         coordinatesToPack[offset + 5] = sign * orientation.getZ();
+         coordinatesToPack[offset + 6] = sign * orientation.getS();
+      }
+
+      return coordinatesToPack;
+   }
+
+   private static class Entry
+   {
+      private final SpatialNode node;
+      /** Order in which the node was added, used to break ties the same way as a linear search. */
+      private final int index;
+      private final double[] coordinates;
+
+      private Entry(SpatialNode node, int index, double[] coordinates)
+      {
+         this.node = node;
+         this.index = index;
+         this.coordinates = coordinates;
+      }
+   }
+
+   /**
+    * Balanced KD-tree stored implicitly in an array: the root of the subtree covering the entries
+    * from {@code start} to {@code end} is at {@code (start + end) / 2}. The bounding box of that
+    * subtree and the axis it is split along are stored at the same index.
+    */
+   private static class StaticTree
+   {
+      private final Entry[] entries;
+      private final int[] splitAxes;
+      private final double[] boundsMin;
+      private final double[] boundsMax;
+      private final int dimension;
+
+      private StaticTree(Entry[] entries, int dimension)
+      {
+         this.entries = entries;
+         this.dimension = dimension;
+         splitAxes = new int[entries.length];
+         boundsMin = new double[entries.length * dimension];
+         boundsMax = new double[entries.length * dimension];
+         build(0, entries.length);
+      }
+
+      private void build(int start, int end)
+      {
+         if (start >= end)
+            return;
+
+         int mid = (start + end) >>> 1;
+         int offset = mid * dimension;
+
+         for (int axis = 0; axis < dimension; axis++)
+         {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+
+            for (int i = start; i < end; i++)
+            {
+               min = Math.min(min, entries[i].coordinates[axis]);
+               max = Math.max(max, entries[i].coordinates[axis]);
+            }
+
+            boundsMin[offset + axis] = min;
+            boundsMax[offset + axis] = max;
+         }
+
+         int splitAxis = 0;
+         for (int axis = 1; axis < dimension; axis++)
+         {
+            if (boundsMax[offset + axis] - boundsMin[offset + axis] > boundsMax[offset + splitAxis] - boundsMin[offset + splitAxis])
+               splitAxis = axis;
+         }
+         splitAxes[mid] = splitAxis;
+
+         select(start, end - 1, mid, splitAxis);
+         build(start, mid);
+         build(mid + 1, end);
+      }
+
+      /**
+       * Reorders the entries between {@code left} and {@code right} such that the k<sup>th</sup>
+       * entry is at its sorted position along the axis, with smaller entries before it and greater
+       * ones after it.
+       */
+      private void select(int left, int right, int k, int axis)
+      {
+         while (left < right)
+         {
+            double pivot = entries[(left + right) >>> 1].coordinates[axis];
+            int i = left;
+            int j = right;
+
+            while (i <= j)
+            {
+               while (entries[i].coordinates[axis] < pivot)
+                  i++;
+               while (entries[j].coordinates[axis] > pivot)
+                  j--;
+
+               if (i <= j)
+               {
+                  Entry temp = entries[i];
+                  entries[i] = entries[j];
+                  entries[j] = temp;
+                  i++;
+                  j--;
+               }
+            }
+
+            if (k <= j)
+               right = j;
+            else if (k >= i)
+               left = i;
+            else
+               return;
+         }
+      }
+   }
+}
@@ -8,6 +8,8 @@ public class SpatialNodeTree
    private SpatialNode rootNode;
    private double mostAdvancedTime = 0.0;
    private List<SpatialNode> validNodes = new ArrayList<>();
+   /** Index over {@link #validNodes} to find the nearest node to a candidate. */
+   private final SpatialNodeKDTree validNodesKDTree = new SpatialNodeKDTree();
 
    private List<SpatialNode> invalidNodes = new ArrayList<>();
 
@@ -36,12 +38,12 @@ public class SpatialNodeTree
    public SpatialNodeTree(SpatialNode rootNode)
    {
       this.rootNode = rootNode;
-      validNodes.add(rootNode);
+      addValidNode(rootNode);
    }
 
    public void addInitialNode(SpatialNode node)
    {
-      validNodes.add(node);
+      addValidNode(node);
    }
 
    public void setRandomNode(SpatialNode node)
@@ -54,34 +56,25 @@ public class SpatialNodeTree
       return currentCandidate;
    }
 
+   /**
+    * Finds the valid node the closest to the random node that is not after it in time. This is
+    * equivalent to going through all the valid nodes but uses a KD-tree such that the cost grows
+    * logarithmically with the size of the tree.
+    */
    public boolean findNearestValidNodeToCandidate(boolean includeTimeComparison)
    {
-      double distanceToNearestNode = Double.MAX_VALUE;
-      SpatialNode nearestNode = null;
-
-      for (SpatialNode candidateForParent : validNodes)
+      // The valid nodes can be modified from the outside through getValidNodes().
+      if (validNodesKDTree.size() != validNodes.size())
       {
-         if (randomNode.getTime() < candidateForParent.getTime())
-            continue;
-
-         double distance;
-
-         if (includeTimeComparison)
-            //distance = candidateForParent.computeDistance(timeWeight, positionWeight, orientationWeight, randomNode);
-            distance = candidateForParent.computeDistanceWithinMaxDistance(timeWeight, positionWeight, orientationWeight, randomNode, maxTimeInterval,
-                                                                           maxPositionDistance, maxOrientationDistance);
-         else
-            //distance = candidateForParent.computeDistance(0.0, positionWeight, orientationWeight, randomNode);
-            distance = candidateForParent.computeDistanceWithinMaxDistance(0.0, positionWeight, orientationWeight, randomNode, maxTimeInterval,
-                                                                           maxPositionDistance, maxOrientationDistance);
-
-         if (distance < distanceToNearestNode)
-         {
-            distanceToNearestNode = distance;
-            nearestNode = candidateForParent;
-         }
+         validNodesKDTree.clear();
+         for (int i = 0; i < validNodes.size(); i++)
+            validNodesKDTree.add(validNodes.get(i));
       }
 
+      double timeWeightToUse = includeTimeComparison ? timeWeight : 0.0;
+      SpatialNode nearestNode = validNodesKDTree.findNearest(randomNode, timeWeightToUse, positionWeight, orientationWeight, maxTimeInterval,
+                                                             maxPositionDistance, maxOrientationDistance);
+
       if (nearestNode == null)
       {
          return false;
@@ -108,13 +101,20 @@ public class SpatialNodeTree
          throw new RuntimeException("Should only attach valid nodes to this tree.");
 
       mostAdvancedTime = Math.max(currentCandidate.getTime(), mostAdvancedTime);
-      validNodes.add(new SpatialNode(currentCandidate));
+      addValidNode(new SpatialNode(currentCandidate));
    }
 
    public void attachCandidate(SpatialNode node)
    {
       mostAdvancedTime = Math.max(node.getTime(), mostAdvancedTime);
-      validNodes.add(new SpatialNode(node));
+      addValidNode(new SpatialNode(node));
+   }
+
+   private void addValidNode(SpatialNode node)
+   {
+      validNodes.add(node);
+      if (validNodesKDTree.size() == validNodes.size() - 1)
+         validNodesKDTree.add(node);
    }
 
    public void dismissCandidate()
@@ -126,6 +126,12 @@ public class SpatialNodeTree
       invalidNodes.add(currentCandidate);
    }
 
+   public void dismissCandidate(SpatialNode node)
+   {
+      node.clearParent();
+      invalidNodes.add(node);
+   }
+
    public SpatialNode getLastNodeAdded()
    {
       return validNodes.get(validNodes.size() - 1);
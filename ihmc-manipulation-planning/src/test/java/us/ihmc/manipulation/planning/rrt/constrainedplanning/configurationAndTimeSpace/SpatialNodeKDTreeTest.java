@@ -0,0 +1,246 @@
+package us.ihmc.manipulation.planning.rrt.constrainedplanning.configurationAndTimeSpace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+
+public class SpatialNodeKDTreeTest
+{
+   private static final String[] rigidBodyNames = {"hand", "chest"};
+
+   private static final double timeWeight = 0.5;
+   private static final double positionWeight = 1.0;
+   private static final double orientationWeight = 1.0;
+   private static final double maxTimeInterval = 0.5;
+   private static final double maxPositionDistance = 0.05;
+   private static final double maxOrientationDistance = Math.toRadians(10.0);
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testFindNearestAgainstLinearSearch()
+   {
+      Random random = new Random(3462L);
+      SpatialNodeKDTree kdTree = new SpatialNodeKDTree();
+      List<SpatialNode> nodes = new ArrayList<>();
+      int numberOfFoundNodes = 0;
+      int numberOfQueries = 0;
+
+      // Queries after each addition go through all the merges of the trees.
+      for (int i = 0; i < 300; i++)
+      {
+         SpatialNode node = nextSpatialNode(random, 10.0 * random.nextDouble());
+         nodes.add(node);
+         kdTree.add(node);
+         assertEquals(nodes.size(), kdTree.size());
+
+         for (int j = 0; j < 5; j++)
+         {
+            SpatialNode query = nextQuery(random, nodes);
+
+            for (boolean includeTimeComparison : new boolean[] {true, false})
+            {
+               double timeWeightToUse = includeTimeComparison ? timeWeight : 0.0;
+               SpatialNode expected = findNearestWithLinearSearch(nodes, query, timeWeightToUse);
+               SpatialNode actual = kdTree.findNearest(query, timeWeightToUse, positionWeight, orientationWeight, maxTimeInterval, maxPositionDistance,
+                                                       maxOrientationDistance);
+               assertSame(expected, actual);
+
+               numberOfQueries++;
+               if (actual != null)
+                  numberOfFoundNodes++;
+            }
+         }
+      }
+
+      // Both the nodes found and the queries out of reach of all the nodes are covered.
+      assertTrue(numberOfFoundNodes > 0);
+      assertTrue(numberOfFoundNodes < numberOfQueries);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testTiesAreBrokenTowardFirstAddedNode()
+   {
+      Random random = new Random(9823L);
+      SpatialNodeKDTree kdTree = new SpatialNodeKDTree();
+      List<SpatialNode> nodes = new ArrayList<>();
+
+      for (int i = 0; i < 50; i++)
+         nodes.add(nextSpatialNode(random, 10.0 * random.nextDouble()));
+
+      // Copies of the same nodes added afterwards, in a different order, are always at the same distance.
+      List<SpatialNode> copies = new ArrayList<>();
+      for (int i = nodes.size() - 1; i >= 0; i--)
+         copies.add(new SpatialNode(nodes.get(i)));
+      nodes.addAll(copies);
+
+      for (SpatialNode node : nodes)
+         kdTree.add(node);
+
+      for (int i = 0; i < 200; i++)
+      {
+         SpatialNode query = nextQuery(random, nodes);
+
+         for (boolean includeTimeComparison : new boolean[] {true, false})
+         {
+            double timeWeightToUse = includeTimeComparison ? timeWeight : 0.0;
+            SpatialNode expected = findNearestWithLinearSearch(nodes, query, timeWeightToUse);
+            SpatialNode actual = kdTree.findNearest(query, timeWeightToUse, positionWeight, orientationWeight, maxTimeInterval, maxPositionDistance,
+                                                    maxOrientationDistance);
+            assertSame(expected, actual);
+
+            if (actual != null)
+               assertTrue(nodes.indexOf(actual) < nodes.size() / 2);
+         }
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testRejectionByMaxDistance()
+   {
+      Random random = new Random(4589L);
+      SpatialNodeKDTree kdTree = new SpatialNodeKDTree();
+      assertNull(kdTree.findNearest(nextSpatialNode(random, 1.0), timeWeight, positionWeight, orientationWeight, maxTimeInterval, maxPositionDistance,
+                                    maxOrientationDistance));
+
+      SpatialNode node = nextSpatialNode(random, 1.0);
+      kdTree.add(node);
+
+      // Same pose a bit later: reachable.
+      SpatialNode query = new SpatialNode(node);
+      query.setTime(1.5);
+      assertSame(node, findNearest(kdTree, query, timeWeight));
+      assertSame(node, findNearest(kdTree, query, 0.0));
+
+      // Before the node: never reachable.
+      query.setTime(0.5);
+      assertNull(findNearest(kdTree, query, timeWeight));
+      assertNull(findNearest(kdTree, query, 0.0));
+
+      // Moved faster than the maximum velocity: rejected even when time is not part of the distance.
+      query.setTime(1.5);
+      query.getSpatialData(0).getPosition().addX(2.0 * maxPositionDistance);
+      assertNull(findNearest(kdTree, query, timeWeight));
+      assertNull(findNearest(kdTree, query, 0.0));
+
+      // Given more time, the same displacement can be reached.
+      query.setTime(3.0);
+      assertSame(node, findNearest(kdTree, query, timeWeight));
+      assertSame(node, findNearest(kdTree, query, 0.0));
+
+      // Rotated faster than the maximum angular velocity.
+      query = new SpatialNode(node);
+      query.setTime(1.5);
+      query.getSpatialData(1).appendYawRotation(2.0 * maxOrientationDistance);
+      assertNull(findNearest(kdTree, query, timeWeight));
+      assertNull(findNearest(kdTree, query, 0.0));
+
+      // A node that cannot reach the query does not hide one that can.
+      SpatialNode reachableNode = new SpatialNode(query);
+      reachableNode.setTime(0.0);
+      kdTree.add(reachableNode);
+      assertSame(reachableNode, findNearest(kdTree, query, timeWeight));
+      assertSame(reachableNode, findNearest(kdTree, query, 0.0));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testTimeComparison()
+   {
+      Random random = new Random(1231L);
+      SpatialNodeKDTree kdTree = new SpatialNodeKDTree();
+
+      SpatialNode olderNode = nextSpatialNode(random, 0.0);
+      SpatialNode query = new SpatialNode(olderNode);
+      query.setTime(2.0);
+      query.getSpatialData(0).getPosition().addX(0.5 * maxPositionDistance);
+
+      // Closer in time to the query but slightly farther in space.
+      SpatialNode recentNode = new SpatialNode(olderNode);
+      recentNode.setTime(1.5);
+      recentNode.getSpatialData(0).getPosition().addX(-0.1 * maxPositionDistance);
+
+      kdTree.add(olderNode);
+      kdTree.add(recentNode);
+
+      assertSame(recentNode, findNearest(kdTree, query, timeWeight));
+      assertSame(olderNode, findNearest(kdTree, query, 0.0));
+   }
+
+   private static SpatialNode findNearest(SpatialNodeKDTree kdTree, SpatialNode query, double timeWeight)
+   {
+      return kdTree.findNearest(query, timeWeight, positionWeight, orientationWeight, maxTimeInterval, maxPositionDistance, maxOrientationDistance);
+   }
+
+   /**
+    * Search done by {@link SpatialNodeTree} before it used {@link SpatialNodeKDTree}.
+    */
+   private static SpatialNode findNearestWithLinearSearch(List<SpatialNode> nodes, SpatialNode query, double timeWeight)
+   {
+      double distanceToNearestNode = Double.MAX_VALUE;
+      SpatialNode nearestNode = null;
+
+      for (SpatialNode node : nodes)
+      {
+         if (query.getTime() < node.getTime())
+            continue;
+
+         double distance = node.computeDistanceWithinMaxDistance(timeWeight, positionWeight, orientationWeight, query, maxTimeInterval, maxPositionDistance,
+                                                                 maxOrientationDistance);
+
+         if (distance < distanceToNearestNode)
+         {
+            distanceToNearestNode = distance;
+            nearestNode = node;
+         }
+      }
+
+      return nearestNode;
+   }
+
+   /**
+    * Half of the queries are close to an existing node such that they can be reached, the others are
+    * anywhere.
+    */
+   private static SpatialNode nextQuery(Random random, List<SpatialNode> nodes)
+   {
+      if (random.nextBoolean())
+         return nextSpatialNode(random, 10.0 * random.nextDouble());
+
+      SpatialNode query = new SpatialNode(nodes.get(random.nextInt(nodes.size())));
+      query.setTime(query.getTime() + random.nextDouble());
+      for (int i = 0; i < query.getSize(); i++)
+      {
+         query.getSpatialData(i).getPosition().add(EuclidCoreRandomTools.nextVector3D(random, 0.5 * maxPositionDistance));
+         query.getSpatialData(i).appendYawRotation(maxOrientationDistance * (random.nextDouble() - 0.5));
+      }
+      return query;
+   }
+
+   private static SpatialNode nextSpatialNode(Random random, double time)
+   {
+      SpatialData spatialData = new SpatialData();
+
+      for (String rigidBodyName : rigidBodyNames)
+      {
+         RigidBodyTransform pose = new RigidBodyTransform();
+         pose.setRotation(EuclidCoreRandomTools.nextQuaternion(random, Math.toRadians(30.0)));
+         pose.setTranslation(EuclidCoreRandomTools.nextVector3D(random, 0.5));
+         spatialData.appendSpatial(rigidBodyName, new String[0], new double[0], pose);
+      }
+
+      return new SpatialNode(time, spatialData);
+   }
+}
@@ -0,0 +1,483 @@
+package us.ihmc.pathPlanning.visibilityGraphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import us.ihmc.euclid.geometry.ConvexPolygon2D;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple2D.interfaces.Point2DReadOnly;
+import us.ihmc.pathPlanning.visibilityGraphs.dataStructure.Connection;
+import us.ihmc.pathPlanning.visibilityGraphs.dataStructure.ConnectionPoint3D;
+import us.ihmc.pathPlanning.visibilityGraphs.dataStructure.InterRegionVisibilityMap;
+import us.ihmc.pathPlanning.visibilityGraphs.dataStructure.NavigableRegion;
+import us.ihmc.pathPlanning.visibilityGraphs.interfaces.InterRegionConnectionFilter;
+import us.ihmc.pathPlanning.visibilityGraphs.interfaces.NavigableRegionFilter;
+import us.ihmc.pathPlanning.visibilityGraphs.interfaces.ObstacleRegionFilter;
+import us.ihmc.pathPlanning.visibilityGraphs.interfaces.VisibilityGraphsParameters;
+import us.ihmc.robotics.geometry.PlanarRegion;
+
+/**
+ * Creates the navigable regions and the inter-region visibility map the same way as
+ * {@link VisibilityGraphsFactory}, but builds the regions in parallel and keeps them from one call
+ * to the next.
+ * <p>
+ * A navigable region depends on its home region and on the regions that are obstacles to it. The
+ * planar regions of every call are compared with copies of the ones of the previous call with the
+ * same region id: same transform, concave hull and convex polygons. Each navigable region is cached
+ * by the id of its home region along with the copies of its home region and obstacle regions, and
+ * is only reused when they are all the same. When the planar regions are updated, only the
+ * navigable regions whose home region or obstacles have changed are created again. The same way,
+ * the inter-region connections are cached for each pair of navigable regions and only computed
+ * again for the pairs in which at least one region has changed.
+ * </p>
+ * <p>
+ * The cache only keeps the entries of the last call and is cleared when the parameters, or any of
+ * their values, change. The filters and calculators of the parameters are assumed to only depend on
+ * these values. They are called from several threads and have to be thread-safe, which is the case
+ * of the default ones of {@link VisibilityGraphsParameters}.
+ * </p>
+ */
+public class NavigableRegionsCache
+{
+   private final ForkJoinPool pool;
+
+   /** Copies of the planar regions of the last call, by region id. */
+   private Map<Integer, List<PlanarRegion>> cachedPlanarRegions = new HashMap<>();
+   private Map<Integer, List<CachedNavigableRegion>> cachedNavigableRegions = new HashMap<>();
+   private Map<RegionPair, List<Connection>> cachedInterRegionConnections = new HashMap<>();
+   private final Map<NavigableRegion, CachedNavigableRegion> navigableRegionEntries = new HashMap<>();
+   private VisibilityGraphsParameters cachedParameters = null;
+   private double[] cachedParameterValues = null;
+
+   private int numberOfCreatedRegions = 0;
+   private int numberOfReusedRegions = 0;
+
+   public NavigableRegionsCache()
+   {
+      this(ForkJoinPool.commonPool());
+   }
+
+   public NavigableRegionsCache(ForkJoinPool pool)
+   {
+      this.pool = pool;
+   }
+
+   /**
+    * Equivalent to {@link VisibilityGraphsFactory#createNavigableRegions(List, VisibilityGraphsParameters)}.
+    */
+   public List<NavigableRegion> createNavigableRegions(List<PlanarRegion> allRegions, VisibilityGraphsParameters parameters)
+   {
+      if (allRegions.isEmpty())
+         return null;
+
+      double[] parameterValues = getParameterValues(parameters);
+
+      if (parameters != cachedParameters || !Arrays.equals(parameterValues, cachedParameterValues))
+      {
+         clear();
+         cachedParameters = parameters;
+         cachedParameterValues = parameterValues;
+      }
+
+      // Identical planar regions share the same copy, such that the cache entries can be compared by reference.
+      Map<Integer, List<PlanarRegion>> newPlanarRegions = new HashMap<>();
+      PlanarRegion[] regionCopies = new PlanarRegion[allRegions.size()];
+      for (int i = 0; i < allRegions.size(); i++)
+      {
+         PlanarRegion region = allRegions.get(i);
+         PlanarRegion regionCopy = findSameRegion(newPlanarRegions, region);
+         if (regionCopy == null)
+         {
+            regionCopy = findSameRegion(cachedPlanarRegions, region);
+            if (regionCopy == null)
+               regionCopy = region.copy();
+            newPlanarRegions.computeIfAbsent(region.getRegionId(), id -> new ArrayList<>()).add(regionCopy);
+         }
+         regionCopies[i] = regionCopy;
+      }
+
+      Map<Integer, List<CachedNavigableRegion>> previousNavigableRegions = cachedNavigableRegions;
+      List<ForkJoinTask<CandidateRegion>> tasks = new ArrayList<>(allRegions.size());
+
+      for (int candidateIndex = 0; candidateIndex < allRegions.size(); candidateIndex++)
+      {
+         int index = candidateIndex;
+         tasks.add(pool.submit(() -> createCandidateRegion(index, allRegions, regionCopies, parameters, previousNavigableRegions)));
+      }
+
+      List<NavigableRegion> navigableRegions = new ArrayList<>(allRegions.size());
+      Map<Integer, List<CachedNavigableRegion>> newNavigableRegions = new HashMap<>();
+      navigableRegionEntries.clear();
+      numberOfCreatedRegions = 0;
+      numberOfReusedRegions = 0;
+
+      for (ForkJoinTask<CandidateRegion> task : tasks)
+      {
+         CandidateRegion candidate = task.join();
+
+         if (candidate == null)
+            continue;
+
+         CachedNavigableRegion entry = candidate.entry;
+         NavigableRegion navigableRegion = entry.navigableRegion;
+
+         if (navigableRegionEntries.containsKey(navigableRegion))
+         { // Two identical regions, they cannot share the same navigable region.
+            navigableRegion = VisibilityGraphsFactory.createNavigableRegion(candidate.homeRegion, candidate.otherRegions, parameters);
+            numberOfCreatedRegions++;
+         }
+         else
+         {
+            newNavigableRegions.computeIfAbsent(candidate.homeRegion.getRegionId(), id -> new ArrayList<>()).add(entry);
+            navigableRegionEntries.put(navigableRegion, entry);
+
+            if (candidate.isReused)
+               numberOfReusedRegions++;
+            else
+               numberOfCreatedRegions++;
+         }
+
+         navigableRegions.add(navigableRegion);
+      }
+
+      cachedPlanarRegions = newPlanarRegions;
+      cachedNavigableRegions = newNavigableRegions;
+      return navigableRegions;
+   }
+
+   private static PlanarRegion findSameRegion(Map<Integer, List<PlanarRegion>> regionCopies, PlanarRegion region)
+   {
+      List<PlanarRegion> candidates = regionCopies.get(region.getRegionId());
+      if (candidates == null)
+         return null;
+
+      for (int i = 0; i < candidates.size(); i++)
+      {
+         if (haveSameContent(candidates.get(i), region))
+            return candidates.get(i);
+      }
+      return null;
+   }
+
+   private static CandidateRegion createCandidateRegion(int candidateIndex, List<PlanarRegion> allRegions, PlanarRegion[] regionCopies,
+                                                        VisibilityGraphsParameters parameters,
+                                                        Map<Integer, List<CachedNavigableRegion>> previousNavigableRegions)
+   {
+      PlanarRegion candidate = allRegions.get(candidateIndex);
+
+      List<PlanarRegion> otherRegions = new ArrayList<>(allRegions);
+      Collections.swap(otherRegions, candidateIndex, otherRegions.size() - 1);
+      otherRegions.remove(otherRegions.size() - 1);
+
+      NavigableRegionFilter navigableRegionFilter = parameters.getNavigableRegionFilter();
+      if (!navigableRegionFilter.isPlanarRegionNavigable(candidate, otherRegions))
+         return null;
+
+      ObstacleRegionFilter obstacleRegionFilter = parameters.getObstacleRegionFilter();
+      List<PlanarRegion> obstacleCopies = new ArrayList<>();
+      for (int i = 0; i < allRegions.size(); i++)
+      {
+         if (i != candidateIndex && obstacleRegionFilter.isRegionValidObstacle(allRegions.get(i), candidate))
+            obstacleCopies.add(regionCopies[i]);
+      }
+
+      CachedNavigableRegion entry = null;
+      List<CachedNavigableRegion> previousEntries = previousNavigableRegions.get(candidate.getRegionId());
+      if (previousEntries != null)
+      {
+         for (int i = 0; i < previousEntries.size(); i++)
+         {
+            CachedNavigableRegion previousEntry = previousEntries.get(i);
+            if (previousEntry.homeRegion == regionCopies[candidateIndex] && haveSameRegions(previousEntry.obstacleRegions, obstacleCopies))
+            {
+               entry = previousEntry;
+               break;
+            }
+         }
+      }
+
+      boolean isReused = entry != null;
+      if (!isReused)
+      {
+         NavigableRegion navigableRegion = VisibilityGraphsFactory.createNavigableRegion(candidate, otherRegions, parameters);
+         entry = new CachedNavigableRegion(regionCopies[candidateIndex], obstacleCopies, navigableRegion);
+      }
+
+      return new CandidateRegion(candidate, otherRegions, entry, isReused);
+   }
+
+   /**
+    * Compares two lists of region copies by reference, regardless of their order as the resulting
+    * map does not depend on the order of the obstacles.
+    */
+   private static boolean haveSameRegions(List<PlanarRegion> regionsA, List<PlanarRegion> regionsB)
+   {
+      if (regionsA.size() != regionsB.size())
+         return false;
+
+      boolean[] matched = new boolean[regionsB.size()];
+
+      for (int i = 0; i < regionsA.size(); i++)
+      {
+         boolean found = false;
+
+         for (int j = 0; j < regionsB.size(); j++)
+         {
+            if (!matched[j] && regionsA.get(i) == regionsB.get(j))
+            {
+               matched[j] = true;
+               found = true;
+               break;
+            }
+         }
+
+         if (!found)
+            return false;
+      }
+
+      return true;
+   }
+
+   /**
+    * Equivalent to {@link VisibilityGraphsFactory#createInterRegionVisibilityMap(List, InterRegionConnectionFilter)}.
+    * The navigable regions have to be the ones returned by the last call to
+    * {@link #createNavigableRegions(List, VisibilityGraphsParameters)} and the filter has to be
+    * created from the same parameters.
+    */
+   public InterRegionVisibilityMap createInterRegionVisibilityMap(List<NavigableRegion> navigableRegions, InterRegionConnectionFilter filter)
+   {
+      // The maps in world are created lazily, create them before accessing them from several threads.
+      CachedNavigableRegion[] entries = new CachedNavigableRegion[navigableRegions.size()];
+      for (int i = 0; i < navigableRegions.size(); i++)
+      {
+         NavigableRegion navigableRegion = navigableRegions.get(i);
+         navigableRegion.getVisibilityMapInWorld();
+         entries[i] = navigableRegionEntries.get(navigableRegion);
+      }
+
+      Map<RegionPair, List<Connection>> previousConnections = cachedInterRegionConnections;
+      List<ForkJoinTask<List<List<Connection>>>> tasks = new ArrayList<>(navigableRegions.size());
+
+      for (int sourceMapIndex = 0; sourceMapIndex < navigableRegions.size(); sourceMapIndex++)
+      {
+         int sourceIndex = sourceMapIndex;
+         tasks.add(pool.submit(() -> computeInterRegionConnections(sourceIndex, navigableRegions, entries, filter, previousConnections)));
+      }
+
+      InterRegionVisibilityMap map = new InterRegionVisibilityMap();
+      Map<RegionPair, List<Connection>> newConnections = new HashMap<>();
+
+      for (int sourceMapIndex = 0; sourceMapIndex < navigableRegions.size(); sourceMapIndex++)
+      {
+         List<List<Connection>> sourceConnections = tasks.get(sourceMapIndex).join();
+
+         for (int targetMapIndex = sourceMapIndex + 1; targetMapIndex < navigableRegions.size(); targetMapIndex++)
+         {
+            List<Connection> connections = sourceConnections.get(targetMapIndex - sourceMapIndex - 1);
+            if (entries[sourceMapIndex] != null && entries[targetMapIndex] != null)
+               newConnections.put(new RegionPair(entries[sourceMapIndex], entries[targetMapIndex]), connections);
+            map.addConnections(connections);
+         }
+      }
+
+      cachedInterRegionConnections = newConnections;
+      return map;
+   }
+
+   private static List<List<Connection>> computeInterRegionConnections(int sourceMapIndex, List<NavigableRegion> navigableRegions,
+                                                                       CachedNavigableRegion[] entries,
+                                                                       InterRegionConnectionFilter filter, Map<RegionPair, List<Connection>> previousConnections)
+   {
+      List<List<Connection>> sourceConnections = new ArrayList<>();
+      Set<ConnectionPoint3D> sourcePoints = navigableRegions.get(sourceMapIndex).getVisibilityMapInWorld().getVertices();
+
+      for (int targetMapIndex = sourceMapIndex + 1; targetMapIndex < navigableRegions.size(); targetMapIndex++)
+      {
+         List<Connection> connections = null;
+         if (entries[sourceMapIndex] != null && entries[targetMapIndex] != null)
+            connections = previousConnections.get(new RegionPair(entries[sourceMapIndex], entries[targetMapIndex]));
+
+         if (connections == null)
+         {
+            connections = new ArrayList<>();
+            Set<ConnectionPoint3D> targetPoints = navigableRegions.get(targetMapIndex).getVisibilityMapInWorld().getVertices();
+
+            for (ConnectionPoint3D source : sourcePoints)
+            {
+               for (ConnectionPoint3D target : targetPoints)
+               {
+                  if (source.getRegionId() == target.getRegionId())
+                     continue;
+
+                  if (filter.isConnectionValid(source, target))
+                     connections.add(new Connection(source, target));
+               }
+            }
+         }
+
+         sourceConnections.add(connections);
+      }
+
+      return sourceConnections;
+   }
+
+   public void clear()
+   {
+      cachedPlanarRegions.clear();
+      cachedNavigableRegions.clear();
+      cachedInterRegionConnections.clear();
+      navigableRegionEntries.clear();
+      cachedParameters = null;
+      cachedParameterValues = null;
+   }
+
+   /**
+    * @return the number of navigable regions that were created in the last call to
+    *         {@link #createNavigableRegions(List, VisibilityGraphsParameters)}.
+    */
+   public int getNumberOfCreatedRegions()
+   {
+      return numberOfCreatedRegions;
+   }
+
+   /**
+    * @return the number of navigable regions that were reused from the previous call to
+    *         {@link #createNavigableRegions(List, VisibilityGraphsParameters)}.
+    */
+   public int getNumberOfReusedRegions()
+   {
+      return numberOfReusedRegions;
+   }
+
+   private static double[] getParameterValues(VisibilityGraphsParameters parameters)
+   {
+      return new double[] {parameters.getMaxInterRegionConnectionLength(), parameters.getNormalZThresholdForAccessibleRegions(),
+            parameters.getExtrusionDistance(), parameters.getExtrusionDistanceIfNotTooHighToStep(), parameters.getTooHighToStepDistance(),
+            parameters.getClusterResolution(), parameters.getPlanarRegionMinArea(), parameters.getPlanarRegionMinSize(),
+            parameters.getRegionOrthogonalAngle()};
+   }
+
+   /**
+    * Compares the data used to create the navigable regions: id, transform, concave hull and convex
+    * polygons.
+    */
+   static boolean haveSameContent(PlanarRegion regionA, PlanarRegion regionB)
+   {
+      if (regionA.getRegionId() != regionB.getRegionId())
+         return false;
+      if (regionA.getConcaveHullSize() != regionB.getConcaveHullSize())
+         return false;
+      if (regionA.getNumberOfConvexPolygons() != regionB.getNumberOfConvexPolygons())
+         return false;
+
+      RigidBodyTransform transformA = new RigidBodyTransform();
+      RigidBodyTransform transformB = new RigidBodyTransform();
+      regionA.getTransformToWorld(transformA);
+      regionB.getTransformToWorld(transformB);
+      if (!transformA.equals(transformB))
+         return false;
+
+      for (int i = 0; i < regionA.getConcaveHullSize(); i++)
+      {
+         if (!areEqual(regionA.getConcaveHullVertex(i), regionB.getConcaveHullVertex(i)))
+            return false;
+      }
+
+      for (int i = 0; i < regionA.getNumberOfConvexPolygons(); i++)
+      {
+         ConvexPolygon2D convexPolygonA = regionA.getConvexPolygon(i);
+         ConvexPolygon2D convexPolygonB = regionB.getConvexPolygon(i);
+         if (convexPolygonA.getNumberOfVertices() != convexPolygonB.getNumberOfVertices())
+            return false;
+
+         for (int j = 0; j < convexPolygonA.getNumberOfVertices(); j++)
+         {
+            if (!areEqual(convexPolygonA.getVertex(j), convexPolygonB.getVertex(j)))
+               return false;
+         }
+      }
+
+      return true;
+   }
+
+   private static boolean areEqual(Point2DReadOnly pointA, Point2DReadOnly pointB)
+   {
+      return pointA.getX() == pointB.getX() && pointA.getY() == pointB.getY();
+   }
+
+   /**
+    * Navigable region along with the copies of the home region and obstacle regions it was created
+    * from.
+    */
+   private static class CachedNavigableRegion
+   {
+      private final PlanarRegion homeRegion;
+      private final List<PlanarRegion> obstacleRegions;
+      private final NavigableRegion navigableRegion;
+
+      private CachedNavigableRegion(PlanarRegion homeRegion, List<PlanarRegion> obstacleRegions, NavigableRegion navigableRegion)
+      {
+         this.homeRegion = homeRegion;
+         this.obstacleRegions = obstacleRegions;
+         this.navigableRegion = navigableRegion;
+      }
+   }
+
+   private static class CandidateRegion
+   {
+      private final PlanarRegion homeRegion;
+      private final List<PlanarRegion> otherRegions;
+      private final CachedNavigableRegion entry;
+      private final boolean isReused;
+
+      private CandidateRegion(PlanarRegion homeRegion, List<PlanarRegion> otherRegions, CachedNavigableRegion entry, boolean isReused)
+      {
+         this.homeRegion = homeRegion;
+         this.otherRegions = otherRegions;
+         this.entry = entry;
+         this.isReused = isReused;
+      }
+   }
+
+   /**
+    * Unordered pair of cached navigable regions, the inter-region connections do not depend on the
+    * order of the regions. The entries are compared by reference, an entry being only reused when
+    * the content of its regions is the same.
+    */
+   private static class RegionPair
+   {
+      private final CachedNavigableRegion firstEntry;
+      private final CachedNavigableRegion secondEntry;
+
+      private RegionPair(CachedNavigableRegion entry1, CachedNavigableRegion entry2)
+      {
+         firstEntry = entry1;
+         secondEntry = entry2;
+      }
+
+      @Override
+      public int hashCode()
+      {
+         // Symmetric such that the order of the entries does not matter.
+         return System.identityHashCode(firstEntry) + System.identityHashCode(secondEntry);
+      }
+
+      @Override
+      public boolean equals(Object obj)
+      {
+         if (!(obj instanceof RegionPair))
+            return false;
+         RegionPair other = (RegionPair) obj;
+         if (firstEntry == other.firstEntry && secondEntry == other.secondEntry)
+            return true;
+         return firstEntry == other.secondEntry && secondEntry == other.firstEntry;
+      }
+   }
+}
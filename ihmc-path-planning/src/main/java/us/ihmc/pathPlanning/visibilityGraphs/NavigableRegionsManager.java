@@ -36,6 +36,7 @@ public class NavigableRegionsManager
    private final VisibilityGraphsParameters parameters;
 
    private InterRegionVisibilityMap interRegionVisibilityMap;
+   private NavigableRegionsCache navigableRegionsCache = null;
 
    public NavigableRegionsManager()
    {
@@ -69,6 +70,22 @@ public class NavigableRegionsManager
       this.regions = regions;
    }
 
+   /**
+    * When enabled, the navigable regions are created in parallel and kept from one body path
+    * calculation to the next. Only the regions that have changed, and their inter-region
+    * connections, are then computed again.
+    * 
+    * @param enable whether to use the {@link NavigableRegionsCache} or to create everything from
+    *           scratch for every body path.
+    */
+   public void setIncrementalVisibilityMapsEnabled(boolean enable)
+   {
+      if (enable && navigableRegionsCache == null)
+         navigableRegionsCache = new NavigableRegionsCache();
+      else if (!enable)
+         navigableRegionsCache = null;
+   }
+
    public List<Point3DReadOnly> calculateBodyPath(final Point3DReadOnly start, final Point3DReadOnly goal)
    {
       if (start == null)
@@ -90,8 +107,16 @@ public class NavigableRegionsManager
 
       long startBodyPathComputation = System.currentTimeMillis();
 
-      navigableRegions = VisibilityGraphsFactory.createNavigableRegions(regions, parameters);
-      interRegionVisibilityMap = VisibilityGraphsFactory.createInterRegionVisibilityMap(navigableRegions, parameters.getInterRegionConnectionFilter());
+      if (navigableRegionsCache != null)
+      {
+         navigableRegions = navigableRegionsCache.createNavigableRegions(regions, parameters);
+         interRegionVisibilityMap = navigableRegionsCache.createInterRegionVisibilityMap(navigableRegions, parameters.getInterRegionConnectionFilter());
+      }
+      else
+      {
+         navigableRegions = VisibilityGraphsFactory.createNavigableRegions(regions, parameters);
+         interRegionVisibilityMap = VisibilityGraphsFactory.createInterRegionVisibilityMap(navigableRegions, parameters.getInterRegionConnectionFilter());
+      }
       double searchHostEpsilon = parameters.getSearchHostRegionEpsilon();
       startMap = VisibilityGraphsFactory.createSingleSourceVisibilityMap(start, navigableRegions, searchHostEpsilon,
                                                                          interRegionVisibilityMap.getVisibilityMapInLocal());
@@ -107,7 +132,7 @@ public class NavigableRegionsManager
       {
          if (startMap.getHostRegion() == goalMap.getHostRegion())
          {
-            if (isPointVisibleForStaticMaps(startMap.getHostRegion().getAllClusters(), startMap.getSourceInLocal2D(), goalMap.getSourceInLocal2D()))
+            if (isPointVisibleForStaticMaps(startMap.getHostRegion().getNonNavigableSegmentGrid(), startMap.getSourceInLocal2D(), goalMap.getSourceInLocal2D()))
             {
                startMap.addConnectionInWorld(new Connection(start, startMap.getMapId(), goal, goalMap.getMapId()));
             }
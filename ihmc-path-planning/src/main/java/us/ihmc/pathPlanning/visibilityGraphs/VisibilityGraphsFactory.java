@@ -142,7 +142,8 @@ public class VisibilityGraphsFactory
       hostRegion.transformFromWorldToLocal(sourceInLocal);
       int mapId = hostRegion.getMapId();
 
-      Set<Connection> connections = VisibilityTools.createStaticVisibilityMap(sourceInLocal, mapId, hostRegion.getAllClusters(), mapId);
+      Set<Connection> connections = VisibilityTools.createStaticVisibilityMap(sourceInLocal, mapId, hostRegion.getAllClusters(),
+                                                                             hostRegion.getNonNavigableSegmentGrid(), mapId);
 
       if (!connections.isEmpty())
          return new SingleSourceVisibilityMap(source, connections, hostRegion);
@@ -0,0 +1,246 @@
+package us.ihmc.pathPlanning.visibilityGraphs.clusterManagement;
+
+import java.util.List;
+
+import us.ihmc.euclid.geometry.tools.EuclidGeometryTools;
+import us.ihmc.euclid.tuple2D.Point2D;
+import us.ihmc.euclid.tuple2D.interfaces.Point2DReadOnly;
+
+/**
+ * Uniform grid over the non-navigable extrusion segments of a set of clusters, expressed in the
+ * local frame of their home region.
+ * <p>
+ * Each segment is registered in every cell it crosses. A visibility query only tests the segments
+ * registered in the cells crossed by the line of sight, instead of every segment of every cluster.
+ * Cells are slightly inflated on both sides so that the segments that intersect, or nearly
+ * intersect, the line of sight always share at least one cell with it. The result is the same as
+ * testing all the segments.
+ * </p>
+ * <p>
+ * The grid cannot be modified once created and can be queried from several threads at the same
+ * time.
+ * </p>
+ */
+public class NonNavigableSegmentGrid
+{
+   private static final double CELL_MARGIN = 1.0e-4;
+   private static final int MAX_CELLS_PER_SEGMENT = 4;
+
+   private final int numberOfSegments;
+   private final Point2D[] segmentStarts, segmentEnds;
+
+   private final double minX, minY, maxX, maxY;
+   private final double cellSize;
+   private final int numberOfColumns, numberOfRows;
+
+   /** The segments of the cell {@code i} are stored in {@code cellSegments[cellStarts[i]]} to {@code cellSegments[cellStarts[i + 1] - 1]}. */
+   private final int[] cellStarts;
+   private final int[] cellSegments;
+
+   public NonNavigableSegmentGrid(List<Cluster> clusters)
+   {
+      int segmentCount = 0;
+      for (int i = 0; i < clusters.size(); i++)
+         segmentCount += Math.max(0, clusters.get(i).getNumberOfNonNavigableExtrusions() - 1);
+
+      numberOfSegments = segmentCount;
+      segmentStarts = new Point2D[numberOfSegments];
+      segmentEnds = new Point2D[numberOfSegments];
+
+      double xMin = Double.POSITIVE_INFINITY, yMin = Double.POSITIVE_INFINITY;
+      double xMax = Double.NEGATIVE_INFINITY, yMax = Double.NEGATIVE_INFINITY;
+      double totalLength = 0.0;
+      int segmentIndex = 0;
+
+      for (int clusterIndex = 0; clusterIndex < clusters.size(); clusterIndex++)
+      {
+         // Same segments as in VisibilityTools.isPointVisible(...): the extrusions are already closed.
+         List<Point2D> extrusions = clusters.get(clusterIndex).getNonNavigableExtrusionsInLocal2D();
+
+         for (int i = 0; i < extrusions.size() - 1; i++)
+         {
+            Point2D start = extrusions.get(i);
+            Point2D end = extrusions.get(i + 1);
+            segmentStarts[segmentIndex] = new Point2D(start);
+            segmentEnds[segmentIndex] = new Point2D(end);
+            segmentIndex++;
+
+            xMin = Math.min(xMin, Math.min(start.getX(), end.getX()));
+            yMin = Math.min(yMin, Math.min(start.getY(), end.getY()));
+            xMax = Math.max(xMax, Math.max(start.getX(), end.getX()));
+            yMax = Math.max(yMax, Math.max(start.getY(), end.getY()));
+            totalLength += start.distance(end);
+         }
+      }
+
+      if (numberOfSegments == 0)
+      {
+         minX = minY = maxX = maxY = 0.0;
+         cellSize = 1.0;
+         numberOfColumns = numberOfRows = 1;
+         cellStarts = new int[2];
+         cellSegments = new int[0];
+         return;
+      }
+
+      minX = xMin - CELL_MARGIN;
+      minY = yMin - CELL_MARGIN;
+      maxX = xMax + CELL_MARGIN;
+      maxY = yMax + CELL_MARGIN;
+
+      // About one segment per cell, without making the cells much smaller than the segments.
+      double width = maxX - minX;
+      double height = maxY - minY;
+      double averageLength = totalLength / numberOfSegments;
+      double size = Math.max(Math.sqrt(width * height / numberOfSegments), averageLength / MAX_CELLS_PER_SEGMENT);
+      size = Math.max(size, Math.max(width, height) / Math.sqrt(MAX_CELLS_PER_SEGMENT * numberOfSegments));
+      cellSize = size > 0.0 ? size : 1.0;
+      numberOfColumns = Math.max(1, (int) Math.ceil(width / cellSize));
+      numberOfRows = Math.max(1, (int) Math.ceil(height / cellSize));
+
+      // First pass counts the segments per cell, second pass fills the cells.
+      int[] cellCounts = new int[numberOfColumns * numberOfRows];
+      for (int i = 0; i < numberOfSegments; i++)
+         visitCells(segmentStarts[i], segmentEnds[i], cellIndex ->
+         {
+            cellCounts[cellIndex]++;
+            return true;
+         });
+
+      cellStarts = new int[cellCounts.length + 1];
+      for (int i = 0; i < cellCounts.length; i++)
+         cellStarts[i + 1] = cellStarts[i] + cellCounts[i];
+
+      cellSegments = new int[cellStarts[cellCounts.length]];
+      int[] cellFill = new int[cellCounts.length];
+
+      for (int i = 0; i < numberOfSegments; i++)
+      {
+         int segment = i;
+         visitCells(segmentStarts[i], segmentEnds[i], cellIndex ->
+         {
+            cellSegments[cellStarts[cellIndex] + cellFill[cellIndex]++] = segment;
+            return true;
+         });
+      }
+   }
+
+   /**
+    * Tests whether the line segment going from {@code observer} to {@code target} intersects any of
+    * the non-navigable extrusion segments.
+    *
+    * @return {@code true} if no segment is intersected, {@code false} otherwise.
+    */
+   public boolean isPointVisible(Point2DReadOnly observer, Point2DReadOnly target)
+   {
+      if (Math.max(observer.getX(), target.getX()) < minX || Math.min(observer.getX(), target.getX()) > maxX)
+         return true;
+      if (Math.max(observer.getY(), target.getY()) < minY || Math.min(observer.getY(), target.getY()) > maxY)
+         return true;
+
+      return visitCells(observer, target, cellIndex -> !doesCellIntersect(cellIndex, observer, target));
+   }
+
+   private boolean doesCellIntersect(int cellIndex, Point2DReadOnly observer, Point2DReadOnly target)
+   {
+      for (int i = cellStarts[cellIndex]; i < cellStarts[cellIndex + 1]; i++)
+      {
+         int segment = cellSegments[i];
+         if (EuclidGeometryTools.doLineSegment2DsIntersect(segmentStarts[segment], segmentEnds[segment], observer, target))
+            return true;
+      }
+      return false;
+   }
+
+   private interface CellVisitor
+   {
+      /**
+       * @return {@code false} to stop visiting the cells.
+       */
+      boolean visit(int cellIndex);
+   }
+
+   /**
+    * Visits every cell crossed by the segment, column by column. For each column, the rows visited
+    * cover the part of the segment within the column, inflated by {@link #CELL_MARGIN}.
+    *
+    * @return {@code false} if the visitor stopped the traversal, {@code true} otherwise.
+    */
+   private boolean visitCells(Point2DReadOnly start, Point2DReadOnly end, CellVisitor visitor)
+   {
+      double x0 = start.getX();
+      double y0 = start.getY();
+      double x1 = end.getX();
+      double y1 = end.getY();
+
+      if (x0 > x1)
+      {
+         double temp = x0;
+         x0 = x1;
+         x1 = temp;
+         temp = y0;
+         y0 = y1;
+         y1 = temp;
+      }
+
+      int firstColumn = toColumn(x0 - CELL_MARGIN);
+      int lastColumn = toColumn(x1 + CELL_MARGIN);
+      double slope = x1 > x0 ? (y1 - y0) / (x1 - x0) : 0.0;
+
+      for (int column = firstColumn; column <= lastColumn; column++)
+      {
+         double columnMinY, columnMaxY;
+
+         if (x1 > x0)
+         {
+            double xa = clamp(minX + column * cellSize, x0, x1);
+            double xb = clamp(minX + (column + 1) * cellSize, x0, x1);
+            double ya = y0 + slope * (xa - x0);
+            double yb = y0 + slope * (xb - x0);
+            columnMinY = Math.min(ya, yb);
+            columnMaxY = Math.max(ya, yb);
+         }
+         else
+         {
+            columnMinY = Math.min(y0, y1);
+            columnMaxY = Math.max(y0, y1);
+         }
+
+         int firstRow = toRow(columnMinY - CELL_MARGIN);
+         int lastRow = toRow(columnMaxY + CELL_MARGIN);
+
+         for (int row = firstRow; row <= lastRow; row++)
+         {
+            if (!visitor.visit(row * numberOfColumns + column))
+               return false;
+         }
+      }
+
+      return true;
+   }
+
+   private int toColumn(double x)
+   {
+      return Math.min(numberOfColumns - 1, Math.max(0, (int) Math.floor((x - minX) / cellSize)));
+   }
+
+   private int toRow(double y)
+   {
+      return Math.min(numberOfRows - 1, Math.max(0, (int) Math.floor((y - minY) / cellSize)));
+   }
+
+   private static double clamp(double value, double min, double max)
+   {
+      return Math.min(max, Math.max(min, value));
+   }
+
+   public int getNumberOfSegments()
+   {
+      return numberOfSegments;
+   }
+
+   public int getNumberOfCells()
+   {
+      return numberOfColumns * numberOfRows;
+   }
+}
@@ -6,6 +6,7 @@ import java.util.List;
 import us.ihmc.euclid.interfaces.Transformable;
 import us.ihmc.euclid.transform.RigidBodyTransform;
 import us.ihmc.pathPlanning.visibilityGraphs.clusterManagement.Cluster;
+import us.ihmc.pathPlanning.visibilityGraphs.clusterManagement.NonNavigableSegmentGrid;
 import us.ihmc.pathPlanning.visibilityGraphs.interfaces.VisibilityMapHolder;
 import us.ihmc.robotics.geometry.PlanarRegion;
 
@@ -20,6 +21,7 @@ public class NavigableRegion implements VisibilityMapHolder
    private Cluster homeRegionCluster = null;
    private List<Cluster> obstacleClusters = new ArrayList<>();
    private List<Cluster> allClusters = new ArrayList<>();
+   private NonNavigableSegmentGrid nonNavigableSegmentGrid = null;
    private VisibilityMap visibilityMapInLocal = null;
    private VisibilityMap visibilityMapInWorld = null;
 
@@ -33,6 +35,7 @@ public class NavigableRegion implements VisibilityMapHolder
    {
       this.homeRegionCluster = homeCluster;
       allClusters.add(homeCluster);
+      nonNavigableSegmentGrid = null;
    }
 
    public void addObstacleClusters(Iterable<Cluster> obstacleClusters)
@@ -44,6 +47,7 @@ public class NavigableRegion implements VisibilityMapHolder
    {
       obstacleClusters.add(obstacleCluster);
       allClusters.add(obstacleCluster);
+      nonNavigableSegmentGrid = null;
    }
 
    public void setVisibilityMapInLocal(VisibilityMap visibilityMap)
@@ -76,6 +80,17 @@ public class NavigableRegion implements VisibilityMapHolder
       return allClusters;
    }
 
+   /**
+    * Gets the spatial index over the non-navigable extrusions of all the clusters of this region,
+    * used for the visibility checks. It is created on the first call once the clusters are set.
+    */
+   public synchronized NonNavigableSegmentGrid getNonNavigableSegmentGrid()
+   {
+      if (nonNavigableSegmentGrid == null)
+         nonNavigableSegmentGrid = new NonNavigableSegmentGrid(allClusters);
+      return nonNavigableSegmentGrid;
+   }
+
    public void transformFromLocalToWorld(Transformable objectToTransformToWorld)
    {
       objectToTransformToWorld.applyTransform(transformToWorld);
@@ -19,6 +19,7 @@ import us.ihmc.euclid.tuple3D.Point3D;
 import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
 import us.ihmc.pathPlanning.visibilityGraphs.clusterManagement.Cluster;
 import us.ihmc.pathPlanning.visibilityGraphs.clusterManagement.Cluster.ExtrusionSide;
+import us.ihmc.pathPlanning.visibilityGraphs.clusterManagement.NonNavigableSegmentGrid;
 import us.ihmc.pathPlanning.visibilityGraphs.dataStructure.Connection;
 import us.ihmc.pathPlanning.visibilityGraphs.dataStructure.NavigableRegion;
 import us.ihmc.robotics.geometry.PlanarRegion;
@@ -71,10 +72,15 @@ public class VisibilityTools
       PlanarRegion homeRegion = navigableRegion.getHomeRegion();
       Set<Connection> connections = new HashSet<>();
       List<boolean[]> navigability = new ArrayList<>(clusters.size());
+      NonNavigableSegmentGrid segmentGrid;
+      if (clusters == navigableRegion.getAllClusters())
+         segmentGrid = navigableRegion.getNonNavigableSegmentGrid();
+      else
+         segmentGrid = new NonNavigableSegmentGrid(clusters);
 
       for (Cluster cluster : clusters)
       {
-         navigability.add(addClusterSelfVisibility(cluster, homeRegion, clusters, regionId, connections));
+         navigability.add(addClusterSelfVisibility(cluster, homeRegion, clusters, segmentGrid, regionId, connections));
       }
 
       for (int sourceIndex = 0; sourceIndex < clusters.size(); sourceIndex++)
@@ -87,7 +93,7 @@ public class VisibilityTools
             Cluster target = clusters.get(targetIndex);
             boolean[] targetNavigability = navigability.get(targetIndex);
 
-            addCrossClusterVisibility(source, sourceNavigability, target, targetNavigability, clusters, regionId, connections);
+            addCrossClusterVisibility(source, sourceNavigability, target, targetNavigability, segmentGrid, regionId, connections);
          }
       }
 
@@ -104,13 +110,15 @@ public class VisibilityTools
     * @param homeRegion the region to which the clusters belong to. Not modified.
     * @param allClusters list containing all the clusters to consider for the visibility check
     *           including {@code clusterToBuildMapOf}. Not modified.
+    * @param segmentGrid the spatial index over the non-navigable extrusions of {@code allClusters}.
+    *           Not modified.
     * @param mapId the ID used to create the connections.
     * @param connectionsToPack the collection in which the connections are stored. Modified.
     * @return an array of booleans informing on whether each individual navigable extrusion of
     *         {@code clusterToBuildMapOf} is actually navigable or not.
     */
-   private static boolean[] addClusterSelfVisibility(Cluster clusterToBuildMapOf, PlanarRegion homeRegion, List<Cluster> allClusters, int mapId,
-                                                     Collection<Connection> connectionsToPack)
+   private static boolean[] addClusterSelfVisibility(Cluster clusterToBuildMapOf, PlanarRegion homeRegion, List<Cluster> allClusters,
+                                                     NonNavigableSegmentGrid segmentGrid, int mapId, Collection<Connection> connectionsToPack)
    {
       List<Point2D> navigableExtrusions = clusterToBuildMapOf.getNavigableExtrusionsInLocal2D();
 
@@ -177,7 +185,7 @@ public class VisibilityTools
             }
 
             // Finally run the expensive test to verify if the target can be seen from the source.
-            if (isPointVisibleForStaticMaps(allClusters, source, target))
+            if (isPointVisibleForStaticMaps(segmentGrid, source, target))
                connectionsToPack.add(new Connection(source, mapId, target, mapId));
          }
       }
@@ -201,13 +209,14 @@ public class VisibilityTools
     * @param targetNavigability the array containing the information of whether or not each
     *           individual navigable extrusion of {@code targetCluster} is actually navigable. Not
     *           modified.
-    * @param allClusters list containing all the clusters to consider for the visibility check
-    *           including {@code sourceCluster} and {@code targetCluster}. Not modified.
+    * @param segmentGrid the spatial index over the non-navigable extrusions of all the clusters to
+    *           consider for the visibility check including {@code sourceCluster} and
+    *           {@code targetCluster}. Not modified.
     * @param mapId the ID used to create the connections.
     * @param connectionsToPack the collection in which the connections are stored. Modified.
     */
    private static void addCrossClusterVisibility(Cluster sourceCluster, boolean[] sourceNavigability, Cluster targetCluster, boolean[] targetNavigability,
-                                                 List<Cluster> allClusters, int mapId, Collection<Connection> connectionsToPack)
+                                                 NonNavigableSegmentGrid segmentGrid, int mapId, Collection<Connection> connectionsToPack)
    {
       Vector2D directionToCheck = new Vector2D();
       Vector2D nextEdge = new Vector2D();
@@ -251,13 +260,23 @@ public class VisibilityTools
                }
             }
 
-            if (isPointVisibleForStaticMaps(allClusters, source, target))
+            if (isPointVisibleForStaticMaps(segmentGrid, source, target))
                connectionsToPack.add(new Connection(source, mapId, target, mapId));
          }
       }
    }
 
    public static Set<Connection> createStaticVisibilityMap(Point3DReadOnly observer, int observerRegionId, List<Cluster> clusters, int clustersRegionId)
+   {
+      return createStaticVisibilityMap(observer, observerRegionId, clusters, new NonNavigableSegmentGrid(clusters), clustersRegionId);
+   }
+
+   /**
+    * Same as {@link #createStaticVisibilityMap(Point3DReadOnly, int, List, int)} using the given
+    * spatial index, which has to be built from {@code clusters}, for the visibility checks.
+    */
+   public static Set<Connection> createStaticVisibilityMap(Point3DReadOnly observer, int observerRegionId, List<Cluster> clusters,
+                                                           NonNavigableSegmentGrid segmentGrid, int clustersRegionId)
    {
       Set<Connection> connections = new HashSet<>();
       List<Point2D> listOfTargetPoints = new ArrayList<>();
@@ -281,7 +300,7 @@ public class VisibilityTools
 
          if (observer.distanceXYSquared(target) > MAGIC_NUMBER)
          {
-            boolean targetIsVisible = isPointVisibleForStaticMaps(clusters, observer2D, target);
+            boolean targetIsVisible = isPointVisibleForStaticMaps(segmentGrid, observer2D, target);
 
             if (targetIsVisible)
             {
@@ -370,6 +389,15 @@ public class VisibilityTools
       return true;
    }
 
+   /**
+    * Same as {@link #isPointVisibleForStaticMaps(List, Point2DReadOnly, Point2DReadOnly)} but only
+    * tests the non-navigable extrusions that are close to the line of sight.
+    */
+   public static boolean isPointVisibleForStaticMaps(NonNavigableSegmentGrid segmentGrid, Point2DReadOnly observer, Point2DReadOnly targetPoint)
+   {
+      return segmentGrid.isPointVisible(observer, targetPoint);
+   }
+
    public static List<Connection> removeConnectionsFromExtrusionsOutsideRegions(Collection<Connection> connections, PlanarRegion homeRegion)
    {
       return VisibilityTools.getConnectionsThatAreInsideRegion(connections, homeRegion);
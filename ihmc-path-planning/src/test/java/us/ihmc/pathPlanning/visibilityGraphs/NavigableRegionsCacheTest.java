@@ -0,0 +1,162 @@
+package us.ihmc.pathPlanning.visibilityGraphs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.geometry.ConvexPolygon2D;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.pathPlanning.visibilityGraphs.dataStructure.InterRegionVisibilityMap;
+import us.ihmc.pathPlanning.visibilityGraphs.dataStructure.NavigableRegion;
+import us.ihmc.pathPlanning.visibilityGraphs.interfaces.VisibilityGraphsParameters;
+import us.ihmc.pathPlanning.visibilityGraphs.tools.PlanarRegionTools;
+import us.ihmc.robotics.geometry.PlanarRegion;
+
+public class NavigableRegionsCacheTest
+{
+   @Test(timeout = 30000)
+   @ContinuousIntegrationTest(estimatedDuration = 2.0)
+   public void testOnlyChangedRegionsAreCreated()
+   {
+      VisibilityGraphsParameters parameters = new DefaultVisibilityGraphParameters();
+      NavigableRegionsCache cache = new NavigableRegionsCache();
+
+      List<PlanarRegion> regions = new ArrayList<>();
+      regions.add(createRegion(1, 0.0, 0.0, 0.0, 0.0, 6.0, 6.0));
+      regions.add(createRegion(2, -1.5, 1.5, 0.15, 0.0, 1.0, 1.0));
+      regions.add(createRegion(3, 1.5, 1.5, 0.15, 0.0, 1.0, 1.0));
+      regions.add(createRegion(4, 1.5, -1.5, 0.15, 0.0, 1.0, 1.0));
+      regions.add(createRegion(5, -1.5, -1.5, 0.5, 0.5 * Math.PI, 1.0, 1.0));
+      regions = PlanarRegionTools.ensureClockwiseOrder(regions);
+
+      List<NavigableRegion> navigableRegions = assertSameAsFactory(cache, regions, parameters);
+      assertEquals(navigableRegions.size(), cache.getNumberOfCreatedRegions());
+      assertEquals(0, cache.getNumberOfReusedRegions());
+
+      // Nothing changed, the regions are all reused.
+      assertSameAsFactory(cache, regions, parameters);
+      assertEquals(0, cache.getNumberOfCreatedRegions());
+      assertEquals(navigableRegions.size(), cache.getNumberOfReusedRegions());
+
+      // Same regions as new objects: still reused.
+      regions = copy(regions);
+      assertSameAsFactory(cache, regions, parameters);
+      assertEquals(0, cache.getNumberOfCreatedRegions());
+
+      // Move the platform 3, only the ground and the platform itself are created again.
+      regions.set(2, createRegion(3, 1.6, 1.5, 0.15, 0.0, 1.0, 1.0));
+      regions = PlanarRegionTools.ensureClockwiseOrder(regions);
+      assertSameAsFactory(cache, regions, parameters);
+      assertEquals(2, cache.getNumberOfCreatedRegions());
+      assertEquals(navigableRegions.size() - 2, cache.getNumberOfReusedRegions());
+   }
+
+   @Test(timeout = 30000)
+   @ContinuousIntegrationTest(estimatedDuration = 2.0)
+   public void testRegionsAreComparedByContent()
+   {
+      VisibilityGraphsParameters parameters = new DefaultVisibilityGraphParameters();
+      NavigableRegionsCache cache = new NavigableRegionsCache();
+
+      List<PlanarRegion> regions = new ArrayList<>();
+      regions.add(createRegion(1, 0.0, 0.0, 0.0, 0.0, 6.0, 6.0));
+      regions.add(createRegion(2, -1.5, 1.5, 0.15, 0.0, 1.0, 1.0));
+      regions.add(createRegion(3, 1.5, 1.5, 0.15, 0.0, 1.0, 1.0));
+      regions = PlanarRegionTools.ensureClockwiseOrder(regions);
+
+      List<NavigableRegion> navigableRegions = assertSameAsFactory(cache, regions, parameters);
+      int numberOfNavigableRegions = navigableRegions.size();
+
+      // Same id and transform but a bigger polygon: the platform and the ground are created again.
+      regions.set(1, createRegion(2, -1.5, 1.5, 0.15, 0.0, 1.2, 1.0));
+      regions = PlanarRegionTools.ensureClockwiseOrder(regions);
+      assertSameAsFactory(cache, regions, parameters);
+      assertEquals(2, cache.getNumberOfCreatedRegions());
+      assertEquals(numberOfNavigableRegions - 2, cache.getNumberOfReusedRegions());
+
+      // The obstacles are compared regardless of their order.
+      List<PlanarRegion> reorderedRegions = new ArrayList<>();
+      reorderedRegions.add(regions.get(0));
+      reorderedRegions.add(regions.get(2));
+      reorderedRegions.add(regions.get(1));
+      assertSameAsFactory(cache, reorderedRegions, parameters);
+      assertEquals(0, cache.getNumberOfCreatedRegions());
+      assertEquals(numberOfNavigableRegions, cache.getNumberOfReusedRegions());
+
+      // A second copy of a platform gets its own navigable region.
+      reorderedRegions.add(reorderedRegions.get(1).copy());
+      navigableRegions = assertSameAsFactory(cache, reorderedRegions, parameters);
+      assertEquals(navigableRegions.size(), cache.getNumberOfCreatedRegions() + cache.getNumberOfReusedRegions());
+      for (int i = 0; i < navigableRegions.size(); i++)
+      {
+         for (int j = i + 1; j < navigableRegions.size(); j++)
+            assertTrue(navigableRegions.get(i) != navigableRegions.get(j));
+      }
+   }
+
+   @Test(timeout = 30000)
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   public void testHaveSameContent()
+   {
+      PlanarRegion region = createRegion(1, 0.5, 0.2, 0.1, 0.3, 1.0, 2.0);
+      assertTrue(NavigableRegionsCache.haveSameContent(region, region.copy()));
+
+      PlanarRegion otherId = region.copy();
+      otherId.setRegionId(2);
+      assertFalse(NavigableRegionsCache.haveSameContent(region, otherId));
+
+      assertFalse(NavigableRegionsCache.haveSameContent(region, createRegion(1, 0.5, 0.2, 0.1 + 1.0e-12, 0.3, 1.0, 2.0)));
+      assertFalse(NavigableRegionsCache.haveSameContent(region, createRegion(1, 0.5, 0.2, 0.1, 0.3, 1.0, 2.0 + 1.0e-12)));
+   }
+
+   private static List<NavigableRegion> assertSameAsFactory(NavigableRegionsCache cache, List<PlanarRegion> regions, VisibilityGraphsParameters parameters)
+   {
+      List<NavigableRegion> expectedRegions = VisibilityGraphsFactory.createNavigableRegions(regions, parameters);
+      InterRegionVisibilityMap expectedMap = VisibilityGraphsFactory.createInterRegionVisibilityMap(expectedRegions,
+                                                                                                   parameters.getInterRegionConnectionFilter());
+
+      List<NavigableRegion> actualRegions = cache.createNavigableRegions(regions, parameters);
+      InterRegionVisibilityMap actualMap = cache.createInterRegionVisibilityMap(actualRegions, parameters.getInterRegionConnectionFilter());
+
+      assertEquals(expectedRegions.size(), actualRegions.size());
+      for (int i = 0; i < expectedRegions.size(); i++)
+      {
+         assertEquals(expectedRegions.get(i).getMapId(), actualRegions.get(i).getMapId());
+         assertEquals(expectedRegions.get(i).getVisibilityMapInLocal().getConnections(), actualRegions.get(i).getVisibilityMapInLocal().getConnections());
+      }
+
+      assertEquals(expectedMap.getVisibilityMapInWorld().getConnections(), actualMap.getVisibilityMapInWorld().getConnections());
+      return actualRegions;
+   }
+
+   private static PlanarRegion createRegion(int regionId, double x, double y, double z, double pitch, double sizeX, double sizeY)
+   {
+      RigidBodyTransform transform = new RigidBodyTransform();
+      transform.setTranslation(x, y, z);
+      transform.appendPitchRotation(pitch);
+
+      ConvexPolygon2D polygon = new ConvexPolygon2D();
+      polygon.addVertex(0.5 * sizeX, 0.5 * sizeY);
+      polygon.addVertex(0.5 * sizeX, -0.5 * sizeY);
+      polygon.addVertex(-0.5 * sizeX, -0.5 * sizeY);
+      polygon.addVertex(-0.5 * sizeX, 0.5 * sizeY);
+      polygon.update();
+
+      PlanarRegion region = new PlanarRegion(transform, polygon);
+      region.setRegionId(regionId);
+      return region;
+   }
+
+   private static List<PlanarRegion> copy(List<PlanarRegion> regions)
+   {
+      List<PlanarRegion> copy = new ArrayList<>();
+      regions.forEach(region -> copy.add(region.copy()));
+      return copy;
+   }
+}
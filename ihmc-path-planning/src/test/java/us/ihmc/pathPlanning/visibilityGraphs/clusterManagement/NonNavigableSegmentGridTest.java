@@ -0,0 +1,129 @@
+package us.ihmc.pathPlanning.visibilityGraphs.clusterManagement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.tuple2D.Point2D;
+import us.ihmc.pathPlanning.visibilityGraphs.clusterManagement.Cluster.ExtrusionSide;
+import us.ihmc.pathPlanning.visibilityGraphs.tools.VisibilityTools;
+
+public class NonNavigableSegmentGridTest
+{
+   private static final int ITERATIONS = 50;
+
+   @Test(timeout = 30000)
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   public void testSimpleBox()
+   {
+      List<Cluster> clusters = new ArrayList<>();
+      clusters.add(createBox(0.0, 0.0, 1.0, 1.0));
+      NonNavigableSegmentGrid grid = new NonNavigableSegmentGrid(clusters);
+
+      assertEquals(4, grid.getNumberOfSegments());
+      assertFalse(grid.isPointVisible(new Point2D(-1.0, 0.5), new Point2D(2.0, 0.5)));
+      assertFalse(grid.isPointVisible(new Point2D(0.5, 0.5), new Point2D(0.5, 3.0)));
+      assertTrue(grid.isPointVisible(new Point2D(-1.0, 1.5), new Point2D(2.0, 1.5)));
+      assertTrue(grid.isPointVisible(new Point2D(0.2, 0.2), new Point2D(0.8, 0.8)));
+      assertTrue(grid.isPointVisible(new Point2D(5.0, 5.0), new Point2D(6.0, 6.0)));
+   }
+
+   @Test(timeout = 30000)
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   public void testAgainstAllSegments()
+   {
+      Random random = new Random(6547L);
+
+      for (int iteration = 0; iteration < ITERATIONS; iteration++)
+      {
+         List<Cluster> clusters = new ArrayList<>();
+         int numberOfClusters = 1 + random.nextInt(20);
+
+         for (int i = 0; i < numberOfClusters; i++)
+         {
+            if (random.nextBoolean())
+            { // Axis-aligned boxes on a coarse lattice, so that segments and queries line up with each other.
+               double x = 0.5 * random.nextInt(20);
+               double y = 0.5 * random.nextInt(20);
+               clusters.add(createBox(x, y, x + 0.5 * (1 + random.nextInt(3)), y + 0.5 * (1 + random.nextInt(3))));
+            }
+            else
+            {
+               clusters.add(createRandomPolygon(random, 10.0 * random.nextDouble(), 10.0 * random.nextDouble()));
+            }
+         }
+
+         NonNavigableSegmentGrid grid = new NonNavigableSegmentGrid(clusters);
+
+         List<Point2D> queryPoints = new ArrayList<>();
+         for (Cluster cluster : clusters)
+            queryPoints.addAll(cluster.getNonNavigableExtrusionsInLocal2D());
+         for (int i = 0; i < 30; i++)
+            queryPoints.add(new Point2D(0.5 * random.nextInt(28) - 2.0, 0.5 * random.nextInt(28) - 2.0));
+         for (int i = 0; i < 30; i++)
+            queryPoints.add(new Point2D(14.0 * random.nextDouble() - 2.0, 14.0 * random.nextDouble() - 2.0));
+
+         for (int i = 0; i < queryPoints.size(); i++)
+         {
+            for (int j = i + 1; j < queryPoints.size(); j++)
+            {
+               Point2D observer = queryPoints.get(i);
+               Point2D target = queryPoints.get(j);
+               boolean expected = VisibilityTools.isPointVisibleForStaticMaps(clusters, observer, target);
+               assertEquals("observer: " + observer + ", target: " + target, expected, grid.isPointVisible(observer, target));
+            }
+         }
+      }
+   }
+
+   @Test(timeout = 30000)
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   public void testNoClusters()
+   {
+      NonNavigableSegmentGrid grid = new NonNavigableSegmentGrid(new ArrayList<>());
+      assertEquals(0, grid.getNumberOfSegments());
+      assertTrue(grid.isPointVisible(new Point2D(-1.0, 0.5), new Point2D(2.0, 0.5)));
+   }
+
+   private static Cluster createBox(double minX, double minY, double maxX, double maxY)
+   {
+      List<Point2D> extrusions = new ArrayList<>();
+      extrusions.add(new Point2D(minX, minY));
+      extrusions.add(new Point2D(minX, maxY));
+      extrusions.add(new Point2D(maxX, maxY));
+      extrusions.add(new Point2D(maxX, minY));
+      extrusions.add(new Point2D(minX, minY));
+      return createCluster(extrusions);
+   }
+
+   private static Cluster createRandomPolygon(Random random, double centerX, double centerY)
+   {
+      List<Point2D> extrusions = new ArrayList<>();
+      int numberOfVertices = 3 + random.nextInt(10);
+
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         double angle = -2.0 * Math.PI * i / numberOfVertices;
+         double radius = 0.2 + random.nextDouble();
+         extrusions.add(new Point2D(centerX + radius * Math.cos(angle), centerY + radius * Math.sin(angle)));
+      }
+      extrusions.add(new Point2D(extrusions.get(0)));
+      return createCluster(extrusions);
+   }
+
+   private static Cluster createCluster(List<Point2D> nonNavigableExtrusions)
+   {
+      Cluster cluster = new Cluster();
+      cluster.setExtrusionSide(ExtrusionSide.OUTSIDE);
+      cluster.addNonNavigableExtrusionsInLocal2D(nonNavigableExtrusions);
+      cluster.updateBoundingBox();
+      return cluster;
+   }
+}
@@ -0,0 +1,108 @@
+package us.ihmc.pathPlanning.visibilityGraphs.tools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import us.ihmc.euclid.tuple2D.Point2D;
+import us.ihmc.pathPlanning.visibilityGraphs.clusterManagement.Cluster;
+import us.ihmc.pathPlanning.visibilityGraphs.clusterManagement.NonNavigableSegmentGrid;
+import us.ihmc.pathPlanning.visibilityGraphs.dataStructure.NavigableRegion;
+import us.ihmc.pathPlanning.visibilityGraphs.tools.VisibilityGraphsIOTools.VisibilityGraphsUnitTestDataset;
+import us.ihmc.pathPlanning.visibilityGraphs.ui.VisibilityGraphsDataExporter;
+
+/**
+ * Measures the time to run the visibility checks of the static maps between all the navigable
+ * extrusions of every region of the saved datasets, against all the clusters or using the
+ * {@link NonNavigableSegmentGrid}. The time to create the grids is included.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class VisibilityToolsBenchmark
+{
+   /** Whether the visibility is checked using the segment grid or against all the clusters. */
+   @Param({"true", "false"})
+   public boolean useSegmentGrid;
+
+   private final List<List<Cluster>> clustersOfRegions = new ArrayList<>();
+   private final List<List<Point2D>> pointsOfRegions = new ArrayList<>();
+
+   @Setup(Level.Trial)
+   public void setup()
+   {
+      List<VisibilityGraphsUnitTestDataset> allDatasets = VisibilityGraphsIOTools.loadAllDatasets(VisibilityGraphsDataExporter.class);
+      if (allDatasets.isEmpty())
+         throw new RuntimeException("Did not find any datasets to benchmark.");
+
+      for (VisibilityGraphsUnitTestDataset dataset : allDatasets)
+      {
+         List<NavigableRegion> navigableRegions = VisibilityToolsSegmentGridTest.createNavigableRegions(dataset);
+         if (navigableRegions == null)
+            continue;
+
+         for (NavigableRegion navigableRegion : navigableRegions)
+         {
+            List<Cluster> clusters = navigableRegion.getAllClusters();
+            clustersOfRegions.add(clusters);
+            pointsOfRegions.add(VisibilityToolsSegmentGridTest.getNavigableExtrusions(clusters));
+         }
+      }
+   }
+
+   @Benchmark
+   public int checkVisibility()
+   {
+      int numberOfVisiblePairs = 0;
+
+      for (int regionIndex = 0; regionIndex < clustersOfRegions.size(); regionIndex++)
+      {
+         List<Cluster> clusters = clustersOfRegions.get(regionIndex);
+         List<Point2D> points = pointsOfRegions.get(regionIndex);
+         NonNavigableSegmentGrid grid = useSegmentGrid ? new NonNavigableSegmentGrid(clusters) : null;
+
+         for (int i = 0; i < points.size(); i++)
+         {
+            for (int j = i + 1; j < points.size(); j++)
+            {
+               boolean visible;
+               if (useSegmentGrid)
+                  visible = VisibilityTools.isPointVisibleForStaticMaps(grid, points.get(i), points.get(j));
+               else
+                  visible = VisibilityTools.isPointVisibleForStaticMaps(clusters, points.get(i), points.get(j));
+
+               if (visible)
+                  numberOfVisiblePairs++;
+            }
+         }
+      }
+
+      return numberOfVisiblePairs;
+   }
+
+   public static void main(String[] args) throws RunnerException
+   {
+      Options options = new OptionsBuilder().include(VisibilityToolsBenchmark.class.getSimpleName()).build();
+      new Runner(options).run();
+   }
+}
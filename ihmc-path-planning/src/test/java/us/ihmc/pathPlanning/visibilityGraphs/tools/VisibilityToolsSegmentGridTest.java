@@ -0,0 +1,75 @@
+package us.ihmc.pathPlanning.visibilityGraphs.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.tuple2D.Point2D;
+import us.ihmc.pathPlanning.visibilityGraphs.DefaultVisibilityGraphParameters;
+import us.ihmc.pathPlanning.visibilityGraphs.VisibilityGraphsFactory;
+import us.ihmc.pathPlanning.visibilityGraphs.clusterManagement.Cluster;
+import us.ihmc.pathPlanning.visibilityGraphs.clusterManagement.NonNavigableSegmentGrid;
+import us.ihmc.pathPlanning.visibilityGraphs.dataStructure.NavigableRegion;
+import us.ihmc.pathPlanning.visibilityGraphs.tools.VisibilityGraphsIOTools.VisibilityGraphsUnitTestDataset;
+import us.ihmc.pathPlanning.visibilityGraphs.ui.VisibilityGraphsDataExporter;
+
+/**
+ * Runs the visibility checks of the static maps for every navigable region of the saved datasets,
+ * once against all the clusters and once using the {@link NonNavigableSegmentGrid}, and asserts
+ * that both give the same result. See {@link VisibilityToolsBenchmark} for the timings.
+ */
+public class VisibilityToolsSegmentGridTest
+{
+   @Test(timeout = 300000)
+   @ContinuousIntegrationTest(estimatedDuration = 20.0)
+   public void testSegmentGridOnAllDatasets()
+   {
+      List<VisibilityGraphsUnitTestDataset> allDatasets = VisibilityGraphsIOTools.loadAllDatasets(VisibilityGraphsDataExporter.class);
+      assertFalse("Did not find any datasets to test.", allDatasets.isEmpty());
+
+      for (VisibilityGraphsUnitTestDataset dataset : allDatasets)
+      {
+         List<NavigableRegion> navigableRegions = createNavigableRegions(dataset);
+         if (navigableRegions == null)
+            continue;
+
+         for (NavigableRegion navigableRegion : navigableRegions)
+         {
+            List<Cluster> clusters = navigableRegion.getAllClusters();
+            List<Point2D> points = getNavigableExtrusions(clusters);
+            NonNavigableSegmentGrid grid = new NonNavigableSegmentGrid(clusters);
+
+            for (int i = 0; i < points.size(); i++)
+            {
+               for (int j = i + 1; j < points.size(); j++)
+               {
+                  boolean expected = VisibilityTools.isPointVisibleForStaticMaps(clusters, points.get(i), points.get(j));
+                  boolean actual = VisibilityTools.isPointVisibleForStaticMaps(grid, points.get(i), points.get(j));
+                  assertEquals(dataset.getDatasetName(), expected, actual);
+               }
+            }
+         }
+      }
+   }
+
+   static List<NavigableRegion> createNavigableRegions(VisibilityGraphsUnitTestDataset dataset)
+   {
+      return VisibilityGraphsFactory.createNavigableRegions(dataset.getPlanarRegionsList().getPlanarRegionsAsList(), new DefaultVisibilityGraphParameters());
+   }
+
+   /**
+    * The points between which the visibility is checked: the navigable extrusions of all the
+    * clusters of a region.
+    */
+   static List<Point2D> getNavigableExtrusions(List<Cluster> clusters)
+   {
+      List<Point2D> points = new ArrayList<>();
+      clusters.forEach(cluster -> points.addAll(cluster.getNavigableExtrusionsInLocal2D()));
+      return points;
+   }
+}
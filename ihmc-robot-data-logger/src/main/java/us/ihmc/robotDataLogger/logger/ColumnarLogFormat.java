@@ -0,0 +1,76 @@
+package us.ihmc.robotDataLogger.logger;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+/**
+ * Constants and column encoding shared by {@link ColumnarLogWriter} and {@link ColumnarLogReader}.
+ *
+ * The columnar format stores the same data as the row based robotData.bsz, but transposed in blocks
+ * of consecutive ticks. Column 0 is the timestamp, column i + 1 is variable i, followed by the joint
+ * states, exactly like a row of the regular log.
+ *
+ * <pre>
+ * robotData.columns
+ *    header:  int magic, int version, int numberOfColumns, int ticksPerBlock
+ *    blocks:  int[numberOfColumns] compressed column sizes, followed by the compressed columns
+ *
+ * robotData.columns.index, one fixed size entry per block:
+ *    long first timestamp, long last timestamp, long block offset, int number of ticks
+ * </pre>
+ *
+ * Timestamps are delta encoded, all other columns are XOR'ed with the previous value in the block.
+ * Slowly changing variables turn into mostly zero bytes, which Snappy compresses well.
+ */
+class ColumnarLogFormat
+{
+   static final String dataFilename = "robotData.columns";
+   static final String indexFilename = "robotData.columns.index";
+
+   static final int MAGIC = 0x434F4C53; // COLS
+   static final int VERSION = 1;
+   static final int HEADER_SIZE = 16;
+   static final int INDEX_ENTRY_SIZE = 28;
+
+   static final int TIMESTAMP_COLUMN = 0;
+
+   static File getDataFile(File logDirectory)
+   {
+      return new File(logDirectory, dataFilename);
+   }
+
+   static File getIndexFile(File logDirectory)
+   {
+      return new File(logDirectory, indexFilename);
+   }
+
+   /**
+    * Encode values[0 ... ticks) into target, starting at position 0.
+    */
+   static void encode(int column, long[] values, int ticks, ByteBuffer target)
+   {
+      target.clear();
+      long previous = 0;
+      for (int i = 0; i < ticks; i++)
+      {
+         long value = values[i];
+         target.putLong(column == TIMESTAMP_COLUMN ? value - previous : value ^ previous);
+         previous = value;
+      }
+      target.flip();
+   }
+
+   /**
+    * Decode ticks values from source into values, starting at offset.
+    */
+   static void decode(int column, ByteBuffer source, int ticks, long[] values, int offset)
+   {
+      long previous = 0;
+      for (int i = 0; i < ticks; i++)
+      {
+         long encoded = source.getLong(i * 8);
+         previous = column == TIMESTAMP_COLUMN ? previous + encoded : encoded ^ previous;
+         values[offset + i] = previous;
+      }
+   }
+}
@@ -0,0 +1,275 @@
+package us.ihmc.robotDataLogger.logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import us.ihmc.tools.compression.SnappyUtils;
+
+/**
+ * Reads individual columns from a log written by {@link ColumnarLogWriter}.
+ *
+ * Only the requested columns are read from disk and decompressed, which makes extracting a few
+ * variables from a large log much cheaper than reading every row. Column 0 is the timestamp, column
+ * i + 1 is variable i.
+ *
+ * This class is not thread safe.
+ */
+public class ColumnarLogReader
+{
+   private final FileInputStream dataStream;
+   private final FileChannel dataChannel;
+
+   private final int numberOfColumns;
+   private final int ticksPerBlock;
+   private final int numberOfTicks;
+
+   private final long[] blockStartTimestamps;
+   private final long[] blockEndTimestamps;
+   private final long[] blockOffsets;
+   private final int[] blockStartTicks;
+   private final int[] blockTicks;
+
+   private final ByteBuffer columnSizes;
+   private final long[] columnOffsets;
+   private final ByteBuffer compressedColumn;
+   private final ByteBuffer decodedColumn;
+
+   private int cachedColumnSizesBlock = -1;
+
+   /**
+    * @return true if a columnar copy of the data is available in the log directory
+    */
+   public static boolean hasColumnarData(File logDirectory)
+   {
+      return ColumnarLogFormat.getDataFile(logDirectory).exists() && ColumnarLogFormat.getIndexFile(logDirectory).exists();
+   }
+
+   public ColumnarLogReader(File logDirectory) throws IOException
+   {
+      dataStream = new FileInputStream(ColumnarLogFormat.getDataFile(logDirectory));
+      dataChannel = dataStream.getChannel();
+
+      ByteBuffer header = ByteBuffer.allocate(ColumnarLogFormat.HEADER_SIZE);
+      readFully(0, header);
+      if (header.getInt() != ColumnarLogFormat.MAGIC)
+      {
+         close();
+         throw new IOException(ColumnarLogFormat.dataFilename + " is not a columnar log");
+      }
+      int version = header.getInt();
+      if (version != ColumnarLogFormat.VERSION)
+      {
+         close();
+         throw new IOException("Unsupported columnar log version " + version);
+      }
+      numberOfColumns = header.getInt();
+      ticksPerBlock = header.getInt();
+
+      File indexFile = ColumnarLogFormat.getIndexFile(logDirectory);
+      int numberOfBlocks = (int) (indexFile.length() / ColumnarLogFormat.INDEX_ENTRY_SIZE);
+      blockStartTimestamps = new long[numberOfBlocks];
+      blockEndTimestamps = new long[numberOfBlocks];
+      blockOffsets = new long[numberOfBlocks];
+      blockStartTicks = new int[numberOfBlocks];
+      blockTicks = new int[numberOfBlocks];
+
+      try (FileInputStream indexStream = new FileInputStream(indexFile))
+      {
+         ByteBuffer index = ByteBuffer.allocate(numberOfBlocks * ColumnarLogFormat.INDEX_ENTRY_SIZE);
+         FileChannel indexChannel = indexStream.getChannel();
+         while (index.hasRemaining() && indexChannel.read(index) >= 0)
+         {
+         }
+         index.flip();
+
+         int ticks = 0;
+         for (int block = 0; block < numberOfBlocks; block++)
+         {
+            blockStartTimestamps[block] = index.getLong();
+            blockEndTimestamps[block] = index.getLong();
+            blockOffsets[block] = index.getLong();
+            blockTicks[block] = index.getInt();
+            blockStartTicks[block] = ticks;
+            ticks += blockTicks[block];
+         }
+         numberOfTicks = ticks;
+      }
+
+      columnSizes = ByteBuffer.allocate(numberOfColumns * 4);
+      columnOffsets = new long[numberOfColumns];
+      compressedColumn = ByteBuffer.allocate(SnappyUtils.maxCompressedLength(ticksPerBlock * 8));
+      decodedColumn = ByteBuffer.allocate(ticksPerBlock * 8);
+   }
+
+   public int getNumberOfColumns()
+   {
+      return numberOfColumns;
+   }
+
+   public int getTicksPerBlock()
+   {
+      return ticksPerBlock;
+   }
+
+   public int getNumberOfTicks()
+   {
+      return numberOfTicks;
+   }
+
+   public int getNumberOfBlocks()
+   {
+      return blockOffsets.length;
+   }
+
+   public int getNumberOfTicksInBlock(int block)
+   {
+      return blockTicks[block];
+   }
+
+   public int getFirstTickInBlock(int block)
+   {
+      return blockStartTicks[block];
+   }
+
+   /**
+    * @return the block containing the tick
+    */
+   public int getBlock(int tick)
+   {
+      return tick / ticksPerBlock;
+   }
+
+   /**
+    * Find the first tick with a timestamp equal to or larger than the timestamp. Only the
+    * timestamp column of a single block is read.
+    *
+    * @return index of the tick, or the number of ticks if all timestamps are smaller
+    */
+   public int seek(long timestamp) throws IOException
+   {
+      int head = 0;
+      int tail = blockEndTimestamps.length;
+      while (head < tail)
+      {
+         int block = head + (tail - head) / 2;
+         if (blockEndTimestamps[block] < timestamp)
+         {
+            head = block + 1;
+         }
+         else
+         {
+            tail = block;
+         }
+      }
+
+      if (head == blockEndTimestamps.length)
+      {
+         return numberOfTicks;
+      }
+
+      long[] timestamps = new long[blockTicks[head]];
+      readColumn(head, ColumnarLogFormat.TIMESTAMP_COLUMN, timestamps, 0);
+      for (int i = 0; i < timestamps.length; i++)
+      {
+         if (timestamps[i] >= timestamp)
+         {
+            return blockStartTicks[head] + i;
+         }
+      }
+      return blockStartTicks[head] + timestamps.length;
+   }
+
+   /**
+    * Read a single column of a block
+    *
+    * @param block block to read from
+    * @param column column to read, 0 is the timestamp
+    * @param destination array to store the values in, needs space for {@link #getNumberOfTicksInBlock(int)} values after offset
+    * @param offset first index in destination to write to
+    */
+   public void readColumn(int block, int column, long[] destination, int offset) throws IOException
+   {
+      if (cachedColumnSizesBlock != block)
+      {
+         columnSizes.clear();
+         readFully(blockOffsets[block], columnSizes);
+
+         long columnOffset = blockOffsets[block] + numberOfColumns * 4;
+         for (int i = 0; i < numberOfColumns; i++)
+         {
+            columnOffsets[i] = columnOffset;
+            columnOffset += columnSizes.getInt(i * 4);
+         }
+         cachedColumnSizesBlock = block;
+      }
+
+      compressedColumn.clear();
+      compressedColumn.limit(columnSizes.getInt(column * 4));
+      readFully(columnOffsets[column], compressedColumn);
+
+      decodedColumn.clear();
+      SnappyUtils.uncompress(compressedColumn, decodedColumn);
+      ColumnarLogFormat.decode(column, decodedColumn, blockTicks[block], destination, offset);
+   }
+
+   /**
+    * Read the given columns for the ticks from start to end (inclusive). Only the blocks
+    * overlapping the range are read.
+    *
+    * @param columns columns to read, 0 is the timestamp
+    * @param start first tick
+    * @param end last tick
+    * @return values[column index][tick - start]
+    */
+   public long[][] readColumns(int[] columns, int start, int end) throws IOException
+   {
+      int elements = end - start + 1;
+      long[][] values = new long[columns.length][elements];
+      long[] blockValues = new long[ticksPerBlock];
+
+      for (int block = getBlock(start); block <= getBlock(end); block++)
+      {
+         int firstTick = blockStartTicks[block];
+         int from = Math.max(start, firstTick);
+         int to = Math.min(end, firstTick + blockTicks[block] - 1);
+
+         for (int c = 0; c < columns.length; c++)
+         {
+            readColumn(block, columns[c], blockValues, 0);
+            System.arraycopy(blockValues, from - firstTick, values[c], from - start, to - from + 1);
+         }
+      }
+
+      return values;
+   }
+
+   private void readFully(long position, ByteBuffer buffer) throws IOException
+   {
+      while (buffer.hasRemaining())
+      {
+         int read = dataChannel.read(buffer, position);
+         if (read < 0)
+         {
+            throw new IOException("Unexpected end of " + ColumnarLogFormat.dataFilename);
+         }
+         position += read;
+      }
+      buffer.flip();
+   }
+
+   public void close()
+   {
+      try
+      {
+         dataChannel.close();
+         dataStream.close();
+      }
+      catch (IOException e)
+      {
+         // Nothing to do here
+      }
+   }
+}
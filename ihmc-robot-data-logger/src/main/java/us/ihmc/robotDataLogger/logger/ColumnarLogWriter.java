@@ -0,0 +1,150 @@
+package us.ihmc.robotDataLogger.logger;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import us.ihmc.tools.compression.SnappyUtils;
+
+/**
+ * Writes log data in the columnar format described in {@link ColumnarLogFormat}.
+ *
+ * Ticks are buffered in memory until a block is full, so memory use is roughly numberOfColumns * ticksPerBlock * 8 bytes.
+ */
+public class ColumnarLogWriter
+{
+   public static final int DEFAULT_TICKS_PER_BLOCK = 1024;
+
+   private final int numberOfColumns;
+   private final int ticksPerBlock;
+
+   private final long[][] columns;
+   private int ticksInBlock = 0;
+
+   private final FileOutputStream dataStream;
+   private final FileOutputStream indexStream;
+   private final FileChannel dataChannel;
+   private final FileChannel indexChannel;
+
+   private final ByteBuffer columnSizes;
+   private final ByteBuffer encodedColumn;
+   private final ByteBuffer[] compressedColumns;
+   private final ByteBuffer indexEntry = ByteBuffer.allocate(ColumnarLogFormat.INDEX_ENTRY_SIZE);
+
+   public ColumnarLogWriter(File logDirectory, int numberOfColumns) throws IOException
+   {
+      this(logDirectory, numberOfColumns, DEFAULT_TICKS_PER_BLOCK);
+   }
+
+   /**
+    * @param logDirectory directory of the log, the columnar files are written next to the regular data
+    * @param numberOfColumns number of longs in a single row of the log, including the timestamp
+    * @param ticksPerBlock number of ticks stored in a single block
+    */
+   public ColumnarLogWriter(File logDirectory, int numberOfColumns, int ticksPerBlock) throws IOException
+   {
+      this.numberOfColumns = numberOfColumns;
+      this.ticksPerBlock = ticksPerBlock;
+      this.columns = new long[numberOfColumns][ticksPerBlock];
+
+      columnSizes = ByteBuffer.allocate(numberOfColumns * 4);
+      encodedColumn = ByteBuffer.allocate(ticksPerBlock * 8);
+      compressedColumns = new ByteBuffer[numberOfColumns];
+      int maxCompressedLength = SnappyUtils.maxCompressedLength(ticksPerBlock * 8);
+      for (int i = 0; i < numberOfColumns; i++)
+      {
+         compressedColumns[i] = ByteBuffer.allocate(maxCompressedLength);
+      }
+
+      dataStream = new FileOutputStream(ColumnarLogFormat.getDataFile(logDirectory), false);
+      indexStream = new FileOutputStream(ColumnarLogFormat.getIndexFile(logDirectory), false);
+      dataChannel = dataStream.getChannel();
+      indexChannel = indexStream.getChannel();
+
+      ByteBuffer header = ByteBuffer.allocate(ColumnarLogFormat.HEADER_SIZE);
+      header.putInt(ColumnarLogFormat.MAGIC);
+      header.putInt(ColumnarLogFormat.VERSION);
+      header.putInt(numberOfColumns);
+      header.putInt(ticksPerBlock);
+      header.flip();
+      writeFully(dataChannel, header);
+   }
+
+   /**
+    * Add a single row of the log
+    *
+    * @param row uncompressed row of the log. Read using absolute get, the position is not changed.
+    */
+   public void addTick(ByteBuffer row) throws IOException
+   {
+      for (int column = 0; column < numberOfColumns; column++)
+      {
+         columns[column][ticksInBlock] = row.getLong(row.position() + column * 8);
+      }
+
+      ticksInBlock++;
+      if (ticksInBlock == ticksPerBlock)
+      {
+         writeBlock();
+      }
+   }
+
+   private void writeBlock() throws IOException
+   {
+      long blockOffset = dataChannel.position();
+
+      columnSizes.clear();
+      for (int column = 0; column < numberOfColumns; column++)
+      {
+         ColumnarLogFormat.encode(column, columns[column], ticksInBlock, encodedColumn);
+         ByteBuffer compressedColumn = compressedColumns[column];
+         compressedColumn.clear();
+         SnappyUtils.compress(encodedColumn, compressedColumn);
+         compressedColumn.flip();
+         columnSizes.putInt(compressedColumn.remaining());
+      }
+      columnSizes.flip();
+
+      writeFully(dataChannel, columnSizes);
+      for (int column = 0; column < numberOfColumns; column++)
+      {
+         writeFully(dataChannel, compressedColumns[column]);
+      }
+
+      indexEntry.clear();
+      indexEntry.putLong(columns[ColumnarLogFormat.TIMESTAMP_COLUMN][0]);
+      indexEntry.putLong(columns[ColumnarLogFormat.TIMESTAMP_COLUMN][ticksInBlock - 1]);
+      indexEntry.putLong(blockOffset);
+      indexEntry.putInt(ticksInBlock);
+      indexEntry.flip();
+      writeFully(indexChannel, indexEntry);
+
+      ticksInBlock = 0;
+   }
+
+   private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException
+   {
+      while (buffer.hasRemaining())
+      {
+         channel.write(buffer);
+      }
+   }
+
+   /**
+    * Write the last partial block and close the files
+    */
+   public void close() throws IOException
+   {
+      if (ticksInBlock > 0)
+      {
+         writeBlock();
+      }
+
+      dataChannel.close();
+      indexChannel.close();
+      dataStream.close();
+      indexStream.close();
+   }
+}
@@ -0,0 +1,207 @@
+package us.ihmc.robotDataLogger.logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+
+import us.ihmc.tools.compression.SnappyUtils;
+
+/**
+ * Read only memory mapped view of the compressed data and index files of a log.
+ *
+ * The index is read directly from the mapped file instead of being copied into arrays. Because a
+ * single mapping is limited to 2GB, the data file is mapped in segments that always start and end
+ * at tick boundaries, so a compressed tick never spans two segments.
+ *
+ * This class is thread safe. Use {@link #createReader(int)} to get a reader for each thread that
+ * needs to decompress data.
+ */
+public class MappedLogData
+{
+   private static final int INDEX_ENTRY_SIZE = 16;
+   private static final long MAXIMUM_SEGMENT_SIZE = Integer.MAX_VALUE;
+
+   private final ByteBuffer index;
+   private final int numberOfEntries;
+   private final long dataSize;
+
+   private final MappedByteBuffer[] segments;
+   private final int[] segmentStartEntries;
+   private final long[] segmentStartOffsets;
+
+   public MappedLogData(File data, File indexData) throws IOException
+   {
+      try (RandomAccessFile indexFile = new RandomAccessFile(indexData, "r"); RandomAccessFile dataFile = new RandomAccessFile(data, "r"))
+      {
+         FileChannel indexChannel = indexFile.getChannel();
+         if (indexChannel.size() > MAXIMUM_SEGMENT_SIZE)
+         {
+            throw new IOException("Index file " + indexData + " is too large to map into memory");
+         }
+         index = indexChannel.map(MapMode.READ_ONLY, 0, indexChannel.size());
+         numberOfEntries = (int) (indexChannel.size() / INDEX_ENTRY_SIZE);
+
+         FileChannel dataChannel = dataFile.getChannel();
+         dataSize = dataChannel.size();
+
+         ArrayList<MappedByteBuffer> segmentList = new ArrayList<>();
+         ArrayList<Integer> startEntryList = new ArrayList<>();
+         int segmentStart = 0;
+         while (segmentStart < numberOfEntries)
+         {
+            long segmentStartOffset = getDataOffset(segmentStart);
+            int segmentEnd = segmentStart + 1;
+            while (segmentEnd < numberOfEntries && getEndOffset(segmentEnd) - segmentStartOffset <= MAXIMUM_SEGMENT_SIZE)
+            {
+               segmentEnd++;
+            }
+
+            long segmentEndOffset = segmentEnd < numberOfEntries ? getDataOffset(segmentEnd) : dataSize;
+            segmentList.add(dataChannel.map(MapMode.READ_ONLY, segmentStartOffset, segmentEndOffset - segmentStartOffset));
+            startEntryList.add(segmentStart);
+            segmentStart = segmentEnd;
+         }
+
+         segments = segmentList.toArray(new MappedByteBuffer[segmentList.size()]);
+         segmentStartEntries = new int[segments.length];
+         segmentStartOffsets = new long[segments.length];
+         for (int i = 0; i < segments.length; i++)
+         {
+            segmentStartEntries[i] = startEntryList.get(i);
+            segmentStartOffsets[i] = getDataOffset(segmentStartEntries[i]);
+         }
+      }
+   }
+
+   public int getNumberOfEntries()
+   {
+      return numberOfEntries;
+   }
+
+   public long getTimestamp(int position)
+   {
+      return index.getLong(position * INDEX_ENTRY_SIZE);
+   }
+
+   public long getDataOffset(int position)
+   {
+      return index.getLong(position * INDEX_ENTRY_SIZE + 8);
+   }
+
+   public int getCompressedSize(int position)
+   {
+      return (int) (getEndOffset(position) - getDataOffset(position));
+   }
+
+   private long getEndOffset(int position)
+   {
+      return position < numberOfEntries - 1 ? getDataOffset(position + 1) : dataSize;
+   }
+
+   public long getInitialTimestamp()
+   {
+      return getTimestamp(0);
+   }
+
+   /**
+    * Binary search for the first entry with a timestamp equal to or larger than the given timestamp.
+    * Behaves the same as LogIndex.seek.
+    */
+   public int seek(long inStamp)
+   {
+      int head = 0;
+      int tail = numberOfEntries;
+      int position = -1;
+
+      while (head < tail)
+      {
+         position = head + (tail - head) / 2;
+         long timestamp = getTimestamp(position);
+
+         if (timestamp < inStamp)
+         {
+            head = position + 1;
+         }
+         else
+         {
+            tail = position;
+         }
+      }
+      return position;
+   }
+
+   private int getSegment(int position)
+   {
+      int head = 0;
+      int tail = segmentStartEntries.length - 1;
+      while (head < tail)
+      {
+         int segment = head + (tail - head + 1) / 2;
+         if (segmentStartEntries[segment] <= position)
+         {
+            head = segment;
+         }
+         else
+         {
+            tail = segment - 1;
+         }
+      }
+      return head;
+   }
+
+   /**
+    * Create a reader with its own views on the mapped data and its own decompression buffer. A
+    * reader is not thread safe, create one per thread.
+    *
+    * @param bufferSize size of an uncompressed tick in bytes
+    */
+   public Reader createReader(int bufferSize)
+   {
+      return new Reader(bufferSize);
+   }
+
+   public class Reader
+   {
+      private final ByteBuffer[] segmentViews = new ByteBuffer[segments.length];
+      private final ByteBuffer uncompressedData;
+
+      private Reader(int bufferSize)
+      {
+         for (int i = 0; i < segments.length; i++)
+         {
+            segmentViews[i] = segments[i].duplicate();
+         }
+         uncompressedData = ByteBuffer.allocateDirect(bufferSize);
+      }
+
+      /**
+       * @return view on the compressed data of the tick at position, backed by the mapped file. Valid until the next call to this reader.
+       */
+      public ByteBuffer readCompressedData(int position)
+      {
+         int segment = getSegment(position);
+         ByteBuffer view = segmentViews[segment];
+         int start = (int) (getDataOffset(position) - segmentStartOffsets[segment]);
+         view.limit(start + getCompressedSize(position));
+         view.position(start);
+         return view;
+      }
+
+      /**
+       * @return uncompressed data of the tick at position. Valid until the next call to this reader.
+       */
+      public ByteBuffer readData(int position) throws IOException
+      {
+         ByteBuffer compressedData = readCompressedData(position);
+         uncompressedData.clear();
+         SnappyUtils.uncompress(compressedData, uncompressedData);
+         uncompressedData.flip();
+         return uncompressedData;
+      }
+   }
+}
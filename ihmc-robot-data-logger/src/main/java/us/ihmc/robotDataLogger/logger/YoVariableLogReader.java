@@ -6,6 +6,8 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import com.google.common.io.Files;
 
@@ -16,6 +18,10 @@ import us.ihmc.tools.compression.SnappyUtils;
 
 public class YoVariableLogReader
 {
+   /**
+    * Minimum number of ticks decompressed by a single task in {@link #readRange(int, int, LogDataConsumer)}
+    */
+   private static final int TICKS_PER_TASK = 256;
 
    private boolean initialized = false;
    protected final File logDirectory;
@@ -33,15 +39,30 @@ public class YoVariableLogReader
    private ByteBuffer uncompressedData;
    private FileInputStream logInputStream;
    
+   private final boolean memoryMapped;
+   private MappedLogData mappedLogData;
+   private MappedLogData.Reader mappedLogReader;
+   private ThreadLocal<MappedLogData.Reader> mappedLogReaders;
+   
    protected final File properties;
    private final File model;
    private final File resourceBundle;
    private final File summary;
 
    public YoVariableLogReader(File logDirectory, LogProperties logProperties)
+   {
+      this(logDirectory, logProperties, false);
+   }
+
+   /**
+    * @param memoryMapped if true, the data and index are memory mapped instead of read using a file channel.
+    *        This makes random access cheap and allows {@link #readRange(int, int, LogDataConsumer)} to decompress in parallel.
+    */
+   public YoVariableLogReader(File logDirectory, LogProperties logProperties, boolean memoryMapped)
    {
 
       this.logDirectory = logDirectory;
+      this.memoryMapped = memoryMapped;
       this.logProperties = logProperties;
 
       
@@ -106,15 +127,25 @@ public class YoVariableLogReader
                throw new RuntimeException("Cannot find " + logProperties.getVariables().getIndexAsString());
             }
 
-            logInputStream = new FileInputStream(logdata);
-            logChannel = logInputStream.getChannel();
-
-            logIndex = new LogIndex(index, logChannel.size());
             int bufferSize = logLineLength * 8;
-            compressedData = ByteBuffer.allocate(SnappyUtils.maxCompressedLength(bufferSize));
-            uncompressedData = ByteBuffer.allocate(bufferSize);
-            
-            numberOfEntries = logIndex.getNumberOfEntries();
+            if (memoryMapped)
+            {
+               mappedLogData = new MappedLogData(logdata, index);
+               mappedLogReader = mappedLogData.createReader(bufferSize);
+               mappedLogReaders = ThreadLocal.withInitial(() -> mappedLogData.createReader(bufferSize));
+               numberOfEntries = mappedLogData.getNumberOfEntries();
+            }
+            else
+            {
+               logInputStream = new FileInputStream(logdata);
+               logChannel = logInputStream.getChannel();
+
+               logIndex = new LogIndex(index, logChannel.size());
+               compressedData = ByteBuffer.allocate(SnappyUtils.maxCompressedLength(bufferSize));
+               uncompressedData = ByteBuffer.allocate(bufferSize);
+               
+               numberOfEntries = logIndex.getNumberOfEntries();
+            }
             initialized = true;
          }
          catch (IOException e)
@@ -137,6 +168,15 @@ public class YoVariableLogReader
    
    public void close()
    {
+      if (memoryMapped)
+      {
+         // The mapping is released when the buffers are garbage collected
+         mappedLogData = null;
+         mappedLogReader = null;
+         mappedLogReaders = null;
+         return;
+      }
+
       try
       {
          logChannel.close();
@@ -150,26 +190,47 @@ public class YoVariableLogReader
 
    protected int getPosition(long timestamp) throws IOException
    {
+      if (memoryMapped)
+      {
+         return mappedLogData.seek(timestamp);
+      }
       return logIndex.seek(timestamp);
    }
    
    protected long getDataOffset(int position)
    {
+      if (memoryMapped)
+      {
+         return mappedLogData.getDataOffset(position);
+      }
       return logIndex.dataOffsets[position];
    }
    
    protected int getCompressedSize(int position)
    {
+      if (memoryMapped)
+      {
+         return mappedLogData.getCompressedSize(position);
+      }
       return logIndex.compressedSizes[position];
    }
    
    protected long getTimestamp(int position)
    {
+      if (memoryMapped)
+      {
+         return mappedLogData.getTimestamp(position);
+      }
       return logIndex.timestamps[position];
    }
    
    protected ByteBuffer readCompressedData(int position) throws IOException
    {
+      if (memoryMapped)
+      {
+         return mappedLogReader.readCompressedData(position);
+      }
+      
       int size = getCompressedSize(position);
       long startOffset = getDataOffset(position);
       logChannel.position(startOffset);
@@ -184,6 +245,11 @@ public class YoVariableLogReader
    
    protected ByteBuffer readData(int position) throws IOException
    {
+      if (memoryMapped)
+      {
+         return mappedLogReader.readData(position);
+      }
+      
       ByteBuffer compressedData = readCompressedData(position);
       uncompressedData.clear();
       SnappyUtils.uncompress(compressedData, uncompressedData);
@@ -191,6 +257,100 @@ public class YoVariableLogReader
       return uncompressedData;
    }
 
+   /**
+    * Decompress all ticks from start to end (inclusive) and pass them to the consumer.
+    * 
+    * For memory mapped readers the ticks are decompressed in parallel on the common fork-join pool, the consumer gets called from multiple
+    * threads and in no particular order. Otherwise the ticks are read in order on the calling thread.
+    * 
+    * @param start first position to read
+    * @param end last position to read
+    * @param consumer receives the uncompressed data of each tick. The buffer is only valid during the call.
+    */
+   protected void readRange(int start, int end, LogDataConsumer consumer) throws IOException
+   {
+      readRange(start, end, consumer, ForkJoinPool.commonPool());
+   }
+
+   protected void readRange(int start, int end, LogDataConsumer consumer, ForkJoinPool pool) throws IOException
+   {
+      if (!memoryMapped)
+      {
+         for (int position = start; position <= end; position++)
+         {
+            consumer.accept(position, readData(position));
+         }
+         return;
+      }
+
+      try
+      {
+         pool.invoke(new ReadRangeTask(start, end + 1, consumer));
+      }
+      catch (RuntimeException e)
+      {
+         // The fork-join pool can wrap the exception again when rethrowing it on the calling thread
+         for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause())
+         {
+            if (cause instanceof IOException)
+            {
+               throw (IOException) cause;
+            }
+         }
+         throw e;
+      }
+   }
+
+   private class ReadRangeTask extends RecursiveAction
+   {
+      private static final long serialVersionUID = 1L;
+
+      private final int start;
+      private final int end;
+      private final LogDataConsumer consumer;
+
+      private ReadRangeTask(int start, int end, LogDataConsumer consumer)
+      {
+         this.start = start;
+         this.end = end;
+         this.consumer = consumer;
+      }
+
+      @Override
+      protected void compute()
+      {
+         if (end - start <= TICKS_PER_TASK)
+         {
+            MappedLogData.Reader reader = mappedLogReaders.get();
+            try
+            {
+               for (int position = start; position < end; position++)
+               {
+                  consumer.accept(position, reader.readData(position));
+               }
+            }
+            catch (IOException e)
+            {
+               throw new RuntimeException(e);
+            }
+         }
+         else
+         {
+            int middle = start + (end - start) / 2;
+            invokeAll(new ReadRangeTask(start, middle, consumer), new ReadRangeTask(middle, end, consumer));
+         }
+      }
+   }
+
+   public interface LogDataConsumer
+   {
+      /**
+       * @param position index of the tick in the log
+       * @param data uncompressed data of the tick, only valid during this call
+       */
+      void accept(int position, ByteBuffer data);
+   }
+
    protected void copyMetaData(File destination) throws IOException
    {
       File propertiesDestination = new File(destination, YoVariableLoggerListener.propertyFile);
@@ -0,0 +1,309 @@
+package us.ihmc.robotDataLogger.logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+
+import us.ihmc.commons.PrintTools;
+import us.ihmc.commons.thread.ThreadTools;
+import us.ihmc.concurrent.ConcurrentRingBuffer;
+import us.ihmc.tools.compression.SnappyUtils;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+import us.ihmc.yoVariables.variable.YoLong;
+
+/**
+ * Decouples the logger receive thread from the disk.
+ *
+ * The receive thread copies each tick into a preallocated slot of a ring buffer and commits it. A
+ * dedicated writer thread compresses the pending ticks and writes them in batches using a single
+ * gathering write on the data channel and a single write on the index channel. Nothing is
+ * allocated on the receive path; when the ring buffer is full the tick is dropped and counted.
+ */
+public class YoVariableLogWriter
+{
+   public static final int DEFAULT_BUFFER_CAPACITY = 512;
+   public static final int MAXIMUM_TICKS_PER_WRITE = 64;
+
+   private static final int FLUSH_EVERY_N_PACKETS = 250;
+   private static final int INDEX_ENTRY_SIZE = 16;
+
+   private final YoVariableRegistry registry = new YoVariableRegistry("YoVariableLogWriter");
+   private final YoLong queueDepth = new YoLong("queueDepth", registry);
+   private final YoLong maximumQueueDepth = new YoLong("maximumQueueDepth", registry);
+   private final YoLong droppedTicks = new YoLong("droppedTicks", registry);
+   private final YoLong writtenTicks = new YoLong("writtenTicks", registry);
+   private final YoLong ticksPerWrite = new YoLong("ticksPerWrite", registry);
+
+   private final ConcurrentRingBuffer<WriteBuffer> ringBuffer;
+
+   private final FileChannel dataChannel;
+   private final FileChannel indexChannel;
+   private final boolean flushAggressivelyToDisk;
+
+   private final ByteBuffer[] compressedBuffers = new ByteBuffer[MAXIMUM_TICKS_PER_WRITE];
+   private final ByteBuffer indexBuffer = ByteBuffer.allocate(MAXIMUM_TICKS_PER_WRITE * INDEX_ENTRY_SIZE);
+
+   private final Object channelLock = new Object();
+   private final Thread writerThread;
+
+   // Written by the receive thread only
+   private WriteBuffer nextBuffer = null;
+   private long uid = 0;
+   private volatile long submittedTicks = 0;
+   private volatile long droppedTicksCounter = 0;
+
+   // Written by the writer thread only
+   private long processedTicks = 0;
+   private long ticksSinceFlush = 0;
+
+   private volatile long discardBeforeUid = 0;
+   private volatile boolean running = true;
+
+   /**
+    * @param bufferSize size in bytes of one uncompressed tick
+    * @param capacity number of ticks that can be queued before ticks get dropped. Rounded up to a power of two.
+    */
+   public YoVariableLogWriter(int bufferSize, int capacity, FileChannel dataChannel, FileChannel indexChannel, boolean flushAggressivelyToDisk)
+   {
+      this.dataChannel = dataChannel;
+      this.indexChannel = indexChannel;
+      this.flushAggressivelyToDisk = flushAggressivelyToDisk;
+      this.ringBuffer = new ConcurrentRingBuffer<>(new WriteBufferBuilder(bufferSize), capacity);
+
+      int maxCompressedLength = SnappyUtils.maxCompressedLength(bufferSize);
+      for (int i = 0; i < compressedBuffers.length; i++)
+      {
+         compressedBuffers[i] = ByteBuffer.allocate(maxCompressedLength);
+      }
+
+      writerThread = new Thread(this::run, "YoVariableLogWriter");
+      writerThread.start();
+   }
+
+   /**
+    * Reserve the next slot of the ring buffer. Call from the receive thread.
+    *
+    * Fill the returned buffer and call {@link #commit()}. If the ring buffer is full, the tick is counted as dropped and null is returned.
+    *
+    * @param timestamp timestamp of this tick
+    * @return buffer to fill or null if the writer cannot keep up
+    */
+   public LongBuffer next(long timestamp)
+   {
+      nextBuffer = ringBuffer.next();
+      if (nextBuffer == null)
+      {
+         droppedTicksCounter++;
+         return null;
+      }
+
+      nextBuffer.timestamp = timestamp;
+      nextBuffer.uid = uid++;
+      nextBuffer.dataAsLong.clear();
+      return nextBuffer.dataAsLong;
+   }
+
+   /**
+    * Hand the buffer returned by {@link #next(long)} to the writer thread.
+    */
+   public void commit()
+   {
+      if (nextBuffer != null)
+      {
+         ringBuffer.commit();
+         nextBuffer = null;
+         submittedTicks++;
+      }
+   }
+
+   /**
+    * Discard all queued ticks and truncate the log files. Make sure no ticks are submitted while this call is in progress.
+    *
+    * @throws IOException
+    */
+   public void clear() throws IOException
+   {
+      synchronized (channelLock)
+      {
+         discardBeforeUid = uid;
+         dataChannel.truncate(0);
+         indexChannel.truncate(0);
+      }
+   }
+
+   /**
+    * Writes out all queued ticks and stops the writer thread. Does not close the channels.
+    */
+   public void close()
+   {
+      running = false;
+      try
+      {
+         writerThread.join();
+      }
+      catch (InterruptedException e)
+      {
+         e.printStackTrace();
+      }
+
+      if (droppedTicksCounter > 0)
+      {
+         PrintTools.warn(this, "Dropped " + droppedTicksCounter + " ticks because the disk could not keep up.");
+      }
+   }
+
+   public YoVariableRegistry getYoVariableRegistry()
+   {
+      return registry;
+   }
+
+   public long getNumberOfDroppedTicks()
+   {
+      return droppedTicksCounter;
+   }
+
+   private void run()
+   {
+      while (true)
+      {
+         // Read running before draining, so all ticks committed before close() are written
+         boolean keepRunning = running;
+
+         try
+         {
+            while (writeBatch())
+            {
+               // Keep writing while there is data in the ring buffer
+            }
+         }
+         catch (IOException e)
+         {
+            e.printStackTrace();
+            return;
+         }
+
+         updateDebugVariables();
+
+         if (!keepRunning)
+         {
+            return;
+         }
+
+         ThreadTools.sleep(1);
+      }
+   }
+
+   /**
+    * Compress up to {@link #MAXIMUM_TICKS_PER_WRITE} ticks and write them to disk.
+    *
+    * @return true if any ticks were read from the ring buffer
+    */
+   private boolean writeBatch() throws IOException
+   {
+      if (!ringBuffer.poll())
+      {
+         return false;
+      }
+
+      synchronized (channelLock)
+      {
+         long dataPosition = dataChannel.position();
+         int ticks = 0;
+         indexBuffer.clear();
+
+         WriteBuffer buffer;
+         while (ticks < MAXIMUM_TICKS_PER_WRITE && (buffer = ringBuffer.read()) != null)
+         {
+            processedTicks++;
+            if (buffer.uid < discardBeforeUid)
+            {
+               continue;
+            }
+
+            ByteBuffer compressedBuffer = compressedBuffers[ticks];
+            buffer.data.clear();
+            compressedBuffer.clear();
+            SnappyUtils.compress(buffer.data, compressedBuffer);
+            compressedBuffer.flip();
+
+            indexBuffer.putLong(buffer.timestamp);
+            indexBuffer.putLong(dataPosition);
+            dataPosition += compressedBuffer.remaining();
+            ticks++;
+         }
+         // The ticks are copied in the compressed buffers, release them for the receive thread
+         ringBuffer.flush();
+
+         if (ticks > 0)
+         {
+            indexBuffer.flip();
+            while (indexBuffer.hasRemaining())
+            {
+               indexChannel.write(indexBuffer);
+            }
+            while (compressedBuffers[ticks - 1].hasRemaining())
+            {
+               dataChannel.write(compressedBuffers, 0, ticks);
+            }
+
+            writtenTicks.set(writtenTicks.getLongValue() + ticks);
+            ticksPerWrite.set(ticks);
+
+            if (flushAggressivelyToDisk)
+            {
+               ticksSinceFlush += ticks;
+               if (ticksSinceFlush >= FLUSH_EVERY_N_PACKETS)
+               {
+                  indexChannel.force(false);
+                  dataChannel.force(false);
+                  ticksSinceFlush = 0;
+               }
+            }
+         }
+      }
+
+      return true;
+   }
+
+   private void updateDebugVariables()
+   {
+      long depth = submittedTicks - processedTicks;
+      queueDepth.set(depth);
+      if (depth > maximumQueueDepth.getLongValue())
+      {
+         maximumQueueDepth.set(depth);
+      }
+      droppedTicks.set(droppedTicksCounter);
+   }
+
+   private static class WriteBuffer
+   {
+      private final ByteBuffer data;
+      private final LongBuffer dataAsLong;
+      private long timestamp;
+      private long uid;
+
+      private WriteBuffer(int bufferSize)
+      {
+         data = ByteBuffer.allocate(bufferSize);
+         dataAsLong = data.asLongBuffer();
+      }
+   }
+
+   private static class WriteBufferBuilder implements us.ihmc.concurrent.Builder<WriteBuffer>
+   {
+      private final int bufferSize;
+
+      private WriteBufferBuilder(int bufferSize)
+      {
+         this.bufferSize = bufferSize;
+      }
+
+      @Override
+      public WriteBuffer newInstance()
+      {
+         return new WriteBuffer(bufferSize);
+      }
+   }
+}
@@ -25,13 +25,10 @@ import us.ihmc.robotDataLogger.handshake.LogHandshake;
 import us.ihmc.robotDataLogger.handshake.YoVariableHandshakeParser;
 import us.ihmc.robotDataLogger.jointState.JointState;
 import us.ihmc.robotDataLogger.rtps.LogParticipantSettings;
-import us.ihmc.tools.compression.SnappyUtils;
 import us.ihmc.yoVariables.variable.YoVariable;
 
 public class YoVariableLoggerListener implements YoVariablesUpdatedListener
 {
-   private static final int FLUSH_EVERY_N_PACKETS = 250;
-   
    public static final String propertyFile = "robotData.log";
    private static final String handshakeFilename = "handshake.yaml";
    private static final String dataFilename = "robotData.bsz";
@@ -45,15 +42,14 @@ public class YoVariableLoggerListener implements YoVariablesUpdatedListener
    
    private final boolean flushAggressivelyToDisk;
    
+   private YoVariableLogWriter logWriter;
+   
    private final File tempDirectory;
    private final File finalDirectory;
    private final YoVariableLoggerOptions options;
    private FileChannel dataChannel;
    private FileChannel indexChannel;
 
-   private final ByteBuffer indexBuffer = ByteBuffer.allocate(16);
-   private ByteBuffer compressedBuffer;
-
    private volatile boolean connected = false;
 
    private final LogPropertiesWriter logProperties;
@@ -63,17 +59,15 @@ public class YoVariableLoggerListener implements YoVariablesUpdatedListener
 
    private boolean clearingLog = false;
    
-   private long currentIndex = 0;
-
    private long lastReceivedTimestamp = Long.MIN_VALUE;
    
    private YoVariableSummarizer yoVariableSummarizer = null;
+   // Used to keep summarizing the ticks dropped by the log writer
+   private LongBuffer droppedTickBuffer = null;
    
    // Reconstruction variables for disk data format
    private List<YoVariable<?>> variables;
    private List<JointState> jointStates;
-   private ByteBuffer dataBuffer;
-   private LongBuffer dataBufferAsLong;
    
    public YoVariableLoggerListener(File tempDirectory, File finalDirectory, String timestamp, Announcement request, YoVariableLoggerOptions options)
    {
@@ -170,60 +164,41 @@ public class YoVariableLoggerListener implements YoVariablesUpdatedListener
    {
       receivedTimestampOnly(timestamp); // Call from here as backup for the UDP channel.
       
-      ByteBuffer buffer = reconstructBuffer(timestamp);
-      
       connected = true;
 
       synchronized (synchronizer)
       {
-         if (!clearingLog && dataChannel != null)
+         if (!clearingLog && logWriter != null)
          {
-            try
+            LongBuffer buffer = logWriter.next(timestamp);
+            if (buffer != null)
             {
-               if(yoVariableSummarizer != null)
-               {
-                  yoVariableSummarizer.setBuffer(buffer);
-               }
-               buffer.clear();
-               compressedBuffer.clear();
-               SnappyUtils.compress(buffer, compressedBuffer);
-               compressedBuffer.flip();
-
-               indexBuffer.clear();
-               indexBuffer.putLong(timestamp);
-               indexBuffer.putLong(dataChannel.position());
-               indexBuffer.flip();
-
-               indexChannel.write(indexBuffer);
-               dataChannel.write(compressedBuffer);
-               
-               if(flushAggressivelyToDisk)
-               {
-                  if(++currentIndex % FLUSH_EVERY_N_PACKETS == 0)
-                  {
-                     indexChannel.force(false);
-                     dataChannel.force(false);
-                  }                  
-               }
-               
-               if(yoVariableSummarizer != null)
-               {
-                  yoVariableSummarizer.update();
-               }
+               reconstructBuffer(timestamp, buffer);
+               updateSummary(buffer);
+               logWriter.commit();
             }
-            catch (IOException e)
+            else if (yoVariableSummarizer != null)
             {
-               throw new RuntimeException(e);
+               // The tick is not written to disk, but it still counts for the summary
+               droppedTickBuffer.clear();
+               reconstructBuffer(timestamp, droppedTickBuffer);
+               updateSummary(droppedTickBuffer);
             }
          }
       }
    }
 
-   private ByteBuffer reconstructBuffer(long timestamp)
+   private void updateSummary(LongBuffer buffer)
+   {
+      if (yoVariableSummarizer != null)
+      {
+         yoVariableSummarizer.setBuffer(buffer);
+         yoVariableSummarizer.update();
+      }
+   }
+
+   private void reconstructBuffer(long timestamp, LongBuffer dataBufferAsLong)
    {
-      dataBuffer.clear();
-      dataBufferAsLong.clear();
-      
       dataBufferAsLong.put(timestamp);
       for(int i = 0; i < variables.size();i++)
       {
@@ -237,12 +212,15 @@ public class YoVariableLoggerListener implements YoVariablesUpdatedListener
       
       
       dataBufferAsLong.flip();
-      dataBuffer.clear();
-      return dataBuffer;
    }
 
    public void disconnected()
    {
+      if (logWriter != null)
+      {
+         logWriter.close();
+      }
+
       try
       {
          dataChannel.close();
@@ -353,11 +331,8 @@ public class YoVariableLoggerListener implements YoVariablesUpdatedListener
       
 
       int bufferSize = handshakeParser.getBufferSize();
-      this.compressedBuffer = ByteBuffer.allocate(SnappyUtils.maxCompressedLength(bufferSize));
       
       // Initialize disk format variables
-      this.dataBuffer = ByteBuffer.allocate(bufferSize);
-      this.dataBufferAsLong = dataBuffer.asLongBuffer();
       this.variables = handshakeParser.getYoVariablesList();
       this.jointStates = handshakeParser.getJointStates();
 
@@ -371,7 +346,13 @@ public class YoVariableLoggerListener implements YoVariablesUpdatedListener
          {
             dataChannel = new FileOutputStream(dataFile, false).getChannel();
             indexChannel = new FileOutputStream(indexFile, false).getChannel();
-            
+            logWriter = new YoVariableLogWriter(bufferSize, YoVariableLogWriter.DEFAULT_BUFFER_CAPACITY, dataChannel, indexChannel, flushAggressivelyToDisk);
+            yoVariableClientInterface.getDebugRegistry().addChild(logWriter.getYoVariableRegistry());
+
+            if (yoVariableSummarizer != null)
+            {
+               droppedTickBuffer = ByteBuffer.allocate(bufferSize).asLongBuffer();
+            }
          }
          catch (FileNotFoundException e)
          {
@@ -443,8 +424,7 @@ public class YoVariableLoggerListener implements YoVariablesUpdatedListener
       try
       {
          System.out.println("Clearing log.");
-         dataChannel.truncate(0);
-         indexChannel.truncate(0);
+         logWriter.clear();
          for (VideoDataLoggerInterface videoDataLogger : videoDataLoggers)
          {
             videoDataLogger.restart();
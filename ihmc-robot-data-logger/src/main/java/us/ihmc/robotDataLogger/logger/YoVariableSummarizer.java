@@ -187,4 +187,9 @@ public class YoVariableSummarizer
    {
       this.buffer = buffer.asLongBuffer();
    }
+
+   public void setBuffer(LongBuffer buffer)
+   {
+      this.buffer = buffer;
+   }
 }
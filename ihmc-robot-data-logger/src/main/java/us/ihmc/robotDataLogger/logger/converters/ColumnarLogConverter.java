@@ -0,0 +1,62 @@
+package us.ihmc.robotDataLogger.logger.converters;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import us.ihmc.robotDataLogger.LogProperties;
+import us.ihmc.robotDataLogger.logger.ColumnarLogReader;
+import us.ihmc.robotDataLogger.logger.ColumnarLogWriter;
+import us.ihmc.robotDataLogger.logger.LogPropertiesReader;
+import us.ihmc.robotDataLogger.logger.YoVariableLogReader;
+import us.ihmc.robotDataLogger.logger.YoVariableLoggerListener;
+
+/**
+ * Adds a columnar copy of the data to a log directory, so tools can extract single variables without decompressing every row.
+ *
+ * The original data is left untouched.
+ */
+public class ColumnarLogConverter extends YoVariableLogReader
+{
+   public ColumnarLogConverter(File logDirectory, LogProperties logProperties)
+   {
+      super(logDirectory, logProperties, true);
+   }
+
+   public void convert() throws IOException
+   {
+      if (!initialize())
+      {
+         throw new IOException("Cannot read log in " + logDirectory);
+      }
+
+      ColumnarLogWriter writer = new ColumnarLogWriter(logDirectory, getNumberOfVariables());
+      for (int i = 0; i < getNumberOfEntries(); i++)
+      {
+         ByteBuffer data = readData(i);
+         writer.addTick(data);
+      }
+      writer.close();
+      close();
+   }
+
+   public static void main(String[] args) throws IOException
+   {
+      if (args.length < 1)
+      {
+         System.err.println("Usage: ColumnarLogConverter [log directory]");
+         return;
+      }
+
+      File logDirectory = new File(args[0]);
+      if (ColumnarLogReader.hasColumnarData(logDirectory))
+      {
+         System.out.println(logDirectory + " already has columnar data");
+         return;
+      }
+
+      LogPropertiesReader logProperties = new LogPropertiesReader(new File(logDirectory, YoVariableLoggerListener.propertyFile));
+      new ColumnarLogConverter(logDirectory, logProperties).convert();
+      System.out.println("Wrote columnar data to " + logDirectory);
+   }
+}
@@ -1,6 +1,7 @@
 package us.ihmc.tools.compression;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import org.xerial.snappy.Snappy;
 
@@ -24,4 +25,16 @@ public class SnappyLibrary
    {
       return Snappy.uncompress(input, inputOffset, inputLength, output, outputOffset);
    }
+
+   /**
+    * Uncompress directly between two direct buffers, without copying to the heap.
+    * 
+    * @param input direct buffer, compressed data between position and limit
+    * @param output direct buffer, data is written starting at position
+    * @return uncompressed size
+    */
+   public int uncompress(ByteBuffer input, ByteBuffer output) throws IOException
+   {
+      return Snappy.uncompress(input, output);
+   }
 }
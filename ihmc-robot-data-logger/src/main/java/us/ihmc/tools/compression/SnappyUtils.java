@@ -72,13 +72,25 @@ public class SnappyUtils
    /**
     * Uncompress Snappy compressed data packet. 
     * 
-    * @param input Snappy compressed data, faster if HeapByteBuffer
-    * @param output Decompressed data, faster if HeapByteBuffer
+    * @param input Snappy compressed data, faster if HeapByteBuffer or if both buffers are direct
+    * @param output Decompressed data, faster if HeapByteBuffer or if both buffers are direct
     * @throws IllegalArgumentException
     * @throws IOException 
     */
    public static void uncompress(ByteBuffer input, ByteBuffer output) throws IllegalArgumentException, IOException
    {
+      if (input.isDirect() && output.isDirect())
+      {
+         // Avoid copying to temporary arrays, for example when reading from memory mapped files
+         int outputPosition = output.position();
+         int outputLimit = output.limit();
+         int uncompressedSize = snappyLibrary.uncompress(input, output);
+         input.position(input.limit());
+         output.limit(outputLimit);
+         output.position(outputPosition + uncompressedSize);
+         return;
+      }
+
       byte[] in;
       int inOffset, inLength;
       if (!input.hasArray())
@@ -0,0 +1,84 @@
+package us.ihmc.robotDataLogger.logger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class ColumnarLogReaderTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testReadColumnsMatchesWrittenRows() throws IOException
+   {
+      Random random = new Random(1298L);
+      int numberOfColumns = 50;
+      int numberOfTicks = 1000;
+      int ticksPerBlock = 64;
+
+      File logDirectory = Files.createTempDirectory("columnarLog").toFile();
+      logDirectory.deleteOnExit();
+      assertFalse(ColumnarLogReader.hasColumnarData(logDirectory));
+
+      long[][] rows = new long[numberOfTicks][numberOfColumns];
+      ColumnarLogWriter writer = new ColumnarLogWriter(logDirectory, numberOfColumns, ticksPerBlock);
+      ByteBuffer row = ByteBuffer.allocate(numberOfColumns * 8);
+      for (int tick = 0; tick < numberOfTicks; tick++)
+      {
+         rows[tick][0] = 1000000L + tick * 1000L;
+         for (int column = 1; column < numberOfColumns; column++)
+         {
+            rows[tick][column] = column % 2 == 0 ? Double.doubleToLongBits(random.nextDouble()) : random.nextInt(3);
+         }
+
+         row.clear();
+         for (int column = 0; column < numberOfColumns; column++)
+         {
+            row.putLong(rows[tick][column]);
+         }
+         row.flip();
+         writer.addTick(row);
+      }
+      writer.close();
+      ColumnarLogFormat.getDataFile(logDirectory).deleteOnExit();
+      ColumnarLogFormat.getIndexFile(logDirectory).deleteOnExit();
+
+      assertTrue(ColumnarLogReader.hasColumnarData(logDirectory));
+
+      ColumnarLogReader reader = new ColumnarLogReader(logDirectory);
+      assertEquals(numberOfColumns, reader.getNumberOfColumns());
+      assertEquals(numberOfTicks, reader.getNumberOfTicks());
+      assertEquals((numberOfTicks + ticksPerBlock - 1) / ticksPerBlock, reader.getNumberOfBlocks());
+
+      int start = 100;
+      int end = 900;
+      int[] columns = {0, 3, 4, 49};
+      long[][] values = reader.readColumns(columns, start, end);
+      for (int c = 0; c < columns.length; c++)
+      {
+         long[] expected = new long[end - start + 1];
+         for (int tick = start; tick <= end; tick++)
+         {
+            expected[tick - start] = rows[tick][columns[c]];
+         }
+         assertArrayEquals(expected, values[c]);
+      }
+
+      assertEquals(0, reader.seek(0));
+      assertEquals(500, reader.seek(rows[500][0]));
+      assertEquals(501, reader.seek(rows[500][0] + 1));
+      assertEquals(numberOfTicks, reader.seek(Long.MAX_VALUE));
+
+      reader.close();
+   }
+}
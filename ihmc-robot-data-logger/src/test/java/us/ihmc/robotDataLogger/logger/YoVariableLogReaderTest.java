@@ -0,0 +1,183 @@
+package us.ihmc.robotDataLogger.logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.idl.serializers.extra.YAMLSerializer;
+import us.ihmc.robotDataLogger.Handshake;
+import us.ihmc.robotDataLogger.HandshakeFileType;
+import us.ihmc.robotDataLogger.HandshakePubSubType;
+import us.ihmc.robotDataLogger.dataBuffers.RegistrySendBufferBuilder;
+import us.ihmc.robotDataLogger.handshake.IDLYoVariableHandshakeParser;
+import us.ihmc.robotDataLogger.handshake.YoVariableHandShakeBuilder;
+import us.ihmc.robotDataLogger.handshake.YoVariableHandshakeParser;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+import us.ihmc.yoVariables.variable.YoLong;
+
+public class YoVariableLogReaderTest
+{
+   private static final String handshakeFilename = "handshake.yaml";
+   private static final String dataFilename = "robotData.bsz";
+   private static final String indexFilename = "robotData.dat";
+
+   /** Larger than the number of ticks decompressed by a single task of the parallel read. */
+   private static final int numberOfTicks = 1000;
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testReadRange() throws IOException
+   {
+      File logDirectory = Files.createTempDirectory("yoVariableLogReader").toFile();
+      logDirectory.deleteOnExit();
+      LogPropertiesWriter logProperties = createLog(logDirectory);
+
+      ForkJoinPool pool = new ForkJoinPool(4);
+      try
+      {
+         for (boolean memoryMapped : new boolean[] {false, true})
+         {
+            YoVariableLogReader reader = new YoVariableLogReader(logDirectory, logProperties, memoryMapped);
+            assertTrue(reader.initialize());
+            assertEquals(numberOfTicks, reader.getNumberOfEntries());
+
+            // Whole log, first and last tick, a partial task at each end, and ranges crossing task boundaries.
+            int[][] ranges = {{0, numberOfTicks - 1}, {0, 0}, {numberOfTicks - 1, numberOfTicks - 1}, {0, 100}, {900, numberOfTicks - 1}, {255, 257},
+                  {100, 700}, {1, numberOfTicks - 2}};
+            for (int[] range : ranges)
+            {
+               assertRangeIsReadBack(reader, range[0], range[1], pool, memoryMapped);
+            }
+
+            for (int tick = 0; tick < numberOfTicks; tick++)
+            {
+               assertEquals(getTimestamp(tick), reader.getTimestamp(tick));
+            }
+
+            reader.close();
+         }
+      }
+      finally
+      {
+         pool.shutdown();
+      }
+   }
+
+   private static void assertRangeIsReadBack(YoVariableLogReader reader, int start, int end, ForkJoinPool pool, boolean memoryMapped) throws IOException
+   {
+      int numberOfVariables = reader.getNumberOfVariables();
+      long[][] values = new long[numberOfTicks][numberOfVariables];
+      AtomicIntegerArray numberOfReads = new AtomicIntegerArray(numberOfTicks);
+
+      reader.readRange(start, end, (position, data) ->
+      {
+         numberOfReads.incrementAndGet(position);
+         LongBuffer longs = data.asLongBuffer();
+         assertEquals(numberOfVariables, longs.remaining());
+         longs.get(values[position]);
+      }, pool);
+
+      String message = "memoryMapped: " + memoryMapped + ", range: [" + start + ", " + end + "], tick: ";
+      for (int tick = 0; tick < numberOfTicks; tick++)
+      {
+         boolean isInRange = tick >= start && tick <= end;
+         assertEquals(message + tick, isInRange ? 1 : 0, numberOfReads.get(tick));
+
+         if (!isInRange)
+            continue;
+
+         assertEquals(message + tick, getTimestamp(tick), values[tick][0]);
+         for (int variable = 1; variable < numberOfVariables; variable++)
+         {
+            assertEquals(message + tick, getValue(tick, variable), values[tick][variable]);
+         }
+      }
+   }
+
+   private static long getTimestamp(int tick)
+   {
+      return 1000000L + 1000L * tick;
+   }
+
+   private static long getValue(int tick, int variable)
+   {
+      return 31L * tick + variable;
+   }
+
+   /**
+    * Writes a compressed log with an index, made of a few long variables whose values depend on the
+    * tick and the variable index.
+    */
+   private static LogPropertiesWriter createLog(File logDirectory) throws IOException
+   {
+      YoVariableRegistry registry = new YoVariableRegistry("main");
+      for (int i = 0; i < 10; i++)
+      {
+         new YoLong("variable" + i, registry);
+      }
+      YoVariableHandShakeBuilder handShakeBuilder = new YoVariableHandShakeBuilder("root", 0.001);
+      handShakeBuilder.addRegistryBuffer(new RegistrySendBufferBuilder(registry, null, null));
+      Handshake handshake = handShakeBuilder.getHandShake();
+
+      File handshakeFile = new File(logDirectory, handshakeFilename);
+      handshakeFile.deleteOnExit();
+      new YAMLSerializer<>(new HandshakePubSubType()).serialize(handshakeFile, handshake);
+
+      File propertiesFile = new File(logDirectory, YoVariableLoggerListener.propertyFile);
+      propertiesFile.deleteOnExit();
+      LogPropertiesWriter logProperties = new LogPropertiesWriter(propertiesFile);
+      logProperties.getVariables().setHandshake(handshakeFilename);
+      logProperties.getVariables().setData(dataFilename);
+      logProperties.getVariables().setIndex(indexFilename);
+      logProperties.getVariables().setCompressed(true);
+      logProperties.getVariables().setTimestamped(true);
+      logProperties.getVariables().setHandshakeFileType(HandshakeFileType.IDL_YAML);
+      logProperties.setName("test");
+      logProperties.store();
+
+      YoVariableHandshakeParser parser = new IDLYoVariableHandshakeParser(HandshakeFileType.IDL_YAML);
+      parser.parseFrom(handshake);
+      int numberOfStates = parser.getNumberOfStates();
+
+      File dataFile = new File(logDirectory, dataFilename);
+      File indexFile = new File(logDirectory, indexFilename);
+      dataFile.deleteOnExit();
+      indexFile.deleteOnExit();
+
+      try (FileOutputStream dataStream = new FileOutputStream(dataFile); FileOutputStream indexStream = new FileOutputStream(indexFile))
+      {
+         FileChannel dataChannel = dataStream.getChannel();
+         FileChannel indexChannel = indexStream.getChannel();
+
+         // Large enough that no ticks get dropped
+         YoVariableLogWriter writer = new YoVariableLogWriter(numberOfStates * 8, 4096, dataChannel, indexChannel, false);
+         for (int tick = 0; tick < numberOfTicks; tick++)
+         {
+            LongBuffer buffer = writer.next(getTimestamp(tick));
+            buffer.put(getTimestamp(tick));
+            for (int variable = 1; variable < numberOfStates; variable++)
+            {
+               buffer.put(getValue(tick, variable));
+            }
+            buffer.flip();
+            writer.commit();
+         }
+         writer.close();
+
+         assertEquals(0, writer.getNumberOfDroppedTicks());
+      }
+
+      return logProperties;
+   }
+}
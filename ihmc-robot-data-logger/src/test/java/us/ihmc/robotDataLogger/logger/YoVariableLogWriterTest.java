@@ -0,0 +1,96 @@
+package us.ihmc.robotDataLogger.logger;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.tools.compression.SnappyUtils;
+
+public class YoVariableLogWriterTest
+{
+   @SuppressWarnings("resource")
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testWrittenTicksCanBeReadBack() throws IOException
+   {
+      Random random = new Random(4362L);
+      int numberOfVariables = 100;
+      int numberOfTicks = 2000;
+      int bufferSize = (numberOfVariables + 1) * 8;
+
+      File dataFile = File.createTempFile("robotData", ".bsz");
+      File indexFile = File.createTempFile("robotData", ".dat");
+      dataFile.deleteOnExit();
+      indexFile.deleteOnExit();
+
+      FileChannel dataChannel = new FileOutputStream(dataFile, false).getChannel();
+      FileChannel indexChannel = new FileOutputStream(indexFile, false).getChannel();
+
+      // Large enough that no ticks get dropped
+      YoVariableLogWriter writer = new YoVariableLogWriter(bufferSize, 4096, dataChannel, indexChannel, false);
+
+      long[][] data = new long[numberOfTicks][numberOfVariables];
+      for (int tick = 0; tick < numberOfTicks; tick++)
+      {
+         LongBuffer buffer = writer.next(tick * 1000L);
+         buffer.put(tick * 1000L);
+         for (int i = 0; i < numberOfVariables; i++)
+         {
+            data[tick][i] = random.nextInt(10);
+            buffer.put(data[tick][i]);
+         }
+         buffer.flip();
+         writer.commit();
+      }
+
+      writer.close();
+      dataChannel.close();
+      indexChannel.close();
+
+      assertEquals(0, writer.getNumberOfDroppedTicks());
+      assertEquals(numberOfTicks * 16, indexFile.length());
+
+      long[] timestamps = new long[numberOfTicks];
+      long[] offsets = new long[numberOfTicks + 1];
+      RandomAccessFile indexReader = new RandomAccessFile(indexFile, "r");
+      for (int tick = 0; tick < numberOfTicks; tick++)
+      {
+         timestamps[tick] = indexReader.readLong();
+         offsets[tick] = indexReader.readLong();
+      }
+      offsets[numberOfTicks] = dataFile.length();
+      indexReader.close();
+
+      RandomAccessFile dataReader = new RandomAccessFile(dataFile, "r");
+      ByteBuffer uncompressed = ByteBuffer.allocate(bufferSize);
+      for (int tick = 0; tick < numberOfTicks; tick++)
+      {
+         assertEquals(tick * 1000L, timestamps[tick]);
+
+         byte[] compressed = new byte[(int) (offsets[tick + 1] - offsets[tick])];
+         dataReader.seek(offsets[tick]);
+         dataReader.readFully(compressed);
+
+         uncompressed.clear();
+         SnappyUtils.uncompress(ByteBuffer.wrap(compressed), uncompressed);
+         uncompressed.flip();
+         LongBuffer longs = uncompressed.asLongBuffer();
+         assertEquals(timestamps[tick], longs.get());
+         for (int i = 0; i < numberOfVariables; i++)
+         {
+            assertEquals(data[tick][i], longs.get());
+         }
+      }
+      dataReader.close();
+   }
+}
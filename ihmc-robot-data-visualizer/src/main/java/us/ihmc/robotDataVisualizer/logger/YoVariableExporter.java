@@ -3,9 +3,9 @@ package us.ihmc.robotDataVisualizer.logger;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.LongBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.jmatio.io.MatFileWriter;
 import com.jmatio.types.MLArray;
@@ -17,6 +17,7 @@ import com.jmatio.types.MLNumericArray;
 import us.ihmc.commons.Conversions;
 import us.ihmc.yoVariables.dataBuffer.DataEntry;
 import us.ihmc.robotDataLogger.LogProperties;
+import us.ihmc.robotDataLogger.logger.ColumnarLogReader;
 import us.ihmc.robotDataLogger.logger.YoVariableLogReader;
 import us.ihmc.robotDataVisualizer.logger.util.CustomProgressMonitor;
 import us.ihmc.robotDataVisualizer.logger.util.ProgressMonitorInterface;
@@ -34,7 +35,7 @@ public class YoVariableExporter extends YoVariableLogReader
 
    public YoVariableExporter(SimulationConstructionSet scs, File logDirectory, LogProperties logProperties, List<YoVariable<?>> variables)
    {
-      super(logDirectory, logProperties);
+      super(logDirectory, logProperties, true);
       this.gui = scs.getGUI();
       this.variables = variables;
    }
@@ -98,35 +99,47 @@ public class YoVariableExporter extends YoVariableLogReader
          
          
          
-         int step = elements / 90;
+         int step = Math.max(1, elements / 90);
+         AtomicInteger ticksRead = new AtomicInteger();
+         long[] timestamps = new long[elements];
          
-         long firstTimestamp = -1;
-         for (int i = startPosition; i <= endPosition; i++)
+         if (ColumnarLogReader.hasColumnarData(logDirectory))
          {
-            if((i - startPosition) % step == 0) 
-            {
-               monitor.setProgress((i - startPosition) / step);
-            }
-            
-            ByteBuffer data = readData(i);
-            LongBuffer dataAsLong = data.asLongBuffer();
-
-            
-            long entryTimestamp = dataAsLong.get();
-            
-            if(firstTimestamp == -1)
+            // Only read the columns of the exported variables
+            monitor.setNote("Reading variable data from columnar log");
+            readColumns(startPosition, endPosition, timestamps, dataHolders);
+         }
+         else
+         {
+            // Ticks are decompressed in parallel, every tick writes its own row
+            readRange(startPosition, endPosition, (position, data) ->
             {
-               firstTimestamp = entryTimestamp;
-            }
+               int row = position - startPosition;
+               timestamps[row] = data.getLong(0);
             
-            timestamp.setReal(entryTimestamp, i - startPosition);
-            robotTime.setReal(Conversions.nanosecondsToSeconds(entryTimestamp - firstTimestamp), i - startPosition);
+               for (int dh = 0; dh < dataHolders.size(); dh++)
+               {
+                  dataHolders.get(dh).addEntry(row, data);
+               }
             
-            for (int dh = 0; dh < dataHolders.size(); dh++)
-            {
-               DataHolder<?> dataHolder = dataHolders.get(dh);
-               dataHolder.addEntry(dataAsLong);
-            }
+               int read = ticksRead.incrementAndGet();
+               if(read % step == 0)
+               {
+                  monitor.setProgress(read / step);
+               }
+            });
+         }
+         
+         long firstTimestamp = timestamps[0];
+         for (int row = 0; row < elements; row++)
+         {
+            timestamp.setReal(timestamps[row], row);
+            robotTime.setReal(Conversions.nanosecondsToSeconds(timestamps[row] - firstTimestamp), row);
+         }
+         
+         for (int dh = 0; dh < dataHolders.size(); dh++)
+         {
+            dataHolders.get(dh).copyToMatlabData();
          }
          
          monitor.setNote("Writing data to disk");
@@ -150,13 +163,39 @@ public class YoVariableExporter extends YoVariableLogReader
       }
    }
 
+   private void readColumns(int startPosition, int endPosition, long[] timestamps, List<DataHolder<?>> dataHolders) throws IOException
+   {
+      ColumnarLogReader columnarLogReader = new ColumnarLogReader(logDirectory);
+      try
+      {
+         int[] columns = new int[dataHolders.size() + 1];
+         columns[0] = 0;
+         for (int dh = 0; dh < dataHolders.size(); dh++)
+         {
+            columns[dh + 1] = dataHolders.get(dh).offset;
+         }
+
+         long[][] values = columnarLogReader.readColumns(columns, startPosition, endPosition);
+         System.arraycopy(values[0], 0, timestamps, 0, timestamps.length);
+         for (int dh = 0; dh < dataHolders.size(); dh++)
+         {
+            long[] rawData = dataHolders.get(dh).rawData;
+            System.arraycopy(values[dh + 1], 0, rawData, 0, rawData.length);
+         }
+      }
+      finally
+      {
+         columnarLogReader.close();
+      }
+   }
+
    private DataHolder<?> createDataHolder(int offset, int elements, YoVariable<?> variable)
    {
       int[] dims = { elements, 1 };
       String name =  variable.getName();
       if (variable instanceof YoEnum<?>)
       {
-         return new DataHolder<Long>(offset, new MLInt64(name, dims))
+         return new DataHolder<Long>(offset, elements, new MLInt64(name, dims))
          {
 
             @Override
@@ -169,7 +208,7 @@ public class YoVariableExporter extends YoVariableLogReader
       }
       else if (variable instanceof YoLong)
       {
-         return new DataHolder<Long>(offset, new MLInt64(name, dims))
+         return new DataHolder<Long>(offset, elements, new MLInt64(name, dims))
          {
 
             @Override
@@ -182,7 +221,7 @@ public class YoVariableExporter extends YoVariableLogReader
       }
       else if (variable instanceof YoInteger)
       {
-         return new DataHolder<Long>(offset, new MLInt64(name, dims))
+         return new DataHolder<Long>(offset, elements, new MLInt64(name, dims))
          {
 
             @Override
@@ -195,7 +234,7 @@ public class YoVariableExporter extends YoVariableLogReader
       }
       else if (variable instanceof YoDouble)
       {
-         return new DataHolder<Double>(offset, new MLDouble(name, dims))
+         return new DataHolder<Double>(offset, elements, new MLDouble(name, dims))
          {
 
             @Override
@@ -208,7 +247,7 @@ public class YoVariableExporter extends YoVariableLogReader
       }
       else if (variable instanceof YoBoolean)
       {
-         return new DataHolder<Long>(offset, new MLInt64(name, dims))
+         return new DataHolder<Long>(offset, elements, new MLInt64(name, dims))
          {
 
             @Override
@@ -228,21 +267,32 @@ public class YoVariableExporter extends YoVariableLogReader
    private abstract class DataHolder<T extends Number>
    {
       private final MLNumericArray<T> data;
+      private final long[] rawData;
       private final int offset;
 
       private int index = 0;
 
-      private DataHolder(int offset, MLNumericArray<T> data)
+      private DataHolder(int offset, int elements, MLNumericArray<T> data)
       {
          this.data = data;
+         this.rawData = new long[elements];
          this.offset = offset;
       }
 
-      public void addEntry(LongBuffer dataAsLong)
+      /**
+       * Thread safe as long as every row is only added once
+       */
+      public void addEntry(int row, ByteBuffer tick)
       {
-         long entryAsLong = dataAsLong.get(offset);
-         set(entryAsLong);
-         index++;
+         rawData[row] = tick.getLong(offset * 8);
+      }
+
+      public void copyToMatlabData()
+      {
+         for (index = 0; index < rawData.length; index++)
+         {
+            set(rawData[index]);
+         }
       }
 
       public abstract void set(long entryAsLong);
@@ -29,6 +29,7 @@ import javax.swing.text.BadLocationException;
 
 import us.ihmc.robotDataLogger.handshake.YoVariableHandshakeParser;
 import us.ihmc.robotDataLogger.jointState.JointState;
+import us.ihmc.robotDataLogger.logger.ColumnarLogReader;
 import us.ihmc.robotDataLogger.logger.LogPropertiesReader;
 import us.ihmc.robotDataLogger.logger.YoVariableLoggerListener;
 import us.ihmc.robotDataVisualizer.logger.util.FileSelectionDialog;
@@ -68,7 +69,13 @@ public class YoVariableExtracter
       int numberOfJointStates = JointState.getNumberOfJointStates(parser.getJointStates());
       int bufferSize = (1 + jointStateOffset + numberOfJointStates) * 8;
 
-      new YoVariableDialog(bufferSize, logChannel, variables, registry);
+      ColumnarLogReader columnarLogReader = null;
+      if (ColumnarLogReader.hasColumnarData(logFile))
+      {
+         columnarLogReader = new ColumnarLogReader(logFile);
+      }
+
+      new YoVariableDialog(bufferSize, logChannel, columnarLogReader, variables, registry);
    }
 
    public static void main(String[] args) throws IOException
@@ -91,11 +98,21 @@ public class YoVariableExtracter
       private final List<YoVariable<?>> variables;
       
       private final FileChannel logChannel;
+      private final ColumnarLogReader columnarLogReader;
       private final int bufferSize;
       private final ByteBuffer logLine;
       private final LongBuffer logLongArray;
 
       public YoVariableDialog(int bufferSize, FileChannel logChannel, List<YoVariable<?>> variables, YoVariableRegistry registry)
+      {
+         this(bufferSize, logChannel, null, variables, registry);
+      }
+
+      /**
+       * @param columnarLogReader if not null, variables are read from the columnar copy of the log instead of the full rows
+       */
+      public YoVariableDialog(int bufferSize, FileChannel logChannel, ColumnarLogReader columnarLogReader, List<YoVariable<?>> variables,
+                              YoVariableRegistry registry)
       {
          super();
          setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -106,6 +123,7 @@ public class YoVariableExtracter
          this.bufferSize = bufferSize;
          this.registry = registry;
          this.logChannel = logChannel;
+         this.columnarLogReader = columnarLogReader;
          this.variables = variables;
          
          searchField = new JTextField();
@@ -200,29 +218,36 @@ public class YoVariableExtracter
          t.append("t = [");
          try
          {
-            long tick = 0;
-            
-            logChannel.position(0);
-            while(logChannel.size() > tick * bufferSize)
+            if (columnarLogReader != null)
             {
-               buffer.clear();
-               logChannel.read(buffer);
-               t.append(longBuffer.get(0));
-               t.append(",");
-               
-               for(int i = 0; i < variables.size(); i++)
+               readColumns(variables, offsets, t, result);
+            }
+            else
+            {
+               long tick = 0;
+            
+               logChannel.position(0);
+               while(logChannel.size() > tick * bufferSize)
                {
-                  YoVariable<?> variable = variables.get(i);
-                  variable.setValueFromLongBits(longBuffer.get(1 + offsets[i]), false);
-                  variable.getValueString(result[i]);
-                  result[i].append(",");
-               }
+                  buffer.clear();
+                  logChannel.read(buffer);
+                  t.append(longBuffer.get(0));
+                  t.append(",");
                
-               tick++;
-               if(tick % 10000 == 0)
-               {
-                  System.out.print(".");
-                  System.out.flush();
+                  for(int i = 0; i < variables.size(); i++)
+                  {
+                     YoVariable<?> variable = variables.get(i);
+                     variable.setValueFromLongBits(longBuffer.get(1 + offsets[i]), false);
+                     variable.getValueString(result[i]);
+                     result[i].append(",");
+                  }
+               
+                  tick++;
+                  if(tick % 10000 == 0)
+                  {
+                     System.out.print(".");
+                     System.out.flush();
+                  }
                }
             }
             System.out.println();
@@ -249,5 +274,39 @@ public class YoVariableExtracter
          }
          
       }
+
+      private void readColumns(List<YoVariable<?>> variables, int[] offsets, StringBuffer t, StringBuffer[] result) throws IOException
+      {
+         int[] columns = new int[variables.size() + 1];
+         for (int i = 0; i < variables.size(); i++)
+         {
+            columns[i + 1] = 1 + offsets[i];
+         }
+
+         long[][] values = new long[columns.length][columnarLogReader.getTicksPerBlock()];
+         for (int block = 0; block < columnarLogReader.getNumberOfBlocks(); block++)
+         {
+            for (int c = 0; c < columns.length; c++)
+            {
+               columnarLogReader.readColumn(block, columns[c], values[c], 0);
+            }
+
+            for (int tick = 0; tick < columnarLogReader.getNumberOfTicksInBlock(block); tick++)
+            {
+               t.append(values[0][tick]);
+               t.append(",");
+
+               for (int i = 0; i < variables.size(); i++)
+               {
+                  YoVariable<?> variable = variables.get(i);
+                  variable.setValueFromLongBits(values[i + 1][tick], false);
+                  variable.getValueString(result[i]);
+                  result[i].append(",");
+               }
+            }
+            System.out.print(".");
+            System.out.flush();
+         }
+      }
    }
 }
@@ -10,9 +10,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import us.ihmc.commons.Conversions;
-import us.ihmc.robotDataLogger.LogIndex;
 import us.ihmc.robotDataLogger.jointState.JointState;
 import us.ihmc.robotDataLogger.logger.LogPropertiesReader;
+import us.ihmc.robotDataLogger.logger.MappedLogData;
 import us.ihmc.robotDataVisualizer.VisualizerRobot;
 import us.ihmc.robotDataVisualizer.visualizer.JointUpdater;
 import us.ihmc.yoVariables.listener.RewoundListener;
@@ -36,8 +36,8 @@ public class YoVariableLogPlaybackRobot extends VisualizerRobot implements Rewou
 
    // Compressed data helpers
    private final boolean compressed;
-   private final LogIndex logIndex;
-   private final ByteBuffer compressedBuffer;
+   private final MappedLogData mappedLogData;
+   private final MappedLogData.Reader mappedLogReader;
    private int index = 0;
 
    private final List<JointState> jointStates;
@@ -90,20 +90,21 @@ public class YoVariableLogPlaybackRobot extends VisualizerRobot implements Rewou
          {
             throw new RuntimeException("Cannot find " + logProperties.getVariables().getIndexAsString());
          }
-         logIndex = new LogIndex(indexData, logChannel.size());
-         compressedBuffer = ByteBuffer.allocate(SnappyUtils.maxCompressedLength(bufferSize));
-         numberOfEntries = logIndex.getNumberOfEntries();
+         // Memory map the data, so seeking is free and ticks are decompressed straight from the mapped file
+         mappedLogData = new MappedLogData(logdata, indexData);
+         mappedLogReader = mappedLogData.createReader(bufferSize);
+         numberOfEntries = mappedLogData.getNumberOfEntries();
       }
       else
       {
          numberOfEntries = (int) (logChannel.size() / bufferSize) - 1;
-         logIndex = null;
-         compressedBuffer = null;
+         mappedLogData = null;
+         mappedLogReader = null;
       }
 
       JointUpdater.getJointUpdaterList(getRootJoints(), jointStates, jointUpdaters);
 
-      logLine = ByteBuffer.allocate(bufferSize);
+      logLine = ByteBuffer.allocateDirect(bufferSize);
       logLongArray = logLine.asLongBuffer();
 
       currentRecordTick = new YoInteger("currentRecordTick", getRobotsYoVariableRegistry());
@@ -112,7 +113,7 @@ public class YoVariableLogPlaybackRobot extends VisualizerRobot implements Rewou
       {
       	if(this.compressed)
       	{
-         	initialTimestamp = logIndex.getInitialTimestamp();
+         	initialTimestamp = mappedLogData.getInitialTimestamp();
          	positionChannel(0);
          }
          else
@@ -241,10 +242,6 @@ public class YoVariableLogPlaybackRobot extends VisualizerRobot implements Rewou
       if (compressed)
       {
          index = position;
-         if(index < logIndex.dataOffsets.length)
-         {
-            logChannel.position(logIndex.dataOffsets[position]);
-         }
       }
       else
       {
@@ -259,7 +256,7 @@ public class YoVariableLogPlaybackRobot extends VisualizerRobot implements Rewou
          throw new RuntimeException("Cannot get timestamp for non-compressed logs");
       }
 
-      return logIndex.timestamps[position];
+      return mappedLogData.getTimestamp(position);
    }
 
    private boolean readLogLine() throws IOException
@@ -269,23 +266,12 @@ public class YoVariableLogPlaybackRobot extends VisualizerRobot implements Rewou
 
       if (compressed)
       {
-         if(index >= logIndex.getNumberOfEntries())
+         if(index >= numberOfEntries)
          {
             return false;
          }
-         int size = logIndex.compressedSizes[index];
-         compressedBuffer.clear();
-         compressedBuffer.limit(size);
-
-         int read = logChannel.read(compressedBuffer);
-
-         if(read != size)
-         {
-            throw new RuntimeException("Expected read of " + size + ", got " + read + ". TODO: Implement loop for reading the full log line.");
-         }
-         compressedBuffer.flip();
 
-         SnappyUtils.uncompress(compressedBuffer, logLine);
+         SnappyUtils.uncompress(mappedLogReader.readCompressedData(index), logLine);
          ++index;
 
          return true;
@@ -25,33 +25,82 @@ public class LogCrawler implements Runnable
    private File logFile;
    private RobotDescription robotDescription;
 
+   private final LogCrawlerResourceProvider resourceProvider;
+
+   private volatile int ticksProcessed = 0;
+   private volatile int numberOfTicks = -1;
+   private volatile long startTime = -1;
+   private volatile long endTime = -1;
+   private volatile boolean failed = false;
+
    public LogCrawler(File logFile, LogCrawlerListenerInterface playbackListener) throws IOException
+   {
+      this(logFile, playbackListener, null);
+   }
+
+   /**
+    * @param resourceProvider provides the parsed handshake and robot description, so they can be shared between logs. If null, they are loaded from the log.
+    */
+   public LogCrawler(File logFile, LogCrawlerListenerInterface playbackListener, LogCrawlerResourceProvider resourceProvider) throws IOException
    {
       this.logFile = logFile;
       logFileName = logFile.getName();
       this.playbackListener = playbackListener;
+      this.resourceProvider = resourceProvider;
    }
 
    private void readLogFile(File selectedFile) throws IOException
+   {
+      LogPropertiesReader logProperties = readLogProperties(selectedFile);
+
+      YoVariableHandshakeParser parser;
+      if (resourceProvider != null)
+      {
+         parser = resourceProvider.getHandshakeParser(selectedFile, logProperties);
+         robotDescription = resourceProvider.getRobotDescription(selectedFile, logProperties);
+      }
+      else
+      {
+         parser = parseHandshake(selectedFile, logProperties);
+         robotDescription = loadRobotDescription(selectedFile, logProperties);
+      }
+
+      YoVariable<?>[] yoVariablesToUpdate = playbackListener.getYovariablesToUpdate(parser.getRootRegistry(), robotDescription);
+
+      robot = new SpecificLogVariableUpdater(selectedFile, robotDescription, parser.getJointStates(), parser.getYoVariablesList(), logProperties,
+            yoVariablesToUpdate);
+      dt = parser.getDt();
+   }
+
+   public static LogPropertiesReader readLogProperties(File selectedFile)
    {
       LogPropertiesReader logProperties = new LogPropertiesReader(new File(selectedFile, YoVariableLoggerListener.propertyFile));
       LogFormatUpdater.updateLogs(selectedFile, logProperties);
       logProperties.getCameras().clear();
+      return logProperties;
+   }
 
+   public static File getHandshakeFile(File selectedFile, LogPropertiesReader logProperties)
+   {
       File handshake = new File(selectedFile, logProperties.getVariables().getHandshakeAsString());
       if (!handshake.exists())
       {
          throw new RuntimeException("Cannot find " + logProperties.getVariables().getHandshakeAsString());
       }
+      return handshake;
+   }
 
-      DataInputStream handshakeStream = new DataInputStream(new FileInputStream(handshake));
-      byte[] handshakeData = new byte[(int) handshake.length()];
-      handshakeStream.readFully(handshakeData);
-      handshakeStream.close();
+   public static YoVariableHandshakeParser parseHandshake(File selectedFile, LogPropertiesReader logProperties) throws IOException
+   {
+      byte[] handshakeData = readFile(getHandshakeFile(selectedFile, logProperties));
 
       YoVariableHandshakeParser parser = YoVariableHandshakeParser.create(logProperties.getVariables().getHandshakeFileType());
       parser.parseFrom(handshakeData);
-      
+      return parser;
+   }
+
+   public static RobotDescription loadRobotDescription(File selectedFile, LogPropertiesReader logProperties) throws IOException
+   {
       GeneralizedSDFRobotModel generalizedSDFRobotModel;
       if (!logProperties.getModel().getLoaderAsString().isEmpty())
       {
@@ -59,17 +108,8 @@ public class LogCrawler implements Runnable
          String modelName = logProperties.getModel().getNameAsString();
          String[] resourceDirectories = logProperties.getModel().getResourceDirectoriesList().toStringArray();
 
-         File model = new File(selectedFile, logProperties.getModel().getPathAsString());
-         DataInputStream modelStream = new DataInputStream(new FileInputStream(model));
-         byte[] modelData = new byte[(int) model.length()];
-         modelStream.readFully(modelData);
-         modelStream.close();
-
-         File resourceBundle = new File(selectedFile, logProperties.getModel().getResourceBundleAsString());
-         DataInputStream resourceStream = new DataInputStream(new FileInputStream(resourceBundle));
-         byte[] resourceData = new byte[(int) resourceBundle.length()];
-         resourceStream.readFully(resourceData);
-         resourceStream.close();
+         byte[] modelData = readFile(new File(selectedFile, logProperties.getModel().getPathAsString()));
+         byte[] resourceData = readFile(new File(selectedFile, logProperties.getModel().getResourceBundleAsString()));
 
          loader.load(modelName, modelData, resourceDirectories, resourceData, null);
          generalizedSDFRobotModel = loader.createJaxbSDFLoader().getGeneralizedSDFRobotModel(modelName);
@@ -78,47 +118,56 @@ public class LogCrawler implements Runnable
       {
          throw new RuntimeException("No model available for log");
       }
-      
+
 
       boolean useCollisionMeshes = false;
       RobotDescriptionFromSDFLoader loader = new RobotDescriptionFromSDFLoader();
-      robotDescription = loader.loadRobotDescriptionFromSDF(generalizedSDFRobotModel, null, null, useCollisionMeshes);
+      return loader.loadRobotDescriptionFromSDF(generalizedSDFRobotModel, null, null, useCollisionMeshes);
+   }
 
-      YoVariable<?>[] yoVariablesToUpdate = playbackListener.getYovariablesToUpdate(parser.getRootRegistry(), robotDescription);
-      
-      robot = new SpecificLogVariableUpdater(selectedFile, robotDescription, parser.getJointStates(), parser.getYoVariablesList(), logProperties,
-            yoVariablesToUpdate);
-      dt = parser.getDt();
+   static byte[] readFile(File file) throws IOException
+   {
+      DataInputStream stream = new DataInputStream(new FileInputStream(file));
+      byte[] data = new byte[(int) file.length()];
+      stream.readFully(data);
+      stream.close();
+      return data;
    }
 
    public void run()
    {
       System.out.println("loading log from folder:" + logFile);
-      long startTime = System.currentTimeMillis();
+      startTime = System.currentTimeMillis();
 
       try
       {
          readLogFile(logFile);
+         numberOfTicks = robot.getNumberOfEntries();
          playbackListener.onStart(this, robot);
          System.out.println("Crawling " + logFile.getName());
          while (!robot.readAndProcessALogLineReturnTrueIfDone(dt))
          {
             playbackListener.update(robot.getTime());
+            ticksProcessed++;
          }
       }
-      catch (IOException e)
+      catch (IOException | RuntimeException e)
       {
+         failed = true;
          e.printStackTrace();
       }
       finally
       {
-         robot.close();
-         long endTime = System.currentTimeMillis();
+         if (robot != null)
+         {
+            robot.close();
+         }
+         endTime = System.currentTimeMillis();
          System.out.println("Finished searching " + logFileName + ", took " + Conversions.millisecondsToMinutes(endTime - startTime) + " minutes");
          playbackListener.onFinish();
       }
    }
-   
+
    public double getDT()
    {
       return dt;
@@ -128,4 +177,67 @@ public class LogCrawler implements Runnable
    {
       return logFileName;
    }
+
+   public File getLogFile()
+   {
+      return logFile;
+   }
+
+   public boolean isStarted()
+   {
+      return startTime != -1;
+   }
+
+   public boolean isFinished()
+   {
+      return endTime != -1;
+   }
+
+   /**
+    * @return true if the log could not be crawled completely because of an exception
+    */
+   public boolean hasFailed()
+   {
+      return failed;
+   }
+
+   public int getNumberOfTicksProcessed()
+   {
+      return ticksProcessed;
+   }
+
+   /**
+    * @return number of ticks in the log, or -1 if the log is not loaded yet
+    */
+   public int getNumberOfTicks()
+   {
+      return numberOfTicks;
+   }
+
+   /**
+    * @return fraction of the log that has been crawled, between 0 and 1
+    */
+   public double getProgress()
+   {
+      if (isFinished())
+      {
+         return 1.0;
+      }
+      int ticks = numberOfTicks;
+      return ticks > 0 ? ((double) ticksProcessed) / ticks : 0.0;
+   }
+
+   /**
+    * @return average number of ticks processed per second since the crawler started
+    */
+   public double getTicksPerSecond()
+   {
+      if (!isStarted())
+      {
+         return 0.0;
+      }
+      long end = isFinished() ? endTime : System.currentTimeMillis();
+      double seconds = Conversions.millisecondsToSeconds(end - startTime);
+      return seconds > 0.0 ? ticksProcessed / seconds : 0.0;
+   }
 }
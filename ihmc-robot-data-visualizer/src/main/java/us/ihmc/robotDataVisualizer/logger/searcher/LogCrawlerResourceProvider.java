@@ -0,0 +1,21 @@
+package us.ihmc.robotDataVisualizer.logger.searcher;
+
+import java.io.File;
+import java.io.IOException;
+
+import us.ihmc.robotDataLogger.handshake.YoVariableHandshakeParser;
+import us.ihmc.robotDataLogger.logger.LogPropertiesReader;
+import us.ihmc.robotics.robotDescription.RobotDescription;
+
+/**
+ * Provides the parsed handshake and robot model for a log, allowing them to be shared between logs of the same robot.
+ */
+public interface LogCrawlerResourceProvider
+{
+   /**
+    * The returned parser is used by a single crawler at a time, the values of its variables are overwritten while crawling.
+    */
+   public abstract YoVariableHandshakeParser getHandshakeParser(File logDirectory, LogPropertiesReader logProperties) throws IOException;
+
+   public abstract RobotDescription getRobotDescription(File logDirectory, LogPropertiesReader logProperties) throws IOException;
+}
@@ -0,0 +1,290 @@
+package us.ihmc.robotDataVisualizer.logger.searcher;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.hash.Hashing;
+
+import us.ihmc.commons.Conversions;
+import us.ihmc.commons.thread.ThreadTools;
+import us.ihmc.robotDataLogger.handshake.YoVariableHandshakeParser;
+import us.ihmc.robotDataLogger.logger.LogPropertiesReader;
+import us.ihmc.robotDataLogger.logger.YoVariableLoggerListener;
+import us.ihmc.robotics.robotDescription.RobotDescription;
+
+/**
+ * Crawls all logs in a directory tree on a bounded pool of worker threads.
+ *
+ * Robot models are loaded once per unique model and resource bundle and shared between all logs. The handshake is parsed again for every
+ * log, because the parsed registry holds the state of the log being crawled and listeners may add variables to it or keep references to it.
+ *
+ * When a progress file is given, every successfully crawled log is appended to it. Logs listed in the progress file are skipped, so a
+ * crawl that was interrupted can be resumed by running it again with the same progress file.
+ */
+public class ParallelLogCrawler
+{
+   public static final int DEFAULT_NUMBER_OF_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+   private static final long PROGRESS_REPORT_PERIOD_IN_SECONDS = 10;
+
+   public interface LogCrawlerListenerFactory
+   {
+      /**
+       * Create a new listener for a single log. Listeners are called from the worker thread crawling that log.
+       */
+      public abstract LogCrawlerListenerInterface createListener(File logDirectory);
+   }
+
+   private final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + YoVariableLoggerListener.propertyFile);
+
+   private final LogCrawlerListenerFactory listenerFactory;
+   private final int numberOfThreads;
+   private final File progressFile;
+
+   private final ConcurrentHashMap<String, RobotDescription> robotDescriptions = new ConcurrentHashMap<>();
+   private final LogCrawlerResourceProvider resourceProvider;
+
+   private final List<LogCrawler> crawlers = Collections.synchronizedList(new ArrayList<>());
+
+   public ParallelLogCrawler(LogCrawlerListenerFactory listenerFactory)
+   {
+      this(listenerFactory, DEFAULT_NUMBER_OF_THREADS, null);
+   }
+
+   /**
+    * @param listenerFactory creates a listener for every log
+    * @param numberOfThreads number of logs crawled at the same time
+    * @param progressFile file to store the crawled logs in, to be able to resume. Can be null.
+    */
+   public ParallelLogCrawler(LogCrawlerListenerFactory listenerFactory, int numberOfThreads, File progressFile)
+   {
+      this.listenerFactory = listenerFactory;
+      this.numberOfThreads = numberOfThreads;
+      this.progressFile = progressFile;
+      this.resourceProvider = new SharedResourceProvider();
+   }
+
+   /**
+    * Crawl using the given resource provider instead of loading the handshake and model from the logs.
+    */
+   ParallelLogCrawler(LogCrawlerListenerFactory listenerFactory, int numberOfThreads, File progressFile, LogCrawlerResourceProvider resourceProvider)
+   {
+      this.listenerFactory = listenerFactory;
+      this.numberOfThreads = numberOfThreads;
+      this.progressFile = progressFile;
+      this.resourceProvider = resourceProvider;
+   }
+
+   /**
+    * Find all log directories below root, sorted by path so logs of the same robot and day end up close together.
+    */
+   public List<File> findLogs(File root) throws IOException
+   {
+      List<File> logs = new ArrayList<>();
+      Files.walkFileTree(root.toPath(), new SimpleFileVisitor<Path>()
+      {
+         @Override
+         public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+         {
+            if (matcher.matches(file.getFileName()))
+            {
+               logs.add(file.getParent().toFile());
+            }
+            return FileVisitResult.CONTINUE;
+         }
+
+         @Override
+         public FileVisitResult visitFileFailed(Path file, IOException exc)
+         {
+            System.err.println(exc.getMessage());
+            return FileVisitResult.CONTINUE;
+         }
+      });
+      Collections.sort(logs);
+      return logs;
+   }
+
+   /**
+    * Crawl all logs below root and block until all of them are done.
+    */
+   public void crawl(File root) throws IOException, InterruptedException
+   {
+      List<File> logs = findLogs(root);
+      Set<String> completedLogs = readProgressFile();
+
+      ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads, ThreadTools.getNamedThreadFactory(getClass().getSimpleName()));
+      int skippedLogs = 0;
+      for (File log : logs)
+      {
+         if (completedLogs.contains(log.getAbsolutePath()))
+         {
+            skippedLogs++;
+            continue;
+         }
+
+         LogCrawler crawler = new LogCrawler(log, listenerFactory.createListener(log), resourceProvider);
+         crawlers.add(crawler);
+         executor.execute(() ->
+         {
+            crawler.run();
+            if (!crawler.hasFailed())
+            {
+               markCompleted(crawler.getLogFile());
+            }
+         });
+      }
+      executor.shutdown();
+
+      System.out.println("Crawling " + crawlers.size() + " logs on " + numberOfThreads + " threads. Skipped " + skippedLogs + " previously crawled logs.");
+
+      ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(ThreadTools.getNamedThreadFactory("LogCrawlerProgress"));
+      reporter.scheduleAtFixedRate(this::printProgress, PROGRESS_REPORT_PERIOD_IN_SECONDS, PROGRESS_REPORT_PERIOD_IN_SECONDS, TimeUnit.SECONDS);
+
+      executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+      reporter.shutdownNow();
+      printProgress();
+   }
+
+   /**
+    * @return the crawlers of the current crawl, including the ones that are not started yet
+    */
+   public List<LogCrawler> getCrawlers()
+   {
+      synchronized (crawlers)
+      {
+         return new ArrayList<>(crawlers);
+      }
+   }
+
+   public void printProgress()
+   {
+      int finished = 0;
+      int failed = 0;
+      long ticks = 0;
+      double ticksPerSecond = 0.0;
+
+      StringBuilder running = new StringBuilder();
+      for (LogCrawler crawler : getCrawlers())
+      {
+         ticks += crawler.getNumberOfTicksProcessed();
+         if (crawler.isFinished())
+         {
+            finished++;
+            if (crawler.hasFailed())
+            {
+               failed++;
+            }
+         }
+         else if (crawler.isStarted())
+         {
+            double crawlerTicksPerSecond = crawler.getTicksPerSecond();
+            ticksPerSecond += crawlerTicksPerSecond;
+            running.append(String.format("   %s: %.1f%%, %.0f ticks/s%n", crawler.getLogFileName(), crawler.getProgress() * 100.0, crawlerTicksPerSecond));
+         }
+      }
+
+      System.out.println("Finished " + finished + "/" + crawlers.size() + " logs (" + failed + " failed), processed " + ticks + " ticks, "
+            + String.format("%.0f", ticksPerSecond) + " ticks/s");
+      System.out.print(running);
+   }
+
+   private Set<String> readProgressFile() throws IOException
+   {
+      Set<String> completedLogs = new HashSet<>();
+      if (progressFile != null && progressFile.exists())
+      {
+         for (String line : Files.readAllLines(progressFile.toPath()))
+         {
+            if (!line.trim().isEmpty())
+            {
+               completedLogs.add(line.trim());
+            }
+         }
+      }
+      return completedLogs;
+   }
+
+   private synchronized void markCompleted(File log)
+   {
+      if (progressFile == null)
+      {
+         return;
+      }
+
+      try (PrintWriter writer = new PrintWriter(new FileWriter(progressFile, true)))
+      {
+         writer.println(log.getAbsolutePath());
+      }
+      catch (IOException e)
+      {
+         e.printStackTrace();
+      }
+   }
+
+   private static String hash(File... files) throws IOException
+   {
+      StringBuilder hash = new StringBuilder();
+      for (File file : files)
+      {
+         hash.append(com.google.common.io.Files.hash(file, Hashing.sha1()).toString());
+      }
+      return hash.toString();
+   }
+
+   private class SharedResourceProvider implements LogCrawlerResourceProvider
+   {
+      @Override
+      public YoVariableHandshakeParser getHandshakeParser(File logDirectory, LogPropertiesReader logProperties) throws IOException
+      {
+         return LogCrawler.parseHandshake(logDirectory, logProperties);
+      }
+
+      @Override
+      public RobotDescription getRobotDescription(File logDirectory, LogPropertiesReader logProperties) throws IOException
+      {
+         if (logProperties.getModel().getLoaderAsString().isEmpty())
+         {
+            throw new RuntimeException("No model available for log");
+         }
+
+         File model = new File(logDirectory, logProperties.getModel().getPathAsString());
+         File resourceBundle = new File(logDirectory, logProperties.getModel().getResourceBundleAsString());
+         String key = logProperties.getModel().getNameAsString() + hash(model, resourceBundle);
+
+         // Loads every model only once, other logs with the same model block until it is loaded
+         return robotDescriptions.computeIfAbsent(key, k ->
+         {
+            try
+            {
+               long start = System.nanoTime();
+               RobotDescription robotDescription = LogCrawler.loadRobotDescription(logDirectory, logProperties);
+               System.out.println("Loaded model " + logProperties.getModel().getNameAsString() + " in "
+                     + Conversions.nanosecondsToSeconds(System.nanoTime() - start) + " s");
+               return robotDescription;
+            }
+            catch (IOException e)
+            {
+               throw new RuntimeException(e);
+            }
+         });
+      }
+   }
+}
@@ -13,6 +13,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import us.ihmc.commons.Conversions;
 import us.ihmc.robotDataLogger.LogIndex;
 import us.ihmc.robotDataLogger.jointState.JointState;
+import us.ihmc.robotDataLogger.logger.ColumnarLogReader;
 import us.ihmc.robotDataLogger.logger.LogPropertiesReader;
 import us.ihmc.yoVariables.registry.YoVariableRegistry;
 import us.ihmc.yoVariables.variable.YoDouble;
@@ -36,6 +37,12 @@ public class SpecificLogVariableUpdater
    private final ByteBuffer compressedBuffer;
    private int index = 0;
 
+   // Columnar data helpers, only the columns of the variables to update are read
+   private final ColumnarLogReader columnarLogReader;
+   private final int[] columns;
+   private final long[][] columnValues;
+   private int columnBlock = -1;
+
    private final ByteBuffer logLine;
    private final LongBuffer logLongArray;
 
@@ -107,6 +114,23 @@ public class SpecificLogVariableUpdater
       }
       
       getIndexes();
+
+      if (compressed && ColumnarLogReader.hasColumnarData(selectedFile))
+      {
+         columnarLogReader = new ColumnarLogReader(selectedFile);
+         columns = new int[variablesToUpdate.length + 1];
+         for (int i = 0; i < variablesToUpdate.length; i++)
+         {
+            columns[i + 1] = indexes.get(variablesToUpdate[i]).get();
+         }
+         columnValues = new long[columns.length][columnarLogReader.getTicksPerBlock()];
+      }
+      else
+      {
+         columnarLogReader = null;
+         columns = null;
+         columnValues = null;
+      }
    }
 
    public void getIndexes()
@@ -130,6 +154,11 @@ public class SpecificLogVariableUpdater
    {
       try
       {
+         if (columnarLogReader != null)
+         {
+            return readColumnarTickReturnTrueIfDone();
+         }
+
          if (!readLogLine())
          {
             return true;
@@ -154,6 +183,36 @@ public class SpecificLogVariableUpdater
       return false;
    }
 
+   private boolean readColumnarTickReturnTrueIfDone() throws IOException
+   {
+      if (index >= columnarLogReader.getNumberOfTicks())
+      {
+         return true;
+      }
+
+      int block = columnarLogReader.getBlock(index);
+      if (block != columnBlock)
+      {
+         for (int c = 0; c < columns.length; c++)
+         {
+            columnarLogReader.readColumn(block, columns[c], columnValues[c], 0);
+         }
+         columnBlock = block;
+      }
+
+      int tick = index - columnarLogReader.getFirstTickInBlock(block);
+      timestamp.set(columnValues[0][tick]);
+      robotTime.set(Conversions.nanosecondsToSeconds(timestamp.getLongValue() - initialTimestamp));
+
+      for (int i = 0; i < variablesToUpdate.length; i++)
+      {
+         variablesToUpdate[i].setValueFromLongBits(columnValues[i + 1][tick], false);
+      }
+
+      ++index;
+      return false;
+   }
+
    private void positionChannel(int position) throws IOException
    {
       if (compressed)
@@ -219,7 +278,25 @@ public class SpecificLogVariableUpdater
    
    public int getNumberOfEntries()
    {
-      return logIndex.getNumberOfEntries();
+      if (columnarLogReader != null)
+      {
+         return columnarLogReader.getNumberOfTicks();
+      }
+      else if (compressed)
+      {
+         return logIndex.getNumberOfEntries();
+      }
+      else
+      {
+         try
+         {
+            return (int) (logChannel.size() / logLine.capacity());
+         }
+         catch (IOException e)
+         {
+            return -1;
+         }
+      }
    }
 
    public void close()
@@ -227,6 +304,10 @@ public class SpecificLogVariableUpdater
       try
       {
          logChannel.close();
+         if (columnarLogReader != null)
+         {
+            columnarLogReader.close();
+         }
       }
       catch (IOException e)
       {
@@ -0,0 +1,294 @@
+package us.ihmc.robotDataVisualizer.logger.searcher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.idl.serializers.extra.YAMLSerializer;
+import us.ihmc.robotDataLogger.Handshake;
+import us.ihmc.robotDataLogger.HandshakeFileType;
+import us.ihmc.robotDataLogger.HandshakePubSubType;
+import us.ihmc.robotDataLogger.dataBuffers.RegistrySendBufferBuilder;
+import us.ihmc.robotDataLogger.handshake.IDLYoVariableHandshakeParser;
+import us.ihmc.robotDataLogger.handshake.YoVariableHandShakeBuilder;
+import us.ihmc.robotDataLogger.handshake.YoVariableHandshakeParser;
+import us.ihmc.robotDataLogger.logger.LogPropertiesReader;
+import us.ihmc.robotDataLogger.logger.LogPropertiesWriter;
+import us.ihmc.robotDataLogger.logger.YoVariableLoggerListener;
+import us.ihmc.robotics.robotDescription.RobotDescription;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+import us.ihmc.yoVariables.variable.YoLong;
+import us.ihmc.yoVariables.variable.YoVariable;
+
+public class ParallelLogCrawlerTest
+{
+   private static final String handshakeFilename = "handshake.yaml";
+   private static final String dataFilename = "robotData.log";
+   private static final String counterName = "counter";
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testCrawlDirectoryOfLogs() throws IOException, InterruptedException
+   {
+      File root = createTempDirectory("parallelLogCrawler");
+      List<File> logs = new ArrayList<>();
+      for (int i = 0; i < 6; i++)
+      {
+         File robotDirectory = new File(root, "robot" + (i % 2));
+         logs.add(createLog(robotDirectory, "log" + i, 50 + 10 * i, true));
+      }
+      File brokenLog = createLog(new File(root, "robot0"), "brokenLog", 20, false);
+
+      File progressFile = new File(root, "progress.txt");
+      progressFile.deleteOnExit();
+
+      TestListenerFactory listenerFactory = new TestListenerFactory();
+      ParallelLogCrawler crawler = new ParallelLogCrawler(listenerFactory, 3, progressFile, new TestResourceProvider());
+
+      List<File> foundLogs = crawler.findLogs(root);
+      assertEquals(logs.size() + 1, foundLogs.size());
+      assertTrue(foundLogs.containsAll(logs));
+      assertTrue(foundLogs.contains(brokenLog));
+
+      crawler.crawl(root);
+
+      assertEquals(logs.size() + 1, crawler.getCrawlers().size());
+      for (LogCrawler logCrawler : crawler.getCrawlers())
+      {
+         assertTrue(logCrawler.isFinished());
+         assertEquals(logCrawler.getLogFile().equals(brokenLog), logCrawler.hasFailed());
+      }
+
+      Set<YoVariableRegistry> registries = new HashSet<>();
+      for (int i = 0; i < logs.size(); i++)
+      {
+         TestListener listener = listenerFactory.listeners.get(logs.get(i));
+         assertTrue(listener.finished);
+         assertEquals(50 + 10 * i, listener.counterValues.size());
+         for (int tick = 0; tick < listener.counterValues.size(); tick++)
+         {
+            assertEquals(tick, listener.counterValues.get(tick).longValue());
+         }
+
+         // Every log gets a freshly parsed registry, even when the handshake is identical
+         assertTrue(registries.add(listener.registry));
+      }
+      assertTrue(listenerFactory.listeners.get(brokenLog).finished);
+
+      Set<String> completedLogs = readProgressFile(progressFile);
+      assertEquals(logs.size(), completedLogs.size());
+      for (File log : logs)
+      {
+         assertTrue(completedLogs.contains(log.getAbsolutePath()));
+      }
+      assertFalse(completedLogs.contains(brokenLog.getAbsolutePath()));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testResumeFromPartialProgressFile() throws IOException, InterruptedException
+   {
+      File root = createTempDirectory("parallelLogCrawlerResume");
+      List<File> logs = new ArrayList<>();
+      for (int i = 0; i < 5; i++)
+      {
+         logs.add(createLog(root, "log" + i, 30, true));
+      }
+
+      File progressFile = new File(root, "progress.txt");
+      progressFile.deleteOnExit();
+      Files.write(progressFile.toPath(), (logs.get(0).getAbsolutePath() + System.lineSeparator() + logs.get(3).getAbsolutePath() + System.lineSeparator()
+            + System.lineSeparator()).getBytes());
+
+      TestListenerFactory listenerFactory = new TestListenerFactory();
+      ParallelLogCrawler crawler = new ParallelLogCrawler(listenerFactory, 2, progressFile, new TestResourceProvider());
+      crawler.crawl(root);
+
+      assertEquals(3, crawler.getCrawlers().size());
+      assertEquals(3, listenerFactory.listeners.size());
+      assertFalse(listenerFactory.listeners.containsKey(logs.get(0)));
+      assertFalse(listenerFactory.listeners.containsKey(logs.get(3)));
+      for (int i : new int[] {1, 2, 4})
+      {
+         TestListener listener = listenerFactory.listeners.get(logs.get(i));
+         assertTrue(listener.finished);
+         assertEquals(30, listener.counterValues.size());
+      }
+
+      Set<String> completedLogs = readProgressFile(progressFile);
+      assertEquals(logs.size(), completedLogs.size());
+      for (File log : logs)
+      {
+         assertTrue(completedLogs.contains(log.getAbsolutePath()));
+      }
+
+      // Crawling again with the complete progress file does nothing
+      TestListenerFactory secondListenerFactory = new TestListenerFactory();
+      ParallelLogCrawler secondCrawler = new ParallelLogCrawler(secondListenerFactory, 2, progressFile, new TestResourceProvider());
+      secondCrawler.crawl(root);
+      assertTrue(secondCrawler.getCrawlers().isEmpty());
+      assertTrue(secondListenerFactory.listeners.isEmpty());
+   }
+
+   private static File createTempDirectory(String prefix) throws IOException
+   {
+      File directory = Files.createTempDirectory(prefix).toFile();
+      directory.deleteOnExit();
+      return directory;
+   }
+
+   /**
+    * Writes an uncompressed log with a single counter variable that is equal to the tick index.
+    */
+   private static File createLog(File parent, String name, int numberOfTicks, boolean writeData) throws IOException
+   {
+      if (!parent.exists())
+      {
+         assertTrue(parent.mkdirs());
+         parent.deleteOnExit();
+      }
+      File logDirectory = new File(parent, name);
+      assertTrue(logDirectory.mkdir());
+      logDirectory.deleteOnExit();
+
+      YoVariableRegistry registry = new YoVariableRegistry("main");
+      new YoLong(counterName, registry);
+      YoVariableHandShakeBuilder handShakeBuilder = new YoVariableHandShakeBuilder("root", 0.001);
+      handShakeBuilder.addRegistryBuffer(new RegistrySendBufferBuilder(registry, null, null));
+      Handshake handshake = handShakeBuilder.getHandShake();
+
+      File handshakeFile = new File(logDirectory, handshakeFilename);
+      handshakeFile.deleteOnExit();
+      new YAMLSerializer<>(new HandshakePubSubType()).serialize(handshakeFile, handshake);
+
+      File propertiesFile = new File(logDirectory, YoVariableLoggerListener.propertyFile);
+      propertiesFile.deleteOnExit();
+      LogPropertiesWriter logProperties = new LogPropertiesWriter(propertiesFile);
+      logProperties.getVariables().setHandshake(handshakeFilename);
+      logProperties.getVariables().setData(dataFilename);
+      logProperties.getVariables().setCompressed(false);
+      logProperties.getVariables().setHandshakeFileType(HandshakeFileType.IDL_YAML);
+      logProperties.setName(name);
+      logProperties.store();
+
+      if (writeData)
+      {
+         YoVariableHandshakeParser parser = new IDLYoVariableHandshakeParser(HandshakeFileType.IDL_YAML);
+         parser.parseFrom(handshake);
+
+         File dataFile = new File(logDirectory, dataFilename);
+         dataFile.deleteOnExit();
+         try (DataOutputStream stream = new DataOutputStream(new FileOutputStream(dataFile)))
+         {
+            for (int tick = 0; tick < numberOfTicks; tick++)
+            {
+               stream.writeLong(1000000L * tick);
+               for (int state = 1; state < parser.getNumberOfStates(); state++)
+               {
+                  stream.writeLong(tick);
+               }
+            }
+         }
+      }
+
+      return logDirectory;
+   }
+
+   private static Set<String> readProgressFile(File progressFile) throws IOException
+   {
+      Set<String> completedLogs = new HashSet<>();
+      for (String line : Files.readAllLines(progressFile.toPath()))
+      {
+         if (!line.trim().isEmpty())
+         {
+            assertTrue("Log listed twice: " + line, completedLogs.add(line.trim()));
+         }
+      }
+      return completedLogs;
+   }
+
+   /**
+    * Parses the handshake from the log, but does not need a model.
+    */
+   private static class TestResourceProvider implements LogCrawlerResourceProvider
+   {
+      @Override
+      public YoVariableHandshakeParser getHandshakeParser(File logDirectory, LogPropertiesReader logProperties) throws IOException
+      {
+         return LogCrawler.parseHandshake(logDirectory, logProperties);
+      }
+
+      @Override
+      public RobotDescription getRobotDescription(File logDirectory, LogPropertiesReader logProperties) throws IOException
+      {
+         return new RobotDescription("test");
+      }
+   }
+
+   private static class TestListenerFactory implements ParallelLogCrawler.LogCrawlerListenerFactory
+   {
+      private final Map<File, TestListener> listeners = new ConcurrentHashMap<>();
+
+      @Override
+      public LogCrawlerListenerInterface createListener(File logDirectory)
+      {
+         TestListener listener = new TestListener();
+         listeners.put(logDirectory, listener);
+         return listener;
+      }
+   }
+
+   private static class TestListener implements LogCrawlerListenerInterface
+   {
+      private final List<Long> counterValues = new ArrayList<>();
+      private YoVariableRegistry registry;
+      private YoLong counter;
+      private volatile boolean finished = false;
+
+      @Override
+      public YoVariable<?>[] getYovariablesToUpdate(YoVariableRegistry registry, RobotDescription robotDescription)
+      {
+         this.registry = registry;
+         for (YoVariable<?> variable : registry.getAllVariablesIncludingDescendants())
+         {
+            if (variable.getName().equals(counterName))
+            {
+               counter = (YoLong) variable;
+            }
+         }
+         return new YoVariable<?>[] {counter};
+      }
+
+      @Override
+      public void update(double timestamp)
+      {
+         counterValues.add(counter.getLongValue());
+      }
+
+      @Override
+      public void onStart(LogCrawler logSearcher, SpecificLogVariableUpdater logVariableUpdater)
+      {
+      }
+
+      @Override
+      public void onFinish()
+      {
+         finished = true;
+      }
+   }
+}
@@ -0,0 +1,456 @@
+package us.ihmc.robotics.dataStructures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.StampedLock;
+
+import us.ihmc.euclid.geometry.BoundingBox2D;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
+import us.ihmc.robotics.geometry.InclusionFunction;
+import us.ihmc.robotics.lists.RecyclingArrayList;
+
+/**
+ * Height map over a bounded area, stored in square tiles of {@code double} arrays.
+ * <p>
+ * The cells are indexed the same way as in {@link DoubleHashHeightMap}. A cell holds the last
+ * height added to it, and cells without a height hold {@code NaN}. A tile is allocated the first
+ * time a point is added to it. After that, adding or reading points does not allocate.
+ * </p>
+ * <p>
+ * Each tile has its own lock. Writers only block the readers of the tiles they modify. Single-cell
+ * reads are optimistic and do not block writers. Listeners can be registered to learn which tiles
+ * have been modified.
+ * </p>
+ */
+public class TiledHeightMap implements HeightMapWithPoints
+{
+   public static final int DEFAULT_TILE_SIZE = 32;
+
+   private final double gridSize;
+   private final int tileSize;
+
+   private final int minXIndex, minYIndex;
+   private final int numberOfCellsX, numberOfCellsY;
+   private final int numberOfTilesX, numberOfTilesY;
+
+   private final AtomicReferenceArray<Tile> tiles;
+   private final CopyOnWriteArrayList<TiledHeightMapListener> listeners = new CopyOnWriteArrayList<>();
+
+   public TiledHeightMap(double minX, double minY, double maxX, double maxY, double gridSize)
+   {
+      this(minX, minY, maxX, maxY, gridSize, DEFAULT_TILE_SIZE);
+   }
+
+   /**
+    * @param tileSize the number of cells along each side of a tile.
+    */
+   public TiledHeightMap(double minX, double minY, double maxX, double maxY, double gridSize, int tileSize)
+   {
+      if (maxX < minX || maxY < minY)
+         throw new RuntimeException("Invalid bounds: x in [" + minX + ", " + maxX + "], y in [" + minY + ", " + maxY + "].");
+      if (tileSize < 1)
+         throw new RuntimeException("Invalid tile size: " + tileSize);
+
+      this.gridSize = gridSize;
+      this.tileSize = tileSize;
+
+      minXIndex = index(minX);
+      minYIndex = index(minY);
+      numberOfCellsX = index(maxX) - minXIndex + 1;
+      numberOfCellsY = index(maxY) - minYIndex + 1;
+      numberOfTilesX = (numberOfCellsX + tileSize - 1) / tileSize;
+      numberOfTilesY = (numberOfCellsY + tileSize - 1) / tileSize;
+
+      tiles = new AtomicReferenceArray<>(numberOfTilesX * numberOfTilesY);
+   }
+
+   public void addListener(TiledHeightMapListener listener)
+   {
+      listeners.add(listener);
+   }
+
+   public void removeListener(TiledHeightMapListener listener)
+   {
+      listeners.remove(listener);
+   }
+
+   @Override
+   public double getHeightAtPoint(double x, double y)
+   {
+      int xCell = index(x) - minXIndex;
+      int yCell = index(y) - minYIndex;
+
+      if (!isCellInBounds(xCell, yCell))
+         return Double.NaN;
+
+      Tile tile = tiles.get(tileIndex(xCell, yCell));
+      if (tile == null)
+         return Double.NaN;
+
+      return tile.getHeight(cellIndexInTile(xCell, yCell));
+   }
+
+   @Override
+   public boolean containsPoint(double x, double y)
+   {
+      return Double.isFinite(getHeightAtPoint(x, y));
+   }
+
+   /**
+    * Stores the height of the cell containing the given point. Heights that are not finite are
+    * ignored.
+    *
+    * @return {@code false} if the point is outside of the bounds of the map, {@code true}
+    *         otherwise.
+    */
+   @Override
+   public boolean addPoint(double x, double y, double z)
+   {
+      int xCell = index(x) - minXIndex;
+      int yCell = index(y) - minYIndex;
+
+      if (!isCellInBounds(xCell, yCell))
+         return false;
+      if (!Double.isFinite(z))
+         return true;
+
+      int tileIndex = tileIndex(xCell, yCell);
+      Tile tile = getOrCreateTile(tileIndex);
+
+      long stamp = tile.lock.writeLock();
+      boolean hasChanged;
+      try
+      {
+         hasChanged = tile.setHeight(cellIndexInTile(xCell, yCell), z);
+      }
+      finally
+      {
+         tile.lock.unlockWrite(stamp);
+      }
+
+      if (hasChanged)
+         notifyTileUpdated(tileIndex);
+
+      return true;
+   }
+
+   /**
+    * Adds all the given points to the map.
+    * <p>
+    * The lock of a tile is kept while consecutive points fall in the same tile, and listeners are
+    * notified once per run of points in a modified tile. Lidar scans, in which consecutive points
+    * are mostly close to each other, are inserted much faster than by adding the points one by one.
+    * </p>
+    *
+    * @param points the points to add. Not modified.
+    * @return the number of points that were inside the bounds of the map.
+    */
+   public int addPoints(List<? extends Point3DReadOnly> points)
+   {
+      int numberOfPointsAdded = 0;
+
+      Tile lockedTile = null;
+      int lockedTileIndex = -1;
+      long stamp = 0L;
+      boolean hasLockedTileChanged = false;
+
+      try
+      {
+         for (int i = 0; i < points.size(); i++)
+         {
+            Point3DReadOnly point = points.get(i);
+            int xCell = index(point.getX()) - minXIndex;
+            int yCell = index(point.getY()) - minYIndex;
+
+            if (!isCellInBounds(xCell, yCell))
+               continue;
+
+            numberOfPointsAdded++;
+
+            if (!Double.isFinite(point.getZ()))
+               continue;
+
+            int tileIndex = tileIndex(xCell, yCell);
+
+            if (tileIndex != lockedTileIndex)
+            {
+               if (lockedTile != null)
+               {
+                  lockedTile.lock.unlockWrite(stamp);
+                  lockedTile = null;
+                  if (hasLockedTileChanged)
+                     notifyTileUpdated(lockedTileIndex);
+               }
+
+               lockedTile = getOrCreateTile(tileIndex);
+               lockedTileIndex = tileIndex;
+               stamp = lockedTile.lock.writeLock();
+               hasLockedTileChanged = false;
+            }
+
+            hasLockedTileChanged |= lockedTile.setHeight(cellIndexInTile(xCell, yCell), point.getZ());
+         }
+      }
+      finally
+      {
+         if (lockedTile != null)
+            lockedTile.lock.unlockWrite(stamp);
+      }
+
+      if (lockedTile != null && hasLockedTileChanged)
+         notifyTileUpdated(lockedTileIndex);
+
+      return numberOfPointsAdded;
+   }
+
+   /**
+    * Removes all the heights from the map. The tiles are kept so filling the map again does not
+    * allocate.
+    */
+   @Override
+   public void clear()
+   {
+      for (int tileIndex = 0; tileIndex < tiles.length(); tileIndex++)
+      {
+         Tile tile = tiles.get(tileIndex);
+         if (tile == null)
+            continue;
+
+         long stamp = tile.lock.writeLock();
+         try
+         {
+            tile.clear();
+         }
+         finally
+         {
+            tile.lock.unlockWrite(stamp);
+         }
+      }
+
+      for (int i = 0; i < listeners.size(); i++)
+         listeners.get(i).mapCleared();
+   }
+
+   @Override
+   public List<Point3D> getAllPointsWithinArea(double xCenter, double yCenter, double xExtent, double yExtent)
+   {
+      return getAllPointsWithinArea(xCenter, yCenter, xExtent, yExtent, (InclusionFunction<Point3D>) null);
+   }
+
+   @Override
+   public List<Point3D> getAllPointsWithinArea(double xCenter, double yCenter, double xExtent, double yExtent,
+                                               InclusionFunction<Point3D> maskFunctionAboutCenter)
+   {
+      ArrayList<Point3D> points = new ArrayList<>();
+      RecyclingArrayList<Point3D> pointsInArea = new RecyclingArrayList<>(Point3D.class);
+      getAllPointsWithinArea(xCenter, yCenter, xExtent, yExtent, pointsInArea);
+
+      for (int i = 0; i < pointsInArea.size(); i++)
+      {
+         Point3D point = pointsInArea.get(i);
+         if (maskFunctionAboutCenter == null || maskFunctionAboutCenter.isIncluded(point))
+            points.add(point);
+      }
+
+      return points;
+   }
+
+   /**
+    * Same as {@link #getAllPointsWithinArea(double, double, double, double)} but packs the points in
+    * the given list, such that no allocation happens once the list has grown large enough.
+    * <p>
+    * The points are sorted by increasing x index, then by increasing y index.
+    * </p>
+    *
+    * @param pointsToPack the list in which the points are stored. Cleared first. Modified.
+    */
+   public void getAllPointsWithinArea(double xCenter, double yCenter, double xExtent, double yExtent, RecyclingArrayList<Point3D> pointsToPack)
+   {
+      pointsToPack.clear();
+
+      int xCellMin = Math.max(index(xCenter - 0.5 * xExtent) - minXIndex, 0);
+      int xCellMax = Math.min(index(xCenter + 0.5 * xExtent) - minXIndex, numberOfCellsX - 1);
+      int yCellMin = Math.max(index(yCenter - 0.5 * yExtent) - minYIndex, 0);
+      int yCellMax = Math.min(index(yCenter + 0.5 * yExtent) - minYIndex, numberOfCellsY - 1);
+
+      if (xCellMax < xCellMin || yCellMax < yCellMin)
+         return;
+
+      for (int xCell = xCellMin; xCell <= xCellMax; xCell++)
+      {
+         int yCell = yCellMin;
+
+         while (yCell <= yCellMax)
+         {
+            // Read the part of the column that lies in the current tile under a single lock.
+            int yCellEndInTile = Math.min((yCell / tileSize + 1) * tileSize - 1, yCellMax);
+            Tile tile = tiles.get(tileIndex(xCell, yCell));
+
+            if (tile != null)
+            {
+               long stamp = tile.lock.readLock();
+               try
+               {
+                  for (int y = yCell; y <= yCellEndInTile; y++)
+                  {
+                     double height = tile.heights[cellIndexInTile(xCell, y)];
+                     if (Double.isFinite(height))
+                        pointsToPack.add().set((xCell + minXIndex) * gridSize, (y + minYIndex) * gridSize, height);
+                  }
+               }
+               finally
+               {
+                  tile.lock.unlockRead(stamp);
+               }
+            }
+
+            yCell = yCellEndInTile + 1;
+         }
+      }
+   }
+
+   /**
+    * @return the index of the tile containing the given point, or -1 if the point is outside of the
+    *         bounds of the map.
+    */
+   public int getTileIndex(double x, double y)
+   {
+      int xCell = index(x) - minXIndex;
+      int yCell = index(y) - minYIndex;
+
+      if (!isCellInBounds(xCell, yCell))
+         return -1;
+      return tileIndex(xCell, yCell);
+   }
+
+   public int getNumberOfTiles()
+   {
+      return tiles.length();
+   }
+
+   /**
+    * Packs the area covered by the centers of the cells of the given tile.
+    */
+   public void getTileBoundingBox(int tileIndex, BoundingBox2D boundingBoxToPack)
+   {
+      int xCellMin = (tileIndex / numberOfTilesY) * tileSize;
+      int yCellMin = (tileIndex % numberOfTilesY) * tileSize;
+      int xCellMax = Math.min(xCellMin + tileSize, numberOfCellsX) - 1;
+      int yCellMax = Math.min(yCellMin + tileSize, numberOfCellsY) - 1;
+
+      boundingBoxToPack.set((xCellMin + minXIndex) * gridSize, (yCellMin + minYIndex) * gridSize, (xCellMax + minXIndex) * gridSize,
+                            (yCellMax + minYIndex) * gridSize);
+   }
+
+   /**
+    * The version of a tile is incremented every time one of its heights changes, so a reader can
+    * poll for changes without registering a listener.
+    *
+    * @return the version of the tile, 0 if nothing has ever been added to it.
+    */
+   public long getTileVersion(int tileIndex)
+   {
+      Tile tile = tiles.get(tileIndex);
+      return tile == null ? 0L : tile.version;
+   }
+
+   public double gridSize()
+   {
+      return gridSize;
+   }
+
+   private Tile getOrCreateTile(int tileIndex)
+   {
+      Tile tile = tiles.get(tileIndex);
+
+      if (tile == null)
+      {
+         tiles.compareAndSet(tileIndex, null, new Tile(tileSize));
+         tile = tiles.get(tileIndex);
+      }
+
+      return tile;
+   }
+
+   private void notifyTileUpdated(int tileIndex)
+   {
+      for (int i = 0; i < listeners.size(); i++)
+         listeners.get(i).tileUpdated(tileIndex);
+   }
+
+   private boolean isCellInBounds(int xCell, int yCell)
+   {
+      return xCell >= 0 && xCell < numberOfCellsX && yCell >= 0 && yCell < numberOfCellsY;
+   }
+
+   private int tileIndex(int xCell, int yCell)
+   {
+      return (xCell / tileSize) * numberOfTilesY + yCell / tileSize;
+   }
+
+   private int cellIndexInTile(int xCell, int yCell)
+   {
+      return (xCell % tileSize) * tileSize + yCell % tileSize;
+   }
+
+   private int index(double coordinate)
+   {
+      return (int) Math.round(coordinate / gridSize);
+   }
+
+   private static class Tile
+   {
+      private final StampedLock lock = new StampedLock();
+      private final double[] heights;
+      private volatile long version = 0L;
+
+      private Tile(int tileSize)
+      {
+         heights = new double[tileSize * tileSize];
+         Arrays.fill(heights, Double.NaN);
+      }
+
+      private double getHeight(int cellIndex)
+      {
+         long stamp = lock.tryOptimisticRead();
+         double height = heights[cellIndex];
+
+         if (!lock.validate(stamp))
+         {
+            stamp = lock.readLock();
+            try
+            {
+               height = heights[cellIndex];
+            }
+            finally
+            {
+               lock.unlockRead(stamp);
+            }
+         }
+
+         return height;
+      }
+
+      /** To be called with the write lock held. */
+      private boolean setHeight(int cellIndex, double height)
+      {
+         if (Double.compare(heights[cellIndex], height) == 0)
+            return false;
+
+         heights[cellIndex] = height;
+         version++;
+         return true;
+      }
+
+      /** To be called with the write lock held. */
+      private void clear()
+      {
+         Arrays.fill(heights, Double.NaN);
+         version++;
+      }
+   }
+}
@@ -0,0 +1,20 @@
+package us.ihmc.robotics.dataStructures;
+
+/**
+ * Listener notified of the changes of a {@link TiledHeightMap}. The methods are called from the
+ * thread modifying the map, so they should return quickly.
+ */
+public interface TiledHeightMapListener
+{
+   /**
+    * Called after the height of one or more cells of a tile has changed.
+    *
+    * @param tileIndex the index of the modified tile, see {@link TiledHeightMap#getTileIndex(double, double)}.
+    */
+   public void tileUpdated(int tileIndex);
+
+   /**
+    * Called after all the heights of the map have been cleared.
+    */
+   public void mapCleared();
+}
@@ -5,6 +5,7 @@ import java.util.List;
 
 import us.ihmc.euclid.geometry.BoundingBox3D;
 import us.ihmc.euclid.geometry.LineSegment2D;
+import us.ihmc.euclid.geometry.interfaces.BoundingBox2DReadOnly;
 import us.ihmc.euclid.geometry.interfaces.ConvexPolygon2DReadOnly;
 import us.ihmc.euclid.transform.RigidBodyTransform;
 import us.ihmc.euclid.tuple2D.Point2D;
@@ -15,6 +16,9 @@ public class PlanarRegionsList
 {
    private final List<PlanarRegion> regions;
 
+   private boolean useSpatialIndex = false;
+   private volatile PlanarRegionsSpatialIndex spatialIndex;
+
    public PlanarRegionsList(PlanarRegion... planarRegions)
    {
       regions = new ArrayList<>();
@@ -37,6 +41,7 @@ public class PlanarRegionsList
    public void addPlanarRegion(PlanarRegion region)
    {
       regions.add(region);
+      invalidateSpatialIndex();
    }
 
    /**
@@ -45,6 +50,34 @@ public class PlanarRegionsList
    public void clear()
    {
       regions.clear();
+      invalidateSpatialIndex();
+   }
+
+   /**
+    * Enables or disables the use of a spatial index to speed up the queries of this list, such as
+    * {@link #findPlanarRegionsIntersectingPolygon(ConvexPolygon2DReadOnly)}. It is disabled by
+    * default.
+    * <p>
+    * The index is a grid over the bounding boxes of the regions projected onto the XY-plane. It is
+    * built at the first query and rebuilt after this list is modified through its own methods.
+    * When a region is modified directly, {@link #invalidateSpatialIndex()} has to be called.
+    * </p>
+    * 
+    * @param useSpatialIndex whether the queries should use the spatial index.
+    */
+   public void setUseSpatialIndex(boolean useSpatialIndex)
+   {
+      this.useSpatialIndex = useSpatialIndex;
+      invalidateSpatialIndex();
+   }
+
+   /**
+    * Notifies this list that some of its regions have been modified such that the spatial index, if
+    * used, is rebuilt at the next query.
+    */
+   public void invalidateSpatialIndex()
+   {
+      spatialIndex = null;
    }
 
    /**
@@ -58,23 +91,37 @@ public class PlanarRegionsList
     */
    public List<PlanarRegion> findPlanarRegionsIntersectingPolygon(ConvexPolygon2DReadOnly convexPolygon)
    {
-      List<PlanarRegion> containers = null;
+      List<PlanarRegion> containers = new ArrayList<>();
+      findPlanarRegionsIntersectingPolygon(convexPolygon, containers);
+      return containers.isEmpty() ? null : containers;
+   }
 
-      for (int i = 0; i < regions.size(); i++)
+   /**
+    * Find all the planar regions that intersect with the given convex polygon. The algorithm is
+    * equivalent to projecting all the regions onto the XY-plane and then finding the regions
+    * intersecting with the given convex polygon.
+    * 
+    * @param convexPolygon the query.
+    * @param intersectingRegionsToPack the list the intersecting regions are added to. Modified.
+    */
+   public void findPlanarRegionsIntersectingPolygon(ConvexPolygon2DReadOnly convexPolygon, List<PlanarRegion> intersectingRegionsToPack)
+   {
+      BoundingBox2DReadOnly boundingBox = convexPolygon.getBoundingBox();
+      double minX = boundingBox.getMinX();
+      double minY = boundingBox.getMinY();
+      double maxX = boundingBox.getMaxX();
+      double maxY = boundingBox.getMaxY();
+      PlanarRegionsSpatialIndex index = getSpatialIndex();
+
+      for (int i = nextCandidateIndex(index, minX, minY, maxX, maxY, -1); i >= 0; i = nextCandidateIndex(index, minX, minY, maxX, maxY, i))
       {
          PlanarRegion candidateRegion = regions.get(i);
          if (candidateRegion.isVertical())
             continue;
 
          if (candidateRegion.isPolygonIntersecting(convexPolygon))
-         {
-            if (containers == null)
-               containers = new ArrayList<>();
-            containers.add(candidateRegion);
-         }
+            intersectingRegionsToPack.add(candidateRegion);
       }
-
-      return containers;
    }
 
    /**
@@ -87,7 +134,15 @@ public class PlanarRegionsList
     */
    public void findPlanarRegionsIntersectingLineSegment(LineSegment2D lineSegmentInWorld, ArrayList<PlanarRegion> intersectingRegionsToPack)
    {
-      for (int i = 0; i < regions.size(); i++)
+      Point2DReadOnly firstEndpoint = lineSegmentInWorld.getFirstEndpoint();
+      Point2DReadOnly secondEndpoint = lineSegmentInWorld.getSecondEndpoint();
+      double minX = Math.min(firstEndpoint.getX(), secondEndpoint.getX());
+      double minY = Math.min(firstEndpoint.getY(), secondEndpoint.getY());
+      double maxX = Math.max(firstEndpoint.getX(), secondEndpoint.getX());
+      double maxY = Math.max(firstEndpoint.getY(), secondEndpoint.getY());
+      PlanarRegionsSpatialIndex index = getSpatialIndex();
+
+      for (int i = nextCandidateIndex(index, minX, minY, maxX, maxY, -1); i >= 0; i = nextCandidateIndex(index, minX, minY, maxX, maxY, i))
       {
          PlanarRegion candidateRegion = regions.get(i);
          if (isLineSegmentObviouslyOutsideBoundingBox(candidateRegion, lineSegmentInWorld))
@@ -146,20 +201,34 @@ public class PlanarRegionsList
     */
    public List<PlanarRegion> findPlanarRegionsContainingPoint(Point3DReadOnly point, double maximumOrthogonalDistance)
    {
-      List<PlanarRegion> containers = null;
+      List<PlanarRegion> containers = new ArrayList<>();
+      findPlanarRegionsContainingPoint(point, maximumOrthogonalDistance, containers);
+      return containers.isEmpty() ? null : containers;
+   }
 
-      for (int i = 0; i < regions.size(); i++)
+   /**
+    * Find all the planar regions that contain the given point.
+    * 
+    * @param point the query coordinates.
+    * @param maximumOrthogonalDistance tolerance expressed as maximum orthogonal distance from the
+    *           region.
+    * @param containersToPack the list the regions containing the query are added to. Modified.
+    */
+   public void findPlanarRegionsContainingPoint(Point3DReadOnly point, double maximumOrthogonalDistance, List<PlanarRegion> containersToPack)
+   {
+      // A point within the distance of a region is at most that far from it in the XY-plane.
+      double minX = point.getX() - maximumOrthogonalDistance;
+      double minY = point.getY() - maximumOrthogonalDistance;
+      double maxX = point.getX() + maximumOrthogonalDistance;
+      double maxY = point.getY() + maximumOrthogonalDistance;
+      PlanarRegionsSpatialIndex index = getSpatialIndex();
+
+      for (int i = nextCandidateIndex(index, minX, minY, maxX, maxY, -1); i >= 0; i = nextCandidateIndex(index, minX, minY, maxX, maxY, i))
       {
          PlanarRegion candidateRegion = regions.get(i);
          if (candidateRegion.isPointInside(point, maximumOrthogonalDistance))
-         {
-            if (containers == null)
-               containers = new ArrayList<>();
-            containers.add(candidateRegion);
-         }
+            containersToPack.add(candidateRegion);
       }
-
-      return containers;
    }
 
    /**
@@ -188,20 +257,72 @@ public class PlanarRegionsList
     */
    public List<PlanarRegion> findPlanarRegionsContainingPointByProjectionOntoXYPlane(double x, double y)
    {
-      List<PlanarRegion> containers = null;
+      List<PlanarRegion> containers = new ArrayList<>();
+      findPlanarRegionsContainingPointByProjectionOntoXYPlane(x, y, containers);
+      return containers.isEmpty() ? null : containers;
+   }
 
-      for (int i = 0; i < regions.size(); i++)
+   /**
+    * Find all the planar regions that contain the given point. The algorithm is equivalent to
+    * projecting all the regions onto the XY-plane and then finding the regions containing the
+    * point.
+    * 
+    * @param x the query x-coordinate.
+    * @param y the query y-coordinate.
+    * @param containersToPack the list the regions containing the query are added to. Modified.
+    */
+   public void findPlanarRegionsContainingPointByProjectionOntoXYPlane(double x, double y, List<PlanarRegion> containersToPack)
+   {
+      PlanarRegionsSpatialIndex index = getSpatialIndex();
+
+      for (int i = nextCandidateIndex(index, x, y, x, y, -1); i >= 0; i = nextCandidateIndex(index, x, y, x, y, i))
       {
          PlanarRegion candidateRegion = regions.get(i);
          if (candidateRegion.isPointInsideByProjectionOntoXYPlane(x, y))
+            containersToPack.add(candidateRegion);
+      }
+   }
+
+   /**
+    * Returns the index of the next region to test for a query, i.e. the next region after
+    * {@code previousIndex} whose bounding box intersects the query area when using the spatial
+    * index, or simply the next region otherwise.
+    */
+   private int nextCandidateIndex(PlanarRegionsSpatialIndex index, double minX, double minY, double maxX, double maxY, int previousIndex)
+   {
+      if (index != null)
+         return index.nextRegionIndex(minX, minY, maxX, maxY, previousIndex);
+
+      int nextIndex = previousIndex + 1;
+      return nextIndex < regions.size() ? nextIndex : -1;
+   }
+
+   /**
+    * Gets the spatial index, building it if this list has been modified since the last query.
+    * Queries can be done from several threads at once, the index is built by only one of them.
+    */
+   private PlanarRegionsSpatialIndex getSpatialIndex()
+   {
+      if (!useSpatialIndex)
+         return null;
+
+      PlanarRegionsSpatialIndex index = spatialIndex;
+
+      if (index == null || index.getNumberOfRegions() != regions.size())
+      {
+         synchronized (this)
          {
-            if (containers == null)
-               containers = new ArrayList<>();
-            containers.add(candidateRegion);
+            index = spatialIndex;
+
+            if (index == null || index.getNumberOfRegions() != regions.size())
+            {
+               index = new PlanarRegionsSpatialIndex(regions);
+               spatialIndex = index;
+            }
          }
       }
 
-      return containers;
+      return index;
    }
 
    /** Returns true if this list of planar regions is empty (contains no planar regions). */
@@ -243,7 +364,9 @@ public class PlanarRegionsList
    /** Retrieves the i<sup>th</sup> planar region of this list and removes it from this list. */
    public PlanarRegion pollPlanarRegion(int index)
    {
-      return regions.remove(index);
+      PlanarRegion polledRegion = regions.remove(index);
+      invalidateSpatialIndex();
+      return polledRegion;
    }
 
    /**
@@ -283,5 +406,7 @@ public class PlanarRegionsList
       {
          regions.get(i).transform(rigidBodyTransform);
       }
+
+      invalidateSpatialIndex();
    }
 }
@@ -0,0 +1,263 @@
+package us.ihmc.robotics.geometry;
+
+import java.util.List;
+
+import us.ihmc.euclid.geometry.BoundingBox3D;
+
+/**
+ * Uniform grid over the bounding boxes of a list of planar regions projected onto the XY-plane.
+ * It is used by {@link PlanarRegionsList} to only go through the regions that may contain or
+ * intersect a query.
+ * <p>
+ * The index is a snapshot of the bounding boxes of the regions when it is created and is never
+ * modified afterwards, such that it can be queried from several threads at once.
+ * </p>
+ */
+class PlanarRegionsSpatialIndex
+{
+   /**
+    * Margin added to the bounding boxes such that numerical errors never filter out a region the
+    * exact query would have found.
+    */
+   private static final double BOUNDING_BOX_MARGIN = 1.0e-9;
+   private static final int MAXIMUM_NUMBER_OF_CELLS_PER_AXIS = 256;
+   /**
+    * Queries covering more cells than this go through the bounding boxes of all the regions instead
+    * of merging the content of the cells.
+    */
+   private static final int MAXIMUM_NUMBER_OF_CELLS_PER_QUERY = 16;
+
+   private final int numberOfRegions;
+   /** Bounding box of each region in the XY-plane stored as: minX, minY, maxX, maxY. */
+   private final double[] boundingBoxes;
+
+   private final double minX, minY, maxX, maxY;
+   private final double cellSize;
+   private final int numberOfCellsX, numberOfCellsY;
+   /** The regions of the i<sup>th</sup> cell are in {@code cellRegionIndices} from {@code cellStartIndices[i]} to {@code cellStartIndices[i + 1]}. */
+   private final int[] cellStartIndices;
+   private final int[] cellRegionIndices;
+
+   PlanarRegionsSpatialIndex(List<PlanarRegion> regions)
+   {
+      numberOfRegions = regions.size();
+      boundingBoxes = new double[4 * numberOfRegions];
+
+      double minX = Double.POSITIVE_INFINITY;
+      double minY = Double.POSITIVE_INFINITY;
+      double maxX = Double.NEGATIVE_INFINITY;
+      double maxY = Double.NEGATIVE_INFINITY;
+      int numberOfIndexedRegions = 0;
+
+      for (int regionIndex = 0; regionIndex < numberOfRegions; regionIndex++)
+      {
+         BoundingBox3D boundingBox = regions.get(regionIndex).getBoundingBox3dInWorld();
+         int offset = 4 * regionIndex;
+         boundingBoxes[offset] = boundingBox.getMinX() - BOUNDING_BOX_MARGIN;
+         boundingBoxes[offset + 1] = boundingBox.getMinY() - BOUNDING_BOX_MARGIN;
+         boundingBoxes[offset + 2] = boundingBox.getMaxX() + BOUNDING_BOX_MARGIN;
+         boundingBoxes[offset + 3] = boundingBox.getMaxY() + BOUNDING_BOX_MARGIN;
+
+         // The bounding box of a region without polygon is NaN, such a region never matches a query.
+         if (!isIndexed(regionIndex))
+            continue;
+
+         minX = Math.min(minX, boundingBoxes[offset]);
+         minY = Math.min(minY, boundingBoxes[offset + 1]);
+         maxX = Math.max(maxX, boundingBoxes[offset + 2]);
+         maxY = Math.max(maxY, boundingBoxes[offset + 3]);
+         numberOfIndexedRegions++;
+      }
+
+      this.minX = minX;
+      this.minY = minY;
+      this.maxX = maxX;
+      this.maxY = maxY;
+
+      if (numberOfIndexedRegions == 0)
+      {
+         cellSize = Double.NaN;
+         numberOfCellsX = 0;
+         numberOfCellsY = 0;
+         cellStartIndices = new int[1];
+         cellRegionIndices = new int[0];
+         return;
+      }
+
+      // Aim for about two cells per region.
+      double extentX = maxX - minX;
+      double extentY = maxY - minY;
+      double cellSize = Math.sqrt(extentX * extentY / (2.0 * numberOfIndexedRegions));
+      cellSize = Math.max(cellSize, Math.max(extentX, extentY) / MAXIMUM_NUMBER_OF_CELLS_PER_AXIS);
+      if (!(cellSize > 0.0))
+         cellSize = 1.0;
+      this.cellSize = cellSize;
+      numberOfCellsX = Math.min((int) (extentX / cellSize) + 1, MAXIMUM_NUMBER_OF_CELLS_PER_AXIS);
+      numberOfCellsY = Math.min((int) (extentY / cellSize) + 1, MAXIMUM_NUMBER_OF_CELLS_PER_AXIS);
+
+      // Counting sort of the regions into the cells, the regions of each cell end up sorted by index.
+      int numberOfCells = numberOfCellsX * numberOfCellsY;
+      cellStartIndices = new int[numberOfCells + 1];
+      int[] cellRegionIndices = null;
+      int[] cellFillCounts = null;
+
+      for (int pass = 0; pass < 2; pass++)
+      {
+         for (int regionIndex = 0; regionIndex < numberOfRegions; regionIndex++)
+         {
+            if (!isIndexed(regionIndex))
+               continue;
+
+            int offset = 4 * regionIndex;
+            int minCellX = getCellX(boundingBoxes[offset]);
+            int minCellY = getCellY(boundingBoxes[offset + 1]);
+            int maxCellX = getCellX(boundingBoxes[offset + 2]);
+            int maxCellY = getCellY(boundingBoxes[offset + 3]);
+
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++)
+            {
+               for (int cellY = minCellY; cellY <= maxCellY; cellY++)
+               {
+                  int cellIndex = getCellIndex(cellX, cellY);
+                  if (pass == 0)
+                     cellStartIndices[cellIndex + 1]++;
+                  else
+                     cellRegionIndices[cellStartIndices[cellIndex] + cellFillCounts[cellIndex]++] = regionIndex;
+               }
+            }
+         }
+
+         if (pass == 0)
+         {
+            for (int cellIndex = 0; cellIndex < numberOfCells; cellIndex++)
+               cellStartIndices[cellIndex + 1] += cellStartIndices[cellIndex];
+            cellRegionIndices = new int[cellStartIndices[numberOfCells]];
+            cellFillCounts = new int[numberOfCells];
+         }
+      }
+
+      this.cellRegionIndices = cellRegionIndices;
+   }
+
+   /**
+    * Finds the next region whose bounding box intersects the query area.
+    *
+    * @param queryMinX the minimum x-coordinate of the query area.
+    * @param queryMinY the minimum y-coordinate of the query area.
+    * @param queryMaxX the maximum x-coordinate of the query area.
+    * @param queryMaxY the maximum y-coordinate of the query area.
+    * @param previousRegionIndex the index of the last region returned, or -1 to start the query.
+    * @return the smallest index greater than {@code previousRegionIndex} of a region that may
+    *         intersect the query area, or -1 if there is none.
+    */
+   int nextRegionIndex(double queryMinX, double queryMinY, double queryMaxX, double queryMaxY, int previousRegionIndex)
+   {
+      if (numberOfCellsX == 0)
+         return -1;
+      if (queryMaxX < minX || queryMinX > maxX || queryMaxY < minY || queryMinY > maxY)
+         return -1;
+
+      int minCellX = getCellX(queryMinX);
+      int minCellY = getCellY(queryMinY);
+      int maxCellX = getCellX(queryMaxX);
+      int maxCellY = getCellY(queryMaxY);
+
+      if ((maxCellX - minCellX + 1) * (maxCellY - minCellY + 1) > MAXIMUM_NUMBER_OF_CELLS_PER_QUERY)
+      {
+         for (int regionIndex = previousRegionIndex + 1; regionIndex < numberOfRegions; regionIndex++)
+         {
+            if (intersects(regionIndex, queryMinX, queryMinY, queryMaxX, queryMaxY))
+               return regionIndex;
+         }
+         return -1;
+      }
+
+      // Merges the sorted content of the cells, such that the regions come out in the same order as in the list.
+      int nextRegionIndex = Integer.MAX_VALUE;
+
+      for (int cellX = minCellX; cellX <= maxCellX; cellX++)
+      {
+         for (int cellY = minCellY; cellY <= maxCellY; cellY++)
+         {
+            int cellIndex = getCellIndex(cellX, cellY);
+            int end = cellStartIndices[cellIndex + 1];
+
+            for (int i = firstIndexAfter(cellStartIndices[cellIndex], end, previousRegionIndex); i < end; i++)
+            {
+               int regionIndex = cellRegionIndices[i];
+               if (regionIndex >= nextRegionIndex)
+                  break;
+
+               if (intersects(regionIndex, queryMinX, queryMinY, queryMaxX, queryMaxY))
+               {
+                  nextRegionIndex = regionIndex;
+                  break;
+               }
+            }
+         }
+      }
+
+      return nextRegionIndex == Integer.MAX_VALUE ? -1 : nextRegionIndex;
+   }
+
+   /** Returns the number of regions in the list this index was built from. */
+   int getNumberOfRegions()
+   {
+      return numberOfRegions;
+   }
+
+   private int firstIndexAfter(int start, int end, int regionIndex)
+   {
+      int low = start;
+      int high = end;
+
+      while (low < high)
+      {
+         int mid = (low + high) >>> 1;
+         if (cellRegionIndices[mid] <= regionIndex)
+            low = mid + 1;
+         else
+            high = mid;
+      }
+
+      return low;
+   }
+
+   private boolean intersects(int regionIndex, double queryMinX, double queryMinY, double queryMaxX, double queryMaxY)
+   {
+      int offset = 4 * regionIndex;
+      return boundingBoxes[offset] <= queryMaxX && boundingBoxes[offset + 1] <= queryMaxY && boundingBoxes[offset + 2] >= queryMinX
+            && boundingBoxes[offset + 3] >= queryMinY;
+   }
+
+   private boolean isIndexed(int regionIndex)
+   {
+      int offset = 4 * regionIndex;
+      return boundingBoxes[offset] <= boundingBoxes[offset + 2] && boundingBoxes[offset + 1] <= boundingBoxes[offset + 3];
+   }
+
+   private int getCellX(double x)
+   {
+      return clampCell((int) Math.floor((x - minX) / cellSize), numberOfCellsX);
+   }
+
+   private int getCellY(double y)
+   {
+      return clampCell((int) Math.floor((y - minY) / cellSize), numberOfCellsY);
+   }
+
+   private int getCellIndex(int cellX, int cellY)
+   {
+      return cellX * numberOfCellsY + cellY;
+   }
+
+   private static int clampCell(int cell, int numberOfCells)
+   {
+      if (cell < 0)
+         return 0;
+      else if (cell >= numberOfCells)
+         return numberOfCells - 1;
+      else
+         return cell;
+   }
+}
@@ -0,0 +1,237 @@
+package us.ihmc.robotics.dataStructures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationPlan;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.continuousIntegration.IntegrationCategory;
+import us.ihmc.euclid.geometry.BoundingBox2D;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.robotics.lists.RecyclingArrayList;
+
+@ContinuousIntegrationPlan(categories = {IntegrationCategory.FAST})
+public class TiledHeightMapTest extends AbstractHeightMapTest
+{
+   private static final double eps = 1e-7;
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   @Override
+   public void testUnhandledPoints()
+   {
+      super.testUnhandledPoints();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testPointsOutOfBounds()
+   {
+      TiledHeightMap map = new TiledHeightMap(-1.0, -1.0, 1.0, 1.0, 0.1, 4);
+
+      assertFalse(map.addPoint(1.2, 0.0, 1.0));
+      assertFalse(map.addPoint(0.0, -1.2, 1.0));
+      assertFalse(map.containsPoint(1.2, 0.0));
+      assertEquals(-1, map.getTileIndex(1.2, 0.0));
+
+      assertTrue(map.addPoint(1.0, 1.0, 2.0));
+      assertEquals(2.0, map.getHeightAtPoint(1.0, 1.0), eps);
+      assertTrue(map.addPoint(-1.0, -1.0, 3.0));
+      assertEquals(3.0, map.getHeightAtPoint(-1.0, -1.0), eps);
+
+      // Non finite heights are ignored.
+      assertTrue(map.addPoint(0.0, 0.0, Double.NaN));
+      assertFalse(map.containsPoint(0.0, 0.0));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testAreaAcrossTiles()
+   {
+      Random random = new Random(4379L);
+      double resolution = 0.1;
+      TiledHeightMap map = new TiledHeightMap(-5.0, -5.0, 5.0, 5.0, resolution, 8);
+      DoubleHashHeightMap expectedMap = new DoubleHashHeightMap(resolution);
+
+      for (int i = 0; i < 2000; i++)
+      {
+         double x = 10.0 * (random.nextDouble() - 0.5);
+         double y = 10.0 * (random.nextDouble() - 0.5);
+         double z = random.nextDouble();
+         map.addPoint(x, y, z);
+         expectedMap.addPoint(x, y, z);
+      }
+
+      RecyclingArrayList<Point3D> points = new RecyclingArrayList<>(Point3D.class);
+
+      for (int i = 0; i < 100; i++)
+      {
+         double xCenter = 12.0 * (random.nextDouble() - 0.5);
+         double yCenter = 12.0 * (random.nextDouble() - 0.5);
+         double xExtent = 4.0 * random.nextDouble();
+         double yExtent = 4.0 * random.nextDouble();
+
+         List<Point3D> expectedPoints = expectedMap.getAllPointsWithinArea(xCenter, yCenter, xExtent, yExtent);
+         map.getAllPointsWithinArea(xCenter, yCenter, xExtent, yExtent, points);
+         assertEquals(expectedPoints.size(), points.size());
+
+         for (int j = 0; j < points.size(); j++)
+         {
+            Point3D point = points.get(j);
+            assertEquals(expectedMap.getHeightAtPoint(point.getX(), point.getY()), point.getZ(), eps);
+
+            if (j > 0)
+            {
+               Point3D previous = points.get(j - 1);
+               assertTrue(previous.getX() < point.getX() - eps || (Math.abs(previous.getX() - point.getX()) < eps && previous.getY() < point.getY()));
+            }
+         }
+      }
+
+      map.clear();
+      map.getAllPointsWithinArea(0.0, 0.0, 10.0, 10.0, points);
+      assertEquals(0, points.size());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testBulkInsertionAndListeners()
+   {
+      double resolution = 0.1;
+      int tileSize = 4;
+      TiledHeightMap map = new TiledHeightMap(0.0, 0.0, 2.0, 2.0, resolution, tileSize);
+
+      Set<Integer> updatedTiles = new TreeSet<>();
+      int[] numberOfClears = {0};
+      map.addListener(new TiledHeightMapListener()
+      {
+         @Override
+         public void tileUpdated(int tileIndex)
+         {
+            updatedTiles.add(tileIndex);
+         }
+
+         @Override
+         public void mapCleared()
+         {
+            numberOfClears[0]++;
+         }
+      });
+
+      List<Point3D> points = new ArrayList<>();
+      points.add(new Point3D(0.0, 0.0, 1.0));
+      points.add(new Point3D(0.1, 0.1, 1.0));
+      points.add(new Point3D(0.5, 0.0, 1.0));
+      points.add(new Point3D(1.9, 1.9, 1.0));
+      points.add(new Point3D(5.0, 5.0, 1.0));
+
+      assertEquals(4, map.addPoints(points));
+
+      Set<Integer> expectedTiles = new TreeSet<>();
+      for (int i = 0; i < 4; i++)
+         expectedTiles.add(map.getTileIndex(points.get(i).getX(), points.get(i).getY()));
+      assertEquals(3, expectedTiles.size());
+      assertEquals(expectedTiles, updatedTiles);
+
+      for (int i = 0; i < 4; i++)
+      {
+         Point3D point = points.get(i);
+         assertEquals(point.getZ(), map.getHeightAtPoint(point.getX(), point.getY()), eps);
+
+         BoundingBox2D tileBoundingBox = new BoundingBox2D();
+         map.getTileBoundingBox(map.getTileIndex(point.getX(), point.getY()), tileBoundingBox);
+         assertTrue(tileBoundingBox.isInsideInclusive(point.getX(), point.getY()));
+      }
+
+      // Adding the same heights again does not modify the tiles.
+      int tileIndex = map.getTileIndex(0.0, 0.0);
+      long version = map.getTileVersion(tileIndex);
+      updatedTiles.clear();
+      map.addPoints(points);
+      assertTrue(updatedTiles.isEmpty());
+      assertEquals(version, map.getTileVersion(tileIndex));
+
+      map.addPoint(0.0, 0.0, 2.0);
+      assertEquals(1, updatedTiles.size());
+      assertTrue(updatedTiles.contains(tileIndex));
+      assertTrue(map.getTileVersion(tileIndex) > version);
+
+      map.clear();
+      assertEquals(1, numberOfClears[0]);
+      assertFalse(map.containsPoint(0.0, 0.0));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testConcurrentWritersAndReaders() throws Exception
+   {
+      double resolution = 0.05;
+      TiledHeightMap map = new TiledHeightMap(0.0, 0.0, 10.0, 10.0, resolution);
+      int numberOfWriters = 4;
+      int numberOfReaders = 4;
+      ExecutorService service = Executors.newFixedThreadPool(numberOfWriters + numberOfReaders);
+      List<Future<?>> futures = new ArrayList<>();
+
+      for (int writerIndex = 0; writerIndex < numberOfWriters; writerIndex++)
+      {
+         // Each writer has its own band in y so the expected height of each cell is known.
+         double yOffset = 2.5 * writerIndex;
+         Random random = new Random(writerIndex);
+         futures.add(service.submit(() ->
+         {
+            List<Point3D> scan = new ArrayList<>();
+            for (int i = 0; i < 200; i++)
+            {
+               scan.clear();
+               for (int j = 0; j < 500; j++)
+                  scan.add(new Point3D(10.0 * random.nextDouble(), yOffset + 2.0 * random.nextDouble(), yOffset));
+               map.addPoints(scan);
+            }
+         }));
+      }
+
+      for (int readerIndex = 0; readerIndex < numberOfReaders; readerIndex++)
+      {
+         Random random = new Random(100 + readerIndex);
+         futures.add(service.submit(() ->
+         {
+            RecyclingArrayList<Point3D> points = new RecyclingArrayList<>(Point3D.class);
+            for (int i = 0; i < 500; i++)
+            {
+               double x = 10.0 * random.nextDouble();
+               double y = 10.0 * random.nextDouble();
+               double height = map.getHeightAtPoint(x, y);
+               double cellY = resolution * Math.round(y / resolution);
+               if (Double.isFinite(height))
+                  assertEquals(2.5 * Math.floor(cellY / 2.5 + 1.0e-9), height, eps);
+
+               map.getAllPointsWithinArea(x, y, 1.0, 1.0, points);
+               for (int j = 0; j < points.size(); j++)
+                  assertEquals(2.5 * Math.floor(points.get(j).getY() / 2.5 + 1.0e-9), points.get(j).getZ(), eps);
+            }
+         }));
+      }
+
+      for (Future<?> future : futures)
+         future.get();
+      service.shutdown();
+   }
+
+   @Override
+   public HeightMapWithPoints getHeightMap(double minX, double minY, double maxX, double maxY, double resolution)
+   {
+      return new TiledHeightMap(minX, minY, maxX, maxY, resolution);
+   }
+}
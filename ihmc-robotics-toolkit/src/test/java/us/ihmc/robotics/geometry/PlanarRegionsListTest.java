@@ -6,14 +6,20 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.Test;
 
 import us.ihmc.commons.MutationTestFacilitator;
+import us.ihmc.commons.RandomNumbers;
 import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
 import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationPlan;
 import us.ihmc.continuousIntegration.IntegrationCategory;
+import us.ihmc.euclid.geometry.BoundingBox3D;
 import us.ihmc.euclid.geometry.ConvexPolygon2D;
+import us.ihmc.euclid.geometry.LineSegment2D;
+import us.ihmc.euclid.geometry.interfaces.ConvexPolygon2DBasics;
+import us.ihmc.euclid.geometry.tools.EuclidGeometryRandomTools;
 import us.ihmc.euclid.transform.RigidBodyTransform;
 import us.ihmc.euclid.tuple2D.Point2D;
 import us.ihmc.euclid.tuple3D.Point3D;
@@ -177,6 +183,107 @@ public class PlanarRegionsListTest
       assertNull(result);
    }
 
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testQueriesWithSpatialIndex() throws Exception
+   {
+      Random random = new Random(2934L);
+      List<PlanarRegion> regions = new ArrayList<>();
+      for (int i = 0; i < 100; i++)
+         regions.add(PlanarRegion.generatePlanarRegionFromRandomPolygonsWithRandomTransform(random, 3, 1.0, 6));
+      regions.add(new PlanarRegion());
+
+      // Both lists share the same regions, so the results can be compared by reference.
+      PlanarRegionsList planarRegionsList = new PlanarRegionsList(new ArrayList<>(regions));
+      PlanarRegionsList indexedPlanarRegionsList = new PlanarRegionsList(new ArrayList<>(regions));
+      indexedPlanarRegionsList.setUseSpatialIndex(true);
+
+      assertQueriesEqual(random, planarRegionsList, indexedPlanarRegionsList);
+
+      PlanarRegion newRegion = PlanarRegion.generatePlanarRegionFromRandomPolygonsWithRandomTransform(random, 3, 5.0, 6);
+      planarRegionsList.addPlanarRegion(newRegion);
+      indexedPlanarRegionsList.addPlanarRegion(newRegion);
+      assertQueriesEqual(random, planarRegionsList, indexedPlanarRegionsList);
+
+      // The regions are transformed only once, through the indexed list.
+      RigidBodyTransform transform = new RigidBodyTransform();
+      transform.setRotationYawAndZeroTranslation(0.3);
+      transform.setTranslation(1.0, -2.0, 0.5);
+      indexedPlanarRegionsList.transform(transform);
+      assertQueriesEqual(random, planarRegionsList, indexedPlanarRegionsList);
+
+      planarRegionsList.pollLastPlanarRegion();
+      indexedPlanarRegionsList.pollLastPlanarRegion();
+      assertQueriesEqual(random, planarRegionsList, indexedPlanarRegionsList);
+
+      planarRegionsList.clear();
+      indexedPlanarRegionsList.clear();
+      assertNull(indexedPlanarRegionsList.findPlanarRegionsContainingPointByProjectionOntoXYPlane(0.0, 0.0));
+   }
+
+   private static void assertQueriesEqual(Random random, PlanarRegionsList expectedList, PlanarRegionsList actualList)
+   {
+      List<PlanarRegion> expected = new ArrayList<>();
+      List<PlanarRegion> actual = new ArrayList<>();
+      int numberOfQueriesWithResults = 0;
+
+      for (int i = 0; i < 1000; i++)
+      {
+         PlanarRegion region;
+         do
+         {
+            region = expectedList.getPlanarRegion(random.nextInt(expectedList.getNumberOfPlanarRegions()));
+         }
+         while (region.isEmpty());
+
+         BoundingBox3D boundingBox = region.getBoundingBox3dInWorld();
+         double x = RandomNumbers.nextDouble(random, boundingBox.getMinX() - 0.5, boundingBox.getMaxX() + 0.5);
+         double y = RandomNumbers.nextDouble(random, boundingBox.getMinY() - 0.5, boundingBox.getMaxY() + 0.5);
+
+         expected.clear();
+         actual.clear();
+         expectedList.findPlanarRegionsContainingPointByProjectionOntoXYPlane(x, y, expected);
+         actualList.findPlanarRegionsContainingPointByProjectionOntoXYPlane(x, y, actual);
+         assertEquals(expected, actual);
+         assertNullOrEquals(expected, actualList.findPlanarRegionsContainingPointByProjectionOntoXYPlane(x, y));
+         if (!expected.isEmpty())
+            numberOfQueriesWithResults++;
+
+         Point3D point = new Point3D(x, y, region.getPlaneZGivenXY(x, y) + RandomNumbers.nextDouble(random, 0.1));
+         expected.clear();
+         actual.clear();
+         expectedList.findPlanarRegionsContainingPoint(point, 0.05, expected);
+         actualList.findPlanarRegionsContainingPoint(point, 0.05, actual);
+         assertEquals(expected, actual);
+         assertNullOrEquals(expected, actualList.findPlanarRegionsContainingPoint(point, 0.05));
+
+         ConvexPolygon2DBasics convexPolygon = PlanarRegionTest.translateConvexPolygon(x, y, EuclidGeometryRandomTools.nextConvexPolygon2D(random, 0.5, 5));
+         expected.clear();
+         actual.clear();
+         expectedList.findPlanarRegionsIntersectingPolygon(convexPolygon, expected);
+         actualList.findPlanarRegionsIntersectingPolygon(convexPolygon, actual);
+         assertEquals(expected, actual);
+         assertNullOrEquals(expected, actualList.findPlanarRegionsIntersectingPolygon(convexPolygon));
+
+         LineSegment2D lineSegment = new LineSegment2D(x, y, x + RandomNumbers.nextDouble(random, 3.0), y + RandomNumbers.nextDouble(random, 3.0));
+         ArrayList<PlanarRegion> expectedIntersecting = new ArrayList<>();
+         ArrayList<PlanarRegion> actualIntersecting = new ArrayList<>();
+         expectedList.findPlanarRegionsIntersectingLineSegment(lineSegment, expectedIntersecting);
+         actualList.findPlanarRegionsIntersectingLineSegment(lineSegment, actualIntersecting);
+         assertEquals(expectedIntersecting, actualIntersecting);
+      }
+
+      assertTrue(numberOfQueriesWithResults > 100);
+   }
+
+   private static void assertNullOrEquals(List<PlanarRegion> expected, List<PlanarRegion> actual)
+   {
+      if (expected.isEmpty())
+         assertNull(actual);
+      else
+         assertEquals(expected, actual);
+   }
+
    public static void main(String[] args)
    {
       MutationTestFacilitator.facilitateMutationTestForClass(PlanarRegionsList.class, PlanarRegionsListTest.class);
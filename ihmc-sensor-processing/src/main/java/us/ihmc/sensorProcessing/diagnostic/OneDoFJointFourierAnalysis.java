@@ -79,6 +79,16 @@ public class OneDoFJointFourierAnalysis implements DiagnosticUpdatable
       tauDesiredFourierAnalysis.disable();
    }
 
+   /**
+    * @see Online1DSignalFourierAnalysis#setUseSlidingDFT(boolean)
+    */
+   public void setUseSlidingDFT(boolean useSlidingDFT)
+   {
+      velocityFourierAnalysis.setUseSlidingDFT(useSlidingDFT);
+      tauFourierAnalysis.setUseSlidingDFT(useSlidingDFT);
+      tauDesiredFourierAnalysis.setUseSlidingDFT(useSlidingDFT);
+   }
+
    @Override
    public void update()
    {
@@ -10,6 +10,16 @@ import us.ihmc.yoVariables.variable.YoInteger;
 import us.ihmc.robotics.math.filters.AlphaFilteredYoVariable;
 import us.ihmc.robotics.math.filters.GlitchFilteredYoInteger;
 
+/**
+ * Online frequency analysis of a signal over a sliding window.
+ * <p>
+ * By default, the spectrum is updated at every tick using a sliding DFT: each frequency bin is
+ * corrected with the sample entering the window and the one leaving it, which costs O(N) per
+ * sample instead of the O(N log N) of a full FFT. To prevent numerical drift, the bins are
+ * recomputed with an FFT every time the window has been entirely renewed. The full FFT at every
+ * tick can still be used with {@link #setUseSlidingDFT(boolean)}.
+ * </p>
+ */
 public class Online1DSignalFourierAnalysis
 {
    private final YoVariableRegistry registry;
@@ -35,6 +45,15 @@ public class Online1DSignalFourierAnalysis
    private final double[] magnitudes;
    private final double[] filteredMagnitudes;
 
+   private boolean useSlidingDFT = true;
+   private boolean isSlidingDFTInitialized = false;
+   private final double[] slidingDFTReal;
+   private final double[] slidingDFTImaginary;
+   private final double[] slidingDFTCos;
+   private final double[] slidingDFTSin;
+   /** Used to convert the output of the FFT to the convention X<sub>k</sub> = &Sigma; x<sub>n</sub> e<sup>-i2&pi;kn/N</sup>. */
+   private final double fftImaginarySign;
+
    private final YoDouble magnitudeAlpha;
 
    private boolean hasBufferBeenFilled = false;
@@ -82,6 +101,31 @@ public class Online1DSignalFourierAnalysis
 
       for (int i = 0; i < numberOfObservations / 2; i++)
          frequencies[i] = i / observationDuration;
+
+      slidingDFTReal = new double[numberOfObservations / 2];
+      slidingDFTImaginary = new double[numberOfObservations / 2];
+      slidingDFTCos = new double[numberOfObservations / 2];
+      slidingDFTSin = new double[numberOfObservations / 2];
+
+      for (int k = 0; k < numberOfObservations / 2; k++)
+      {
+         double angle = 2.0 * Math.PI * k / numberOfObservations;
+         slidingDFTCos[k] = Math.cos(angle);
+         slidingDFTSin[k] = Math.sin(angle);
+      }
+
+      if (numberOfObservations >= 4)
+      {
+         // The transform of a unit impulse at n = 1 has a negative imaginary part for k = 1 with the expected convention.
+         double[] impulse = new double[numberOfObservations];
+         impulse[1] = 1.0;
+         fft.realForward(impulse);
+         fftImaginarySign = impulse[3] <= 0.0 ? 1.0 : -1.0;
+      }
+      else
+      {
+         fftImaginarySign = 1.0;
+      }
    }
 
    public void enable()
@@ -111,6 +155,18 @@ public class Online1DSignalFourierAnalysis
       this.minimumMagnitude.set(minimumMagnitude);
    }
 
+   /**
+    * Selects how the spectrum is updated at every tick once the buffer has been filled.
+    *
+    * @param useSlidingDFT {@code true} to update the spectrum incrementally with a sliding DFT in
+    *           O(N), {@code false} to compute a full FFT in O(N log N). Default is {@code true}.
+    */
+   public void setUseSlidingDFT(boolean useSlidingDFT)
+   {
+      this.useSlidingDFT = useSlidingDFT;
+      isSlidingDFTInitialized = false;
+   }
+
    private boolean firstEstimationTick = true;
 
    public void update(double currentSignalValue)
@@ -118,6 +174,7 @@ public class Online1DSignalFourierAnalysis
       if (!enabled.getBooleanValue())
          return;
 
+      double oldestSignalValue = signalBuffer[bufferPosition];
       signalBuffer[bufferPosition] = currentSignalValue;
       bufferPosition++;
 
@@ -130,11 +187,60 @@ public class Online1DSignalFourierAnalysis
       if (!hasBufferBeenFilled)
          return;
 
-      computeFFT();
+      if (useSlidingDFT)
+         updateSlidingDFT(currentSignalValue - oldestSignalValue);
+      else
+         computeFFT();
 
       findPrincipalOscillations();
    }
 
+   /**
+    * Slides the window by one sample: X<sub>k</sub> &larr; (X<sub>k</sub> - x<sub>oldest</sub> +
+    * x<sub>newest</sub>) e<sup>i2&pi;k/N</sup>.
+    */
+   private void updateSlidingDFT(double signalValueChange)
+   {
+      if (!isSlidingDFTInitialized || bufferPosition == 0)
+      {
+         initializeSlidingDFT();
+      }
+      else
+      {
+         for (int k = 1; k < numberOfObservations / 2; k++)
+         {
+            double real = slidingDFTReal[k] + signalValueChange;
+            double imaginary = slidingDFTImaginary[k];
+            slidingDFTReal[k] = real * slidingDFTCos[k] - imaginary * slidingDFTSin[k];
+            slidingDFTImaginary[k] = real * slidingDFTSin[k] + imaginary * slidingDFTCos[k];
+         }
+      }
+
+      for (int k = 1; k < numberOfObservations / 2; k++)
+         updateMagnitude(k, slidingDFTReal[k], slidingDFTImaginary[k]);
+
+      firstEstimationTick = false;
+   }
+
+   private void initializeSlidingDFT()
+   {
+      // The oldest sample of the window is at the buffer position.
+      for (int i = 0; i < numberOfObservations; i++)
+      {
+         fftOuput[i] = signalBuffer[(bufferPosition + i) % numberOfObservations];
+      }
+
+      fft.realForward(fftOuput);
+
+      for (int k = 1; k < numberOfObservations / 2; k++)
+      {
+         slidingDFTReal[k] = fftOuput[2 * k];
+         slidingDFTImaginary[k] = fftImaginarySign * fftOuput[2 * k + 1];
+      }
+
+      isSlidingDFTInitialized = true;
+   }
+
    private void computeFFT()
    {
       for (int i = 0; i < numberOfObservations; i++)
@@ -145,36 +251,36 @@ public class Online1DSignalFourierAnalysis
       fft.realForward(fftOuput);
 
       for (int k = 1; k < numberOfObservations / 2; k++)
-      {
-         double magnitude;
+         updateMagnitude(k, fftOuput[2 * k], fftOuput[2 * k + 1]);
 
-         if (k >= minFrequencyIndex.getIntegerValue())
-         {
-            double real = fftOuput[2 * k];
-            double imag = fftOuput[2 * k + 1];
+      firstEstimationTick = false;
+   }
 
-            magnitude = Math.sqrt(real * real + imag * imag) / (0.5 * numberOfObservations);
-         }
-         else
-         {
-            magnitude = 0.0;
-         }
+   private void updateMagnitude(int k, double real, double imag)
+   {
+      double magnitude;
 
-         magnitudes[k] = magnitude;
-         double currentFilteredMagnitude;
-         if (firstEstimationTick)
-         {
-            currentFilteredMagnitude = magnitude;
-         }
-         else
-         {
-            double previousFilteredMagnitude = filteredMagnitudes[k];
-            currentFilteredMagnitude = magnitudeAlpha.getDoubleValue() * previousFilteredMagnitude + (1.0 - magnitudeAlpha.getDoubleValue()) * magnitude;
-         }
-         filteredMagnitudes[k] = currentFilteredMagnitude;
+      if (k >= minFrequencyIndex.getIntegerValue())
+      {
+         magnitude = Math.sqrt(real * real + imag * imag) / (0.5 * numberOfObservations);
+      }
+      else
+      {
+         magnitude = 0.0;
       }
 
-      firstEstimationTick = false;
+      magnitudes[k] = magnitude;
+      double currentFilteredMagnitude;
+      if (firstEstimationTick)
+      {
+         currentFilteredMagnitude = magnitude;
+      }
+      else
+      {
+         double previousFilteredMagnitude = filteredMagnitudes[k];
+         currentFilteredMagnitude = magnitudeAlpha.getDoubleValue() * previousFilteredMagnitude + (1.0 - magnitudeAlpha.getDoubleValue()) * magnitude;
+      }
+      filteredMagnitudes[k] = currentFilteredMagnitude;
    }
 
    private void findPrincipalOscillations()
@@ -289,6 +395,7 @@ public class Online1DSignalFourierAnalysis
       bufferPosition = 0;
       hasBufferBeenFilled = false;
       firstEstimationTick = true;
+      isSlidingDFTInitialized = false;
    }
 
    public boolean hasAnalysisStarted()
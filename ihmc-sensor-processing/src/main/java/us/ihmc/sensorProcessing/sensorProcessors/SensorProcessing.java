@@ -12,6 +12,7 @@ import static us.ihmc.sensorProcessing.sensorProcessors.SensorProcessing.SensorT
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -40,6 +41,7 @@ import us.ihmc.robotics.math.filters.RevisedBacklashCompensatingVelocityYoVariab
 import us.ihmc.robotics.math.filters.YoIMUMahonyFilter;
 import us.ihmc.robotics.screwTheory.OneDoFJoint;
 import us.ihmc.robotics.screwTheory.Wrench;
+import us.ihmc.robotics.sensors.ForceSensorData;
 import us.ihmc.robotics.sensors.ForceSensorDataHolder;
 import us.ihmc.robotics.sensors.ForceSensorDataHolderReadOnly;
 import us.ihmc.robotics.sensors.ForceSensorDefinition;
@@ -186,12 +188,12 @@ public class SensorProcessing implements SensorOutputMapReadOnly, SensorRawOutpu
    private final LinkedHashMap<ForceSensorDefinition, YoFrameVector3D> inputForces = new LinkedHashMap<>();
    private final LinkedHashMap<ForceSensorDefinition, YoFrameVector3D> inputTorques = new LinkedHashMap<>();
 
-   private final LinkedHashMap<IMUDefinition, YoFrameQuaternion> intermediateOrientations = new LinkedHashMap<>();
-   private final LinkedHashMap<IMUDefinition, YoFrameVector3D> intermediateAngularVelocities = new LinkedHashMap<>();
-   private final LinkedHashMap<IMUDefinition, YoFrameVector3D> intermediateLinearAccelerations = new LinkedHashMap<>();
+   private final LinkedHashMap<IMUDefinition, YoFrameQuaternion> intermediateOrientations = new ProcessingChainMap<>();
+   private final LinkedHashMap<IMUDefinition, YoFrameVector3D> intermediateAngularVelocities = new ProcessingChainMap<>();
+   private final LinkedHashMap<IMUDefinition, YoFrameVector3D> intermediateLinearAccelerations = new ProcessingChainMap<>();
 
-   private final LinkedHashMap<ForceSensorDefinition, YoFrameVector3D> intermediateForces = new LinkedHashMap<>();
-   private final LinkedHashMap<ForceSensorDefinition, YoFrameVector3D> intermediateTorques = new LinkedHashMap<>();
+   private final LinkedHashMap<ForceSensorDefinition, YoFrameVector3D> intermediateForces = new ProcessingChainMap<>();
+   private final LinkedHashMap<ForceSensorDefinition, YoFrameVector3D> intermediateTorques = new ProcessingChainMap<>();
 
    private final LinkedHashMap<OneDoFJoint, List<ProcessingYoVariable>> processedJointPositions = new LinkedHashMap<>();
    private final LinkedHashMap<OneDoFJoint, List<ProcessingYoVariable>> processedJointVelocities = new LinkedHashMap<>();
@@ -237,7 +239,14 @@ public class SensorProcessing implements SensorOutputMapReadOnly, SensorRawOutpu
    private final Wrench tempWrench = new Wrench();
 
    private AtlasAuxiliaryRobotData auxiliaryRobotData;
-   
+
+   private boolean useCompiledProcessing = true;
+   /** Cleared whenever a processor is added to or removed from a processing chain. */
+   private boolean isProcessingCompiled = false;
+   private ProcessingYoVariable[] compiledJointProcessors;
+   private CompiledIMUProcessing[] compiledIMUProcessing;
+   private CompiledForceSensorProcessing[] compiledForceSensorProcessing;
+
 
    public SensorProcessing(StateEstimatorSensorDefinitions stateEstimatorSensorDefinitions, SensorProcessingConfiguration sensorProcessingConfiguration,
          YoVariableRegistry parentRegistry)
@@ -263,28 +272,28 @@ public class SensorProcessing implements SensorOutputMapReadOnly, SensorRawOutpu
          YoDouble rawJointPosition = new YoDouble(prefix + suffix, registry);
          inputJointPositions.put(oneDoFJoint, rawJointPosition);
          outputJointPositions.put(oneDoFJoint, rawJointPosition);
-         processedJointPositions.put(oneDoFJoint, new ArrayList<ProcessingYoVariable>());
+         processedJointPositions.put(oneDoFJoint, new ProcessorList());
 
          prefix = JOINT_VELOCITY.getProcessorNamePrefix(RAW);
          suffix = JOINT_VELOCITY.getProcessorNameSuffix(jointName, -1);
          YoDouble rawJointVelocity = new YoDouble(prefix + suffix, registry);
          inputJointVelocities.put(oneDoFJoint, rawJointVelocity);
          outputJointVelocities.put(oneDoFJoint, rawJointVelocity);
-         processedJointVelocities.put(oneDoFJoint, new ArrayList<ProcessingYoVariable>());
+         processedJointVelocities.put(oneDoFJoint, new ProcessorList());
 
          prefix = JOINT_ACCELERATION.getProcessorNamePrefix(RAW);
          suffix = JOINT_ACCELERATION.getProcessorNameSuffix(jointName, -1);
          YoDouble rawJointAcceleration = new YoDouble(prefix + suffix, registry);
          inputJointAccelerations.put(oneDoFJoint, rawJointAcceleration);
          outputJointAccelerations.put(oneDoFJoint, rawJointAcceleration);
-         processedJointAccelerations.put(oneDoFJoint, new ArrayList<ProcessingYoVariable>());
+         processedJointAccelerations.put(oneDoFJoint, new ProcessorList());
 
          prefix = JOINT_TAU.getProcessorNamePrefix(RAW);
          suffix = JOINT_TAU.getProcessorNameSuffix(jointName, -1);
          YoDouble rawJointTau = new YoDouble(prefix + suffix, registry);
          inputJointTaus.put(oneDoFJoint, rawJointTau);
          outputJointTaus.put(oneDoFJoint, rawJointTau);
-         processedJointTaus.put(oneDoFJoint, new ArrayList<ProcessingYoVariable>());
+         processedJointTaus.put(oneDoFJoint, new ProcessorList());
 
          YoBoolean jointEnabledIndicator = new YoBoolean("joint_enabled_" + jointName, registry);
          jointEnabledIndicator.set(true);
@@ -305,21 +314,21 @@ public class SensorProcessing implements SensorOutputMapReadOnly, SensorRawOutpu
          YoFrameQuaternion rawOrientation = new YoFrameQuaternion(prefix, suffix, worldFrame, registry);
          inputOrientations.put(imuDefinition, rawOrientation);
          intermediateOrientations.put(imuDefinition, rawOrientation);
-         processedOrientations.put(imuDefinition, new ArrayList<ProcessingYoVariable>());
+         processedOrientations.put(imuDefinition, new ProcessorList());
 
          prefix = IMU_ANGULAR_VELOCITY.getProcessorNamePrefix(RAW);
          suffix = IMU_ANGULAR_VELOCITY.getProcessorNameSuffix(imuName, -1);
          YoFrameVector3D rawAngularVelocity = new YoFrameVector3D(prefix, suffix, sensorFrame, registry);
          inputAngularVelocities.put(imuDefinition, rawAngularVelocity);
          intermediateAngularVelocities.put(imuDefinition, rawAngularVelocity);
-         processedAngularVelocities.put(imuDefinition, new ArrayList<ProcessingYoVariable>());
+         processedAngularVelocities.put(imuDefinition, new ProcessorList());
 
          prefix = IMU_LINEAR_ACCELERATION.getProcessorNamePrefix(RAW);
          suffix = IMU_LINEAR_ACCELERATION.getProcessorNameSuffix(imuName, -1);
          YoFrameVector3D rawLinearAcceleration = new YoFrameVector3D(prefix, suffix, sensorFrame, registry);
          inputLinearAccelerations.put(imuDefinition, rawLinearAcceleration);
          intermediateLinearAccelerations.put(imuDefinition, rawLinearAcceleration);
-         processedLinearAccelerations.put(imuDefinition, new ArrayList<ProcessingYoVariable>());
+         processedLinearAccelerations.put(imuDefinition, new ProcessorList());
          
          inputIMUs.add(new IMUSensor(imuDefinition, sensorNoiseParameters));
          outputIMUs.add(new IMUSensor(imuDefinition, sensorNoiseParameters));
@@ -337,14 +346,14 @@ public class SensorProcessing implements SensorOutputMapReadOnly, SensorRawOutpu
          YoFrameVector3D rawForce = new YoFrameVector3D(prefix, suffix, sensorFrame, registry);
          inputForces.put(forceSensorDefinition, rawForce);
          intermediateForces.put(forceSensorDefinition, rawForce);
-         processedForces.put(forceSensorDefinition, new ArrayList<ProcessingYoVariable>());
+         processedForces.put(forceSensorDefinition, new ProcessorList());
 
          prefix = TORQUE_SENSOR.getProcessorNamePrefix(RAW);
          suffix = TORQUE_SENSOR.getProcessorNameSuffix(sensorName, -1);
          YoFrameVector3D rawTorque = new YoFrameVector3D(prefix, suffix, sensorFrame, registry);
          inputTorques.put(forceSensorDefinition, rawTorque);
          intermediateTorques.put(forceSensorDefinition, rawTorque);
-         processedTorques.put(forceSensorDefinition, new ArrayList<ProcessingYoVariable>());
+         processedTorques.put(forceSensorDefinition, new ProcessorList());
       }
 
       inputForceSensors = new ForceSensorDataHolder(forceSensorDefinitions);
@@ -365,6 +374,38 @@ public class SensorProcessing implements SensorOutputMapReadOnly, SensorRawOutpu
       this.visionSensorTimestamp.set(visionSensorTimestamp);
       this.sensorHeadPPSTimetamp.set(sensorHeadPPSTimestamp);
 
+      if (useCompiledProcessing)
+      {
+         if (!isProcessingCompiled)
+            compileProcessing();
+         updateCompiledProcessing();
+      }
+      else
+      {
+         updateProcessing();
+      }
+
+      for (int i = 0; i < diagnosticModules.size(); i++)
+         diagnosticModules.get(i).update();
+   }
+
+   /**
+    * Selects how the processing chains are updated in {@link #startComputation(long, long, long)}.
+    * <p>
+    * When enabled, which is the default, the processors and signals are gathered once in arrays
+    * indexed in the update order, such that each tick only iterates over arrays. The arrays are
+    * rebuilt automatically when a processor is added. When disabled, the processors and signals are
+    * looked up in the maps at every tick. Both modes update the processors in the same order and give
+    * the same outputs.
+    * </p>
+    */
+   public void setUseCompiledProcessing(boolean useCompiledProcessing)
+   {
+      this.useCompiledProcessing = useCompiledProcessing;
+   }
+
+   private void updateProcessing()
+   {
       for (int i = 0; i < jointSensorDefinitions.size(); i++)
       {
          OneDoFJoint oneDoFJoint = jointSensorDefinitions.get(i);
@@ -414,9 +455,119 @@ public class SensorProcessing implements SensorOutputMapReadOnly, SensorRawOutpu
          tempWrench.set(tempForce, tempTorque);
          outputForceSensors.setForceSensorValue(forceSensorDefinition, tempWrench);
       }
+   }
 
-      for (int i = 0; i < diagnosticModules.size(); i++)
-         diagnosticModules.get(i).update();
+   private void compileProcessing()
+   {
+      List<ProcessingYoVariable> jointProcessors = new ArrayList<>();
+
+      for (int i = 0; i < jointSensorDefinitions.size(); i++)
+      {
+         OneDoFJoint oneDoFJoint = jointSensorDefinitions.get(i);
+
+         jointProcessors.addAll(processedJointPositions.get(oneDoFJoint));
+         jointProcessors.addAll(processedJointVelocities.get(oneDoFJoint));
+         jointProcessors.addAll(processedJointAccelerations.get(oneDoFJoint));
+         jointProcessors.addAll(processedJointTaus.get(oneDoFJoint));
+      }
+
+      compiledJointProcessors = jointProcessors.toArray(new ProcessingYoVariable[jointProcessors.size()]);
+
+      compiledIMUProcessing = new CompiledIMUProcessing[imuSensorDefinitions.size()];
+
+      for (int i = 0; i < imuSensorDefinitions.size(); i++)
+      {
+         IMUDefinition imuDefinition = imuSensorDefinitions.get(i);
+         CompiledIMUProcessing compiled = new CompiledIMUProcessing();
+
+         compiled.inputIMU = inputIMUs.get(i);
+         compiled.inputOrientation = inputOrientations.get(imuDefinition);
+         compiled.inputAngularVelocity = inputAngularVelocities.get(imuDefinition);
+         compiled.inputLinearAcceleration = inputLinearAccelerations.get(imuDefinition);
+         compiled.processors = concatenate(processedOrientations.get(imuDefinition), processedAngularVelocities.get(imuDefinition),
+                                           processedLinearAccelerations.get(imuDefinition));
+         compiled.outputIMU = outputIMUs.get(i);
+         compiled.intermediateOrientation = intermediateOrientations.get(imuDefinition);
+         compiled.intermediateAngularVelocity = intermediateAngularVelocities.get(imuDefinition);
+         compiled.intermediateLinearAcceleration = intermediateLinearAccelerations.get(imuDefinition);
+         compiledIMUProcessing[i] = compiled;
+      }
+
+      compiledForceSensorProcessing = new CompiledForceSensorProcessing[forceSensorDefinitions.size()];
+
+      for (int i = 0; i < forceSensorDefinitions.size(); i++)
+      {
+         ForceSensorDefinition forceSensorDefinition = forceSensorDefinitions.get(i);
+         CompiledForceSensorProcessing compiled = new CompiledForceSensorProcessing();
+
+         compiled.inputData = inputForceSensors.get(forceSensorDefinition);
+         compiled.inputForce = inputForces.get(forceSensorDefinition);
+         compiled.inputTorque = inputTorques.get(forceSensorDefinition);
+         compiled.processors = concatenate(processedForces.get(forceSensorDefinition), processedTorques.get(forceSensorDefinition));
+         compiled.outputData = outputForceSensors.get(forceSensorDefinition);
+         compiled.intermediateForce = intermediateForces.get(forceSensorDefinition);
+         compiled.intermediateTorque = intermediateTorques.get(forceSensorDefinition);
+         compiledForceSensorProcessing[i] = compiled;
+      }
+
+      isProcessingCompiled = true;
+   }
+
+   @SafeVarargs
+   private static ProcessingYoVariable[] concatenate(List<ProcessingYoVariable>... processorLists)
+   {
+      List<ProcessingYoVariable> processors = new ArrayList<>();
+      for (List<ProcessingYoVariable> processorList : processorLists)
+         processors.addAll(processorList);
+      return processors.toArray(new ProcessingYoVariable[processors.size()]);
+   }
+
+   private void updateCompiledProcessing()
+   {
+      updateProcessors(compiledJointProcessors);
+
+      for (int i = 0; i < compiledIMUProcessing.length; i++)
+      {
+         CompiledIMUProcessing compiled = compiledIMUProcessing[i];
+
+         tempOrientation.set(compiled.inputOrientation);
+         compiled.inputIMU.setOrientationMeasurement(tempOrientation);
+         compiled.inputIMU.setAngularVelocityMeasurement(compiled.inputAngularVelocity);
+         compiled.inputIMU.setLinearAccelerationMeasurement(compiled.inputLinearAcceleration);
+
+         updateProcessors(compiled.processors);
+
+         tempOrientation.set(compiled.intermediateOrientation);
+         compiled.outputIMU.setOrientationMeasurement(tempOrientation);
+         compiled.outputIMU.setAngularVelocityMeasurement(compiled.intermediateAngularVelocity);
+         compiled.outputIMU.setLinearAccelerationMeasurement(compiled.intermediateLinearAcceleration);
+      }
+
+      for (int i = 0; i < compiledForceSensorProcessing.length; i++)
+      {
+         CompiledForceSensorProcessing compiled = compiledForceSensorProcessing[i];
+
+         compiled.inputData.getWrench(tempWrench);
+         tempWrench.getLinearPartIncludingFrame(tempForce);
+         tempWrench.getAngularPartIncludingFrame(tempTorque);
+         compiled.inputForce.set(tempForce);
+         compiled.inputTorque.set(tempTorque);
+
+         updateProcessors(compiled.processors);
+
+         tempForce.setIncludingFrame(compiled.intermediateForce);
+         tempTorque.setIncludingFrame(compiled.intermediateTorque);
+         tempWrench.set(tempForce, tempTorque);
+         compiled.outputData.setWrench(tempWrench);
+      }
+   }
+
+   private static void updateProcessors(ProcessingYoVariable[] processors)
+   {
+      for (int j = 0; j < processors.length; j++)
+      {
+         processors[j].update();
+      }
    }
 
    private void updateProcessors(List<ProcessingYoVariable> processors)
@@ -1981,4 +2132,106 @@ public class SensorProcessing implements SensorOutputMapReadOnly, SensorRawOutpu
    {
       this.auxiliaryRobotData = auxiliaryRobotData;
    }
+
+   private static class CompiledIMUProcessing
+   {
+      private IMUSensor inputIMU;
+      private YoFrameQuaternion inputOrientation;
+      private YoFrameVector3D inputAngularVelocity;
+      private YoFrameVector3D inputLinearAcceleration;
+      private ProcessingYoVariable[] processors;
+      private IMUSensor outputIMU;
+      private YoFrameQuaternion intermediateOrientation;
+      private YoFrameVector3D intermediateAngularVelocity;
+      private YoFrameVector3D intermediateLinearAcceleration;
+   }
+
+   private static class CompiledForceSensorProcessing
+   {
+      private ForceSensorData inputData;
+      private YoFrameVector3D inputForce;
+      private YoFrameVector3D inputTorque;
+      private ProcessingYoVariable[] processors;
+      private ForceSensorData outputData;
+      private YoFrameVector3D intermediateForce;
+      private YoFrameVector3D intermediateTorque;
+   }
+
+   /**
+    * List of processors that invalidates the compiled processing when modified.
+    */
+   @SuppressWarnings("serial")
+   private class ProcessorList extends ArrayList<ProcessingYoVariable>
+   {
+      @Override
+      public boolean add(ProcessingYoVariable processor)
+      {
+         isProcessingCompiled = false;
+         return super.add(processor);
+      }
+
+      @Override
+      public void add(int index, ProcessingYoVariable processor)
+      {
+         isProcessingCompiled = false;
+         super.add(index, processor);
+      }
+
+      @Override
+      public boolean addAll(Collection<? extends ProcessingYoVariable> processors)
+      {
+         isProcessingCompiled = false;
+         return super.addAll(processors);
+      }
+
+      @Override
+      public boolean addAll(int index, Collection<? extends ProcessingYoVariable> processors)
+      {
+         isProcessingCompiled = false;
+         return super.addAll(index, processors);
+      }
+
+      @Override
+      public ProcessingYoVariable set(int index, ProcessingYoVariable processor)
+      {
+         isProcessingCompiled = false;
+         return super.set(index, processor);
+      }
+
+      @Override
+      public ProcessingYoVariable remove(int index)
+      {
+         isProcessingCompiled = false;
+         return super.remove(index);
+      }
+
+      @Override
+      public boolean remove(Object processor)
+      {
+         isProcessingCompiled = false;
+         return super.remove(processor);
+      }
+
+      @Override
+      public void clear()
+      {
+         isProcessingCompiled = false;
+         super.clear();
+      }
+   }
+
+   /**
+    * Map from a sensor to the last stage of its processing chain that invalidates the compiled
+    * processing when modified.
+    */
+   @SuppressWarnings("serial")
+   private class ProcessingChainMap<K, V> extends LinkedHashMap<K, V>
+   {
+      @Override
+      public V put(K key, V value)
+      {
+         isProcessingCompiled = false;
+         return super.put(key, value);
+      }
+   }
 }
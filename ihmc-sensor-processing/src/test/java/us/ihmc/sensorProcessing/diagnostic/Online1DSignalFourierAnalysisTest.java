@@ -0,0 +1,102 @@
+package us.ihmc.sensorProcessing.diagnostic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+
+public class Online1DSignalFourierAnalysisTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testSlidingDFTMatchesFFT()
+   {
+      Random random = new Random(5641L);
+      double dt = 0.001;
+      double estimationWindow = 0.25;
+      YoVariableRegistry registry = new YoVariableRegistry("Test");
+
+      Online1DSignalFourierAnalysis slidingDFTAnalysis = new Online1DSignalFourierAnalysis("slidingDFT", estimationWindow, dt, registry);
+      Online1DSignalFourierAnalysis fftAnalysis = new Online1DSignalFourierAnalysis("fft", estimationWindow, dt, registry);
+      slidingDFTAnalysis.setUseSlidingDFT(true);
+      fftAnalysis.setUseSlidingDFT(false);
+      slidingDFTAnalysis.enable();
+      fftAnalysis.enable();
+
+      double[] amplitudes = {1.0, 0.3, 0.05};
+      double[] frequencies = {12.0, 45.0, 130.0};
+      int numberOfTicks = 5000;
+
+      for (int tick = 0; tick < numberOfTicks; tick++)
+      {
+         double time = tick * dt;
+         double signal = 0.1 * (random.nextDouble() - 0.5);
+         for (int i = 0; i < amplitudes.length; i++)
+            signal += amplitudes[i] * Math.sin(2.0 * Math.PI * frequencies[i] * time);
+
+         slidingDFTAnalysis.update(signal);
+         fftAnalysis.update(signal);
+
+         assertEquals(fftAnalysis.hasAnalysisStarted(), slidingDFTAnalysis.hasAnalysisStarted());
+
+         if (!fftAnalysis.hasAnalysisStarted())
+            continue;
+
+         for (int k = 0; k < fftAnalysis.getOutputSize(); k++)
+            assertEquals(fftAnalysis.getMagnitude(k), slidingDFTAnalysis.getMagnitude(k), 1.0e-9);
+      }
+
+      // The main oscillation is found at the expected frequency.
+      int principalIndex = 0;
+      for (int k = 1; k < slidingDFTAnalysis.getOutputSize(); k++)
+      {
+         if (slidingDFTAnalysis.getMagnitude(k) > slidingDFTAnalysis.getMagnitude(principalIndex))
+            principalIndex = k;
+      }
+      double frequencyResolution = slidingDFTAnalysis.getFrequency(1);
+      assertTrue(Math.abs(slidingDFTAnalysis.getFrequency(principalIndex) - frequencies[0]) <= frequencyResolution);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testResetAndSwitchingMode()
+   {
+      Random random = new Random(9861L);
+      double dt = 0.001;
+      double estimationWindow = 0.1;
+      YoVariableRegistry registry = new YoVariableRegistry("Test");
+
+      Online1DSignalFourierAnalysis analysis = new Online1DSignalFourierAnalysis("analysis", estimationWindow, dt, registry);
+      Online1DSignalFourierAnalysis fftAnalysis = new Online1DSignalFourierAnalysis("fft", estimationWindow, dt, registry);
+      fftAnalysis.setUseSlidingDFT(false);
+      analysis.enable();
+      fftAnalysis.enable();
+
+      for (int tick = 0; tick < 2000; tick++)
+      {
+         if (tick == 350)
+         {
+            analysis.reset();
+            fftAnalysis.reset();
+         }
+
+         if (tick % 500 == 0)
+            analysis.setUseSlidingDFT(tick % 1000 == 0);
+
+         double signal = random.nextDouble();
+         analysis.update(signal);
+         fftAnalysis.update(signal);
+
+         if (!fftAnalysis.hasAnalysisStarted())
+            continue;
+
+         for (int k = 0; k < fftAnalysis.getOutputSize(); k++)
+            assertEquals(fftAnalysis.getMagnitude(k), analysis.getMagnitude(k), 1.0e-9);
+      }
+   }
+}
@@ -343,6 +343,18 @@ public abstract class AbstractDDPSolver<E extends Enum> implements DDPSolverInte
    private final DenseMatrix64F stateError = new DenseMatrix64F(0, 0);
    void computeUpdatedControl(DenseMatrix64F currentState, DenseMatrix64F updatedState, DenseMatrix64F feedbackGainMatrix, DenseMatrix64F feedforwardControl,
                               DenseMatrix64F currentControl, DenseMatrix64F updatedControlToPack)
+   {
+      computeUpdatedControl(currentState, updatedState, feedbackGainMatrix, feedforwardControl, currentControl, lineSearchGain, stateError,
+                            updatedControlToPack);
+   }
+
+   /**
+    * Same as {@link #computeUpdatedControl(DenseMatrix64F, DenseMatrix64F, DenseMatrix64F, DenseMatrix64F, DenseMatrix64F, DenseMatrix64F)}
+    * but with the line search gain and the workspace given, such that it can be called from several threads at once.
+    */
+   static void computeUpdatedControl(DenseMatrix64F currentState, DenseMatrix64F updatedState, DenseMatrix64F feedbackGainMatrix,
+                                     DenseMatrix64F feedforwardControl, DenseMatrix64F currentControl, double lineSearchGain, DenseMatrix64F stateError,
+                                     DenseMatrix64F updatedControlToPack)
    {
       stateError.reshape(currentState.getNumRows(), 1);
       CommonOps.subtract(updatedState, currentState, stateError);
@@ -389,6 +401,21 @@ public abstract class AbstractDDPSolver<E extends Enum> implements DDPSolverInte
       CommonOps.multAdd(tempMatrix, C, DToPack);
    }
 
+   /**
+    * Sets the time step of the dynamics used by this solver.
+    */
+   public void setTimeStepSize(double deltaT)
+   {
+      dynamics.setTimeStepSize(deltaT);
+   }
+
+   /**
+    * Releases the resources held by this solver, it cannot be used afterwards.
+    */
+   public void destroy()
+   {
+   }
+
    void applyLevenbergMarquardtHeuristicForHessianRegularization(boolean success)
    {
       if (success)
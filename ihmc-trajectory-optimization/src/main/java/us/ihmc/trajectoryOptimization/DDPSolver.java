@@ -1,24 +1,69 @@
 package us.ihmc.trajectoryOptimization;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
 import org.ejml.data.DenseMatrix64F;
 import us.ihmc.commons.MathTools;
 import us.ihmc.commons.PrintTools;
-import us.ihmc.robotics.lists.RecyclingArrayList;
 
+/**
+ * DDP solver with a backtracking line search on the feed-forward term of the forward pass.
+ * <p>
+ * The line search gains are tried from {@code 1.0} down to {@code 0.0} until the forward pass
+ * does not diverge. When created with line search dynamics, several gains are tried at once, one
+ * per thread, and the largest gain that does not diverge is kept. This gives the same result as
+ * trying them one after the other.
+ * </p>
+ * <p>
+ * The additional candidates are run by threads started with the solver and parked between the
+ * rounds, such that the forward pass does not allocate.
+ * </p>
+ */
 public class DDPSolver<E extends Enum> extends AbstractDDPSolver<E> implements DDPSolverInterface<E>
 {
    private static final double lineSearchScaling = 0.1;
    private static final double lineSearchStartGain = 1.0;
    private static final double lineSearchGainMinimum = 0.0;
+   private static final double[] lineSearchGains = computeLineSearchGains();
 
    private final DiscreteOptimizationData previousSequence;
 
+   private final List<LineSearchCandidate> lineSearchCandidates = new ArrayList<>();
+   /** Run all the line search candidates but the first one, which is used by the calling thread. */
+   private final List<LineSearchWorker> lineSearchWorkers = new ArrayList<>();
+   /** Number of workers that have not finished the current round. */
+   private final AtomicInteger numberOfBusyLineSearchWorkers = new AtomicInteger();
+   private volatile Thread lineSearchCallingThread;
+   private volatile Throwable lineSearchWorkerFailure;
+   private volatile boolean lineSearchWorkersRunning = true;
+
    public DDPSolver(DiscreteHybridDynamics<E> dynamics)
    {
       this(dynamics, false);
    }
 
    public DDPSolver(DiscreteHybridDynamics<E> dynamics, boolean debug)
+   {
+      this(dynamics, new ArrayList<>(), debug);
+   }
+
+   /**
+    * Creates a solver trying {@code lineSearchDynamics.size() + 1} line search gains at once.
+    * <p>
+    * Each element of {@code lineSearchDynamics} is used by its own thread to compute the forward
+    * pass with one of the gains, and has to be a separate instance modeling the same system as
+    * {@code dynamics}. Use {@link #setTimeStepSize(double)} on this solver to change the time step
+    * of all of them. The cost function is only evaluated by the calling thread.
+    * </p>
+    *
+    * @param dynamics the dynamics of the system, used by the calling thread.
+    * @param lineSearchDynamics copies of {@code dynamics}, one for each additional thread.
+    * @param debug whether to print information about the solver progress.
+    */
+   public DDPSolver(DiscreteHybridDynamics<E> dynamics, List<? extends DiscreteHybridDynamics<E>> lineSearchDynamics, boolean debug)
    {
       super(dynamics, debug);
 
@@ -26,6 +71,21 @@ public class DDPSolver<E extends Enum> extends AbstractDDPSolver<E> implements D
       int controlSize = dynamics.getControlVectorSize();
 
       previousSequence = new DiscreteOptimizationSequence(stateSize, controlSize);
+
+      if (!lineSearchDynamics.isEmpty())
+      {
+         lineSearchCandidates.add(new LineSearchCandidate(dynamics));
+         for (int i = 0; i < lineSearchDynamics.size(); i++)
+         {
+            if (lineSearchDynamics.get(i) == dynamics)
+               throw new RuntimeException("The line search dynamics have to be separate instances.");
+            lineSearchCandidates.add(new LineSearchCandidate(lineSearchDynamics.get(i)));
+         }
+
+         String name = getClass().getSimpleName();
+         for (int i = 1; i < lineSearchCandidates.size(); i++)
+            lineSearchWorkers.add(new LineSearchWorker(lineSearchCandidates.get(i), name + i));
+      }
    }
 
    @Override
@@ -33,9 +93,12 @@ public class DDPSolver<E extends Enum> extends AbstractDDPSolver<E> implements D
                                          DiscreteOptimizationData desiredSequence, DiscreteSequence constantsSequence,
                                          DiscreteSequence feedbackGainSequence, DiscreteSequence feedForwardSequence)
    {
-      super.initializeFromLQRSolution(dynamicsState, costFunction, optimalSequence, desiredSequence, constantsSequence, feedBackGainSequence, feedForwardSequence);
-
+      // The sequences of the forward pass have to be ready before it is called by the super class.
       previousSequence.setZero(optimalSequence);
+      for (int i = 0; i < lineSearchCandidates.size(); i++)
+         lineSearchCandidates.get(i).sequence.setZero(optimalSequence);
+
+      super.initializeFromLQRSolution(dynamicsState, costFunction, optimalSequence, desiredSequence, constantsSequence, feedbackGainSequence, feedForwardSequence);
    }
 
    @Override
@@ -44,9 +107,27 @@ public class DDPSolver<E extends Enum> extends AbstractDDPSolver<E> implements D
       super.initializeSequencesFromDesireds(initialState, desiredSequence, constantsSequence);
 
       previousSequence.setZero(desiredSequence);
+      for (int i = 0; i < lineSearchCandidates.size(); i++)
+         lineSearchCandidates.get(i).sequence.setZero(desiredSequence);
    }
 
+   @Override
+   public void setTimeStepSize(double deltaT)
+   {
+      super.setTimeStepSize(deltaT);
 
+      // The first candidate uses the dynamics of the super class.
+      for (int i = 1; i < lineSearchCandidates.size(); i++)
+         lineSearchCandidates.get(i).candidateDynamics.setTimeStepSize(deltaT);
+   }
+
+   @Override
+   public void destroy()
+   {
+      lineSearchWorkersRunning = false;
+      for (int i = 0; i < lineSearchWorkers.size(); i++)
+         LockSupport.unpark(lineSearchWorkers.get(i).thread);
+   }
 
    @Override
    public boolean backwardPass(E dynamicsState, int startIndex, int endIndex,
@@ -106,6 +187,9 @@ public class DDPSolver<E extends Enum> extends AbstractDDPSolver<E> implements D
    public double forwardPass(E dynamicsState, int startIndex, int endIndex, LQTrackingCostFunction<E> costFunction, DenseMatrix64F initialState,
                              DiscreteOptimizationData updatedSequence)
    {
+      if (!lineSearchCandidates.isEmpty())
+         return parallelForwardPass(dynamicsState, startIndex, endIndex, costFunction, initialState, updatedSequence);
+
       lineSearchGain = lineSearchStartGain;
       boolean iterate = true;
       boolean lastIteration = false;
@@ -120,7 +204,8 @@ public class DDPSolver<E extends Enum> extends AbstractDDPSolver<E> implements D
                break;
 
             lineSearchGain = Math.max(lineSearchGain - lineSearchScaling, lineSearchGainMinimum);
-            PrintTools.info("Solution diverged, decrease line search gain to " + lineSearchGain + " and trying again.");
+            if (debug)
+               PrintTools.info("Solution diverged, decrease line search gain to " + lineSearchGain + " and trying again.");
          }
          else
          {
@@ -135,6 +220,140 @@ public class DDPSolver<E extends Enum> extends AbstractDDPSolver<E> implements D
       return updatedCost;
    }
 
+   /**
+    * Tries the line search gains in groups of {@code lineSearchCandidates.size()}, computing the
+    * forward pass of a group in parallel. The candidates of a group are then checked in order of
+    * decreasing gain and the first one that neither diverges nor has an infinite cost is kept.
+    */
+   private double parallelForwardPass(E dynamicsState, int startIndex, int endIndex, LQTrackingCostFunction<E> costFunction, DenseMatrix64F initialState,
+                                      DiscreteOptimizationData updatedSequence)
+   {
+      for (int firstGainIndex = 0; firstGainIndex < lineSearchGains.length; firstGainIndex += lineSearchCandidates.size())
+      {
+         int numberOfCandidates = Math.min(lineSearchCandidates.size(), lineSearchGains.length - firstGainIndex);
+
+         for (int i = 0; i < numberOfCandidates; i++)
+            lineSearchCandidates.get(i).setup(dynamicsState, startIndex, endIndex, initialState, lineSearchGains[firstGainIndex + i]);
+
+         startLineSearchWorkers(numberOfCandidates - 1);
+
+         try
+         {
+            lineSearchCandidates.get(0).run();
+         }
+         finally
+         {
+            // Always wait for the other candidates such that none of them is still running when this returns.
+            waitForLineSearchCandidates();
+         }
+
+         for (int i = 0; i < numberOfCandidates; i++)
+         {
+            LineSearchCandidate candidate = lineSearchCandidates.get(i);
+
+            if (candidate.hasDiverged)
+            {
+               if (debug)
+                  PrintTools.info("Solution diverged for the line search gain " + candidate.gain + ".");
+               continue;
+            }
+
+            double updatedCost = computeCost(dynamicsState, startIndex, endIndex, costFunction, candidate.sequence);
+
+            if (Double.isInfinite(updatedCost))
+               continue;
+
+            lineSearchGain = candidate.gain;
+
+            for (int t = startIndex; t <= endIndex; t++)
+            {
+               previousSequence.setState(t, candidate.sequence.getState(t));
+               previousSequence.setControl(t, candidate.sequence.getControl(t));
+            }
+            updatedSequence.set(previousSequence);
+
+            return updatedCost;
+         }
+      }
+
+      lineSearchGain = lineSearchGainMinimum;
+      return Double.POSITIVE_INFINITY;
+   }
+
+   private void startLineSearchWorkers(int numberOfWorkers)
+   {
+      if (!lineSearchWorkersRunning)
+         throw new RuntimeException("This solver has been destroyed.");
+
+      lineSearchCallingThread = Thread.currentThread();
+      numberOfBusyLineSearchWorkers.set(numberOfWorkers);
+
+      for (int i = 0; i < numberOfWorkers; i++)
+      {
+         LineSearchWorker worker = lineSearchWorkers.get(i);
+         worker.hasWork = true;
+         LockSupport.unpark(worker.thread);
+      }
+   }
+
+   private void waitForLineSearchCandidates()
+   {
+      // Wakeups can be spurious or left over from a previous round, hence the loop.
+      while (numberOfBusyLineSearchWorkers.get() > 0)
+         LockSupport.park(this);
+
+      Throwable failure = lineSearchWorkerFailure;
+      if (failure != null)
+      {
+         lineSearchWorkerFailure = null;
+         throw new RuntimeException(failure);
+      }
+   }
+
+   /**
+    * Computes the states and controls of a forward pass for the given line search gain, without
+    * evaluating the cost. Only reads the fields of this solver, such that it can be called from
+    * several threads at once as long as each call has its own dynamics and workspace.
+    *
+    * @return whether the states stayed bounded.
+    */
+   private boolean rollOut(DiscreteHybridDynamics<E> dynamics, E dynamicsState, int startIndex, int endIndex, DenseMatrix64F initialState,
+                           double gain, DenseMatrix64F stateError, DiscreteOptimizationData sequenceToPack)
+   {
+      sequenceToPack.setState(startIndex, initialState);
+
+      for (int t = startIndex; t < endIndex; t++)
+      {
+         DenseMatrix64F state = optimalSequence.getState(t);
+         DenseMatrix64F updatedState = sequenceToPack.getState(t);
+         DenseMatrix64F updatedControl = sequenceToPack.getControl(t);
+
+         if (isStateDiverging(updatedState, state))
+            return false;
+
+         computeUpdatedControl(state, updatedState, feedBackGainSequence.get(t), feedForwardSequence.get(t), optimalSequence.getControl(t), gain, stateError,
+                               updatedControl);
+
+         if (t < desiredSequence.size() - 1)
+            dynamics.getNextState(dynamicsState, updatedState, updatedControl, constantsSequence.get(t), sequenceToPack.getState(t + 1));
+      }
+
+      return true;
+   }
+
+   private double computeCost(E dynamicsState, int startIndex, int endIndex, LQTrackingCostFunction<E> costFunction, DiscreteOptimizationData sequence)
+   {
+      double cost = 0.0;
+
+      for (int t = startIndex; t < endIndex; t++)
+      {
+         cost += costFunction.getCost(dynamicsState, sequence.getControl(t), sequence.getState(t), desiredSequence.getControl(t), desiredSequence.getState(t),
+                                      constantsSequence.get(t));
+      }
+
+      return cost;
+   }
+
    private double solveForwardDDPPassInternal(E dynamicsState, int startIndex, int endIndex, LQTrackingCostFunction<E> costFunction, DenseMatrix64F initialState,
                                               DiscreteOptimizationData updatedSequence)
    {
@@ -174,4 +393,114 @@ public class DDPSolver<E extends Enum> extends AbstractDDPSolver<E> implements D
       return false;
 
    }
+
+   private static double[] computeLineSearchGains()
+   {
+      // Same sequence of gains as the one tried one at a time, including the rounding errors.
+      List<Double> gains = new ArrayList<>();
+      double gain = lineSearchStartGain;
+      gains.add(gain);
+
+      while (gain != lineSearchGainMinimum)
+      {
+         gain = Math.max(gain - lineSearchScaling, lineSearchGainMinimum);
+         gains.add(gain);
+      }
+
+      double[] gainArray = new double[gains.size()];
+      for (int i = 0; i < gains.size(); i++)
+         gainArray[i] = gains.get(i);
+      return gainArray;
+   }
+
+   /**
+    * Forward pass for one line search gain, with its own dynamics, sequence and workspace.
+    */
+   private class LineSearchCandidate implements Runnable
+   {
+      private final DiscreteHybridDynamics<E> candidateDynamics;
+      private final DiscreteOptimizationSequence sequence;
+      private final DenseMatrix64F stateError;
+
+      private E dynamicsState;
+      private int startIndex;
+      private int endIndex;
+      private DenseMatrix64F initialState;
+      private double gain;
+      private boolean hasDiverged;
+
+      LineSearchCandidate(DiscreteHybridDynamics<E> candidateDynamics)
+      {
+         this.candidateDynamics = candidateDynamics;
+
+         int stateSize = candidateDynamics.getStateVectorSize();
+         int controlSize = candidateDynamics.getControlVectorSize();
+
+         sequence = new DiscreteOptimizationSequence(stateSize, controlSize);
+         stateError = new DenseMatrix64F(stateSize, 1);
+      }
+
+      void setup(E dynamicsState, int startIndex, int endIndex, DenseMatrix64F initialState, double gain)
+      {
+         this.dynamicsState = dynamicsState;
+         this.startIndex = startIndex;
+         this.endIndex = endIndex;
+         this.initialState = initialState;
+         this.gain = gain;
+      }
+
+      @Override
+      public void run()
+      {
+         hasDiverged = !rollOut(candidateDynamics, dynamicsState, startIndex, endIndex, initialState, gain, stateError, sequence);
+      }
+   }
+
+   /**
+    * Thread running one line search candidate each time it is woken up with work, and parked the
+    * rest of the time. Unlike handing the candidate to an executor, this does not allocate.
+    */
+   private class LineSearchWorker implements Runnable
+   {
+      private final LineSearchCandidate candidate;
+      private final Thread thread;
+      private volatile boolean hasWork = false;
+
+      LineSearchWorker(LineSearchCandidate candidate, String name)
+      {
+         this.candidate = candidate;
+
+         thread = new Thread(this, name);
+         thread.setDaemon(true);
+         thread.start();
+      }
+
+      @Override
+      public void run()
+      {
+         while (lineSearchWorkersRunning)
+         {
+            if (!hasWork)
+            {
+               LockSupport.park(this);
+               continue;
+            }
+
+            try
+            {
+               candidate.run();
+            }
+            catch (Throwable e)
+            {
+               lineSearchWorkerFailure = e;
+            }
+            finally
+            {
+               hasWork = false;
+               if (numberOfBusyLineSearchWorkers.decrementAndGet() == 0)
+                  LockSupport.unpark(lineSearchCallingThread);
+            }
+         }
+      }
+   }
 }
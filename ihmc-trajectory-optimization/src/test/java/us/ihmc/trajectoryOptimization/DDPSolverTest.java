@@ -1,5 +1,7 @@
 package us.ihmc.trajectoryOptimization;
 
+import static org.junit.Assert.assertEquals;
+
 import org.ejml.data.DenseMatrix64F;
 import org.ejml.factory.LinearSolverFactory;
 import org.ejml.interfaces.linsol.LinearSolver;
@@ -10,6 +12,8 @@ import us.ihmc.commons.RandomNumbers;
 import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
 import us.ihmc.robotics.testing.JUnitTools;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 public class DDPSolverTest
@@ -480,6 +484,121 @@ public class DDPSolverTest
       JUnitTools.assertMatrixEquals(d_expected, d, 1e-12);
    }
 
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testParallelLineSearch()
+   {
+      Random random = new Random(1738);
+      int numberOfTimeSteps = 10;
+
+      DenseMatrix64F initialState = new DenseMatrix64F(1, 1);
+      initialState.set(0, 0.5);
+
+      DiscreteOptimizationSequence desiredSequence = new DiscreteOptimizationSequence(1, 1);
+      desiredSequence.setLength(numberOfTimeSteps);
+      DiscreteSequence constantsSequence = new DiscreteSequence(0, 1);
+      constantsSequence.setLength(numberOfTimeSteps);
+
+      // contracting feedback, such that only the feed-forward term can make the state diverge.
+      DenseMatrix64F feedbackGains = RandomMatrices.createRandom(numberOfTimeSteps, 1, -1.0, 0.0, random);
+      DenseMatrix64F feedForwardTerms = RandomMatrices.createRandom(numberOfTimeSteps, 1, -1.0, 1.0, random);
+
+      for (int numberOfThreads = 2; numberOfThreads < 6; numberOfThreads++)
+      {
+         // no divergence, the full step is taken.
+         assertParallelLineSearchMatchesSerial(numberOfThreads, initialState, desiredSequence, constantsSequence, feedbackGains, feedForwardTerms, 1.0);
+
+         // the state diverges for the gains larger than 0.3 because of this step.
+         double feedForwardTerm = feedForwardTerms.get(3);
+         feedForwardTerms.set(3, 3.0e20);
+         assertParallelLineSearchMatchesSerial(numberOfThreads, initialState, desiredSequence, constantsSequence, feedbackGains, feedForwardTerms, 0.3);
+         feedForwardTerms.set(3, feedForwardTerm);
+      }
+   }
+
+   private void assertParallelLineSearchMatchesSerial(int numberOfThreads, DenseMatrix64F initialState, DiscreteOptimizationData desiredSequence,
+                                                      DiscreteSequence constantsSequence, DenseMatrix64F feedbackGains, DenseMatrix64F feedForwardTerms,
+                                                      double expectedLineSearchGain)
+   {
+      DDPSolver<DefaultDiscreteState> serialSolver = new DDPSolver<>(new IntegratorDynamics());
+
+      List<IntegratorDynamics> lineSearchDynamics = new ArrayList<>();
+      for (int i = 1; i < numberOfThreads; i++)
+         lineSearchDynamics.add(new IntegratorDynamics());
+      DDPSolver<DefaultDiscreteState> parallelSolver = new DDPSolver<>(new IntegratorDynamics(), lineSearchDynamics, false);
+
+      DiscreteOptimizationSequence serialSequence = new DiscreteOptimizationSequence(1, 1);
+      DiscreteOptimizationSequence parallelSequence = new DiscreteOptimizationSequence(1, 1);
+      serialSequence.setLength(desiredSequence.size());
+      parallelSequence.setLength(desiredSequence.size());
+
+      initializeForwardPass(serialSolver, initialState, desiredSequence, constantsSequence, feedbackGains, feedForwardTerms);
+      initializeForwardPass(parallelSolver, initialState, desiredSequence, constantsSequence, feedbackGains, feedForwardTerms);
+
+      QuadraticCostFunction costFunction = new QuadraticCostFunction();
+      int endIndex = desiredSequence.size() - 1;
+      double serialCost = serialSolver.forwardPass(DefaultDiscreteState.DEFAULT, 0, endIndex, costFunction, initialState, serialSequence);
+      double parallelCost = parallelSolver.forwardPass(DefaultDiscreteState.DEFAULT, 0, endIndex, costFunction, initialState, parallelSequence);
+
+      parallelSolver.destroy();
+
+      assertEquals(expectedLineSearchGain, serialSolver.lineSearchGain, 1e-10);
+      assertEquals(serialSolver.lineSearchGain, parallelSolver.lineSearchGain, 0.0);
+      assertEquals(serialCost, parallelCost, 0.0);
+
+      for (int t = 0; t < desiredSequence.size(); t++)
+      {
+         JUnitTools.assertMatrixEquals(serialSequence.getState(t), parallelSequence.getState(t), 0.0);
+         JUnitTools.assertMatrixEquals(serialSequence.getControl(t), parallelSequence.getControl(t), 0.0);
+      }
+   }
+
+   private void initializeForwardPass(DDPSolver<DefaultDiscreteState> solver, DenseMatrix64F initialState, DiscreteOptimizationData desiredSequence,
+                                      DiscreteSequence constantsSequence, DenseMatrix64F feedbackGains, DenseMatrix64F feedForwardTerms)
+   {
+      solver.initializeSequencesFromDesireds(initialState, desiredSequence, constantsSequence);
+
+      for (int t = 0; t < desiredSequence.size(); t++)
+      {
+         solver.feedBackGainSequence.get(t).set(0, feedbackGains.get(t));
+         solver.feedForwardSequence.get(t).set(0, feedForwardTerms.get(t));
+      }
+   }
+
+   /** x(t+1) = x(t) + u(t) */
+   private class IntegratorDynamics extends TestDynamics
+   {
+      @Override
+      public int getStateVectorSize()
+      {
+         return 1;
+      }
+
+      @Override
+      public int getControlVectorSize()
+      {
+         return 1;
+      }
+
+      @Override
+      public void getNextState(DefaultDiscreteState hybridState, DenseMatrix64F currentState, DenseMatrix64F currentControl, DenseMatrix64F constants,
+                               DenseMatrix64F matrixToPack)
+      {
+         matrixToPack.set(0, currentState.get(0) + currentControl.get(0));
+      }
+   }
+
+   /** L = x^2 + u^2 */
+   private class QuadraticCostFunction extends BasicLQCostFunction
+   {
+      @Override
+      public double getCost(DefaultDiscreteState state, DenseMatrix64F controlVector, DenseMatrix64F stateVector, DenseMatrix64F desiredControlVector,
+                            DenseMatrix64F desiredStateVector, DenseMatrix64F constants)
+      {
+         return stateVector.get(0) * stateVector.get(0) + controlVector.get(0) * controlVector.get(0);
+      }
+   }
+
    private class TestDynamics implements DiscreteHybridDynamics<DefaultDiscreteState>
    {
 
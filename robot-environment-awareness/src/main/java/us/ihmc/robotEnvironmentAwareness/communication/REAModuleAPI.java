@@ -35,6 +35,7 @@ public class REAModuleAPI
    private static final CategoryTheme NormalEstimation = apiFactory.createCategoryTheme("NormalEstimation");
    private static final CategoryTheme PlanarRegions = apiFactory.createCategoryTheme("PlanarRegions");
    private static final CategoryTheme Segmentation = apiFactory.createCategoryTheme("Segmentation");
+   private static final CategoryTheme Incremental = apiFactory.createCategoryTheme("Incremental");
    private static final CategoryTheme Intersection = apiFactory.createCategoryTheme("Intersection");
    private static final CategoryTheme ConcaveHull = apiFactory.createCategoryTheme("ConcaveHull");
    private static final CategoryTheme Polygonizer = apiFactory.createCategoryTheme("Polygonizer");
@@ -83,6 +84,7 @@ public class REAModuleAPI
    
    public static final Topic<Boolean> PlanarRegionsSegmentationEnable = PlanarRegionsCategory.child(Segmentation).topic(Enable);
    public static final Topic<Boolean> PlanarRegionsSegmentationClear = PlanarRegionsCategory.child(Segmentation).topic(Clear);
+   public static final Topic<Boolean> PlanarRegionsSegmentationIncrementalEnable = PlanarRegionsCategory.child(Segmentation).child(Incremental).topic(Enable);
    public static final Topic<PlanarRegionSegmentationParameters> PlanarRegionsSegmentationParameters = PlanarRegionsCategory.child(Segmentation).topic(Parameters);
    public static final Topic<Boolean> PlanarRegionsPolygonizerEnable = PlanarRegionsCategory.child(Polygonizer).topic(Enable);
    public static final Topic<Boolean> PlanarRegionsPolygonizerClear = PlanarRegionsCategory.child(Polygonizer).topic(Clear);
@@ -0,0 +1,212 @@
+package us.ihmc.robotEnvironmentAwareness.planarRegion;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import us.ihmc.euclid.geometry.LineSegment2D;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.robotEnvironmentAwareness.geometry.ConcaveHullFactoryParameters;
+import us.ihmc.robotEnvironmentAwareness.ui.io.PlanarRegionSegmentationDataExporter;
+import us.ihmc.robotEnvironmentAwareness.updaters.TimeReporter;
+import us.ihmc.robotics.geometry.PlanarRegion;
+import us.ihmc.robotics.geometry.PlanarRegionsList;
+
+/**
+ * Polygonizes the regions of a segmentation on a pool of threads, one task per region.
+ * <p>
+ * The result of every region is cached with its region id along with the raw data it was computed
+ * from. A region with the same id and the same content as in the previous call, that is origin,
+ * normal, points, and intersections, is not polygonized again. Only the regions of the last call
+ * are kept in the cache, and the cache is cleared when the parameters change.
+ * </p>
+ */
+public class ParallelPlanarRegionPolygonizer
+{
+   private static final String regionTimeReportPrefix = "Polygonization of region ";
+
+   private final ForkJoinPool pool;
+   private final TimeReporter timeReporter;
+
+   private Map<Integer, CachedRegion> cachedRegions = new HashMap<>();
+   private ConcaveHullFactoryParameters cachedConcaveHullFactoryParameters = null;
+   private PolygonizerParameters cachedPolygonizerParameters = null;
+
+   private int numberOfPolygonizedRegions = 0;
+   private int numberOfCachedRegions = 0;
+
+   public ParallelPlanarRegionPolygonizer(TimeReporter timeReporter)
+   {
+      this(Runtime.getRuntime().availableProcessors(), timeReporter);
+   }
+
+   /**
+    * @param numberOfThreads number of regions polygonized at the same time.
+    * @param timeReporter used to report the polygonization time of every region. Can be null.
+    */
+   public ParallelPlanarRegionPolygonizer(int numberOfThreads, TimeReporter timeReporter)
+   {
+      pool = new ForkJoinPool(numberOfThreads);
+      this.timeReporter = timeReporter;
+   }
+
+   public PlanarRegionsList createPlanarRegionsList(List<PlanarRegionSegmentationRawData> rawData, ConcaveHullFactoryParameters concaveHullFactoryParameters,
+                                                    PolygonizerParameters polygonizerParameters, PlanarRegionSegmentationDataExporter dataExporter)
+   {
+      return createPlanarRegionsList(rawData, null, concaveHullFactoryParameters, polygonizerParameters, dataExporter);
+   }
+
+   /**
+    * @param changedRegionIds the ids of the regions known to have changed since the last call, as
+    *           given by {@link PlanarRegionSegmentationCalculator#getChangedRegionIds()}. These
+    *           regions are polygonized again without looking at the cache. Can be null, in which
+    *           case the content of every region is compared with the cache.
+    */
+   public PlanarRegionsList createPlanarRegionsList(List<PlanarRegionSegmentationRawData> rawData, Set<Integer> changedRegionIds,
+                                                    ConcaveHullFactoryParameters concaveHullFactoryParameters, PolygonizerParameters polygonizerParameters,
+                                                    PlanarRegionSegmentationDataExporter dataExporter)
+   {
+      if (concaveHullFactoryParameters != cachedConcaveHullFactoryParameters || polygonizerParameters != cachedPolygonizerParameters)
+      {
+         cachedRegions.clear();
+         cachedConcaveHullFactoryParameters = concaveHullFactoryParameters;
+         cachedPolygonizerParameters = polygonizerParameters;
+      }
+
+      int numberOfRegions = rawData.size();
+      List<CachedRegion> previousResults = new ArrayList<>(numberOfRegions);
+      List<ForkJoinTask<List<PlanarRegion>>> tasks = new ArrayList<>(numberOfRegions);
+      Map<Integer, CachedRegion> newCachedRegions = new HashMap<>();
+
+      numberOfPolygonizedRegions = 0;
+      numberOfCachedRegions = 0;
+
+      for (int i = 0; i < numberOfRegions; i++)
+      {
+         PlanarRegionSegmentationRawData data = rawData.get(i);
+         CachedRegion cachedRegion = null;
+
+         if (changedRegionIds == null || !changedRegionIds.contains(data.getRegionId()))
+         {
+            cachedRegion = cachedRegions.get(data.getRegionId());
+            if (cachedRegion != null && !haveSameContent(cachedRegion.rawData, data))
+               cachedRegion = null;
+         }
+
+         previousResults.add(cachedRegion);
+
+         if (cachedRegion != null)
+         {
+            tasks.add(null);
+            numberOfCachedRegions++;
+         }
+         else
+         {
+            tasks.add(pool.submit(() -> polygonize(data, concaveHullFactoryParameters, polygonizerParameters, dataExporter)));
+            numberOfPolygonizedRegions++;
+         }
+      }
+
+      List<PlanarRegion> planarRegions = new ArrayList<>();
+
+      for (int i = 0; i < numberOfRegions; i++)
+      {
+         ForkJoinTask<List<PlanarRegion>> task = tasks.get(i);
+         CachedRegion result = task == null ? previousResults.get(i) : new CachedRegion(rawData.get(i), task.join());
+         newCachedRegions.put(result.rawData.getRegionId(), result);
+         planarRegions.addAll(result.planarRegions);
+      }
+
+      cachedRegions = newCachedRegions;
+      return new PlanarRegionsList(planarRegions);
+   }
+
+   private List<PlanarRegion> polygonize(PlanarRegionSegmentationRawData data, ConcaveHullFactoryParameters concaveHullFactoryParameters,
+                                         PolygonizerParameters polygonizerParameters, PlanarRegionSegmentationDataExporter dataExporter)
+   {
+      if (timeReporter == null)
+         return PlanarRegionPolygonizer.createPlanarRegions(data, concaveHullFactoryParameters, polygonizerParameters, dataExporter);
+
+      List<List<PlanarRegion>> result = new ArrayList<>(1);
+      timeReporter.run(() -> result.add(PlanarRegionPolygonizer.createPlanarRegions(data, concaveHullFactoryParameters, polygonizerParameters, dataExporter)),
+                       regionTimeReportPrefix + data.getRegionId() + " (" + data.size() + " points) took: ");
+      return result.get(0);
+   }
+
+   /**
+    * @return the number of regions that were polygonized in the last call.
+    */
+   public int getNumberOfPolygonizedRegions()
+   {
+      return numberOfPolygonizedRegions;
+   }
+
+   /**
+    * @return the number of regions that were found in the cache in the last call.
+    */
+   public int getNumberOfCachedRegions()
+   {
+      return numberOfCachedRegions;
+   }
+
+   public void clearCache()
+   {
+      cachedRegions.clear();
+   }
+
+   public void shutdown()
+   {
+      pool.shutdownNow();
+   }
+
+   /**
+    * Compares the data used by the polygonizer. The orientation and the points in the plane are
+    * computed from the origin, normal, and points in world.
+    */
+   static boolean haveSameContent(PlanarRegionSegmentationRawData dataA, PlanarRegionSegmentationRawData dataB)
+   {
+      if (dataA.getRegionId() != dataB.getRegionId())
+         return false;
+      if (dataA.size() != dataB.size())
+         return false;
+      if (!dataA.getOrigin().equals(dataB.getOrigin()) || !dataA.getNormal().equals(dataB.getNormal()))
+         return false;
+
+      List<Point3D> pointCloudA = dataA.getPointCloudInWorld();
+      List<Point3D> pointCloudB = dataB.getPointCloudInWorld();
+      for (int i = 0; i < pointCloudA.size(); i++)
+      {
+         if (!pointCloudA.get(i).equals(pointCloudB.get(i)))
+            return false;
+      }
+
+      List<LineSegment2D> intersectionsA = dataA.getIntersections();
+      List<LineSegment2D> intersectionsB = dataB.getIntersections();
+      if (intersectionsA.size() != intersectionsB.size())
+         return false;
+      for (int i = 0; i < intersectionsA.size(); i++)
+      {
+         if (!intersectionsA.get(i).getFirstEndpoint().equals(intersectionsB.get(i).getFirstEndpoint()))
+            return false;
+         if (!intersectionsA.get(i).getSecondEndpoint().equals(intersectionsB.get(i).getSecondEndpoint()))
+            return false;
+      }
+      return true;
+   }
+
+   private static class CachedRegion
+   {
+      private final PlanarRegionSegmentationRawData rawData;
+      private final List<PlanarRegion> planarRegions;
+
+      private CachedRegion(PlanarRegionSegmentationRawData rawData, List<PlanarRegion> planarRegions)
+      {
+         this.rawData = rawData;
+         this.planarRegions = planarRegions;
+      }
+   }
+}
@@ -1,6 +1,7 @@
 package us.ihmc.robotEnvironmentAwareness.planarRegion;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -35,6 +36,22 @@ public abstract class PlanarRegionPolygonizer
       return new PlanarRegionsList(createPlanarRegions(rawData, concaveHullFactoryParameters, polygonizerParameters, dataExporter));
    }
 
+   /**
+    * Polygonizes a single region of the segmentation.
+    *
+    * @return the planar regions created from the raw data, which is empty if the raw data does not
+    *         have enough nodes or if the polygonization failed.
+    */
+   public static List<PlanarRegion> createPlanarRegions(PlanarRegionSegmentationRawData rawData, ConcaveHullFactoryParameters concaveHullFactoryParameters,
+                                                        PolygonizerParameters polygonizerParameters, PlanarRegionSegmentationDataExporter dataExporter)
+   {
+      if (rawData.size() < polygonizerParameters.getMinNumberOfNodes())
+         return Collections.emptyList();
+
+      List<PlanarRegion> planarRegions = createPlanarRegion(rawData, concaveHullFactoryParameters, polygonizerParameters, dataExporter);
+      return planarRegions == null ? Collections.emptyList() : planarRegions;
+   }
+
    private static List<PlanarRegion> createPlanarRegions(List<PlanarRegionSegmentationRawData> rawData,
                                                          ConcaveHullFactoryParameters concaveHullFactoryParameters, PolygonizerParameters polygonizerParameters,
                                                          PlanarRegionSegmentationDataExporter dataExporter)
@@ -2,6 +2,7 @@ package us.ihmc.robotEnvironmentAwareness.planarRegion;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashSet;
@@ -26,17 +27,34 @@ import us.ihmc.robotics.geometry.PlanarRegion;
 
 public class PlanarRegionSegmentationCalculator
 {
+   /**
+    * Number of calls to {@link #computeIncrementally(NormalOcTreeNode)} after which a full
+    * segmentation is done. This catches up with the changes of the octree that are not reported
+    * as updated nodes, such as normals re-estimated around the scan or a moving bounding box.
+    */
+   public static final int DEFAULT_FULL_SEGMENTATION_PERIOD = 25;
+
    private final Random random = new Random(234324L);
 
    private final Set<NormalOcTreeNode> allRegionNodes = new HashSet<>();
    private List<PlanarRegionSegmentationNodeData> regionsNodeData = new ArrayList<>();
    private final List<NormalOcTreeNode> nodesWithoutRegion = new ArrayList<>();
 
+   private final Set<NormalOcTreeNode> updatedNodes = new HashSet<>();
+   private final Set<Integer> changedRegionIds = new HashSet<>();
+   private boolean isFullSegmentationRequested = true;
+   private int fullSegmentationPeriod = DEFAULT_FULL_SEGMENTATION_PERIOD;
+   private int numberOfIncrementalUpdates = 0;
+
    private PlanarRegionSegmentationParameters parameters;
    private OcTreeBoundingBoxInterface boundingBox;
 
    public void compute(NormalOcTreeNode root)
    {
+      updatedNodes.clear();
+      isFullSegmentationRequested = false;
+      numberOfIncrementalUpdates = 0;
+
       allRegionNodes.clear();
 
       regionsNodeData.parallelStream().forEach(region -> removeBadNodesFromRegion(boundingBox, parameters, region));
@@ -59,6 +77,112 @@ public class PlanarRegionSegmentationCalculator
       regionsNodeData = regionsNodeData.parallelStream().filter(region -> !isRegionSparse(region)).collect(Collectors.toList());
 
       regionsNodeData = mergePlanarRegionsIfPossible(root, regionsNodeData, parameters);
+
+      changedRegionIds.clear();
+      regionsNodeData.forEach(region -> changedRegionIds.add(region.getId()));
+   }
+
+   /**
+    * Updates the segmentation using only the octree nodes given to {@link #addUpdatedNodes(Collection)}
+    * since the last update.
+    * <p>
+    * Only the regions that are within the search radius of an updated node are cleaned up, grown,
+    * and tested for merging. New regions are only searched from the updated nodes and the nodes that
+    * were removed from regions. All other regions are kept as they are, see {@link #getChangedRegionIds()}.
+    * </p>
+    * Falls back to {@link #compute(NormalOcTreeNode)} on the first update, after the parameters have
+    * changed, and every {@link #setFullSegmentationPeriod(int)} updates.
+    */
+   public void computeIncrementally(NormalOcTreeNode root)
+   {
+      if (isFullSegmentationRequested || ++numberOfIncrementalUpdates >= fullSegmentationPeriod)
+      {
+         compute(root);
+         return;
+      }
+
+      double searchRadius = parameters.getSearchRadius();
+      double searchRadiusSquared = searchRadius * searchRadius;
+
+      List<NormalOcTreeNode> updatedNodesInBoundingBox = updatedNodes.stream()
+                                                                     .filter(node -> isNodeInBoundingBox(node, boundingBox))
+                                                                     .collect(Collectors.toList());
+      updatedNodes.clear();
+
+      // Removing dead nodes is cheap and needed for all regions, a region that lost nodes has to be updated as any region close to an updated node.
+      Map<Boolean, List<PlanarRegionSegmentationNodeData>> affectedAndUnaffectedRegions = regionsNodeData.parallelStream()
+            .collect(Collectors.groupingBy(region -> removeDeadNodesFromRegion(region) || isRegionCloseToAnyNode(region, updatedNodesInBoundingBox, searchRadiusSquared)));
+      List<PlanarRegionSegmentationNodeData> unaffectedRegions = affectedAndUnaffectedRegions.getOrDefault(false, Collections.emptyList());
+      List<PlanarRegionSegmentationNodeData> affectedRegions = affectedAndUnaffectedRegions.getOrDefault(true, Collections.emptyList());
+
+      List<NormalOcTreeNode> removedNodes = affectedRegions.parallelStream()
+                                                           .flatMap(region -> removeBadNodesFromRegion(boundingBox, parameters, region).stream())
+                                                           .collect(Collectors.toList());
+      affectedRegions = affectedRegions.stream().filter(region -> !region.isEmpty()).collect(Collectors.toList());
+
+      allRegionNodes.clear();
+      unaffectedRegions.forEach(region -> region.nodeStream().forEach(allRegionNodes::add));
+      affectedRegions.forEach(region -> region.nodeStream().forEach(allRegionNodes::add));
+      affectedRegions.forEach(region -> growPlanarRegion(root, region, boundingBox, parameters));
+      affectedRegions = affectedRegions.stream().filter(region -> region.getNumberOfNodes() > parameters.getMinRegionSize()).collect(Collectors.toList());
+
+      Set<NormalOcTreeNode> seedNodes = new HashSet<>(updatedNodesInBoundingBox);
+      seedNodes.addAll(removedNodes);
+      seedNodes.removeAll(allRegionNodes);
+
+      nodesWithoutRegion.clear();
+      seedNodes.stream().filter(node -> node.isNormalSet() && node.isHitLocationSet() && isNodeInBoundingBox(node, boundingBox)).forEach(nodesWithoutRegion::add);
+
+      List<PlanarRegionSegmentationNodeData> changedRegions = new ArrayList<>(affectedRegions);
+      changedRegions.addAll(searchNewPlanarRegions(root, boundingBox, parameters, random));
+      changedRegions.parallelStream().forEach(PlanarRegionSegmentationNodeData::recomputeNormalAndOrigin);
+      changedRegions.parallelStream().forEach(PlanarRegionSegmentationCalculator::flipNormalOfOutliers);
+      changedRegions = changedRegions.parallelStream().filter(region -> !isRegionSparse(region)).collect(Collectors.toList());
+
+      changedRegionIds.clear();
+      regionsNodeData = mergeChangedPlanarRegionsIfPossible(root, unaffectedRegions, changedRegions, parameters, changedRegionIds);
+   }
+
+   private static boolean isRegionCloseToAnyNode(PlanarRegionSegmentationNodeData region, List<NormalOcTreeNode> nodes, double distanceSquared)
+   {
+      for (int i = 0; i < nodes.size(); i++)
+      {
+         if (region.distanceSquaredFromBoundingBox(nodes.get(i)) <= distanceSquared)
+            return true;
+      }
+      return false;
+   }
+
+   /**
+    * Registers the nodes of the octree that were updated by a scan, to be processed in the next call
+    * to {@link #computeIncrementally(NormalOcTreeNode)}.
+    */
+   public void addUpdatedNodes(Collection<NormalOcTreeNode> nodes)
+   {
+      updatedNodes.addAll(nodes);
+   }
+
+   /**
+    * The next call to {@link #computeIncrementally(NormalOcTreeNode)} will do a full segmentation.
+    */
+   public void requestFullSegmentation()
+   {
+      isFullSegmentationRequested = true;
+      updatedNodes.clear();
+   }
+
+   public void setFullSegmentationPeriod(int fullSegmentationPeriod)
+   {
+      this.fullSegmentationPeriod = fullSegmentationPeriod;
+   }
+
+   /**
+    * @return the ids of the regions that were created or modified by the last update. The regions
+    *         with another id have the same nodes as after the previous update.
+    */
+   public Set<Integer> getChangedRegionIds()
+   {
+      return changedRegionIds;
    }
 
    public boolean isRegionSparse(PlanarRegionSegmentationNodeData region)
@@ -90,6 +214,8 @@ public class PlanarRegionSegmentationCalculator
    public void clear()
    {
       regionsNodeData.clear();
+      changedRegionIds.clear();
+      requestFullSegmentation();
    }
 
    private IteratorSelectionRule<NormalOcTreeNode> leafInBoundingBoxWithNormalSetRule(OcTreeBoundingBoxInterface boundingBox)
@@ -137,6 +263,39 @@ public class PlanarRegionSegmentationCalculator
       return mergedRegions;
    }
 
+   /**
+    * Same as {@link #mergePlanarRegionsIfPossible(NormalOcTreeNode, List, PlanarRegionSegmentationParameters)} but only
+    * tests the changed regions for merging, the unchanged regions having been tested against each other before.
+    *
+    * @param changedRegionIdsToPack the ids of the changed regions that remain after merging.
+    */
+   public static List<PlanarRegionSegmentationNodeData> mergeChangedPlanarRegionsIfPossible(NormalOcTreeNode root,
+                                                                                            List<PlanarRegionSegmentationNodeData> unchangedRegions,
+                                                                                            List<PlanarRegionSegmentationNodeData> changedRegions,
+                                                                                            PlanarRegionSegmentationParameters parameters,
+                                                                                            Set<Integer> changedRegionIdsToPack)
+   {
+      List<PlanarRegionSegmentationNodeData> mergedRegions = new ArrayList<>(unchangedRegions);
+      while (!changedRegions.isEmpty())
+      {
+         PlanarRegionSegmentationNodeData candidateForMergeOtherRegions = changedRegions.get(0);
+         Map<Boolean, List<PlanarRegionSegmentationNodeData>> mergeableChangedRegions = changedRegions.subList(1, changedRegions.size()).parallelStream()
+                    .collect(Collectors.groupingBy(other -> areRegionsMergeable(root, candidateForMergeOtherRegions, other, parameters)));
+         Map<Boolean, List<PlanarRegionSegmentationNodeData>> mergeableOtherRegions = mergedRegions.parallelStream()
+                    .collect(Collectors.groupingBy(other -> areRegionsMergeable(root, candidateForMergeOtherRegions, other, parameters)));
+
+         mergeableChangedRegions.getOrDefault(true, Collections.emptyList()).forEach(candidateForMergeOtherRegions::addNodesFromOtherRegion);
+         mergeableOtherRegions.getOrDefault(true, Collections.emptyList()).forEach(candidateForMergeOtherRegions::addNodesFromOtherRegion);
+         mergeableOtherRegions.getOrDefault(true, Collections.emptyList()).forEach(other -> changedRegionIdsToPack.remove(other.getId()));
+
+         changedRegions = mergeableChangedRegions.getOrDefault(false, Collections.emptyList());
+         mergedRegions = new ArrayList<>(mergeableOtherRegions.getOrDefault(false, Collections.emptyList()));
+         mergedRegions.add(candidateForMergeOtherRegions);
+         changedRegionIdsToPack.add(candidateForMergeOtherRegions.getId());
+      }
+      return mergedRegions;
+   }
+
    public static boolean areRegionsMergeable(NormalOcTreeNode root, PlanarRegionSegmentationNodeData currentRegion, PlanarRegionSegmentationNodeData potentialRegionToMerge,
          PlanarRegionSegmentationParameters parameters)
    {
@@ -276,7 +435,7 @@ public class PlanarRegionSegmentationCalculator
       newSetToExplore.add(neighborNode);
    }
 
-   private static void removeBadNodesFromRegion(OcTreeBoundingBoxInterface boundingBox, PlanarRegionSegmentationParameters parameters,
+   private static List<NormalOcTreeNode> removeBadNodesFromRegion(OcTreeBoundingBoxInterface boundingBox, PlanarRegionSegmentationParameters parameters,
          PlanarRegionSegmentationNodeData region)
    {
       List<NormalOcTreeNode> nodesToRemove = region.nodeStream()
@@ -284,15 +443,20 @@ public class PlanarRegionSegmentationCalculator
             .getOrDefault(true, Collections.emptyList());
 
       region.removeNodesAndUpdate(nodesToRemove);
+      return nodesToRemove;
    }
 
-   private static void removeDeadNodesFromRegion(PlanarRegionSegmentationNodeData region)
+   private static boolean removeDeadNodesFromRegion(PlanarRegionSegmentationNodeData region)
    {
       List<NormalOcTreeNode> nodesToRemove = region.nodeStream()
             .collect(Collectors.groupingBy(node -> isNodeDead(node)))
             .getOrDefault(true, Collections.emptyList());
 
+      if (nodesToRemove.isEmpty())
+         return false;
+
       region.removeNodesAndUpdate(nodesToRemove);
+      return true;
    }
 
    private static boolean isNodeInBoundingBox(NormalOcTreeNode node, OcTreeBoundingBoxInterface boundingBox)
@@ -327,6 +491,8 @@ public class PlanarRegionSegmentationCalculator
 
    public void setParameters(PlanarRegionSegmentationParameters parameters)
    {
+      if (parameters != this.parameters)
+         isFullSegmentationRequested = true;
       this.parameters = parameters;
    }
 
@@ -109,6 +109,7 @@ public class LIDARBasedREAModule
          else
          {
             timeReporter.run(mainUpdater::update, ocTreeTimeReport);
+            planarRegionFeatureUpdater.addUpdatedNodes(mainUpdater.getUpdatedNodes());
             timeReporter.run(() -> moduleStateReporter.reportOcTreeState(mainOctree), reportOcTreeStateTimeReport);
 
             if (isThreadInterrupted())
@@ -177,6 +178,8 @@ public class LIDARBasedREAModule
          executorService.shutdownNow();
          executorService = null;
       }
+
+      planarRegionFeatureUpdater.stop();
    }
 
    public static LIDARBasedREAModule createRemoteModule(String configurationFilePath) throws Exception
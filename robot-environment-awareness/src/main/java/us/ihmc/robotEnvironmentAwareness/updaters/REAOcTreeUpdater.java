@@ -29,6 +29,7 @@ public class REAOcTreeUpdater
    private final REAOcTreeBuffer reaOcTreeBuffer;
 
    private final AtomicReference<Pose3D> latestLidarPoseReference = new AtomicReference<>(null);
+   private final Set<NormalOcTreeNode> updatedNodes = new HashSet<>();
 
    private final AtomicReference<Boolean> enable;
    private final AtomicReference<Boolean> enableNormalEstimation;
@@ -117,6 +118,8 @@ public class REAOcTreeUpdater
 
    public void update()
    {
+      updatedNodes.clear();
+
       if (!enable.get())
          return;
 
@@ -145,7 +148,6 @@ public class REAOcTreeUpdater
          PointCloud pointCloud = new PointCloud();
          bufferOctree.forEach(node -> pointCloud.add(node.getHitLocationX(), node.getHitLocationY(), node.getHitLocationZ()));
          Scan scan = new Scan(sensorOrigin, pointCloud);
-         Set<NormalOcTreeNode> updatedNodes = new HashSet<>();
          referenceOctree.insertScan(scan, updatedNodes, null);
       }
 
@@ -164,6 +166,16 @@ public class REAOcTreeUpdater
    public void clearOcTree()
    {
       referenceOctree.clear();
+      updatedNodes.clear();
+   }
+
+   /**
+    * @return the nodes of the octree that were updated by the scan inserted during the last call to
+    *         {@link #update()}.
+    */
+   public Set<NormalOcTreeNode> getUpdatedNodes()
+   {
+      return updatedNodes;
    }
 
    private void handleBoundingBox()
@@ -1,10 +1,13 @@
 package us.ihmc.robotEnvironmentAwareness.updaters;
 
 import java.io.File;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 
 import us.ihmc.euclid.geometry.LineSegment3D;
+import us.ihmc.jOctoMap.node.NormalOcTreeNode;
 import us.ihmc.jOctoMap.ocTree.NormalOcTree;
 import us.ihmc.javaFXToolkit.messager.Messager;
 import us.ihmc.robotEnvironmentAwareness.communication.REAModuleAPI;
@@ -12,7 +15,7 @@ import us.ihmc.robotEnvironmentAwareness.geometry.ConcaveHullFactoryParameters;
 import us.ihmc.robotEnvironmentAwareness.io.FilePropertyHelper;
 import us.ihmc.robotEnvironmentAwareness.planarRegion.IntersectionEstimationParameters;
 import us.ihmc.robotEnvironmentAwareness.planarRegion.PlanarRegionIntersectionCalculator;
-import us.ihmc.robotEnvironmentAwareness.planarRegion.PlanarRegionPolygonizer;
+import us.ihmc.robotEnvironmentAwareness.planarRegion.ParallelPlanarRegionPolygonizer;
 import us.ihmc.robotEnvironmentAwareness.planarRegion.PlanarRegionSegmentationCalculator;
 import us.ihmc.robotEnvironmentAwareness.planarRegion.PlanarRegionSegmentationNodeData;
 import us.ihmc.robotEnvironmentAwareness.planarRegion.PlanarRegionSegmentationParameters;
@@ -26,6 +29,7 @@ public class REAPlanarRegionFeatureUpdater implements RegionFeaturesProvider
    private static final boolean EXPORT_SEGMENTATION_ON_EXCEPTION = false;
 
    private static final String segmentationTimeReport = "Segmentation took: ";
+   private static final String polygonizationTimeReport = "Polygonization took: ";
    private static final String intersectionsTimeReport = "Processing intersections took: ";
 
    private final PlanarRegionSegmentationDataExporter dataExporter = EXPORT_SEGMENTATION_ON_EXCEPTION ? new PlanarRegionSegmentationDataExporter(new File("DataThrowingException/Segmentation")) : null;
@@ -34,6 +38,7 @@ public class REAPlanarRegionFeatureUpdater implements RegionFeaturesProvider
    private final NormalOcTree octree;
 
    private final PlanarRegionSegmentationCalculator segmentationCalculator = new PlanarRegionSegmentationCalculator();
+   private final ParallelPlanarRegionPolygonizer polygonizer = new ParallelPlanarRegionPolygonizer(timeReporter);
 
    private PlanarRegionsList planarRegionsList = null;
    private List<LineSegment3D> planarRegionsIntersections = null;
@@ -41,6 +46,7 @@ public class REAPlanarRegionFeatureUpdater implements RegionFeaturesProvider
    private final AtomicReference<Boolean> isOcTreeEnabled;
    private final AtomicReference<Boolean> enableSegmentation;
    private final AtomicReference<Boolean> clearSegmentation;
+   private final AtomicReference<Boolean> enableIncrementalSegmentation;
    private final AtomicReference<Boolean> enablePolygonizer;
    private final AtomicReference<Boolean> clearPolygonizer;
    private final AtomicReference<Boolean> enableIntersectionCalulator;
@@ -58,6 +64,7 @@ public class REAPlanarRegionFeatureUpdater implements RegionFeaturesProvider
       isOcTreeEnabled = reaMessager.createInput(REAModuleAPI.OcTreeEnable, true);
       enableSegmentation = reaMessager.createInput(REAModuleAPI.PlanarRegionsSegmentationEnable, true);
       clearSegmentation = reaMessager.createInput(REAModuleAPI.PlanarRegionsSegmentationClear, false);
+      enableIncrementalSegmentation = reaMessager.createInput(REAModuleAPI.PlanarRegionsSegmentationIncrementalEnable, false);
       enablePolygonizer = reaMessager.createInput(REAModuleAPI.PlanarRegionsPolygonizerEnable, true);
       clearPolygonizer = reaMessager.createInput(REAModuleAPI.PlanarRegionsPolygonizerClear, false);
       enableIntersectionCalulator = reaMessager.createInput(REAModuleAPI.PlanarRegionsIntersectionEnable, false);
@@ -72,6 +79,7 @@ public class REAPlanarRegionFeatureUpdater implements RegionFeaturesProvider
    private void sendCurrentState()
    {
       reaMessager.submitMessage(REAModuleAPI.PlanarRegionsSegmentationEnable, enableSegmentation.get());
+      reaMessager.submitMessage(REAModuleAPI.PlanarRegionsSegmentationIncrementalEnable, enableIncrementalSegmentation.get());
       reaMessager.submitMessage(REAModuleAPI.PlanarRegionsPolygonizerEnable, enablePolygonizer.get());
       reaMessager.submitMessage(REAModuleAPI.PlanarRegionsIntersectionEnable, enableIntersectionCalulator.get());
 
@@ -89,6 +97,9 @@ public class REAPlanarRegionFeatureUpdater implements RegionFeaturesProvider
       Boolean enableSegmentationFile = filePropertyHelper.loadBooleanProperty(REAModuleAPI.PlanarRegionsSegmentationEnable.getName());
       if (enableSegmentationFile != null)
          enableSegmentation.set(enableSegmentationFile);
+      Boolean enableIncrementalSegmentationFile = filePropertyHelper.loadBooleanProperty(REAModuleAPI.PlanarRegionsSegmentationIncrementalEnable.getName());
+      if (enableIncrementalSegmentationFile != null)
+         enableIncrementalSegmentation.set(enableIncrementalSegmentationFile);
       Boolean enablePolygonizerFile = filePropertyHelper.loadBooleanProperty(REAModuleAPI.PlanarRegionsPolygonizerEnable.getName());
       if (enablePolygonizerFile != null)
          enablePolygonizer.set(enablePolygonizerFile);
@@ -116,6 +127,7 @@ public class REAPlanarRegionFeatureUpdater implements RegionFeaturesProvider
    public void saveConfiguration(FilePropertyHelper filePropertyHelper)
    {
       filePropertyHelper.saveProperty(REAModuleAPI.PlanarRegionsSegmentationEnable.getName(), enableSegmentation.get());
+      filePropertyHelper.saveProperty(REAModuleAPI.PlanarRegionsSegmentationIncrementalEnable.getName(), enableIncrementalSegmentation.get());
       filePropertyHelper.saveProperty(REAModuleAPI.PlanarRegionsPolygonizerEnable.getName(), enablePolygonizer.get());
       filePropertyHelper.saveProperty(REAModuleAPI.PlanarRegionsIntersectionEnable.getName(), enableIntersectionCalulator.get());
 
@@ -139,13 +151,22 @@ public class REAPlanarRegionFeatureUpdater implements RegionFeaturesProvider
       if (!enableSegmentation.get())
       {
          segmentationCalculator.removeDeadNodes();
+         segmentationCalculator.requestFullSegmentation();
          return;
       }
 
       segmentationCalculator.setBoundingBox(octree.getBoundingBox());
       segmentationCalculator.setParameters(planarRegionSegmentationParameters.get());
 
-      timeReporter.run(() -> segmentationCalculator.compute(octree.getRoot()), segmentationTimeReport);
+      if (enableIncrementalSegmentation.get())
+      {
+         timeReporter.run(() -> segmentationCalculator.computeIncrementally(octree.getRoot()), segmentationTimeReport);
+      }
+      else
+      {
+         segmentationCalculator.requestFullSegmentation();
+         timeReporter.run(() -> segmentationCalculator.compute(octree.getRoot()), segmentationTimeReport);
+      }
 
       List<PlanarRegionSegmentationRawData> rawData = segmentationCalculator.getSegmentationRawData();
 
@@ -155,10 +176,16 @@ public class REAPlanarRegionFeatureUpdater implements RegionFeaturesProvider
       if (clearPolygonizer.getAndSet(false))
       {
          planarRegionsList = null;
+         polygonizer.clearCache();
       }
       else if (enablePolygonizer.get())
       {
-         timeReporter.run(() -> updatePolygons(rawData), segmentationTimeReport);
+         timeReporter.run(() -> updatePolygons(rawData), polygonizationTimeReport);
+      }
+      else
+      {
+         // The segmentation keeps changing while the polygonizer is disabled.
+         polygonizer.clearCache();
       }
    }
 
@@ -167,17 +194,29 @@ public class REAPlanarRegionFeatureUpdater implements RegionFeaturesProvider
       segmentationCalculator.clear();
    }
 
+   public void stop()
+   {
+      polygonizer.shutdown();
+   }
+
+   /**
+    * Registers the octree nodes updated by the last scan, used by the incremental segmentation.
+    */
+   public void addUpdatedNodes(Collection<NormalOcTreeNode> updatedNodes)
+   {
+      if (enableSegmentation.get() && enableIncrementalSegmentation.get())
+         segmentationCalculator.addUpdatedNodes(updatedNodes);
+   }
+
    private void updatePolygons(List<PlanarRegionSegmentationRawData> rawData)
    {
       ConcaveHullFactoryParameters concaveHullFactoryParameters = this.concaveHullFactoryParameters.get();
       PolygonizerParameters polygonizerParameters = this.polygonizerParameters.get();
-
-      if (EXPORT_SEGMENTATION_ON_EXCEPTION)
-         planarRegionsList = PlanarRegionPolygonizer.createPlanarRegionsList(rawData, concaveHullFactoryParameters, polygonizerParameters, dataExporter);
-      else
-         planarRegionsList = PlanarRegionPolygonizer.createPlanarRegionsList(rawData, concaveHullFactoryParameters, polygonizerParameters);
+      // The incremental segmentation reports the regions it modified, these do not need to be compared with the cache.
+      Set<Integer> changedRegionIds = enableIncrementalSegmentation.get() ? segmentationCalculator.getChangedRegionIds() : null;
+      planarRegionsList = polygonizer.createPlanarRegionsList(rawData, changedRegionIds, concaveHullFactoryParameters, polygonizerParameters, dataExporter);
    }
-   
+
    private void updateIntersections(List<PlanarRegionSegmentationRawData> rawData)
    {
       planarRegionsIntersections = PlanarRegionIntersectionCalculator.computeIntersections(rawData, intersectionEstimationParameters.get());
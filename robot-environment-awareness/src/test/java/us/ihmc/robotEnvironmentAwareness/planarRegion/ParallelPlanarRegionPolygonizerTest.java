@@ -0,0 +1,147 @@
+package us.ihmc.robotEnvironmentAwareness.planarRegion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.robotEnvironmentAwareness.geometry.ConcaveHullFactoryParameters;
+import us.ihmc.robotics.geometry.PlanarRegionsList;
+
+public class ParallelPlanarRegionPolygonizerTest
+{
+   private static final double EPSILON = 1.0e-12;
+
+   private final ConcaveHullFactoryParameters concaveHullFactoryParameters = new ConcaveHullFactoryParameters();
+   private final PolygonizerParameters polygonizerParameters = new PolygonizerParameters();
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testSameOutputAsPlanarRegionPolygonizer()
+   {
+      ParallelPlanarRegionPolygonizer polygonizer = new ParallelPlanarRegionPolygonizer(4, null);
+
+      for (int seed = 0; seed < 5; seed++)
+      {
+         List<PlanarRegionSegmentationRawData> rawData = createRandomRegions(new Random(seed), 6);
+         PlanarRegionsList expected = PlanarRegionPolygonizer.createPlanarRegionsList(rawData, concaveHullFactoryParameters, polygonizerParameters);
+         PlanarRegionsList actual = polygonizer.createPlanarRegionsList(rawData, concaveHullFactoryParameters, polygonizerParameters, null);
+         assertSameRegions(expected, actual);
+      }
+
+      polygonizer.shutdown();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testCache()
+   {
+      ParallelPlanarRegionPolygonizer polygonizer = new ParallelPlanarRegionPolygonizer(4, null);
+      int numberOfRegions = 5;
+
+      List<PlanarRegionSegmentationRawData> rawData = createRandomRegions(new Random(4353L), numberOfRegions);
+      PlanarRegionsList expected = PlanarRegionPolygonizer.createPlanarRegionsList(rawData, concaveHullFactoryParameters, polygonizerParameters);
+      assertSameRegions(expected, polygonizer.createPlanarRegionsList(rawData, concaveHullFactoryParameters, polygonizerParameters, null));
+      assertEquals(numberOfRegions, polygonizer.getNumberOfPolygonizedRegions());
+      assertEquals(0, polygonizer.getNumberOfCachedRegions());
+
+      // Same content in new objects, as given by the segmentation after each update.
+      rawData = createRandomRegions(new Random(4353L), numberOfRegions);
+      assertSameRegions(expected, polygonizer.createPlanarRegionsList(rawData, concaveHullFactoryParameters, polygonizerParameters, null));
+      assertEquals(0, polygonizer.getNumberOfPolygonizedRegions());
+      assertEquals(numberOfRegions, polygonizer.getNumberOfCachedRegions());
+
+      // A region keeps its id but gets more points: its cache entry is replaced.
+      int changedIndex = 2;
+      PlanarRegionSegmentationRawData changedRegion = rawData.get(changedIndex);
+      List<Point3D> changedPoints = new ArrayList<>(changedRegion.getPointCloudInWorld());
+      Point3D extraPoint = new Point3D(changedPoints.get(0));
+      extraPoint.add(0.001, 0.0, 0.0);
+      changedPoints.add(extraPoint);
+      rawData.set(changedIndex, new PlanarRegionSegmentationRawData(changedRegion.getRegionId(), changedRegion.getNormal(), changedRegion.getOrigin(),
+                                                                    changedPoints));
+      assertFalse(ParallelPlanarRegionPolygonizer.haveSameContent(changedRegion, rawData.get(changedIndex)));
+
+      expected = PlanarRegionPolygonizer.createPlanarRegionsList(rawData, concaveHullFactoryParameters, polygonizerParameters);
+      assertSameRegions(expected, polygonizer.createPlanarRegionsList(rawData, concaveHullFactoryParameters, polygonizerParameters, null));
+      assertEquals(1, polygonizer.getNumberOfPolygonizedRegions());
+      assertEquals(numberOfRegions - 1, polygonizer.getNumberOfCachedRegions());
+
+      // The new entry is used in the next call.
+      assertSameRegions(expected, polygonizer.createPlanarRegionsList(rawData, concaveHullFactoryParameters, polygonizerParameters, null));
+      assertEquals(0, polygonizer.getNumberOfPolygonizedRegions());
+
+      // The regions reported as changed are polygonized again even with the same content.
+      int reportedId = rawData.get(0).getRegionId();
+      assertSameRegions(expected, polygonizer.createPlanarRegionsList(rawData, Collections.singleton(reportedId), concaveHullFactoryParameters,
+                                                                      polygonizerParameters, null));
+      assertEquals(1, polygonizer.getNumberOfPolygonizedRegions());
+      assertEquals(numberOfRegions - 1, polygonizer.getNumberOfCachedRegions());
+
+      // New parameters clear the cache.
+      PolygonizerParameters otherPolygonizerParameters = new PolygonizerParameters(polygonizerParameters);
+      polygonizer.createPlanarRegionsList(rawData, concaveHullFactoryParameters, otherPolygonizerParameters, null);
+      assertEquals(numberOfRegions, polygonizer.getNumberOfPolygonizedRegions());
+
+      polygonizer.shutdown();
+   }
+
+   private static void assertSameRegions(PlanarRegionsList expected, PlanarRegionsList actual)
+   {
+      assertEquals(expected.getNumberOfPlanarRegions(), actual.getNumberOfPlanarRegions());
+      for (int i = 0; i < expected.getNumberOfPlanarRegions(); i++)
+      {
+         assertEquals(expected.getPlanarRegion(i).getRegionId(), actual.getPlanarRegion(i).getRegionId());
+         assertTrue(expected.getPlanarRegion(i).epsilonEquals(actual.getPlanarRegion(i), EPSILON));
+      }
+   }
+
+   /**
+    * Creates rectangular patches of points with random poses and sizes.
+    */
+   private static List<PlanarRegionSegmentationRawData> createRandomRegions(Random random, int numberOfRegions)
+   {
+      List<PlanarRegionSegmentationRawData> rawData = new ArrayList<>();
+
+      for (int regionIndex = 0; regionIndex < numberOfRegions; regionIndex++)
+      {
+         RigidBodyTransform transform = new RigidBodyTransform();
+         transform.setRotationEuler(0.5 * (random.nextDouble() - 0.5), 0.5 * (random.nextDouble() - 0.5), 2.0 * Math.PI * random.nextDouble());
+         transform.setTranslation(4.0 * regionIndex, 2.0 * (random.nextDouble() - 0.5), random.nextDouble());
+
+         double sizeX = 0.3 + random.nextDouble();
+         double sizeY = 0.3 + random.nextDouble();
+         double spacing = 0.02;
+
+         List<Point3D> pointCloud = new ArrayList<>();
+         for (double x = -0.5 * sizeX; x < 0.5 * sizeX; x += spacing)
+         {
+            for (double y = -0.5 * sizeY; y < 0.5 * sizeY; y += spacing)
+            {
+               Point3D point = new Point3D(x, y, 0.0);
+               transform.transform(point);
+               pointCloud.add(point);
+            }
+         }
+
+         Point3D origin = new Point3D();
+         transform.transform(origin);
+         Vector3D normal = new Vector3D(0.0, 0.0, 1.0);
+         transform.transform(normal);
+
+         rawData.add(new PlanarRegionSegmentationRawData(1000 + regionIndex, normal, origin, pointCloud));
+      }
+
+      return rawData;
+   }
+}
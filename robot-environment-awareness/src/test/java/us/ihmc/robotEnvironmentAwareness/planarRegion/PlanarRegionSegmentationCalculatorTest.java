@@ -0,0 +1,169 @@
+package us.ihmc.robotEnvironmentAwareness.planarRegion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.jOctoMap.iterators.OcTreeIteratorFactory;
+import us.ihmc.jOctoMap.node.NormalOcTreeNode;
+import us.ihmc.jOctoMap.ocTree.NormalOcTree;
+import us.ihmc.jOctoMap.pointCloud.PointCloud;
+import us.ihmc.jOctoMap.pointCloud.Scan;
+
+public class PlanarRegionSegmentationCalculatorTest
+{
+   private static final double RESOLUTION = 0.025;
+   private static final int NUMBER_OF_NORMAL_UPDATES = 5;
+
+   private final Point3D sensorOrigin = new Point3D(1.0, 0.0, 1.5);
+
+   @ContinuousIntegrationTest(estimatedDuration = 2.0)
+   @Test(timeout = 30000)
+   public void testIncrementalSegmentationMatchesFullSegmentation()
+   {
+      NormalOcTree octree = new NormalOcTree(RESOLUTION);
+      PlanarRegionSegmentationCalculator calculator = createCalculator();
+      calculator.setFullSegmentationPeriod(1000);
+
+      // First update: always a full segmentation.
+      PointCloud firstScan = new PointCloud();
+      addHorizontalPatch(firstScan, 0.0, 1.0, -0.5, 0.5, 0.01);
+      insertScanAndUpdate(octree, firstScan, calculator);
+
+      assertEquals(1, calculator.getSegmentationNodeData().size());
+      assertSameSegmentation(computeFullSegmentation(octree), calculator.getSegmentationNodeData());
+      int groundRegionId = calculator.getSegmentationNodeData().get(0).getId();
+      assertEquals(1, calculator.getChangedRegionIds().size());
+      assertTrue(calculator.getChangedRegionIds().contains(groundRegionId));
+
+      // Second update: incremental, extends the ground and adds a platform.
+      PointCloud secondScan = new PointCloud();
+      addHorizontalPatch(secondScan, 1.0, 1.6, -0.5, 0.5, 0.01);
+      addHorizontalPatch(secondScan, 2.0, 2.5, -0.25, 0.25, 0.31);
+      insertScanAndUpdate(octree, secondScan, calculator);
+
+      List<PlanarRegionSegmentationNodeData> incrementalRegions = calculator.getSegmentationNodeData();
+      assertEquals(2, incrementalRegions.size());
+      assertSameSegmentation(computeFullSegmentation(octree), incrementalRegions);
+
+      // The ground region has grown and keeps its id, the platform is new.
+      Set<Integer> regionIds = incrementalRegions.stream().map(PlanarRegionSegmentationNodeData::getId).collect(Collectors.toSet());
+      assertTrue(regionIds.contains(groundRegionId));
+      assertEquals(regionIds, calculator.getChangedRegionIds());
+
+      // Third update: incremental, only the platform is scanned again, the ground is not changed.
+      PointCloud thirdScan = new PointCloud();
+      addHorizontalPatch(thirdScan, 2.0, 2.5, -0.25, 0.25, 0.31);
+      insertScanAndUpdate(octree, thirdScan, calculator);
+
+      assertSameSegmentation(computeFullSegmentation(octree), calculator.getSegmentationNodeData());
+      assertFalse(calculator.getChangedRegionIds().contains(groundRegionId));
+
+      // Forced full resegmentation.
+      calculator.requestFullSegmentation();
+      calculator.computeIncrementally(octree.getRoot());
+      assertSameSegmentation(computeFullSegmentation(octree), calculator.getSegmentationNodeData());
+   }
+
+   /**
+    * Documents a known limitation: regions are never split. Once two patches have been segmented as
+    * one region, they stay in the same region after the nodes connecting them are lost, for both the
+    * incremental and full updates. Only a segmentation from scratch separates them.
+    */
+   @ContinuousIntegrationTest(estimatedDuration = 2.0)
+   @Test(timeout = 30000)
+   public void testRegionsAreNotSplit()
+   {
+      NormalOcTree octree = new NormalOcTree(RESOLUTION);
+      PlanarRegionSegmentationCalculator calculator = createCalculator();
+      calculator.setFullSegmentationPeriod(1000);
+
+      double bridgeMinX = 0.5;
+      double bridgeMaxX = 1.0;
+
+      PointCloud scan = new PointCloud();
+      addHorizontalPatch(scan, 0.0, bridgeMinX, -0.5, 0.5, 0.01);
+      addHorizontalPatch(scan, bridgeMinX, bridgeMaxX, -0.05, 0.05, 0.01);
+      addHorizontalPatch(scan, bridgeMaxX, 1.5, -0.5, 0.5, 0.01);
+      insertScanAndUpdate(octree, scan, calculator);
+
+      assertEquals(1, calculator.getSegmentationNodeData().size());
+      assertEquals(1, computeFullSegmentation(octree).size());
+
+      // The normals of the bridge are lost, as when the normal estimation fails.
+      for (NormalOcTreeNode node : OcTreeIteratorFactory.createLeafIterable(octree.getRoot()))
+      {
+         if (node.getHitLocationX() > bridgeMinX + 2.0 * RESOLUTION && node.getHitLocationX() < bridgeMaxX - 2.0 * RESOLUTION)
+            node.resetNormal();
+      }
+
+      calculator.computeIncrementally(octree.getRoot());
+      assertEquals(1, calculator.getSegmentationNodeData().size());
+      assertEquals(2, computeFullSegmentation(octree).size());
+
+      calculator.requestFullSegmentation();
+      calculator.computeIncrementally(octree.getRoot());
+      assertEquals(1, calculator.getSegmentationNodeData().size());
+
+      calculator.clear();
+      calculator.computeIncrementally(octree.getRoot());
+      assertEquals(2, calculator.getSegmentationNodeData().size());
+   }
+
+   private static PlanarRegionSegmentationCalculator createCalculator()
+   {
+      PlanarRegionSegmentationCalculator calculator = new PlanarRegionSegmentationCalculator();
+      calculator.setParameters(new PlanarRegionSegmentationParameters());
+      calculator.setBoundingBox(null);
+      return calculator;
+   }
+
+   private void insertScanAndUpdate(NormalOcTree octree, PointCloud pointCloud, PlanarRegionSegmentationCalculator calculator)
+   {
+      Set<NormalOcTreeNode> updatedNodes = new HashSet<>();
+      octree.insertScan(new Scan(sensorOrigin, pointCloud), updatedNodes, null);
+      for (int i = 0; i < NUMBER_OF_NORMAL_UPDATES; i++)
+         octree.updateNormals();
+
+      calculator.addUpdatedNodes(updatedNodes);
+      calculator.computeIncrementally(octree.getRoot());
+   }
+
+   private static List<PlanarRegionSegmentationNodeData> computeFullSegmentation(NormalOcTree octree)
+   {
+      PlanarRegionSegmentationCalculator calculator = createCalculator();
+      calculator.compute(octree.getRoot());
+      return calculator.getSegmentationNodeData();
+   }
+
+   private static void assertSameSegmentation(List<PlanarRegionSegmentationNodeData> expectedRegions, List<PlanarRegionSegmentationNodeData> actualRegions)
+   {
+      assertEquals(expectedRegions.size(), actualRegions.size());
+
+      Set<Set<NormalOcTreeNode>> expectedNodeSets = expectedRegions.stream().map(region -> region.nodeStream().collect(Collectors.toSet()))
+                                                                   .collect(Collectors.toSet());
+      Set<Set<NormalOcTreeNode>> actualNodeSets = actualRegions.stream().map(region -> region.nodeStream().collect(Collectors.toSet()))
+                                                               .collect(Collectors.toSet());
+      assertEquals(expectedNodeSets, actualNodeSets);
+   }
+
+   private static void addHorizontalPatch(PointCloud pointCloud, double minX, double maxX, double minY, double maxY, double z)
+   {
+      double spacing = 0.7 * RESOLUTION;
+
+      for (double x = minX; x < maxX; x += spacing)
+      {
+         for (double y = minY; y < maxY; y += spacing)
+            pointCloud.add(x, y, z);
+      }
+   }
+}
@@ -27,6 +27,12 @@ public class ValkyrieHumanoidKinematicsToolboxControllerTest extends AvatarHuman
       super.testRandomHandPositions();
    }
 
+   @Override
+   public void testBatchSolver() throws Exception
+   {
+      super.testBatchSolver();
+   }
+
    @Override
    public DRCRobotModel getRobotModel()
    {
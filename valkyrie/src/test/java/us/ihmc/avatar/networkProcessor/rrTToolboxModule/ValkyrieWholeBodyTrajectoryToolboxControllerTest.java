@@ -67,6 +67,14 @@ public class ValkyrieWholeBodyTrajectoryToolboxControllerTest extends AvatarWhol
       super.testOneBigCircle();
    }
 
+   @Override
+   @ContinuousIntegrationAnnotations.ContinuousIntegrationTest(estimatedDuration = 21.2)
+   @Test(timeout = 106000)
+   public void testPlanningIsReproducible() throws Exception
+   {
+      super.testPlanningIsReproducible();
+   }
+
    @Override
    @ContinuousIntegrationAnnotations.ContinuousIntegrationTest(estimatedDuration = 0.0)
    @Test(timeout = 120000)